@@ -0,0 +1,259 @@
+package org.example.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.m2m.atl.core.IModel;
+import org.eclipse.m2m.atl.core.ModelFactory;
+import org.eclipse.m2m.atl.core.emf.EMFModelFactory;
+import org.example.generator.InputModelGenerator;
+import org.example.harness.AtlExecutor;
+import org.example.harness.AtlTransformation;
+
+/**
+ * Measures how the ATL transformations scale with the size of their input
+ * model.  For every transformation and size the benchmark generates an input
+ * model with {@link InputModelGenerator}, runs the reference module from
+ * {@code src/main/atl} and reports the time spent injecting, transforming and
+ * extracting as well as the peak heap usage.
+ *
+ * <p>
+ * Besides the element count, every row reports the number of navigations the
+ * module is expected to perform on the generated input: the {@code resolveTemp}
+ * lookups of {@code System2Root} and {@code Link2Link} (which grow with the
+ * size of {@code s.components} and {@code l.components}), the helper calls of
+ * the Families module and the lazy rule calls of the Amalthea module.  The
+ * count is derived from the shape of the input and the rules of the reference
+ * modules; it is not measured during the run.  Varying
+ * {@code --components-per-system} and {@code --components-per-link} at a fixed
+ * size isolates the cost of these lookups from the cost of matching.
+ * </p>
+ *
+ * <pre>
+ *   mvn compile exec:java -Dexec.mainClass=org.example.benchmark.AtlScalingBenchmark \
+ *       -Dexec.args="--sizes=10,1000,100000 --iterations=3"
+ * </pre>
+ */
+public class AtlScalingBenchmark {
+
+    private static final String DEFAULT_SIZES = "10,100,1000,10000,100000,1000000";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int[] sizes = Arrays.stream(options.getOrDefault("sizes", DEFAULT_SIZES).split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        List<AtlTransformation> transformations = new ArrayList<>();
+        for (String name : options.getOrDefault("transformations", "NETWORK_TO_GRAPH,FAMILIES_TO_PERSONS,AMALTHEA_TO_ASCET").split(",")) {
+            transformations.add(AtlTransformation.valueOf(name.trim()));
+        }
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "1"));
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "3"));
+        int componentsPerSystem = Integer.parseInt(options.getOrDefault("components-per-system",
+                String.valueOf(InputModelGenerator.DEFAULT_COMPONENTS_PER_SYSTEM)));
+        int componentsPerLink = Integer.parseInt(options.getOrDefault("components-per-link",
+                String.valueOf(InputModelGenerator.DEFAULT_COMPONENTS_PER_LINK)));
+        File csv = new File(options.getOrDefault("out", "target/atl-benchmark.csv"));
+
+        AtlExecutor executor = new AtlExecutor();
+        File workDir = Files.createDirectories(new File("target/benchmark-models").toPath()).toFile();
+        List<Result> results = new ArrayList<>();
+
+        for (AtlTransformation transformation : transformations) {
+            File asm = executor.compile(executor.getAtlFile(transformation.getAtlFileName()));
+            EPackage inputMetamodel = executor.loadMetamodel(transformation.getInEcore());
+            for (int size : sizes) {
+                List<EObject> roots = transformation == AtlTransformation.NETWORK_TO_GRAPH
+                        ? InputModelGenerator.network(inputMetamodel, size, componentsPerSystem, componentsPerLink)
+                        : InputModelGenerator.generate(transformation, inputMetamodel, size);
+                long elements = InputModelGenerator.countElements(roots);
+                long expectedNavigations = expectedNavigations(transformation, roots);
+                File input = new File(workDir, transformation.getModuleName() + "-" + size + ".xmi");
+                InputModelGenerator.save(roots, input);
+                roots = null;
+
+                Result result = new Result(transformation, size, elements, expectedNavigations);
+                for (int i = 0; i < warmup + iterations; i++) {
+                    Sample sample = runOnce(executor, asm, transformation, input, new File(workDir, "out.xmi"));
+                    if (i >= warmup) {
+                        result.add(sample);
+                    }
+                }
+                results.add(result);
+                System.out.println(result.format());
+            }
+        }
+        writeCsv(results, csv);
+        System.out.println("Results written to " + csv.getAbsolutePath());
+    }
+
+    private static Sample runOnce(AtlExecutor executor, File asm, AtlTransformation transformation, File input,
+            File output) throws Exception {
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+        ModelFactory factory = new EMFModelFactory();
+        long start = System.nanoTime();
+        IModel inModel = executor.injectInput(factory, transformation, input);
+        long injected = System.nanoTime();
+        IModel outModel = executor.launch(factory, asm, transformation, inModel, new HashMap<>());
+        long transformed = System.nanoTime();
+        executor.extractTo(outModel, output);
+        long extracted = System.nanoTime();
+
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+        return new Sample(injected - start, transformed - injected, extracted - transformed, peakHeap);
+    }
+
+    /**
+     * Estimates the navigations the reference module performs on the given
+     * input from the shape of the model: {@code resolveTemp} lookups for
+     * Network, helper calls for Families and lazy rule calls for Amalthea.
+     * The estimate follows the rules of the modules in {@code src/main/atl} and
+     * has to be adapted if they change.
+     */
+    @SuppressWarnings("unchecked")
+    static long expectedNavigations(AtlTransformation transformation, List<EObject> roots) {
+        long count = 0;
+        for (EObject root : roots) {
+            for (var it = root.eAllContents(); it.hasNext(); ) {
+                EObject element = it.next();
+                String className = element.eClass().getName();
+                switch (transformation) {
+                    case NETWORK_TO_GRAPH:
+                        // s.components and l.components are both resolved element by element.
+                        if ("Link".equals(className)) {
+                            count += ((List<EObject>) element.eGet(element.eClass().getEStructuralFeature("components"))).size();
+                        }
+                        break;
+                    case FAMILIES_TO_PERSONS:
+                        // isMale(), isFemale() and familyLastName() per member.
+                        if ("Member".equals(className)) {
+                            count += 3;
+                        }
+                        break;
+                    case AMALTHEA_TO_ASCET:
+                        // Task2SoftwareTask is called lazily for every contained task.
+                        if ("Task".equals(className)) {
+                            count++;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            if (transformation == AtlTransformation.NETWORK_TO_GRAPH) {
+                count += ((List<EObject>) root.eGet(root.eClass().getEStructuralFeature("components"))).size();
+            }
+        }
+        return count;
+    }
+
+    private static void writeCsv(List<Result> results, File csv) throws IOException {
+        if (csv.getParentFile() != null) {
+            Files.createDirectories(csv.getParentFile().toPath());
+        }
+        try (PrintWriter writer = new PrintWriter(csv, "UTF-8")) {
+            writer.println("transformation,size,elements,expected_navigations,inject_ms,transform_ms,extract_ms,"
+                    + "transform_ns_per_element,transform_ns_per_expected_navigation,peak_heap_mb");
+            for (Result result : results) {
+                writer.println(result.csv());
+            }
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --option=value but got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    /** Timings and peak heap of a single measured execution. */
+    private static final class Sample {
+        final long injectNanos;
+        final long transformNanos;
+        final long extractNanos;
+        final long peakHeapBytes;
+
+        Sample(long injectNanos, long transformNanos, long extractNanos, long peakHeapBytes) {
+            this.injectNanos = injectNanos;
+            this.transformNanos = transformNanos;
+            this.extractNanos = extractNanos;
+            this.peakHeapBytes = peakHeapBytes;
+        }
+    }
+
+    /** Aggregated samples of one transformation and size; times are medians. */
+    private static final class Result {
+        final AtlTransformation transformation;
+        final int size;
+        final long elements;
+        final long expectedNavigations;
+        final List<Sample> samples = new ArrayList<>();
+
+        Result(AtlTransformation transformation, int size, long elements, long expectedNavigations) {
+            this.transformation = transformation;
+            this.size = size;
+            this.elements = elements;
+            this.expectedNavigations = expectedNavigations;
+        }
+
+        void add(Sample sample) {
+            samples.add(sample);
+        }
+
+        long median(ToLongFunction<Sample> metric) {
+            long[] values = samples.stream().mapToLong(metric).sorted().toArray();
+            return values.length == 0 ? 0 : values[values.length / 2];
+        }
+
+        long peakHeap() {
+            return samples.stream().mapToLong(s -> s.peakHeapBytes).max().orElse(0);
+        }
+
+        String format() {
+            long transform = median(s -> s.transformNanos);
+            return String.format("%-22s size=%-8d elements=%-8d expectedNavigations=%-8d inject=%8.1fms transform=%8.1fms "
+                    + "extract=%8.1fms (%.0f ns/element) peakHeap=%.1fMB",
+                    transformation.getModuleName(), size, elements, expectedNavigations,
+                    median(s -> s.injectNanos) / 1e6, transform / 1e6, median(s -> s.extractNanos) / 1e6,
+                    elements == 0 ? 0.0 : (double) transform / elements, peakHeap() / (1024.0 * 1024.0));
+        }
+
+        String csv() {
+            long transform = median(s -> s.transformNanos);
+            return String.format(Locale.ROOT, "%s,%d,%d,%d,%.3f,%.3f,%.3f,%.1f,%.1f,%.1f",
+                    transformation.getModuleName(), size, elements, expectedNavigations,
+                    median(s -> s.injectNanos) / 1e6, transform / 1e6, median(s -> s.extractNanos) / 1e6,
+                    elements == 0 ? 0.0 : (double) transform / elements,
+                    expectedNavigations == 0 ? 0.0 : (double) transform / expectedNavigations,
+                    peakHeap() / (1024.0 * 1024.0));
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package org.example.evaluation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.m2m.atl.core.IModel;
+import org.eclipse.m2m.atl.core.ModelFactory;
+import org.eclipse.m2m.atl.core.emf.EMFModelFactory;
+import org.example.harness.AtlExecutor;
+import org.example.harness.AtlTransformation;
+import org.example.harness.ModelFingerprint;
+import org.example.profiling.RuleProfile;
+import org.example.profiling.RuleProfiler;
+
+/**
+ * Runs every generated ATL module of the evaluation against the sample input
+ * model of its transformation in a single JVM and prints one consolidated
+ * result table.
+ *
+ * <p>
+ * The runner discovers all files matching
+ * {@code <responses>/<model>/<strategy>/<Module>.atl}, where {@code <responses>}
+ * defaults to {@code mtl_snippets/ATLAS_transformation_language/responses} of
+ * the n8n workflow.  The module name selects the {@link AtlTransformation}.
+ * Each module is compiled and executed; its output is compared with the output
+ * of the reference module from {@code src/main/atl} by
+ * {@link ModelFingerprint}.  Compiler, metamodels and reference outputs are
+ * loaded once and shared by all candidates.
+ * </p>
+ *
+ * <p>
+ * With {@code --profile=true} every module is run under a {@link RuleProfiler}
+ * and the per-rule profiles are printed after the result table.
+ * </p>
+ *
+ * <pre>
+ *   mvn compile exec:java -Dexec.mainClass=org.example.evaluation.AtlEvaluationRunner \
+ *       -Dexec.args="--responses=../Workflows/n8n-docker/mtl_snippets/ATLAS_transformation_language/responses"
+ * </pre>
+ */
+public class AtlEvaluationRunner {
+
+    private static final String DEFAULT_RESPONSES =
+            "../Workflows/n8n-docker/mtl_snippets/ATLAS_transformation_language/responses";
+
+    /** Outcome of evaluating one generated module. */
+    public enum Status {
+        /** The output has the same fingerprint as the reference output. */
+        MATCH,
+        /** The module ran, but its output differs from the reference output. */
+        MISMATCH,
+        /** The module could not be compiled. */
+        COMPILE_ERROR,
+        /** The module failed while running on the sample input. */
+        RUNTIME_ERROR
+    }
+
+    /** Evaluation result of one generated module. */
+    public static final class Result {
+        private final String model;
+        private final String strategy;
+        private final AtlTransformation transformation;
+        private final Status status;
+        private final long elements;
+        private final long millis;
+        private final String message;
+        private RuleProfile profile;
+
+        Result(String model, String strategy, AtlTransformation transformation, Status status, long elements,
+                long millis, String message) {
+            this.model = model;
+            this.strategy = strategy;
+            this.transformation = transformation;
+            this.status = status;
+            this.elements = elements;
+            this.millis = millis;
+            this.message = message;
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        public String getStrategy() {
+            return strategy;
+        }
+
+        public AtlTransformation getTransformation() {
+            return transformation;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public long getElements() {
+            return elements;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        /** Returns the rule profile of the run, or {@code null} if profiling was disabled or the run failed. */
+        public RuleProfile getProfile() {
+            return profile;
+        }
+    }
+
+    private final AtlExecutor executor;
+    private final Map<AtlTransformation, ModelFingerprint> references = new EnumMap<>(AtlTransformation.class);
+    private boolean profile;
+
+    public AtlEvaluationRunner(AtlExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Enables recording a {@link RuleProfile} for every evaluated module.
+     */
+    public void setProfile(boolean profile) {
+        this.profile = profile;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        Path responses = Path.of(options.getOrDefault("responses", DEFAULT_RESPONSES));
+        File csv = new File(options.getOrDefault("out", "target/atl-evaluation.csv"));
+        if (!Files.isDirectory(responses)) {
+            System.err.println("Responses directory not found: " + responses.toAbsolutePath());
+            System.exit(1);
+        }
+
+        AtlEvaluationRunner runner = new AtlEvaluationRunner(new AtlExecutor());
+        runner.setProfile(Boolean.parseBoolean(options.getOrDefault("profile", "false")));
+        List<Result> results = runner.evaluateAll(responses);
+        printTable(results);
+        for (Result r : results) {
+            if (r.profile != null) {
+                System.out.println();
+                System.out.print(r.model + "/" + r.strategy + ": " + r.profile.format());
+            }
+        }
+        writeCsv(results, csv);
+        System.out.println("Results written to " + csv.getAbsolutePath());
+    }
+
+    /**
+     * Discovers and evaluates all generated modules below the given responses
+     * directory.  Files that do not belong to a known transformation are
+     * skipped.
+     */
+    public List<Result> evaluateAll(Path responses) throws IOException {
+        List<Path> modules;
+        try (Stream<Path> files = Files.walk(responses, 3)) {
+            modules = files.filter(p -> p.getFileName().toString().endsWith(".atl"))
+                    .filter(p -> responses.relativize(p).getNameCount() == 3)
+                    .sorted()
+                    .toList();
+        }
+        List<Result> results = new ArrayList<>();
+        for (Path module : modules) {
+            Optional<AtlTransformation> transformation = AtlTransformation.forFileName(module.getFileName().toString());
+            if (transformation.isEmpty()) {
+                System.err.println("Skipping " + module + ": unknown transformation");
+                continue;
+            }
+            Path relative = responses.relativize(module);
+            results.add(evaluate(relative.getName(0).toString(), relative.getName(1).toString(),
+                    transformation.get(), module.toFile()));
+        }
+        return results;
+    }
+
+    /**
+     * Compiles and runs one generated module and compares its output with
+     * the output of the reference module.
+     */
+    public Result evaluate(String model, String strategy, AtlTransformation transformation, File atlFile) {
+        long start = System.nanoTime();
+        File asm;
+        try {
+            asm = executor.compile(atlFile);
+        } catch (Exception | LinkageError e) {
+            return new Result(model, strategy, transformation, Status.COMPILE_ERROR, 0, elapsed(start), describe(e));
+        }
+        ModelFingerprint fingerprint;
+        RuleProfiler profiler = null;
+        try {
+            profiler = profile ? RuleProfiler.forModule(atlFile) : null;
+            fingerprint = run(asm, transformation, profiler);
+        } catch (Exception | LinkageError | StackOverflowError e) {
+            return new Result(model, strategy, transformation, Status.RUNTIME_ERROR, 0, elapsed(start), describe(e));
+        } finally {
+            asm.delete();
+        }
+        try {
+            ModelFingerprint reference = reference(transformation);
+            Status status = reference.equals(fingerprint) ? Status.MATCH : Status.MISMATCH;
+            String message = status == Status.MATCH ? "" : "expected " + reference + " but was " + fingerprint;
+            Result result = new Result(model, strategy, transformation, status, fingerprint.getElements(),
+                    elapsed(start), message);
+            result.profile = profiler == null ? null : profiler.getProfile();
+            return result;
+        } catch (Exception e) {
+            throw new IllegalStateException("Reference module " + transformation.getAtlFileName() + " failed", e);
+        }
+    }
+
+    private ModelFingerprint reference(AtlTransformation transformation) throws Exception {
+        ModelFingerprint reference = references.get(transformation);
+        if (reference == null) {
+            File asm = executor.compile(executor.getAtlFile(transformation.getAtlFileName()));
+            reference = run(asm, transformation, null);
+            asm.delete();
+            references.put(transformation, reference);
+        }
+        return reference;
+    }
+
+    private ModelFingerprint run(File asm, AtlTransformation transformation, RuleProfiler profiler) throws Exception {
+        ModelFactory factory = profiler == null ? new EMFModelFactory() : profiler.newModelFactory();
+        IModel inModel = executor.injectInput(factory, transformation,
+                executor.getModelFile(transformation.getSampleInput()));
+        if (profiler != null) {
+            profiler.start();
+        }
+        IModel outModel = executor.launch(factory, asm, transformation, inModel, new HashMap<>());
+        if (profiler != null) {
+            profiler.finish();
+        }
+        Resource output = executor.extract(outModel);
+        try {
+            return ModelFingerprint.of(output);
+        } finally {
+            executor.release(output);
+        }
+    }
+
+    private static void printTable(List<Result> results) {
+        String format = "%-16s %-36s %-22s %-14s %9s %8s  %s%n";
+        System.out.printf(format, "model", "strategy", "transformation", "status", "elements", "ms", "message");
+        Map<String, int[]> matchesPerStrategy = new HashMap<>();
+        for (Result r : results) {
+            System.out.printf(format, r.model, r.strategy, r.transformation.getModuleName(), r.status,
+                    r.elements, r.millis, r.message);
+            int[] counts = matchesPerStrategy.computeIfAbsent(r.model + "/" + r.strategy, k -> new int[2]);
+            counts[0] += r.status == Status.MATCH ? 1 : 0;
+            counts[1]++;
+        }
+        System.out.println();
+        matchesPerStrategy.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(
+                e -> System.out.printf("%-53s %d/%d matching%n", e.getKey(), e.getValue()[0], e.getValue()[1]));
+    }
+
+    private static void writeCsv(List<Result> results, File csv) throws IOException {
+        if (csv.getParentFile() != null) {
+            Files.createDirectories(csv.getParentFile().toPath());
+        }
+        try (PrintWriter writer = new PrintWriter(csv, "UTF-8")) {
+            writer.println("model,strategy,transformation,status,elements,ms,message");
+            for (Result r : results) {
+                writer.printf("%s,%s,%s,%s,%d,%d,\"%s\"%n", r.model, r.strategy, r.transformation.getModuleName(),
+                        r.status, r.elements, r.millis, r.message.replace("\"", "\"\""));
+            }
+        }
+    }
+
+    private static String describe(Throwable t) {
+        String message = t.getMessage() == null ? "" : t.getMessage().replaceAll("\\s+", " ");
+        return t.getClass().getSimpleName() + (message.isEmpty() ? "" : ": " + message);
+    }
+
+    private static long elapsed(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --option=value but got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+}
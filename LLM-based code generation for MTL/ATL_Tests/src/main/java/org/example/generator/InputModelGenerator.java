@@ -0,0 +1,260 @@
+package org.example.generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.xmi.XMLResource;
+import org.example.harness.AtlExecutor;
+import org.example.harness.AtlTransformation;
+
+/**
+ * Generates input models of configurable size for the Network, Families and
+ * Amalthea metamodels.  The metamodels are used reflectively (dynamic EMF),
+ * exactly as they are loaded by the ATL tests, so no generated model code is
+ * required.
+ *
+ * <p>
+ * The requested size is the approximate total number of model elements.  The
+ * generators repeat a small building block (a System with its components and
+ * links, a Family with its members, a ComponentContainer with its tasks) until
+ * the size is reached.  The shape of the building block is configurable, which
+ * allows benchmarks to scale the navigation costs of a transformation (for
+ * example the size of {@code s.components} collected by {@code System2Root})
+ * independently of the model size.
+ * </p>
+ */
+public final class InputModelGenerator {
+
+    /** Default number of components contained in one Network System. */
+    public static final int DEFAULT_COMPONENTS_PER_SYSTEM = 100;
+    /** Default number of components connected by one Network Link. */
+    public static final int DEFAULT_COMPONENTS_PER_LINK = 2;
+    /** Default number of members (father, mother, children) of one Family. */
+    public static final int DEFAULT_MEMBERS_PER_FAMILY = 4;
+    /** Default number of tasks contained in one Amalthea ComponentContainer. */
+    public static final int DEFAULT_TASKS_PER_CONTAINER = 10;
+    /** Default number of root level Amalthea tasks generated per container. */
+    public static final int DEFAULT_ROOT_TASKS_PER_CONTAINER = 1;
+
+    private final EPackage pkg;
+
+    private InputModelGenerator(EPackage pkg) {
+        this.pkg = pkg;
+    }
+
+    /**
+     * Generates a model for the input metamodel of the given transformation
+     * using the default shape.
+     */
+    public static List<EObject> generate(AtlTransformation transformation, EPackage inputMetamodel, int elements) {
+        switch (transformation) {
+            case NETWORK_TO_GRAPH:
+                return network(inputMetamodel, elements, DEFAULT_COMPONENTS_PER_SYSTEM, DEFAULT_COMPONENTS_PER_LINK);
+            case FAMILIES_TO_PERSONS:
+                return families(inputMetamodel, elements, DEFAULT_MEMBERS_PER_FAMILY);
+            case AMALTHEA_TO_ASCET:
+                return amalthea(inputMetamodel, elements, DEFAULT_TASKS_PER_CONTAINER, DEFAULT_ROOT_TASKS_PER_CONTAINER);
+            default:
+                throw new IllegalArgumentException("No generator for " + transformation);
+        }
+    }
+
+    /**
+     * Generates Network Systems.  Each System owns one Protocol, its
+     * components (alternating Devices and Servers) and links connecting
+     * {@code componentsPerLink} consecutive components.
+     *
+     * @param elements          approximate number of elements to generate
+     * @param componentsPerSystem number of components per System
+     * @param componentsPerLink number of components referenced by each Link (at least 2)
+     */
+    public static List<EObject> network(EPackage network, int elements, int componentsPerSystem, int componentsPerLink) {
+        if (componentsPerLink < 2) {
+            throw new IllegalArgumentException("A link connects at least two components");
+        }
+        InputModelGenerator g = new InputModelGenerator(network);
+        // A System block consists of the System, one Protocol, c components
+        // and c - k + 1 links, i.e. 3 + 2c - k elements.
+        int components = Math.max(componentsPerLink,
+                Math.min(componentsPerSystem, (elements - 3 + componentsPerLink) / 2));
+        int blockSize = 3 + 2 * components - componentsPerLink;
+        int systems = Math.max(1, elements / blockSize);
+
+        List<EObject> roots = new ArrayList<>(systems);
+        int componentIndex = 0;
+        for (int s = 0; s < systems; s++) {
+            EObject system = g.create("System");
+            EObject protocol = g.create("Protocol");
+            g.set(protocol, "name", "Protocol" + s);
+            g.list(system, "protocols").add(protocol);
+
+            List<EObject> systemComponents = g.list(system, "components");
+            for (int c = 0; c < components; c++) {
+                EObject component = g.create(c % 2 == 0 ? "Device" : "Server");
+                g.set(component, "name", "Component" + componentIndex++);
+                g.list(component, "supportedProtocols").add(protocol);
+                systemComponents.add(component);
+            }
+            for (int l = 0; l + componentsPerLink <= components; l++) {
+                EObject link = g.create("Link");
+                g.set(link, "protocol", protocol);
+                g.list(link, "components").addAll(systemComponents.subList(l, l + componentsPerLink));
+                g.list(system, "links").add(link);
+            }
+            roots.add(system);
+        }
+        return roots;
+    }
+
+    /**
+     * Generates a single FamilyRegister.  Each Family has a father and a
+     * mother; the remaining members alternate between sons and daughters.
+     *
+     * @param elements        approximate number of elements to generate
+     * @param membersPerFamily number of members per Family (at least 2)
+     */
+    public static List<EObject> families(EPackage families, int elements, int membersPerFamily) {
+        if (membersPerFamily < 2) {
+            throw new IllegalArgumentException("A family has at least a father and a mother");
+        }
+        InputModelGenerator g = new InputModelGenerator(families);
+        int familyCount = Math.max(1, (elements - 1) / (1 + membersPerFamily));
+
+        EObject register = g.create("FamilyRegister");
+        g.set(register, "id", "register");
+        List<EObject> registerFamilies = g.list(register, "families");
+        int memberIndex = 0;
+        for (int f = 0; f < familyCount; f++) {
+            EObject family = g.create("Family");
+            g.set(family, "lastName", "Family" + f);
+            g.set(family, "father", g.member(memberIndex++));
+            g.set(family, "mother", g.member(memberIndex++));
+            for (int m = 2; m < membersPerFamily; m++) {
+                g.list(family, m % 2 == 0 ? "sons" : "daughters").add(g.member(memberIndex++));
+            }
+            registerFamilies.add(family);
+        }
+        return List.of(register);
+    }
+
+    /**
+     * Generates Amalthea ComponentContainers with their tasks, plus tasks on
+     * the root level of the model which are handled by a separate rule in
+     * {@code AmaltheaToAscet_All.atl}.
+     *
+     * @param elements             approximate number of elements to generate
+     * @param tasksPerContainer    number of tasks contained in each container
+     * @param rootTasksPerContainer number of root level tasks generated per container
+     */
+    public static List<EObject> amalthea(EPackage amalthea, int elements, int tasksPerContainer,
+            int rootTasksPerContainer) {
+        InputModelGenerator g = new InputModelGenerator(amalthea);
+        int tasks = Math.max(1, Math.min(tasksPerContainer, elements - 1 - rootTasksPerContainer));
+        int containers = Math.max(1, elements / (1 + tasks + rootTasksPerContainer));
+
+        List<EObject> roots = new ArrayList<>(containers * (1 + rootTasksPerContainer));
+        int taskIndex = 0;
+        for (int c = 0; c < containers; c++) {
+            EObject container = g.create("ComponentContainer");
+            List<EObject> containerTasks = g.list(container, "tasks");
+            for (int t = 0; t < tasks; t++) {
+                containerTasks.add(g.task(taskIndex++));
+            }
+            roots.add(container);
+            for (int t = 0; t < rootTasksPerContainer; t++) {
+                roots.add(g.task(taskIndex++));
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * Saves the given root elements into a single XMI file.
+     */
+    public static void save(List<EObject> roots, File file) throws IOException {
+        AtlExecutor.registerResourceFactories();
+        ResourceSet rs = new ResourceSetImpl();
+        Resource resource = rs.createResource(URI.createFileURI(file.getAbsolutePath()));
+        resource.getContents().addAll(roots);
+        resource.save(Map.of(XMLResource.OPTION_ENCODING, "UTF-8"));
+        resource.unload();
+    }
+
+    /**
+     * Counts all elements of the given roots including the roots themselves.
+     */
+    public static long countElements(List<EObject> roots) {
+        long count = 0;
+        for (EObject root : roots) {
+            count++;
+            for (var it = root.eAllContents(); it.hasNext(); it.next()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Command line entry point writing a generated model to a file.
+     *
+     * <pre>
+     *   InputModelGenerator &lt;NETWORK_TO_GRAPH|FAMILIES_TO_PERSONS|AMALTHEA_TO_ASCET&gt; &lt;elements&gt; &lt;out.xmi&gt;
+     * </pre>
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 3) {
+            System.err.println("Usage: InputModelGenerator <transformation> <elements> <out.xmi>");
+            System.exit(1);
+        }
+        AtlTransformation transformation = AtlTransformation.valueOf(args[0]);
+        EPackage metamodel = new AtlExecutor().loadMetamodel(transformation.getInEcore());
+        List<EObject> roots = generate(transformation, metamodel, Integer.parseInt(args[1]));
+        save(roots, new File(args[2]));
+        System.out.println("Generated " + countElements(roots) + " elements → " + new File(args[2]).getAbsolutePath());
+    }
+
+    private EObject member(int index) {
+        EObject member = create("Member");
+        set(member, "firstName", "Member" + index);
+        return member;
+    }
+
+    private EObject task(int index) {
+        EObject task = create("Task");
+        set(task, "name", "Task" + index);
+        return task;
+    }
+
+    private EObject create(String className) {
+        return EcoreUtil.create((EClass) pkg.getEClassifier(className));
+    }
+
+    private void set(EObject object, String featureName, Object value) {
+        object.eSet(feature(object, featureName), value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<EObject> list(EObject object, String featureName) {
+        return (List<EObject>) object.eGet(feature(object, featureName));
+    }
+
+    private static EStructuralFeature feature(EObject object, String featureName) {
+        EStructuralFeature feature = object.eClass().getEStructuralFeature(featureName);
+        if (feature == null) {
+            throw new IllegalArgumentException(object.eClass().getName() + " has no feature " + featureName);
+        }
+        return feature;
+    }
+}
@@ -0,0 +1,245 @@
+package org.example.harness;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.xmi.impl.EcoreResourceFactoryImpl;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+import org.eclipse.m2m.atl.core.IExtractor;
+import org.eclipse.m2m.atl.core.IInjector;
+import org.eclipse.m2m.atl.core.IModel;
+import org.eclipse.m2m.atl.core.IReferenceModel;
+import org.eclipse.m2m.atl.core.ModelFactory;
+import org.eclipse.m2m.atl.core.emf.EMFExtractor;
+import org.eclipse.m2m.atl.core.emf.EMFInjector;
+import org.eclipse.m2m.atl.core.emf.EMFModelFactory;
+import org.eclipse.m2m.atl.engine.compiler.CompileTimeError;
+import org.eclipse.m2m.atl.engine.compiler.atl2006.Atl2006Compiler;
+import org.eclipse.m2m.atl.engine.emfvm.launch.EMFVMLauncher;
+
+/**
+ * Compiles and executes ATL modules with the EMF virtual machine.  The
+ * executor resolves the ATL modules, metamodels and models relative to the
+ * project directory (the directory containing {@code src/main/atl}), so it
+ * can be used from the tests as well as from the command line tools.
+ *
+ * <p>
+ * A single execution is split into the injection of the input model, the
+ * launch of the compiled module and the extraction of the output model.  The
+ * individual steps are public so that callers such as the benchmarks can
+ * measure them separately; {@link #execute(File, AtlTransformation, File)}
+ * runs all of them in sequence.
+ * </p>
+ *
+ * <p>
+ * Input models are injected from a {@link BinaryModelCache} kept in
+ * {@code target/model-cache}, so every input model is parsed as XMI only once.
+ * The cache can be disabled with {@link #setModelCache(BinaryModelCache)}.
+ * </p>
+ */
+public class AtlExecutor {
+
+    private final File projectDir;
+    private final ResourceSet rs;
+    private final Map<String, EPackage> metamodels = new HashMap<>();
+    private BinaryModelCache modelCache;
+
+    /**
+     * Creates an executor for the current working directory.
+     */
+    public AtlExecutor() {
+        this(new File("."));
+    }
+
+    /**
+     * Creates an executor resolving ATL modules and models relative to the
+     * given project directory.
+     */
+    public AtlExecutor(File projectDir) {
+        registerResourceFactories();
+        this.projectDir = projectDir;
+        this.rs = new ResourceSetImpl();
+        this.modelCache = new BinaryModelCache(new File(projectDir, "target/model-cache"));
+    }
+
+    /**
+     * Registers the factories for XMI and Ecore files in the global registry.
+     */
+    public static void registerResourceFactories() {
+        Map<String, Object> extensionToFactoryMap = Resource.Factory.Registry.INSTANCE.getExtensionToFactoryMap();
+        extensionToFactoryMap.putIfAbsent("xmi", new XMIResourceFactoryImpl());
+        extensionToFactoryMap.putIfAbsent("ecore", new EcoreResourceFactoryImpl());
+    }
+
+    public File getAtlFile(String atlFileName) {
+        return new File(projectDir, "src/main/atl/" + atlFileName);
+    }
+
+    public File getMetamodelFile(String ecoreFileName) {
+        return new File(projectDir, "src/main/resources/metamodels/" + ecoreFileName);
+    }
+
+    public File getModelFile(String xmiFileName) {
+        return new File(projectDir, "src/main/resources/models/" + xmiFileName);
+    }
+
+    /**
+     * Sets the cache from which input models are injected, or {@code null} to
+     * always inject the XMI file itself.
+     */
+    public void setModelCache(BinaryModelCache modelCache) {
+        this.modelCache = modelCache;
+    }
+
+    /**
+     * Returns the resource set into which metamodels and extracted output
+     * models are loaded.
+     */
+    public ResourceSet getResourceSet() {
+        return rs;
+    }
+
+    /**
+     * Loads an Ecore metamodel and registers it both in the package registry
+     * of this executor's resource set and in the global package registry.  The
+     * global registration is needed by the ATL injector to resolve the
+     * namespace used in input XMI documents.  Metamodels are loaded once per
+     * executor.
+     */
+    public EPackage loadMetamodel(String ecoreFileName) {
+        return metamodels.computeIfAbsent(ecoreFileName, name -> {
+            URI uri = URI.createFileURI(getMetamodelFile(name).getAbsolutePath());
+            Resource res = rs.getResource(uri, true);
+            EPackage pkg = (EPackage) res.getContents().get(0);
+            rs.getPackageRegistry().put(pkg.getNsURI(), pkg);
+            EPackage.Registry.INSTANCE.put(pkg.getNsURI(), pkg);
+            return pkg;
+        });
+    }
+
+    /**
+     * Compiles the given ATL file to a temporary ASM file and returns it.
+     *
+     * @throws IOException if the module cannot be read or the compiler did
+     *                     not produce any output
+     */
+    public File compile(File atlFile) throws IOException {
+        File asmFile = Files.createTempFile("atltest", ".asm").toFile();
+        asmFile.deleteOnExit();
+        compile(atlFile, asmFile);
+        if (asmFile.length() == 0) {
+            throw new IOException("Compiled ASM file is empty for " + atlFile.getName());
+        }
+        return asmFile;
+    }
+
+    /**
+     * Compiles the given ATL file to the given ASM file and returns the
+     * problems reported by the compiler.  The ASM file is left empty if the
+     * module contains errors.
+     *
+     * @throws IOException if the module cannot be read
+     */
+    public CompileTimeError[] compile(File atlFile, File asmFile) throws IOException {
+        if (!atlFile.exists()) {
+            throw new IOException("ATL file not found: " + atlFile.getAbsolutePath());
+        }
+        try (Reader reader = new FileReader(atlFile)) {
+            CompileTimeError[] problems = new Atl2006Compiler().compile(reader, asmFile.getAbsolutePath());
+            return problems == null ? new CompileTimeError[0] : problems;
+        }
+    }
+
+    /**
+     * Compiles, executes and extracts the given transformation in one go and
+     * returns the output model loaded into this executor's resource set.
+     */
+    public Resource execute(File asmFile, AtlTransformation transformation, File inputXmi) throws Exception {
+        ModelFactory factory = new EMFModelFactory();
+        IModel inModel = injectInput(factory, transformation, inputXmi);
+        IModel outModel = launch(factory, asmFile, transformation, inModel, new HashMap<>());
+        return extract(outModel);
+    }
+
+    /**
+     * Injects the input metamodel and the given input model.  If a model cache
+     * is configured, the model is injected from its cached binary resource.
+     */
+    public IModel injectInput(ModelFactory factory, AtlTransformation transformation, File inputXmi) throws Exception {
+        loadMetamodel(transformation.getInEcore());
+        IInjector injector = new EMFInjector();
+        IReferenceModel inMM = factory.newReferenceModel();
+        injector.inject(inMM, fileUri(getMetamodelFile(transformation.getInEcore())));
+        IModel inModel = factory.newModel(inMM);
+        File inputFile = modelCache == null
+                ? inputXmi
+                : modelCache.get(inputXmi, getMetamodelFile(transformation.getInEcore()));
+        injector.inject(inModel, fileUri(inputFile));
+        return inModel;
+    }
+
+    /**
+     * Launches the compiled module on the given input model and returns the
+     * populated output model.
+     */
+    public IModel launch(ModelFactory factory, File asmFile, AtlTransformation transformation, IModel inModel,
+            Map<String, Object> options) throws Exception {
+        loadMetamodel(transformation.getOutEcore());
+        IInjector injector = new EMFInjector();
+        IReferenceModel outMM = factory.newReferenceModel();
+        injector.inject(outMM, fileUri(getMetamodelFile(transformation.getOutEcore())));
+        IModel outModel = factory.newModel(outMM);
+        EMFVMLauncher launcher = new EMFVMLauncher();
+        launcher.initialize(null);
+        launcher.addInModel(inModel, "IN", transformation.getInAlias());
+        launcher.addOutModel(outModel, "OUT", transformation.getOutAlias());
+        try (InputStream is = new FileInputStream(asmFile)) {
+            launcher.launch("run", null, options, is);
+        }
+        return outModel;
+    }
+
+    /**
+     * Extracts the output model to a temporary XMI file and loads it into this
+     * executor's resource set.
+     */
+    public Resource extract(IModel outModel) throws IOException {
+        File outFile = Files.createTempFile("atlOut", ".xmi").toFile();
+        outFile.deleteOnExit();
+        extractTo(outModel, outFile);
+        return rs.getResource(URI.createFileURI(outFile.getAbsolutePath()), true);
+    }
+
+    /**
+     * Extracts the output model to the given XMI file.
+     */
+    public void extractTo(IModel outModel, File outFile) {
+        IExtractor extractor = new EMFExtractor();
+        extractor.extract(outModel, URI.createFileURI(outFile.getAbsolutePath()).toString());
+    }
+
+    /**
+     * Unloads a previously extracted output model so that repeated executions
+     * do not accumulate models in the resource set.
+     */
+    public void release(Resource resource) {
+        resource.unload();
+        rs.getResources().remove(resource);
+    }
+
+    private static String fileUri(File file) {
+        return URI.createFileURI(file.getAbsolutePath()).toString();
+    }
+}
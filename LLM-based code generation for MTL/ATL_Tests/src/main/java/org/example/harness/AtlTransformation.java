@@ -0,0 +1,74 @@
+package org.example.harness;
+
+import java.util.Optional;
+
+/**
+ * The ATL transformations evaluated in this project.  Each constant bundles
+ * the module name with the metamodels, metamodel aliases and sample input
+ * model that the module expects, so that callers do not have to repeat this
+ * configuration for every execution.
+ */
+public enum AtlTransformation {
+
+    NETWORK_TO_GRAPH("NetworkToGraph_All", "network.ecore", "Network", "graph.ecore", "Graph", "network_input.xmi"),
+    FAMILIES_TO_PERSONS("FamiliesToPersons_All", "families.ecore", "Families", "persons.ecore", "Persons", "families_input.xmi"),
+    AMALTHEA_TO_ASCET("AmaltheaToAscet_All", "amalthea.ecore", "Amalthea", "ascet.ecore", "Ascet", "amalthea_input.xmi");
+
+    private final String moduleName;
+    private final String inEcore;
+    private final String inAlias;
+    private final String outEcore;
+    private final String outAlias;
+    private final String sampleInput;
+
+    AtlTransformation(String moduleName, String inEcore, String inAlias, String outEcore, String outAlias, String sampleInput) {
+        this.moduleName = moduleName;
+        this.inEcore = inEcore;
+        this.inAlias = inAlias;
+        this.outEcore = outEcore;
+        this.outAlias = outAlias;
+        this.sampleInput = sampleInput;
+    }
+
+    /**
+     * Returns the transformation whose module is stored in the given file.
+     * Generated responses use the module name as file name, for example
+     * {@code NetworkToGraph_All.atl}.
+     */
+    public static Optional<AtlTransformation> forFileName(String fileName) {
+        for (AtlTransformation transformation : values()) {
+            if (fileName.equals(transformation.getAtlFileName())) {
+                return Optional.of(transformation);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public String getModuleName() {
+        return moduleName;
+    }
+
+    public String getAtlFileName() {
+        return moduleName + ".atl";
+    }
+
+    public String getInEcore() {
+        return inEcore;
+    }
+
+    public String getInAlias() {
+        return inAlias;
+    }
+
+    public String getOutEcore() {
+        return outEcore;
+    }
+
+    public String getOutAlias() {
+        return outAlias;
+    }
+
+    public String getSampleInput() {
+        return sampleInput;
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.harness;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceFactoryImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+
+/**
+ * Cache of input models converted to the EMF binary resource format.  Parsing
+ * XMI dominates the injection of large input models, whereas a binary
+ * resource is read without any XML processing.  The first request for an XMI
+ * file converts it into a binary resource stored in the cache directory; later
+ * requests for a file with the same content return the cached resource.
+ *
+ * <p>
+ * Entries are keyed by the SHA-256 hash of the XMI content together with the
+ * content of the metamodels it is loaded against, so editing either the model
+ * or its metamodel produces a new entry.  Within one JVM the hash of a file is
+ * memoised by path, size and modification time.  The binary format keeps the
+ * element order and all feature values but not the {@code xmi:id}s of the
+ * XMI document, which none of the transformations depend on.
+ * </p>
+ */
+public class BinaryModelCache {
+
+    /** File extension under which {@link BinaryResourceImpl}s are registered. */
+    public static final String EXTENSION = "emfbin";
+
+    private final File cacheDir;
+    private final Map<String, String> hashes = new ConcurrentHashMap<>();
+
+    public BinaryModelCache(File cacheDir) {
+        this.cacheDir = cacheDir;
+        registerFactory();
+    }
+
+    /**
+     * Registers the binary resource factory for the {@value #EXTENSION}
+     * extension in the global registry, which is also consulted by the ATL
+     * injector.
+     */
+    public static void registerFactory() {
+        Resource.Factory.Registry.INSTANCE.getExtensionToFactoryMap().putIfAbsent(EXTENSION, new ResourceFactoryImpl() {
+            @Override
+            public Resource createResource(URI uri) {
+                return new BinaryResourceImpl(uri);
+            }
+        });
+    }
+
+    /**
+     * Returns the binary resource for the given XMI file, converting and
+     * caching it on first use.  The metamodels of the model have to be
+     * registered in the global package registry.
+     *
+     * @param xmiFile    the input model
+     * @param metamodels the Ecore files the input model conforms to
+     * @return the cached binary resource file
+     * @throws IOException if the model cannot be read or the cache cannot be written
+     */
+    public File get(File xmiFile, File... metamodels) throws IOException {
+        StringBuilder key = new StringBuilder(hash(xmiFile));
+        for (File metamodel : metamodels) {
+            key.append(hash(metamodel));
+        }
+        File cached = new File(cacheDir, sha256(key.toString()) + "." + EXTENSION);
+        if (!cached.exists()) {
+            convert(xmiFile, cached);
+        }
+        return cached;
+    }
+
+    private void convert(File xmiFile, File cached) throws IOException {
+        Files.createDirectories(cacheDir.toPath());
+        ResourceSet rs = new ResourceSetImpl();
+        Resource xmi = rs.getResource(URI.createFileURI(xmiFile.getAbsolutePath()), true);
+        // Write to a temporary file first, so that concurrent runs never see
+        // a partially written cache entry.
+        File tmp = File.createTempFile("model", "." + EXTENSION, cacheDir);
+        try {
+            Resource binary = new BinaryResourceImpl(URI.createFileURI(tmp.getAbsolutePath()));
+            rs.getResources().add(binary);
+            binary.getContents().addAll(xmi.getContents());
+            binary.save(Map.of());
+            Files.move(tmp.toPath(), cached.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+            for (Resource resource : rs.getResources()) {
+                resource.unload();
+            }
+        }
+    }
+
+    private String hash(File file) throws IOException {
+        String memoKey = file.getAbsolutePath() + ':' + file.length() + ':' + file.lastModified();
+        String cachedHash = hashes.get(memoKey);
+        if (cachedHash != null) {
+            return cachedHash;
+        }
+        MessageDigest digest = newDigest();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file.toPath()), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        String hash = HexFormat.of().formatHex(digest.digest());
+        hashes.put(memoKey, hash);
+        return hash;
+    }
+
+    private static String sha256(String value) {
+        return HexFormat.of().formatHex(newDigest().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package org.example.harness;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+/**
+ * Order-insensitive structural hash of an EMF model.  Two models have the same
+ * fingerprint if they contain the same elements (by class and attribute
+ * values) in the same containment structure and with the same reference
+ * shapes, regardless of the order of root elements, list entries or
+ * {@code xmi:id}s.  This makes it possible to compare the output of a generated
+ * transformation with the output of the reference transformation without
+ * writing bespoke checks for every metamodel.
+ *
+ * <p>
+ * The fingerprint is computed in a single pass over the containment tree.
+ * Every element contributes a local hash of its class and attribute values,
+ * which is memoised so that each element is hashed only once.  Containment
+ * children contribute their full subtree hash, non-containment references the
+ * local hash of their target.  Multi-valued features and root elements are
+ * combined with a commutative sum of mixed 64-bit values, so their order does
+ * not matter.  Classes and features are identified by name rather than by
+ * object identity, hence models loaded against different copies of the same
+ * metamodel compare equal.
+ * </p>
+ *
+ * <p>
+ * Like any hash, equal fingerprints do not strictly prove equality.  A
+ * reference only captures the local hash of its target, so two elements with
+ * the same class and attribute values are interchangeable as reference
+ * targets.
+ * </p>
+ */
+public final class ModelFingerprint {
+
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+
+    private final long hash;
+    private final long elements;
+
+    private ModelFingerprint(long hash, long elements) {
+        this.hash = hash;
+        this.elements = elements;
+    }
+
+    /**
+     * Computes the fingerprint of all root elements of the given resource.
+     */
+    public static ModelFingerprint of(Resource resource) {
+        return of(resource.getContents());
+    }
+
+    /**
+     * Computes the fingerprint of the given root elements and their contents.
+     */
+    public static ModelFingerprint of(Collection<? extends EObject> roots) {
+        Hasher hasher = new Hasher();
+        long sum = 0;
+        for (EObject root : roots) {
+            sum += mix(hasher.subtree(root));
+        }
+        return new ModelFingerprint(mix(sum ^ hasher.elements), hasher.elements);
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    /** Returns the number of elements included in the fingerprint. */
+    public long getElements() {
+        return elements;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof ModelFingerprint)) {
+            return false;
+        }
+        ModelFingerprint other = (ModelFingerprint) obj;
+        return hash == other.hash && elements == other.elements;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x (%d elements)", hash, elements);
+    }
+
+    /** Walks one model and memoises the local hash of every element. */
+    private static final class Hasher {
+        private final Map<EObject, Long> localHashes = new IdentityHashMap<>();
+        private long elements;
+
+        long subtree(EObject object) {
+            elements++;
+            long h = local(object);
+            EClass eClass = object.eClass();
+            for (EReference reference : eClass.getEAllReferences()) {
+                if (reference.isDerived() || reference.isTransient() || reference.isContainer()
+                        || !object.eIsSet(reference)) {
+                    continue;
+                }
+                long featureHash = string(reference.getName());
+                long sum = 0;
+                for (EObject target : values(object, reference)) {
+                    long targetHash = reference.isContainment() ? subtree(target) : local(target);
+                    sum += mix(featureHash + targetHash);
+                }
+                h = mix(h * 31 + mix(featureHash ^ sum));
+            }
+            return h;
+        }
+
+        private long local(EObject object) {
+            Long cached = localHashes.get(object);
+            if (cached != null) {
+                return cached;
+            }
+            EClass eClass = object.eClass();
+            long h = string(eClass.getEPackage() == null ? "" : eClass.getEPackage().getNsURI())
+                    ^ mix(string(eClass.getName()));
+            for (EAttribute attribute : eClass.getEAllAttributes()) {
+                if (attribute.isDerived() || attribute.isTransient() || !object.eIsSet(attribute)) {
+                    continue;
+                }
+                long featureHash = string(attribute.getName());
+                long sum = 0;
+                if (attribute.isMany()) {
+                    for (Object value : (List<?>) object.eGet(attribute)) {
+                        sum += mix(featureHash + value(attribute, value));
+                    }
+                } else {
+                    sum = mix(featureHash + value(attribute, object.eGet(attribute)));
+                }
+                h = mix(h * 31 + mix(featureHash ^ sum));
+            }
+            localHashes.put(object, h);
+            return h;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static List<EObject> values(EObject object, EReference reference) {
+            Object value = object.eGet(reference);
+            return reference.isMany() ? (List<EObject>) value : List.of((EObject) value);
+        }
+
+        private static long value(EAttribute attribute, Object value) {
+            if (value == null) {
+                return 0;
+            }
+            return string(EcoreUtil.convertToString(attribute.getEAttributeType(), value));
+        }
+    }
+
+    /** 64-bit FNV-1a hash of the UTF-8 bytes of the given string. */
+    private static long string(String value) {
+        if (value == null) {
+            return 0;
+        }
+        long h = 0xCBF29CE484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001B3L;
+        }
+        return h;
+    }
+
+    /** SplitMix64 finaliser, spreads every input bit over the whole result. */
+    private static long mix(long z) {
+        z += SEED;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
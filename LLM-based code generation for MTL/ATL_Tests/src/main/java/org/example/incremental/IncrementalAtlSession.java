@@ -0,0 +1,791 @@
+package org.example.incremental;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.util.ECollections;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.ECrossReferenceAdapter;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.xmi.XMLResource;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+import org.eclipse.m2m.atl.core.IInjector;
+import org.eclipse.m2m.atl.core.IModel;
+import org.eclipse.m2m.atl.core.IReferenceModel;
+import org.eclipse.m2m.atl.core.ModelFactory;
+import org.eclipse.m2m.atl.core.emf.EMFInjector;
+import org.eclipse.m2m.atl.core.emf.EMFModel;
+import org.eclipse.m2m.atl.core.emf.EMFModelFactory;
+import org.eclipse.m2m.atl.engine.emfvm.launch.EMFVMLauncher;
+import org.example.harness.AtlExecutor;
+import org.example.harness.AtlTransformation;
+
+/**
+ * Keeps the input and output model of an ATL transformation in memory and
+ * propagates changes of the input model to the output model without running
+ * the transformation on the whole input again.
+ *
+ * <p>
+ * The session runs a copy of the module instrumented by
+ * {@link TraceInstrumenter}, which yields the trace from every source element
+ * (identified by its {@code xmi:id}) and matched rule to the created target
+ * elements.  Changes made to {@link #getInput()} are recorded; {@link #update()}
+ * then
+ * </p>
+ * <ol>
+ * <li>determines the affected source elements: changed elements, added
+ * elements, the children of elements with changed attributes (bindings often
+ * navigate to the container, e.g. a family member's last name) and elements
+ * referencing them other than through their containment,</li>
+ * <li>copies the affected elements into a slice model, together with the
+ * context their rules navigate: their children, the elements they reference
+ * and the container chain of every copied element,</li>
+ * <li>runs the module on the slice and merges the targets of the affected
+ * elements into the existing output model.  Targets that already exist are
+ * updated in place, new targets are added and targets of deleted elements or
+ * of rules that no longer match are deleted.  References to targets of
+ * context elements are redirected to the existing targets via the trace.</li>
+ * </ol>
+ *
+ * <p>
+ * The cost of an update is thus proportional to the changed elements and
+ * their immediate neighbourhood, not to the model size.  The slice assumes
+ * that rules navigate at most one step from their source elements (plus the
+ * container chain); modules that collect elements further away, for instance
+ * with {@code allInstances()} in a binding, have to be re-run with
+ * {@link #rerun()}.  The session falls back to a full run if the changes
+ * affect more than a fraction of the input elements (see
+ * {@link #setMaxAffectedFraction(double)}), or if the slice run fails or
+ * refers to a target without trace.
+ * </p>
+ */
+public class IncrementalAtlSession {
+
+    /** Summary of one propagation of input changes to the output model. */
+    public static final class Update {
+        private final boolean full;
+        private final int affected;
+        private final int sliceElements;
+        private final int created;
+        private final int updated;
+        private final int deleted;
+        private final long nanos;
+
+        Update(boolean full, int affected, int sliceElements, int created, int updated, int deleted, long nanos) {
+            this.full = full;
+            this.affected = affected;
+            this.sliceElements = sliceElements;
+            this.created = created;
+            this.updated = updated;
+            this.deleted = deleted;
+            this.nanos = nanos;
+        }
+
+        /** Returns whether the whole input was transformed again. */
+        public boolean isFull() {
+            return full;
+        }
+
+        /** Returns the number of affected source elements. */
+        public int getAffected() {
+            return affected;
+        }
+
+        /** Returns the number of elements in the slice the module ran on. */
+        public int getSliceElements() {
+            return sliceElements;
+        }
+
+        /** Returns the number of target elements added to the output model. */
+        public int getCreated() {
+            return created;
+        }
+
+        /** Returns the number of existing target elements updated in place. */
+        public int getUpdated() {
+            return updated;
+        }
+
+        /** Returns the number of target elements deleted from the output model. */
+        public int getDeleted() {
+            return deleted;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s update: %d affected, %d in slice, %d created, %d updated, %d deleted in %.2f ms",
+                    full ? "full" : "incremental", affected, sliceElements, created, updated, deleted, nanos / 1e6);
+        }
+    }
+
+    private static final double DEFAULT_MAX_AFFECTED_FRACTION = 0.25;
+    private static final Pattern ID_SEPARATOR = Pattern.compile(Pattern.quote(TraceInstrumenter.ID_SEPARATOR));
+
+    private final AtlExecutor executor;
+    private final AtlTransformation transformation;
+    private final File workDir;
+    private final File traceEcore;
+    private final File asm;
+    private final XMLResource input;
+    private final Resource output;
+    private final ChangeRecorder recorder = new ChangeRecorder();
+    private final ECrossReferenceAdapter inputReferences = new ECrossReferenceAdapter();
+    private final Map<EObject, String> ids = new IdentityHashMap<>();
+    private final Map<String, TraceEntry> trace = new HashMap<>();
+    private final Map<String, List<TraceEntry>> traceBySource = new HashMap<>();
+    private double maxAffectedFraction = DEFAULT_MAX_AFFECTED_FRACTION;
+    private long inputElements;
+
+    /**
+     * Loads the input model, compiles the instrumented module and runs it
+     * once on the whole input.
+     *
+     * @param projectDir     the directory containing {@code src/main/resources/metamodels}
+     * @param transformation the transformation implemented by the module
+     * @param atlFile        the ATL module
+     * @param inputXmi       the input model
+     */
+    public IncrementalAtlSession(File projectDir, AtlTransformation transformation, File atlFile, File inputXmi)
+            throws Exception {
+        this.executor = new AtlExecutor(projectDir);
+        // Injecting from the binary cache would drop the xmi:ids the trace relies on.
+        executor.setModelCache(null);
+        this.transformation = transformation;
+        this.workDir = Files.createTempDirectory("atl-incremental").toFile();
+        this.traceEcore = workFile("atltrace.ecore");
+        TraceInstrumenter.writeMetamodel(traceEcore);
+        File instrumented = workFile(transformation.getAtlFileName());
+        Files.writeString(instrumented.toPath(), TraceInstrumenter.instrument(Files.readString(atlFile.toPath())));
+        this.asm = executor.compile(instrumented);
+
+        executor.loadMetamodel(transformation.getInEcore());
+        Resource loaded = executor.getResourceSet().getResource(URI.createFileURI(inputXmi.getAbsolutePath()), true);
+        if (!(loaded instanceof XMLResource)) {
+            throw new IllegalArgumentException("Input model must be an XMI resource: " + inputXmi);
+        }
+        this.input = (XMLResource) loaded;
+        for (var it = input.getAllContents(); it.hasNext(); ) {
+            assignId(it.next());
+        }
+        this.output = executor.getResourceSet().createResource(
+                URI.createFileURI(workFile(transformation.getModuleName() + "-out.xmi").getAbsolutePath()));
+        output.eAdapters().add(new ECrossReferenceAdapter());
+        input.eAdapters().add(inputReferences);
+        rerun();
+        input.eAdapters().add(recorder);
+    }
+
+    /**
+     * Returns the input model.  Changes to it are propagated by the next
+     * call of {@link #update()}.
+     */
+    public Resource getInput() {
+        return input;
+    }
+
+    /**
+     * Returns the output model, which is kept up to date in place.
+     */
+    public Resource getOutput() {
+        return output;
+    }
+
+    /**
+     * Sets the fraction of the input elements an update may affect before it
+     * runs the whole transformation instead of a slice.  The slice itself also
+     * contains the neighbourhood of the affected elements and may be larger.
+     * Defaults to 0.25.
+     */
+    public void setMaxAffectedFraction(double maxAffectedFraction) {
+        this.maxAffectedFraction = maxAffectedFraction;
+    }
+
+    /**
+     * Propagates the changes made to the input model since the last update.
+     */
+    public Update update() throws Exception {
+        long start = System.nanoTime();
+        if (recorder.isEmpty()) {
+            return new Update(false, 0, 0, 0, 0, 0, System.nanoTime() - start);
+        }
+        for (EObject added : recorder.added) {
+            if (added.eResource() == input) {
+                assignId(added);
+                added.eAllContents().forEachRemaining(this::assignId);
+            }
+        }
+        Set<String> deletedIds = new HashSet<>();
+        for (EObject removed : recorder.removed) {
+            if (removed.eResource() != input) {
+                collectIds(removed, deletedIds);
+            }
+        }
+        Set<EObject> affected = affectedElements();
+        inputElements -= deletedIds.size();
+        if (affected.size() > maxAffectedFraction * Math.max(1, inputElements)) {
+            return rerun();
+        }
+        try {
+            return propagate(affected, deletedIds, start);
+        } catch (Exception e) {
+            // The output may have been modified partially; rebuild it.
+            return rerun();
+        } finally {
+            recorder.clear();
+        }
+    }
+
+    /**
+     * Runs the transformation on the whole input model and replaces the
+     * contents of the output model.
+     */
+    public Update rerun() throws Exception {
+        long start = System.nanoTime();
+        File file = workFile("input.xmi");
+        try (OutputStream out = Files.newOutputStream(file.toPath())) {
+            input.save(out, Map.of());
+        }
+        Run run = run(file);
+        int deleted = countElements(output.getContents());
+        output.getContents().clear();
+        output.getContents().addAll(run.output.getContents());
+        trace.clear();
+        traceBySource.clear();
+        for (TraceEntry entry : run.links) {
+            put(entry);
+        }
+        recorder.clear();
+        inputElements = countElements(input.getContents());
+        return new Update(true, (int) inputElements, (int) inputElements, countElements(output.getContents()), 0,
+                deleted, System.nanoTime() - start);
+    }
+
+    private Update propagate(Set<EObject> affected, Set<String> deletedIds, long start) throws Exception {
+        Set<String> affectedIds = new HashSet<>();
+        for (EObject element : affected) {
+            affectedIds.add(ids.get(element));
+        }
+
+        Slice slice = new Slice();
+        for (EObject element : affected) {
+            slice.includeAffected(element);
+        }
+        slice.linkReferences();
+        File sliceFile = workFile("slice.xmi");
+        slice.resource.save(Map.of());
+        Run run = run(sliceFile);
+
+        // Map every target of the slice run to its counterpart in the output model.
+        Merger merger = new Merger(run.output);
+        List<TraceEntry> fired = new ArrayList<>();
+        Set<String> firedKeys = new HashSet<>();
+        int created = 0;
+        int updated = 0;
+        for (TraceEntry link : run.links) {
+            boolean isAffected = link.sourceIds().stream().anyMatch(affectedIds::contains);
+            TraceEntry existing = trace.get(link.key());
+            for (int i = 0; i < link.targets.size(); i++) {
+                EObject target = link.targets.get(i);
+                merger.sliceTargets.add(target);
+                if (existing != null && i < existing.targets.size()) {
+                    merger.live.put(target, existing.targets.get(i));
+                } else if (isAffected) {
+                    merger.live.put(target, target);
+                }
+            }
+            if (isAffected) {
+                fired.add(link);
+                firedKeys.add(link.key());
+            }
+        }
+        for (TraceEntry link : fired) {
+            for (EObject target : link.targets) {
+                EObject liveTarget = merger.live.get(target);
+                merger.sync(target, liveTarget);
+                if (liveTarget == target) {
+                    created++;
+                } else {
+                    updated++;
+                }
+            }
+        }
+        merger.syncAdopted();
+
+        int deleted = 0;
+        for (String id : affectedIds) {
+            for (TraceEntry entry : List.copyOf(traceBySource.getOrDefault(id, List.of()))) {
+                if (!firedKeys.contains(entry.key())) {
+                    deleted += delete(entry);
+                }
+            }
+        }
+        for (String id : deletedIds) {
+            for (TraceEntry entry : List.copyOf(traceBySource.getOrDefault(id, List.of()))) {
+                deleted += delete(entry);
+            }
+        }
+        for (TraceEntry link : fired) {
+            List<EObject> liveTargets = new ArrayList<>();
+            for (EObject target : link.targets) {
+                EObject liveTarget = merger.live.get(target);
+                if (liveTarget == target && target.eContainer() == null) {
+                    output.getContents().add(target);
+                }
+                liveTargets.add(liveTarget);
+            }
+            TraceEntry existing = trace.get(link.key());
+            if (existing != null) {
+                remove(existing);
+            }
+            put(new TraceEntry(link.rule, link.sourceKey, liveTargets));
+        }
+        return new Update(false, affected.size(), slice.copies.size(), created, updated, deleted,
+                System.nanoTime() - start);
+    }
+
+    private Set<EObject> affectedElements() {
+        Set<EObject> affected = new LinkedHashSet<>();
+        for (EObject element : recorder.attributeChanged) {
+            if (element.eResource() == input) {
+                affected.add(element);
+                affected.addAll(element.eContents());
+                for (EStructuralFeature.Setting setting : inputReferences.getInverseReferences(element, false)) {
+                    // The container is copied with the element anyway; including it as affected would
+                    // pull all its children into the slice.
+                    if (setting.getEStructuralFeature() != element.eContainmentFeature()
+                            && setting.getEObject().eResource() == input) {
+                        affected.add(setting.getEObject());
+                    }
+                }
+            }
+        }
+        for (EObject element : recorder.referenceChanged) {
+            if (element.eResource() == input) {
+                affected.add(element);
+            }
+        }
+        for (EObject element : recorder.added) {
+            if (element.eResource() == input) {
+                affected.add(element);
+                element.eAllContents().forEachRemaining(affected::add);
+            }
+        }
+        return affected;
+    }
+
+    /** Runs the instrumented module on the given input file. */
+    private Run run(File inputFile) throws Exception {
+        ModelFactory factory = new EMFModelFactory();
+        IModel inModel = executor.injectInput(factory, transformation, inputFile);
+        IInjector injector = new EMFInjector();
+        IReferenceModel outMM = factory.newReferenceModel();
+        injector.inject(outMM, fileUri(executor.getMetamodelFile(transformation.getOutEcore())));
+        IReferenceModel traceMM = factory.newReferenceModel();
+        injector.inject(traceMM, fileUri(traceEcore));
+        IModel outModel = factory.newModel(outMM);
+        IModel traceModel = factory.newModel(traceMM);
+
+        EMFVMLauncher launcher = new EMFVMLauncher();
+        launcher.initialize(null);
+        launcher.addInModel(inModel, "IN", transformation.getInAlias());
+        launcher.addOutModel(outModel, "OUT", transformation.getOutAlias());
+        launcher.addOutModel(traceModel, TraceInstrumenter.TRACE_MODEL, TraceInstrumenter.TRACE_METAMODEL);
+        Map<String, Object> options = new HashMap<>();
+        // Trace links refer to elements of the output model.
+        options.put("allowInterModelReferences", "true");
+        try (InputStream is = new FileInputStream(asm)) {
+            launcher.launch("run", null, options, is);
+        }
+
+        List<TraceEntry> links = new ArrayList<>();
+        for (EObject link : ((EMFModel) traceModel).getResource().getContents()) {
+            @SuppressWarnings("unchecked")
+            List<EObject> targets = (List<EObject>) link.eGet(link.eClass().getEStructuralFeature("targets"));
+            links.add(new TraceEntry((String) link.eGet(link.eClass().getEStructuralFeature("rule")),
+                    (String) link.eGet(link.eClass().getEStructuralFeature("sourceId")), new ArrayList<>(targets)));
+        }
+        return new Run(((EMFModel) outModel).getResource(), links);
+    }
+
+    private int delete(TraceEntry entry) {
+        int deleted = 0;
+        for (EObject target : entry.targets) {
+            if (target.eResource() == output) {
+                deleted++;
+                EcoreUtil.delete(target, true);
+            }
+        }
+        remove(entry);
+        return deleted;
+    }
+
+    private void put(TraceEntry entry) {
+        trace.put(entry.key(), entry);
+        for (String id : entry.sourceIds()) {
+            traceBySource.computeIfAbsent(id, k -> new ArrayList<>(1)).add(entry);
+        }
+    }
+
+    private void remove(TraceEntry entry) {
+        trace.remove(entry.key());
+        for (String id : entry.sourceIds()) {
+            List<TraceEntry> entries = traceBySource.get(id);
+            if (entries != null) {
+                entries.remove(entry);
+                if (entries.isEmpty()) {
+                    traceBySource.remove(id);
+                }
+            }
+        }
+    }
+
+    private void assignId(EObject element) {
+        String id = input.getID(element);
+        if (id == null) {
+            id = EcoreUtil.generateUUID();
+            input.setID(element, id);
+            inputElements++;
+        }
+        ids.put(element, id);
+    }
+
+    private void collectIds(EObject removed, Set<String> result) {
+        String id = ids.remove(removed);
+        if (id != null) {
+            result.add(id);
+        }
+        for (EObject child : removed.eContents()) {
+            collectIds(child, result);
+        }
+    }
+
+    private File workFile(String name) {
+        File file = new File(workDir, name);
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static int countElements(Collection<EObject> roots) {
+        int count = 0;
+        for (EObject root : roots) {
+            count++;
+            for (var it = root.eAllContents(); it.hasNext(); it.next()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String fileUri(File file) {
+        return URI.createFileURI(file.getAbsolutePath()).toString();
+    }
+
+    /** Trace link from the source elements of a rule application to its targets. */
+    private static final class TraceEntry {
+        final String rule;
+        final String sourceKey;
+        final List<EObject> targets;
+
+        TraceEntry(String rule, String sourceKey, List<EObject> targets) {
+            this.rule = rule;
+            this.sourceKey = sourceKey;
+            this.targets = targets;
+        }
+
+        String key() {
+            return rule + '\u0000' + sourceKey;
+        }
+
+        List<String> sourceIds() {
+            return Arrays.asList(ID_SEPARATOR.split(sourceKey));
+        }
+    }
+
+    /** Output model and trace of one run of the instrumented module. */
+    private static final class Run {
+        final Resource output;
+        final List<TraceEntry> links;
+
+        Run(Resource output, List<TraceEntry> links) {
+            this.output = output;
+            this.links = links;
+        }
+    }
+
+    /**
+     * Copy of the affected input elements and their context, with the same
+     * {@code xmi:id}s as the originals.
+     */
+    private final class Slice {
+        final XMLResource resource = (XMLResource) new XMIResourceFactoryImpl()
+                .createResource(URI.createFileURI(workFile("slice.xmi").getAbsolutePath()));
+        final Map<EObject, EObject> copies = new IdentityHashMap<>();
+
+        void includeAffected(EObject original) {
+            include(original);
+            for (EObject child : original.eContents()) {
+                include(child);
+            }
+            for (EReference reference : original.eClass().getEAllReferences()) {
+                if (!isCopied(reference) || reference.isContainment()) {
+                    continue;
+                }
+                for (EObject target : values(original, reference)) {
+                    if (target.eResource() == input) {
+                        include(target);
+                    }
+                }
+            }
+        }
+
+        /** Copies the attributes of the element and includes its container chain. */
+        EObject include(EObject original) {
+            EObject copy = copies.get(original);
+            if (copy != null) {
+                return copy;
+            }
+            copy = EcoreUtil.create(original.eClass());
+            for (EAttribute attribute : original.eClass().getEAllAttributes()) {
+                if (!attribute.isDerived() && !attribute.isTransient() && attribute.isChangeable()
+                        && original.eIsSet(attribute)) {
+                    Object value = original.eGet(attribute);
+                    copy.eSet(attribute, attribute.isMany() ? new ArrayList<>((List<?>) value) : value);
+                }
+            }
+            copies.put(original, copy);
+            EObject container = original.eContainer();
+            if (container == null) {
+                resource.getContents().add(copy);
+            } else {
+                EObject containerCopy = include(container);
+                EReference containment = original.eContainmentFeature();
+                if (containment.isMany()) {
+                    values(containerCopy, containment).add(copy);
+                } else {
+                    containerCopy.eSet(containment, copy);
+                }
+            }
+            resource.setID(copy, ids.get(original));
+            return copy;
+        }
+
+        /** Copies the non-containment references between copied elements. */
+        void linkReferences() {
+            for (Map.Entry<EObject, EObject> entry : copies.entrySet()) {
+                EObject original = entry.getKey();
+                EObject copy = entry.getValue();
+                for (EReference reference : original.eClass().getEAllReferences()) {
+                    if (!isCopied(reference) || reference.isContainment() || !original.eIsSet(reference)) {
+                        continue;
+                    }
+                    if (reference.isMany()) {
+                        List<EObject> copyValues = values(copy, reference);
+                        for (EObject target : values(original, reference)) {
+                            EObject targetCopy = copies.get(target);
+                            if (targetCopy != null) {
+                                copyValues.add(targetCopy);
+                            }
+                        }
+                    } else {
+                        EObject targetCopy = copies.get(original.eGet(reference));
+                        if (targetCopy != null) {
+                            copy.eSet(reference, targetCopy);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Transfers the feature values of slice targets to their counterparts in
+     * the output model.  Slice targets without counterpart, including elements
+     * created by lazy rules, are adopted into the output model.
+     */
+    private final class Merger {
+        final Resource sliceOutput;
+        final Map<EObject, EObject> live = new IdentityHashMap<>();
+        final Set<EObject> sliceTargets = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<EObject> adopted = new ArrayDeque<>();
+
+        Merger(Resource sliceOutput) {
+            this.sliceOutput = sliceOutput;
+        }
+
+        void sync(EObject source, EObject target) {
+            for (EAttribute attribute : source.eClass().getEAllAttributes()) {
+                if (source == target || !isCopied(attribute)) {
+                    continue;
+                }
+                Object value = source.eGet(attribute);
+                if (!Objects.equals(value, target.eGet(attribute))) {
+                    if (attribute.isMany()) {
+                        @SuppressWarnings("unchecked")
+                        EList<Object> targetValues = (EList<Object>) target.eGet(attribute);
+                        ECollections.setEList(targetValues, (List<?>) value);
+                    } else {
+                        target.eSet(attribute, value);
+                    }
+                }
+            }
+            for (EReference reference : source.eClass().getEAllReferences()) {
+                if (!isCopied(reference)) {
+                    continue;
+                }
+                if (reference.isMany()) {
+                    List<EObject> mapped = new ArrayList<>();
+                    for (EObject value : values(source, reference)) {
+                        mapped.add(map(value));
+                    }
+                    ECollections.setEList((EList<EObject>) values(target, reference), mapped);
+                } else {
+                    EObject value = (EObject) source.eGet(reference);
+                    EObject mapped = value == null ? null : map(value);
+                    if (target.eGet(reference) != mapped) {
+                        target.eSet(reference, mapped);
+                    }
+                }
+            }
+        }
+
+        void syncAdopted() {
+            while (!adopted.isEmpty()) {
+                EObject element = adopted.poll();
+                sync(element, element);
+            }
+        }
+
+        private EObject map(EObject value) {
+            EObject mapped = live.get(value);
+            if (mapped != null) {
+                return mapped;
+            }
+            if (sliceTargets.contains(value)) {
+                throw new IllegalStateException("No trace for slice target " + value.eClass().getName());
+            }
+            if (value.eResource() == sliceOutput) {
+                // Created by a lazy or called rule: becomes part of the output model.
+                live.put(value, value);
+                adopted.add(value);
+            }
+            return value;
+        }
+    }
+
+    /** Records which input elements were changed, added or removed. */
+    private static final class ChangeRecorder extends EContentAdapter {
+        final Set<EObject> attributeChanged = new LinkedHashSet<>();
+        final Set<EObject> referenceChanged = new LinkedHashSet<>();
+        final Set<EObject> added = new LinkedHashSet<>();
+        final Set<EObject> removed = new LinkedHashSet<>();
+
+        @Override
+        public void notifyChanged(Notification notification) {
+            super.notifyChanged(notification);
+            if (notification.isTouch()) {
+                return;
+            }
+            Object notifier = notification.getNotifier();
+            if (notifier instanceof Resource) {
+                if (notification.getFeatureID(Resource.class) == Resource.RESOURCE__CONTENTS) {
+                    collect(notification);
+                }
+            } else if (notifier instanceof EObject) {
+                Object feature = notification.getFeature();
+                if (feature instanceof EAttribute) {
+                    attributeChanged.add((EObject) notifier);
+                } else if (feature instanceof EReference && isCopied((EReference) feature)) {
+                    referenceChanged.add((EObject) notifier);
+                    if (((EReference) feature).isContainment()) {
+                        collect(notification);
+                    }
+                }
+            }
+        }
+
+        private void collect(Notification notification) {
+            switch (notification.getEventType()) {
+                case Notification.SET:
+                case Notification.UNSET:
+                    addAll(removed, notification.getOldValue());
+                    addAll(added, notification.getNewValue());
+                    break;
+                case Notification.ADD:
+                case Notification.ADD_MANY:
+                    addAll(added, notification.getNewValue());
+                    break;
+                case Notification.REMOVE:
+                case Notification.REMOVE_MANY:
+                    addAll(removed, notification.getOldValue());
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private static void addAll(Set<EObject> set, Object value) {
+            if (value instanceof EObject) {
+                set.add((EObject) value);
+            } else if (value instanceof Collection) {
+                for (Object element : (Collection<?>) value) {
+                    addAll(set, element);
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return attributeChanged.isEmpty() && referenceChanged.isEmpty() && added.isEmpty() && removed.isEmpty();
+        }
+
+        void clear() {
+            attributeChanged.clear();
+            referenceChanged.clear();
+            added.clear();
+            removed.clear();
+        }
+    }
+
+    private static boolean isCopied(EStructuralFeature feature) {
+        return !feature.isDerived() && !feature.isTransient() && feature.isChangeable()
+                && !(feature instanceof EReference && ((EReference) feature).isContainer());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<EObject> values(EObject object, EReference reference) {
+        if (reference.isMany()) {
+            return (List<EObject>) object.eGet(reference);
+        }
+        Object value = object.eGet(reference);
+        return value == null ? List.of() : List.of((EObject) value);
+    }
+}
@@ -0,0 +1,161 @@
+package org.example.incremental;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.example.profiling.AtlRule;
+
+/**
+ * Rewrites an ATL module so that every matched rule additionally records a
+ * trace link in a separate output model.  The EMF virtual machine keeps its
+ * own trace between source and target elements private, so the incremental
+ * execution obtains it from the transformation itself.
+ *
+ * <p>
+ * The module header {@code create OUT : Graph from IN : Network;} becomes
+ * {@code create OUT : Graph, ATLTRACE : AtlTrace from IN : Network;} and every
+ * matched rule gets an additional target pattern element
+ * </p>
+ *
+ * <pre>
+ *   traceLink__ : AtlTrace!TraceLink (
+ *       rule &lt;- 'Component2Entity',
+ *       sourceId &lt;- c.__xmiID__,
+ *       targets &lt;- Sequence{e}
+ *   )
+ * </pre>
+ *
+ * <p>
+ * Source elements are identified by their {@code xmi:id} rather than by a
+ * reference, because a binding to a source element would be resolved to its
+ * target element.  Rules with several source elements join the ids with
+ * {@value #ID_SEPARATOR}.  Abstract rules, sub rules, lazy and called rules
+ * are not instrumented.
+ * </p>
+ */
+public final class TraceInstrumenter {
+
+    /** Name of the trace output model. */
+    public static final String TRACE_MODEL = "ATLTRACE";
+    /** Name of the trace metamodel. */
+    public static final String TRACE_METAMODEL = "AtlTrace";
+    /** Namespace URI of the trace metamodel. */
+    public static final String TRACE_NS_URI = "http://www.example.org/atl/trace";
+    /** Separates the source ids of rules with several source elements. */
+    public static final String ID_SEPARATOR = "|";
+
+    private static final Pattern CREATE = Pattern.compile("\\bcreate\\s+([^;]*?)\\s+(from|refining)\\b");
+
+    private TraceInstrumenter() {
+    }
+
+    /**
+     * Returns the instrumented module text.
+     *
+     * @throws IllegalArgumentException if the module has no {@code create}
+     *                                  statement or is a refining module
+     */
+    public static String instrument(String source) {
+        List<AtlRule> rules = AtlRule.parse(source);
+        String stripped = AtlRule.stripComments(source);
+        Matcher create = CREATE.matcher(stripped);
+        if (!create.find()) {
+            throw new IllegalArgumentException("Module has no create statement");
+        }
+        if ("refining".equals(create.group(2))) {
+            throw new IllegalArgumentException("Refining modules are not supported");
+        }
+
+        // Insert back to front so that earlier offsets remain valid.
+        List<Integer> offsets = new ArrayList<>();
+        List<String> insertions = new ArrayList<>();
+        offsets.add(create.end(1));
+        insertions.add(", " + TRACE_MODEL + " : " + TRACE_METAMODEL);
+        for (AtlRule rule : rules) {
+            if (isTraced(rule)) {
+                offsets.add(rule.getTargetPatternEnd());
+                insertions.add(traceElement(rule));
+            }
+        }
+        StringBuilder result = new StringBuilder(source);
+        for (int i = offsets.size() - 1; i >= 0; i--) {
+            result.insert(offsets.get(i), insertions.get(i));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns whether the given rule records trace links once instrumented.
+     */
+    public static boolean isTraced(AtlRule rule) {
+        return rule.getKind() == AtlRule.Kind.MATCHED && !rule.isAbstract() && rule.getSuperRule() == null
+                && !rule.getSourceVariables().isEmpty() && rule.getTargetPatternEnd() >= 0;
+    }
+
+    private static String traceElement(AtlRule rule) {
+        List<String> ids = new ArrayList<>();
+        for (String variable : rule.getSourceVariables()) {
+            ids.add(variable + ".__xmiID__");
+        }
+        return ",\n\t\ttraceLink__ : " + TRACE_METAMODEL + "!TraceLink (\n"
+                + "\t\t\trule <- '" + rule.getName() + "',\n"
+                + "\t\t\tsourceId <- " + String.join(" + '" + ID_SEPARATOR + "' + ", ids) + ",\n"
+                + "\t\t\ttargets <- Sequence{" + String.join(", ", rule.getTargetVariables()) + "}\n"
+                + "\t\t)";
+    }
+
+    /**
+     * Creates the trace metamodel: a single class {@code TraceLink} with the
+     * rule name, the source ids and the target elements.
+     */
+    public static EPackage createMetamodel() {
+        EcoreFactory factory = EcoreFactory.eINSTANCE;
+        EPackage pkg = factory.createEPackage();
+        pkg.setName("atltrace");
+        pkg.setNsPrefix("atltrace");
+        pkg.setNsURI(TRACE_NS_URI);
+
+        EClass link = factory.createEClass();
+        link.setName("TraceLink");
+        pkg.getEClassifiers().add(link);
+        link.getEStructuralFeatures().add(attribute("rule"));
+        link.getEStructuralFeatures().add(attribute("sourceId"));
+        EReference targets = factory.createEReference();
+        targets.setName("targets");
+        targets.setEType(EcorePackage.Literals.EOBJECT);
+        targets.setUpperBound(-1);
+        link.getEStructuralFeatures().add(targets);
+        return pkg;
+    }
+
+    /**
+     * Saves the trace metamodel to the given Ecore file, from which it is
+     * injected like the other metamodels.
+     */
+    public static void writeMetamodel(File ecoreFile) throws IOException {
+        Resource resource = new ResourceSetImpl().createResource(URI.createFileURI(ecoreFile.getAbsolutePath()));
+        resource.getContents().add(createMetamodel());
+        resource.save(Map.of());
+    }
+
+    private static EAttribute attribute(String name) {
+        EAttribute attribute = EcoreFactory.eINSTANCE.createEAttribute();
+        attribute.setName(name);
+        attribute.setEType(EcorePackage.Literals.ESTRING);
+        return attribute;
+    }
+}
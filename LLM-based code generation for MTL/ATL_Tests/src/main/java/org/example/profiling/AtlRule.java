@@ -0,0 +1,223 @@
+package org.example.profiling;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Declaration of a rule of an ATL module as far as it is needed to attribute
+ * execution events to rules: its name, its kind and the metaclasses of its
+ * source and target pattern elements.  Rules are extracted from the module
+ * text with regular expressions rather than with the ATL parser, which is
+ * sufficient for the flat rule structure of the evaluated modules.  Offsets
+ * refer to the original module text, so that tools can insert code into a
+ * rule.
+ */
+public final class AtlRule {
+
+    /** How a rule is triggered. */
+    public enum Kind {
+        /** Matched rule, applied to every match of its source pattern. */
+        MATCHED,
+        /** Lazy (or unique lazy) rule, applied when called from a binding. */
+        LAZY,
+        /** Called rule without source pattern. */
+        CALLED
+    }
+
+    private static final Pattern MODULE = Pattern.compile("\\bmodule\\s+(\\w+)\\s*;");
+    private static final Pattern RULE_HEADER = Pattern.compile(
+            "\\b((?:unique\\s+)?lazy\\s+|abstract\\s+|entrypoint\\s+|endpoint\\s+)?rule\\s+(\\w+)\\s*(\\([^)]*\\))?\\s*(?:extends\\s+(\\w+)\\s*)?\\{");
+    private static final Pattern FROM = Pattern.compile("\\bfrom\\b");
+    private static final Pattern USING = Pattern.compile("\\busing\\s*\\{");
+    private static final Pattern TO = Pattern.compile("\\bto\\b");
+    private static final Pattern DO = Pattern.compile("\\bdo\\s*\\{");
+    private static final Pattern PATTERN_ELEMENT = Pattern.compile("\\b(\\w+)\\s*:\\s*\\w+!(\\w+)");
+
+    private final String name;
+    private final Kind kind;
+    private final boolean isAbstract;
+    private final String superRule;
+    private final List<String> sourceVariables = new ArrayList<>();
+    private final List<String> sourceTypes = new ArrayList<>();
+    private final List<String> targetVariables = new ArrayList<>();
+    private final List<String> targetTypes = new ArrayList<>();
+    private int targetPatternEnd;
+
+    AtlRule(String name, Kind kind, boolean isAbstract, String superRule) {
+        this.name = name;
+        this.kind = kind;
+        this.isAbstract = isAbstract;
+        this.superRule = superRule;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public boolean isAbstract() {
+        return isAbstract;
+    }
+
+    /** Returns the name of the rule this rule extends, or {@code null}. */
+    public String getSuperRule() {
+        return superRule;
+    }
+
+    /** Returns the variable names of the source pattern elements in declaration order. */
+    public List<String> getSourceVariables() {
+        return Collections.unmodifiableList(sourceVariables);
+    }
+
+    /** Returns the metaclass names of the source pattern elements in declaration order. */
+    public List<String> getSourceTypes() {
+        return Collections.unmodifiableList(sourceTypes);
+    }
+
+    /** Returns the variable names of the target pattern elements in declaration order. */
+    public List<String> getTargetVariables() {
+        return Collections.unmodifiableList(targetVariables);
+    }
+
+    /**
+     * Returns the metaclass names of the target pattern elements in
+     * declaration order.  A sub rule without target pattern returns the
+     * targets of its super rule.
+     */
+    public List<String> getTargetTypes() {
+        return Collections.unmodifiableList(targetTypes);
+    }
+
+    /**
+     * Returns the offset in the module text right after the last target
+     * pattern element of this rule, or {@code -1} if the rule has no target
+     * pattern.
+     */
+    public int getTargetPatternEnd() {
+        return targetPatternEnd;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + name + sourceTypes + " -> " + targetTypes;
+    }
+
+    /**
+     * Returns the name declared by the {@code module} statement, or
+     * {@code null} if there is none.
+     */
+    public static String parseModuleName(String source) {
+        Matcher matcher = MODULE.matcher(stripComments(source));
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    /**
+     * Extracts all rules of the given module text in declaration order.
+     */
+    public static List<AtlRule> parse(String source) {
+        String text = stripComments(source);
+        List<AtlRule> rules = new ArrayList<>();
+        Matcher header = RULE_HEADER.matcher(text);
+        int position = 0;
+        while (header.find(position)) {
+            int bodyStart = header.end();
+            int bodyEnd = closingBrace(text, bodyStart);
+            String body = text.substring(bodyStart, bodyEnd);
+            String modifier = header.group(1) == null ? "" : header.group(1).trim();
+
+            Matcher from = FROM.matcher(body);
+            Matcher to = TO.matcher(body);
+            boolean hasFrom = from.find();
+            boolean hasTo = to.find(hasFrom ? from.end() : 0);
+            int sourceEnd = hasTo ? to.start() : body.length();
+            Matcher using = USING.matcher(body);
+            if (hasFrom && using.find(from.end()) && using.start() < sourceEnd) {
+                sourceEnd = using.start();
+            }
+            int targetStart = hasTo ? to.end() : body.length();
+            Matcher doBlock = DO.matcher(body);
+            int targetEnd = doBlock.find(targetStart) ? doBlock.start() : body.length();
+
+            Kind kind = modifier.endsWith("lazy") ? Kind.LAZY : hasFrom ? Kind.MATCHED : Kind.CALLED;
+            AtlRule rule = new AtlRule(header.group(2), kind, modifier.equals("abstract"), header.group(4));
+            if (hasFrom) {
+                patternElements(body.substring(from.end(), sourceEnd), rule.sourceVariables, rule.sourceTypes);
+            }
+            patternElements(body.substring(targetStart, targetEnd), rule.targetVariables, rule.targetTypes);
+            rule.targetPatternEnd = -1;
+            if (!rule.targetVariables.isEmpty()) {
+                int end = targetEnd;
+                while (end > targetStart && Character.isWhitespace(body.charAt(end - 1))) {
+                    end--;
+                }
+                rule.targetPatternEnd = bodyStart + end;
+            } else if (rule.superRule != null) {
+                // A sub rule without own target pattern creates the targets of its super rule.
+                rules.stream().filter(r -> r.name.equals(rule.superRule)).findFirst()
+                        .ifPresent(r -> rule.targetTypes.addAll(r.targetTypes));
+            }
+            rules.add(rule);
+            position = bodyEnd;
+        }
+        return rules;
+    }
+
+    private static void patternElements(String section, List<String> variables, List<String> types) {
+        Matcher element = PATTERN_ELEMENT.matcher(section);
+        while (element.find()) {
+            variables.add(element.group(1));
+            types.add(element.group(2));
+        }
+    }
+
+    /** Returns the index of the brace closing the block starting at {@code start}. */
+    private static int closingBrace(String text, int start) {
+        int depth = 1;
+        boolean inString = false;
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\'') {
+                inString = !inString;
+            } else if (!inString && c == '{') {
+                depth++;
+            } else if (!inString && c == '}' && --depth == 0) {
+                return i;
+            }
+        }
+        return text.length();
+    }
+
+    /**
+     * Blanks out {@code --} line comments outside of string literals.  The
+     * result has the same length as the source, so offsets remain valid.
+     */
+    public static String stripComments(String source) {
+        StringBuilder result = new StringBuilder(source.length());
+        boolean inString = false;
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (c == '\'') {
+                inString = !inString;
+            } else if (c == '\n') {
+                inString = false;
+            } else if (!inString && c == '-' && i + 1 < source.length() && source.charAt(i + 1) == '-') {
+                while (i < source.length() && source.charAt(i) != '\n') {
+                    result.append(' ');
+                    i++;
+                }
+                if (i < source.length()) {
+                    result.append('\n');
+                }
+                continue;
+            }
+            result.append(c);
+        }
+        return result.toString();
+    }
+}
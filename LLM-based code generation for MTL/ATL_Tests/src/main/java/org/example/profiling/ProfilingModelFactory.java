@@ -0,0 +1,55 @@
+package org.example.profiling;
+
+import java.util.Set;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.m2m.atl.core.IModel;
+import org.eclipse.m2m.atl.core.IReferenceModel;
+import org.eclipse.m2m.atl.core.emf.EMFModel;
+import org.eclipse.m2m.atl.core.emf.EMFModelFactory;
+
+/**
+ * Model factory whose models report the calls of the EMF virtual machine to a
+ * {@link RuleProfiler}.  The VM queries {@link EMFModel#getElementsByType}
+ * once at the start of the matcher of every matched rule and calls
+ * {@link EMFModel#newElement} for every created target element, which makes
+ * these two methods the hooks for attributing execution time to rules.
+ */
+class ProfilingModelFactory extends EMFModelFactory {
+
+    private final RuleProfiler profiler;
+
+    ProfilingModelFactory(RuleProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    public IModel newModel(IReferenceModel referenceModel) {
+        return new ProfilingModel(referenceModel, this, profiler);
+    }
+
+    private static final class ProfilingModel extends EMFModel {
+
+        private final RuleProfiler profiler;
+
+        ProfilingModel(IReferenceModel referenceModel, EMFModelFactory factory, RuleProfiler profiler) {
+            super(referenceModel, factory);
+            this.profiler = profiler;
+        }
+
+        @Override
+        public Set<EObject> getElementsByType(Object metaElement) {
+            profiler.onAllInstances(metaElement);
+            return super.getElementsByType(metaElement);
+        }
+
+        @Override
+        public Object newElement(Object metaElement) {
+            Object element = super.newElement(metaElement);
+            if (element instanceof EObject) {
+                profiler.onCreate((EObject) element);
+            }
+            return element;
+        }
+    }
+}
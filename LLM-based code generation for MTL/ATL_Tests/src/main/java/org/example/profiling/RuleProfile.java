@@ -0,0 +1,137 @@
+package org.example.profiling;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Per-rule execution profile of one run of an ATL module, as recorded by
+ * {@link RuleProfiler}.  Times are wall clock nanoseconds.
+ */
+public final class RuleProfile {
+
+    /** Counters and times of a single rule. */
+    public static final class RuleStats {
+        private final AtlRule rule;
+        long created;
+        long matchNanos;
+        long applyNanos;
+        long resolveNanos;
+        long resolutions;
+
+        RuleStats(AtlRule rule) {
+            this.rule = rule;
+        }
+
+        public AtlRule getRule() {
+            return rule;
+        }
+
+        public String getName() {
+            return rule.getName();
+        }
+
+        /**
+         * Returns the number of times the rule was applied: the number of
+         * matches of a matched rule or the number of calls of a lazy or called
+         * rule.  Every application creates all target elements of the rule.
+         */
+        public long getMatches() {
+            return created / Math.max(1, rule.getTargetTypes().size());
+        }
+
+        /** Returns the number of target elements created by the rule. */
+        public long getCreated() {
+            return created;
+        }
+
+        /** Returns the time spent matching the source pattern of the rule. */
+        public long getMatchNanos() {
+            return matchNanos;
+        }
+
+        /** Returns the time spent evaluating bindings that only refer to elements of this rule. */
+        public long getApplyNanos() {
+            return applyNanos;
+        }
+
+        /**
+         * Returns the time spent evaluating bindings that resolve target
+         * elements of other rules, through {@code resolveTemp}, implicit
+         * resolution or lazy rule calls.
+         */
+        public long getResolveNanos() {
+            return resolveNanos;
+        }
+
+        /** Returns the number of target elements of other rules assigned by the bindings of this rule. */
+        public long getResolutions() {
+            return resolutions;
+        }
+
+        public long getTotalNanos() {
+            return matchNanos + applyNanos + resolveNanos;
+        }
+    }
+
+    private final String module;
+    private final List<RuleStats> rules;
+    private final long totalNanos;
+
+    RuleProfile(String module, List<RuleStats> rules, long totalNanos) {
+        this.module = module;
+        this.rules = List.copyOf(rules);
+        this.totalNanos = totalNanos;
+    }
+
+    public String getModule() {
+        return module;
+    }
+
+    /** Returns the statistics of all rules in declaration order. */
+    public List<RuleStats> getRules() {
+        return rules;
+    }
+
+    /** Returns the total duration of the launch, including time not attributed to any rule. */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Formats the profile as a table, with the rules sorted by total time.
+     */
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%s (%.1f ms)%n", module, totalNanos / 1e6));
+        sb.append(String.format("  %-32s %-7s %9s %9s %10s %10s %10s %11s%n",
+                "rule", "kind", "matches", "created", "match ms", "apply ms", "resolve ms", "resolutions"));
+        rules.stream()
+                .sorted((a, b) -> Long.compare(b.getTotalNanos(), a.getTotalNanos()))
+                .forEach(r -> sb.append(String.format("  %-32s %-7s %9d %9d %10.2f %10.2f %10.2f %11d%n",
+                        r.getName(), r.getRule().getKind(), r.getMatches(), r.getCreated(),
+                        r.getMatchNanos() / 1e6, r.getApplyNanos() / 1e6, r.getResolveNanos() / 1e6,
+                        r.getResolutions())));
+        return sb.toString();
+    }
+
+    /**
+     * Writes the profile as CSV with one row per rule.
+     */
+    public void writeCsv(File csv) throws IOException {
+        if (csv.getParentFile() != null) {
+            Files.createDirectories(csv.getParentFile().toPath());
+        }
+        try (PrintWriter writer = new PrintWriter(csv, "UTF-8")) {
+            writer.println("module,rule,kind,matches,created,match_ms,apply_ms,resolve_ms,resolutions");
+            for (RuleStats r : rules) {
+                writer.println(String.format(Locale.ROOT, "%s,%s,%s,%d,%d,%.3f,%.3f,%.3f,%d", module, r.getName(),
+                        r.getRule().getKind(), r.getMatches(), r.getCreated(), r.getMatchNanos() / 1e6,
+                        r.getApplyNanos() / 1e6, r.getResolveNanos() / 1e6, r.getResolutions()));
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event emitted once per rule at the end of a profiled ATL run.  Record
+ * with {@code -XX:StartFlightRecording} and inspect the events in JDK Mission
+ * Control or with {@code jfr print --events org.example.atl.Rule}.
+ */
+@Name("org.example.atl.Rule")
+@Label("ATL Rule")
+@Category({ "ATL", "Transformation" })
+@Description("Execution statistics of one ATL rule")
+class RuleProfileEvent extends jdk.jfr.Event {
+
+    @Label("Module")
+    String module;
+
+    @Label("Rule")
+    String rule;
+
+    @Label("Kind")
+    String kind;
+
+    @Label("Matches")
+    long matches;
+
+    @Label("Created Elements")
+    long created;
+
+    @Label("Match Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long matchTime;
+
+    @Label("Apply Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long applyTime;
+
+    @Label("Resolve Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long resolveTime;
+
+    @Label("Resolutions")
+    long resolutions;
+}
@@ -0,0 +1,319 @@
+package org.example.profiling;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.m2m.atl.core.IModel;
+import org.eclipse.m2m.atl.core.ModelFactory;
+import org.example.harness.AtlExecutor;
+import org.example.harness.AtlTransformation;
+import org.example.profiling.RuleProfile.RuleStats;
+
+/**
+ * Records per-rule statistics of an ATL run on the EMF virtual machine: the
+ * number of matches, the number of created target elements and the time spent
+ * matching, applying bindings and resolving elements of other rules.
+ *
+ * <p>
+ * EMFVM offers no rule level callbacks, so the profiler observes the models
+ * instead (see {@link ProfilingModelFactory}) and splits the launch into
+ * consecutive time slices:
+ * </p>
+ * <ul>
+ * <li>The matcher of every matched rule starts by querying all instances of
+ * its first source type.  Such a query for the first source type of a later
+ * matched rule ends the match slice of the current rule and starts that of the
+ * next one.  Target elements are created during matching and are attributed to
+ * the rule being matched.</li>
+ * <li>The first feature change on a target element ends the match phase.
+ * From then on, the time since the previous event is charged to the rule that
+ * created the changed element, i.e. to the rule whose binding was evaluated.
+ * If the assigned value contains target elements of another rule, the slice is
+ * counted as resolve time; this covers {@code resolveTemp}, implicit
+ * resolution of source elements and lazy rule calls.</li>
+ * <li>Elements created after the match phase are attributed to the lazy or
+ * called rule creating elements of that type.  The creation of an element
+ * that the rule being matched does not create, but a lazy or called rule
+ * does, also ends the match phase.</li>
+ * </ul>
+ *
+ * <p>
+ * The attribution is therefore approximate: helper calls of {@code allInstances}
+ * on the first source type of a later rule, or several lazy rules creating the
+ * same type, can shift time between rules.  A lazy rule that creates the same
+ * type as the last matched rule is only recognized after the first feature
+ * change, so a call before that is counted as a match of the matched rule.
+ * Bindings that do not change the target (for example assigning an empty
+ * collection) are merged into the next binding.  Observing every created
+ * element adds a small constant overhead per feature change.
+ * </p>
+ */
+public class RuleProfiler {
+
+    private enum Phase { IDLE, MATCH, APPLY }
+
+    private final String module;
+    private final Map<String, RuleStats> stats = new LinkedHashMap<>();
+    private final List<RuleStats> matchedRules = new ArrayList<>();
+    private final Map<EObject, RuleStats> createdBy = new IdentityHashMap<>();
+    private final Adapter bindingObserver = new AdapterImpl() {
+        @Override
+        public void notifyChanged(Notification notification) {
+            onBinding(notification);
+        }
+    };
+
+    private Phase phase = Phase.IDLE;
+    private RuleStats active;
+    private int nextMatched;
+    private long started;
+    private long lastEvent;
+    private RuleProfile profile;
+
+    public RuleProfiler(String module, List<AtlRule> rules) {
+        this.module = module;
+        for (AtlRule rule : rules) {
+            RuleStats ruleStats = new RuleStats(rule);
+            stats.putIfAbsent(rule.getName(), ruleStats);
+            if (rule.getKind() == AtlRule.Kind.MATCHED && !rule.getSourceTypes().isEmpty()) {
+                matchedRules.add(ruleStats);
+            }
+        }
+    }
+
+    /**
+     * Creates a profiler for the rules declared in the given ATL module.
+     */
+    public static RuleProfiler forModule(File atlFile) throws IOException {
+        String source = Files.readString(atlFile.toPath());
+        String module = AtlRule.parseModuleName(source);
+        return new RuleProfiler(module == null ? atlFile.getName() : module, AtlRule.parse(source));
+    }
+
+    /**
+     * Compiles the given module and runs it on the given input model with
+     * profiling enabled.
+     */
+    public static RuleProfile profile(AtlExecutor executor, AtlTransformation transformation, File atlFile,
+            File inputXmi) throws Exception {
+        RuleProfiler profiler = forModule(atlFile);
+        File asm = executor.compile(atlFile);
+        try {
+            ModelFactory factory = profiler.newModelFactory();
+            IModel inModel = executor.injectInput(factory, transformation, inputXmi);
+            profiler.start();
+            executor.launch(factory, asm, transformation, inModel, new HashMap<>());
+            return profiler.finish();
+        } finally {
+            asm.delete();
+        }
+    }
+
+    /**
+     * Returns a model factory whose models report to this profiler.  Both the
+     * input and the output model of the profiled run have to be created by it.
+     */
+    public ModelFactory newModelFactory() {
+        return new ProfilingModelFactory(this);
+    }
+
+    /**
+     * Starts recording; to be called right before the module is launched.
+     */
+    public void start() {
+        started = System.nanoTime();
+        lastEvent = started;
+        phase = Phase.MATCH;
+        active = null;
+        nextMatched = 0;
+    }
+
+    /**
+     * Stops recording, emits one {@link RuleProfileEvent} per rule and returns
+     * the profile of the run.
+     */
+    public RuleProfile finish() {
+        charge(active, false);
+        long total = System.nanoTime() - started;
+        phase = Phase.IDLE;
+        for (EObject element : createdBy.keySet()) {
+            element.eAdapters().remove(bindingObserver);
+        }
+        createdBy.clear();
+
+        for (RuleStats ruleStats : stats.values()) {
+            RuleProfileEvent event = new RuleProfileEvent();
+            if (event.shouldCommit()) {
+                event.module = module;
+                event.rule = ruleStats.getName();
+                event.kind = ruleStats.getRule().getKind().name();
+                event.matches = ruleStats.getMatches();
+                event.created = ruleStats.getCreated();
+                event.matchTime = ruleStats.getMatchNanos();
+                event.applyTime = ruleStats.getApplyNanos();
+                event.resolveTime = ruleStats.getResolveNanos();
+                event.resolutions = ruleStats.getResolutions();
+                event.commit();
+            }
+        }
+        profile = new RuleProfile(module, new ArrayList<>(stats.values()), total);
+        return profile;
+    }
+
+    /** Returns the profile of the last finished run, or {@code null}. */
+    public RuleProfile getProfile() {
+        return profile;
+    }
+
+    void onAllInstances(Object type) {
+        if (phase != Phase.MATCH || !(type instanceof EClass)) {
+            return;
+        }
+        String name = ((EClass) type).getName();
+        if (active != null && active.getRule().getSourceTypes().subList(1, active.getRule().getSourceTypes().size())
+                .contains(name)) {
+            // Inner source pattern element of the rule currently being matched.
+            return;
+        }
+        for (int i = nextMatched; i < matchedRules.size(); i++) {
+            if (matchedRules.get(i).getRule().getSourceTypes().get(0).equals(name)) {
+                charge(active, false);
+                active = matchedRules.get(i);
+                nextMatched = i + 1;
+                return;
+            }
+        }
+    }
+
+    void onCreate(EObject element) {
+        if (phase == Phase.IDLE) {
+            return;
+        }
+        RuleStats owner = active;
+        String type = element.eClass().getName();
+        if (phase == Phase.MATCH && (active == null || !active.getRule().getTargetTypes().contains(type))
+                && calledRuleCreating(type) != null) {
+            // A lazy or called rule invoked by the first binding, before any feature change.
+            charge(active, false);
+            phase = Phase.APPLY;
+        }
+        if (phase == Phase.APPLY) {
+            RuleStats creator = calledRuleCreating(type);
+            if (creator != null) {
+                // The caller evaluated its binding up to the lazy rule call.
+                charge(active, true);
+                owner = creator;
+                active = creator;
+            }
+        }
+        if (owner != null) {
+            owner.created++;
+            createdBy.put(element, owner);
+            element.eAdapters().add(bindingObserver);
+        }
+    }
+
+    private void onBinding(Notification notification) {
+        if (phase == Phase.IDLE || notification.isTouch()) {
+            return;
+        }
+        int eventType = notification.getEventType();
+        if (eventType != Notification.SET && eventType != Notification.ADD && eventType != Notification.ADD_MANY) {
+            return;
+        }
+        if (notification.getFeature() instanceof EReference && ((EReference) notification.getFeature()).isContainer()) {
+            return;
+        }
+        if (phase == Phase.MATCH) {
+            charge(active, false);
+            phase = Phase.APPLY;
+        }
+        RuleStats owner = createdBy.get(notification.getNotifier());
+        long resolved = countResolved(owner, notification.getNewValue());
+        if (owner != null) {
+            owner.resolutions += resolved;
+        }
+        charge(owner, resolved > 0);
+        active = owner;
+    }
+
+    private long countResolved(RuleStats owner, Object value) {
+        if (value instanceof EObject) {
+            RuleStats creator = createdBy.get(value);
+            return creator != null && creator != owner ? 1 : 0;
+        }
+        long count = 0;
+        if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                count += countResolved(owner, element);
+            }
+        }
+        return count;
+    }
+
+    private RuleStats calledRuleCreating(String typeName) {
+        for (RuleStats ruleStats : stats.values()) {
+            if (ruleStats.getRule().getKind() != AtlRule.Kind.MATCHED
+                    && ruleStats.getRule().getTargetTypes().contains(typeName)) {
+                return ruleStats;
+            }
+        }
+        return null;
+    }
+
+    /** Charges the time since the previous event to the given rule. */
+    private void charge(RuleStats ruleStats, boolean resolve) {
+        long now = System.nanoTime();
+        long elapsed = now - lastEvent;
+        lastEvent = now;
+        if (ruleStats == null) {
+            return;
+        }
+        if (phase == Phase.MATCH) {
+            ruleStats.matchNanos += elapsed;
+        } else if (resolve) {
+            ruleStats.resolveNanos += elapsed;
+        } else {
+            ruleStats.applyNanos += elapsed;
+        }
+    }
+
+    /**
+     * Profiles a module on an input model and prints the report.
+     *
+     * <pre>
+     *   RuleProfiler &lt;TRANSFORMATION&gt; [module.atl] [input.xmi]
+     * </pre>
+     *
+     * The module defaults to the reference module in {@code src/main/atl}
+     * and the input to the sample input of the transformation.  Generated
+     * inputs of any size can be created with
+     * {@link org.example.generator.InputModelGenerator}.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1 || args.length > 3) {
+            System.err.println("Usage: RuleProfiler <transformation> [module.atl] [input.xmi]");
+            System.exit(1);
+        }
+        AtlTransformation transformation = AtlTransformation.valueOf(args[0]);
+        AtlExecutor executor = new AtlExecutor();
+        File atlFile = args.length > 1 ? new File(args[1]) : executor.getAtlFile(transformation.getAtlFileName());
+        File input = args.length > 2 ? new File(args[2]) : executor.getModelFile(transformation.getSampleInput());
+        RuleProfile result = profile(executor, transformation, atlFile, input);
+        System.out.print(result.format());
+    }
+}
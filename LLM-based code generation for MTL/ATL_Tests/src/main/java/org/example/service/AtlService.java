@@ -0,0 +1,347 @@
+package org.example.service;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.m2m.atl.core.IModel;
+import org.eclipse.m2m.atl.core.ModelFactory;
+import org.eclipse.m2m.atl.core.emf.EMFModelFactory;
+import org.eclipse.m2m.atl.engine.compiler.CompileTimeError;
+import org.example.harness.AtlExecutor;
+import org.example.harness.AtlTransformation;
+import org.example.harness.ModelFingerprint;
+import org.example.profiling.AtlRule;
+
+/**
+ * Long-running ATL service that compiles and runs modules on request, so that
+ * generated modules can be checked without starting Maven and a fresh JVM
+ * for every candidate.  Compiler, metamodels and the JIT state stay warm
+ * between requests, and compiled modules are cached by their content.
+ *
+ * <p>
+ * Requests are read line by line from stdin, or from a loopback socket if
+ * {@code --port} is given.  A request consists of tab separated fields:
+ * </p>
+ *
+ * <pre>
+ *   &lt;module.atl&gt; [TAB &lt;input.xmi&gt; [TAB &lt;output.xmi&gt; [TAB &lt;TRANSFORMATION&gt;]]]
+ * </pre>
+ *
+ * <p>
+ * The transformation is derived from the module name if omitted; the input
+ * defaults to its sample input and the output to a file in
+ * {@code target/atl-service}.  Every response ends with a line {@code END}:
+ * </p>
+ *
+ * <pre>
+ *   OK &lt;output.xmi&gt; &lt;compile ms&gt; &lt;run ms&gt; &lt;MATCH|MISMATCH&gt; &lt;elements&gt;
+ *   COMPILE_ERROR &lt;count&gt;
+ *   RUNTIME_ERROR &lt;message&gt;
+ *   REQUEST_ERROR &lt;message&gt;
+ * </pre>
+ *
+ * <p>
+ * {@code OK} and {@code COMPILE_ERROR} are followed by one line per compiler
+ * problem ({@code <severity> <line:column-line:column> <description>}), so
+ * warnings are reported for successful compilations as well.  {@code MATCH}
+ * means that the output has the same {@link ModelFingerprint} as the output
+ * of the reference module for the same input, which is computed once per
+ * transformation and input.  The request {@code QUIT} stops the service.
+ * </p>
+ *
+ * <pre>
+ *   mvn compile exec:java -Dexec.mainClass=org.example.service.AtlService -Dexec.args="--port=7070"
+ * </pre>
+ */
+public class AtlService {
+
+    private static final int MAX_CACHED_MODULES = 128;
+
+    private final AtlExecutor executor;
+    private final File outputDir;
+    private final int maxCachedModules;
+    private final Map<String, CompiledModule> modules = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledModule> eldest) {
+            if (size() > maxCachedModules) {
+                eldest.getValue().asm.delete();
+                return true;
+            }
+            return false;
+        }
+    };
+    private final Map<String, ModelFingerprint> referenceOutputs = new HashMap<>();
+    private int requests;
+
+    /** Result of compiling one module: the ASM file, if any, and the reported problems. */
+    private static final class CompiledModule {
+        final File asm;
+        final CompileTimeError[] problems;
+        final long millis;
+
+        CompiledModule(File asm, CompileTimeError[] problems, long millis) {
+            this.asm = asm;
+            this.problems = problems;
+            this.millis = millis;
+        }
+
+        boolean isValid() {
+            return asm.length() > 0;
+        }
+    }
+
+    public AtlService(AtlExecutor executor, File outputDir) {
+        this(executor, outputDir, MAX_CACHED_MODULES);
+    }
+
+    /**
+     * Creates a service that keeps at most the given number of compiled
+     * modules.  A request may compile the module and the reference module, so
+     * at least two are kept.
+     */
+    AtlService(AtlExecutor executor, File outputDir, int maxCachedModules) {
+        if (maxCachedModules < 2) {
+            throw new IllegalArgumentException("At least two compiled modules have to be cached");
+        }
+        this.executor = executor;
+        this.outputDir = outputDir;
+        this.maxCachedModules = maxCachedModules;
+        // Load the metamodels of all known transformations up front.
+        for (AtlTransformation transformation : AtlTransformation.values()) {
+            executor.loadMetamodel(transformation.getInEcore());
+            executor.loadMetamodel(transformation.getOutEcore());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --option=value but got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        AtlService service = new AtlService(new AtlExecutor(),
+                new File(options.getOrDefault("out", "target/atl-service")));
+        if (options.containsKey("port")) {
+            service.listen(Integer.parseInt(options.get("port")));
+        } else {
+            service.serve(new InputStreamReader(System.in, StandardCharsets.UTF_8),
+                    new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Accepts connections on the loopback interface and serves them one after
+     * another until a client sends {@code QUIT}.
+     */
+    public void listen(int port) throws IOException {
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.err.println("ATL service listening on " + server.getLocalSocketAddress());
+            boolean running = true;
+            while (running) {
+                try (Socket socket = server.accept()) {
+                    running = serve(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8),
+                            new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+                }
+            }
+        }
+    }
+
+    /**
+     * Serves the requests read from the given reader until it is exhausted.
+     *
+     * @return {@code false} if the client requested the service to stop
+     */
+    public boolean serve(Reader in, Writer out) throws IOException {
+        BufferedReader reader = new BufferedReader(in);
+        PrintWriter writer = new PrintWriter(out);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (line.trim().equals("QUIT")) {
+                return false;
+            }
+            for (String responseLine : handle(line)) {
+                writer.println(responseLine);
+            }
+            writer.println("END");
+            writer.flush();
+        }
+        return true;
+    }
+
+    /**
+     * Handles one request line and returns the response lines without the
+     * terminating {@code END}.
+     */
+    public synchronized List<String> handle(String request) {
+        List<String> response = new ArrayList<>();
+        String[] fields = request.split("\t");
+        File atlFile = new File(fields[0].trim());
+        try {
+            String source = Files.readString(atlFile.toPath());
+            AtlTransformation transformation = fields.length > 3
+                    ? AtlTransformation.valueOf(fields[3].trim())
+                    : transformationOf(atlFile, source);
+            File input = fields.length > 1 && !fields[1].isBlank()
+                    ? new File(fields[1].trim())
+                    : executor.getModelFile(transformation.getSampleInput());
+            File output = fields.length > 2 && !fields[2].isBlank()
+                    ? new File(fields[2].trim())
+                    : new File(outputDir, transformation.getModuleName() + "-" + (++requests) + ".xmi");
+
+            CompiledModule module;
+            try {
+                module = compile(source, atlFile);
+            } catch (RuntimeException | LinkageError e) {
+                // The compiler throws on some malformed modules instead of reporting them.
+                response.add("COMPILE_ERROR 1");
+                response.add("error - " + describe(e));
+                return response;
+            }
+            if (!module.isValid()) {
+                response.add("COMPILE_ERROR " + module.problems.length);
+                addProblems(response, module.problems);
+                return response;
+            }
+            ModelFingerprint reference = referenceOutput(transformation, input);
+            long start = System.nanoTime();
+            long runMillis;
+            try {
+                ModelFactory factory = new EMFModelFactory();
+                IModel inModel = executor.injectInput(factory, transformation, input);
+                IModel outModel = executor.launch(factory, module.asm, transformation, inModel, new HashMap<>());
+                if (output.getAbsoluteFile().getParentFile() != null) {
+                    Files.createDirectories(output.getAbsoluteFile().getParentFile().toPath());
+                }
+                executor.extractTo(outModel, output);
+                runMillis = (System.nanoTime() - start) / 1_000_000;
+            } catch (Exception | LinkageError | StackOverflowError e) {
+                response.add("RUNTIME_ERROR " + describe(e));
+                return response;
+            }
+            ModelFingerprint fingerprint = fingerprint(output);
+            response.add("OK " + output.getAbsolutePath() + " " + module.millis + " " + runMillis + " "
+                    + (reference.equals(fingerprint) ? "MATCH" : "MISMATCH") + " " + fingerprint.getElements());
+            addProblems(response, module.problems);
+        } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+            response.add("REQUEST_ERROR " + describe(e));
+        }
+        return response;
+    }
+
+    /**
+     * Returns the compiled module for the given source, compiling it only if
+     * no module with the same content has been compiled before.
+     */
+    private CompiledModule compile(String source, File atlFile) throws IOException {
+        String key = sha256(source);
+        CompiledModule module = modules.get(key);
+        if (module == null) {
+            long start = System.nanoTime();
+            File asm = Files.createTempFile("atlservice", ".asm").toFile();
+            asm.deleteOnExit();
+            CompileTimeError[] problems = executor.compile(atlFile, asm);
+            module = new CompiledModule(asm, problems, (System.nanoTime() - start) / 1_000_000);
+            modules.put(key, module);
+        }
+        return module;
+    }
+
+    /** Returns whether a module with the given source is compiled and cached. */
+    synchronized boolean isCached(String source) {
+        return modules.containsKey(sha256(source));
+    }
+
+    /**
+     * Returns the fingerprint of the output of the reference module for the
+     * given input, running the reference module on first use.
+     */
+    private ModelFingerprint referenceOutput(AtlTransformation transformation, File input) throws IOException {
+        String key = transformation + "\t" + input.getAbsolutePath();
+        ModelFingerprint reference = referenceOutputs.get(key);
+        if (reference == null) {
+            File atlFile = executor.getAtlFile(transformation.getAtlFileName());
+            CompiledModule module = compile(Files.readString(atlFile.toPath()), atlFile);
+            File output = new File(outputDir, transformation.getModuleName() + "-reference.xmi");
+            try {
+                ModelFactory factory = new EMFModelFactory();
+                IModel inModel = executor.injectInput(factory, transformation, input);
+                IModel outModel = executor.launch(factory, module.asm, transformation, inModel, new HashMap<>());
+                Files.createDirectories(output.getAbsoluteFile().getParentFile().toPath());
+                executor.extractTo(outModel, output);
+            } catch (Exception e) {
+                throw new IllegalStateException("Reference module " + transformation.getAtlFileName()
+                        + " failed on " + input.getName() + ": " + describe(e), e);
+            }
+            reference = fingerprint(output);
+            referenceOutputs.put(key, reference);
+        }
+        return reference;
+    }
+
+    private ModelFingerprint fingerprint(File output) {
+        Resource resource = executor.getResourceSet().getResource(URI.createFileURI(output.getAbsolutePath()), true);
+        try {
+            return ModelFingerprint.of(resource);
+        } finally {
+            executor.release(resource);
+        }
+    }
+
+    private static AtlTransformation transformationOf(File atlFile, String source) {
+        Optional<AtlTransformation> transformation = AtlTransformation.forFileName(atlFile.getName());
+        if (transformation.isEmpty()) {
+            String module = AtlRule.parseModuleName(source);
+            transformation = module == null ? Optional.empty() : AtlTransformation.forFileName(module + ".atl");
+        }
+        return transformation.orElseThrow(
+                () -> new IllegalArgumentException("Unknown transformation for " + atlFile.getName()));
+    }
+
+    private static void addProblems(List<String> response, CompileTimeError[] problems) {
+        for (CompileTimeError problem : problems) {
+            response.add(problem.getSeverity() + " " + problem.getLocation() + " "
+                    + problem.getDescription().replaceAll("\\s+", " "));
+        }
+    }
+
+    private static String describe(Throwable t) {
+        String message = t.getMessage() == null ? "" : t.getMessage().replaceAll("\\s+", " ");
+        return t.getClass().getSimpleName() + (message.isEmpty() ? "" : ": " + message);
+    }
+
+    private static String sha256(String source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(source.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
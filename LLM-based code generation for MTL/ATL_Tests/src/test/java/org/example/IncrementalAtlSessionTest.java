@@ -0,0 +1,124 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.example.generator.InputModelGenerator;
+import org.example.harness.AtlExecutor;
+import org.example.harness.AtlTransformation;
+import org.example.harness.ModelFingerprint;
+import org.example.incremental.IncrementalAtlSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that {@link IncrementalAtlSession} keeps the output of the
+ * Network→Graph and Families→Persons transformations equal to the output of a
+ * full run after renaming, adding and deleting input elements.
+ */
+public class IncrementalAtlSessionTest {
+
+    private AtlExecutor executor;
+    private IncrementalAtlSession session;
+
+    @BeforeEach
+    // Generate a network of 200 elements and run the reference module on it once.
+    public void initSession() throws Exception {
+        executor = new AtlExecutor();
+        File input = Files.createTempFile("network", ".xmi").toFile();
+        input.deleteOnExit();
+        InputModelGenerator.save(InputModelGenerator.network(executor.loadMetamodel("network.ecore"), 200, 10, 3),
+                input);
+        session = new IncrementalAtlSession(new File("."), AtlTransformation.NETWORK_TO_GRAPH,
+                executor.getAtlFile("NetworkToGraph_All.atl"), input);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static EList<EObject> list(EObject object, String feature) {
+        return (EList<EObject>) object.eGet(object.eClass().getEStructuralFeature(feature));
+    }
+
+    /** Runs the transformation on the current input of the session. */
+    private ModelFingerprint fullRun() throws Exception {
+        return fullRun(session, AtlTransformation.NETWORK_TO_GRAPH);
+    }
+
+    private ModelFingerprint fullRun(IncrementalAtlSession session, AtlTransformation transformation)
+            throws Exception {
+        File input = Files.createTempFile("input", ".xmi").toFile();
+        input.deleteOnExit();
+        try (OutputStream out = Files.newOutputStream(input.toPath())) {
+            session.getInput().save(out, Map.of());
+        }
+        File asm = executor.compile(executor.getAtlFile(transformation.getAtlFileName()));
+        Resource output = executor.execute(asm, transformation, input);
+        try {
+            return ModelFingerprint.of(output);
+        } finally {
+            executor.release(output);
+        }
+    }
+
+    @Test
+    public void testRenameComponent() throws Exception {
+        EObject component = list(session.getInput().getContents().get(0), "components").get(0);
+        component.eSet(component.eClass().getEStructuralFeature("name"), "Renamed");
+
+        IncrementalAtlSession.Update update = session.update();
+        assertFalse(update.isFull(), update.toString());
+        assertEquals(fullRun(), ModelFingerprint.of(session.getOutput()));
+    }
+
+    @Test
+    public void testAddComponent() throws Exception {
+        EObject system = session.getInput().getContents().get(1);
+        EObject component = EcoreUtil.copy(list(system, "components").get(0));
+        component.eSet(component.eClass().getEStructuralFeature("name"), "Added");
+        list(system, "components").add(component);
+        list(list(system, "links").get(0), "components").add(component);
+
+        IncrementalAtlSession.Update update = session.update();
+        assertFalse(update.isFull(), update.toString());
+        assertEquals(1, update.getCreated());
+        assertEquals(fullRun(), ModelFingerprint.of(session.getOutput()));
+    }
+
+    @Test
+    public void testDeleteLink() throws Exception {
+        EObject system = session.getInput().getContents().get(2);
+        EcoreUtil.delete(list(system, "links").get(0));
+
+        IncrementalAtlSession.Update update = session.update();
+        assertFalse(update.isFull(), update.toString());
+        assertEquals(1, update.getDeleted());
+        assertEquals(fullRun(), ModelFingerprint.of(session.getOutput()));
+    }
+
+    @Test
+    public void testRenameFamily() throws Exception {
+        File input = Files.createTempFile("families", ".xmi").toFile();
+        input.deleteOnExit();
+        InputModelGenerator.save(InputModelGenerator.families(executor.loadMetamodel("families.ecore"), 500, 4),
+                input);
+        IncrementalAtlSession families = new IncrementalAtlSession(new File("."),
+                AtlTransformation.FAMILIES_TO_PERSONS, executor.getAtlFile("FamiliesToPersons_All.atl"), input);
+        EObject family = list(families.getInput().getContents().get(0), "families").get(0);
+        family.eSet(family.eClass().getEStructuralFeature("lastName"), "Renamed");
+
+        IncrementalAtlSession.Update update = families.update();
+        assertFalse(update.isFull(), update.toString());
+        // The family, its four members and the register without its other families.
+        assertEquals(5, update.getAffected(), update.toString());
+        assertEquals(6, update.getSliceElements(), update.toString());
+        assertEquals(fullRun(families, AtlTransformation.FAMILIES_TO_PERSONS),
+                ModelFingerprint.of(families.getOutput()));
+    }
+}
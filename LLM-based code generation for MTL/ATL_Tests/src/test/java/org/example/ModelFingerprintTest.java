@@ -0,0 +1,90 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.emf.common.util.ECollections;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.example.generator.InputModelGenerator;
+import org.example.harness.AtlExecutor;
+import org.example.harness.ModelFingerprint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that {@link ModelFingerprint} ignores the order of elements and
+ * serialisation details but detects changes of attribute values and
+ * references.
+ */
+public class ModelFingerprintTest {
+
+    private EPackage networkPkg;
+
+    @BeforeEach
+    public void loadMetamodel() {
+        networkPkg = new AtlExecutor().loadMetamodel("network.ecore");
+    }
+
+    private List<EObject> generate() {
+        return InputModelGenerator.network(networkPkg, 200, 10, 3);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static EList<EObject> list(EObject object, String feature) {
+        return (EList<EObject>) object.eGet(object.eClass().getEStructuralFeature(feature));
+    }
+
+    @Test
+    public void testOrderInsensitive() {
+        List<EObject> original = generate();
+        ModelFingerprint expected = ModelFingerprint.of(original);
+
+        List<EObject> reordered = new ArrayList<>(generate());
+        Collections.reverse(reordered);
+        for (EObject system : reordered) {
+            ECollections.reverse(list(system, "components"));
+            ECollections.reverse(list(system, "links"));
+        }
+        assertEquals(expected, ModelFingerprint.of(reordered));
+        assertEquals(InputModelGenerator.countElements(original), expected.getElements());
+    }
+
+    @Test
+    public void testDetectsChanges() {
+        ModelFingerprint expected = ModelFingerprint.of(generate());
+
+        List<EObject> renamed = generate();
+        EObject component = list(renamed.get(0), "components").get(0);
+        component.eSet(component.eClass().getEStructuralFeature("name"), "Renamed");
+        assertNotEquals(expected, ModelFingerprint.of(renamed));
+
+        List<EObject> relinked = generate();
+        EObject link = list(relinked.get(0), "links").get(0);
+        list(link, "components").set(0, list(relinked.get(0), "components").get(9));
+        assertNotEquals(expected, ModelFingerprint.of(relinked));
+    }
+
+    @Test
+    public void testXmiRoundTrip() throws Exception {
+        List<EObject> roots = generate();
+        ModelFingerprint expected = ModelFingerprint.of(roots);
+        File file = Files.createTempFile("fingerprint", ".xmi").toFile();
+        file.deleteOnExit();
+        InputModelGenerator.save(roots, file);
+
+        ResourceSetImpl rs = new ResourceSetImpl();
+        rs.getPackageRegistry().put(networkPkg.getNsURI(), networkPkg);
+        Resource loaded = rs.getResource(URI.createFileURI(file.getAbsolutePath()), true);
+        assertEquals(expected, ModelFingerprint.of(loaded));
+    }
+}
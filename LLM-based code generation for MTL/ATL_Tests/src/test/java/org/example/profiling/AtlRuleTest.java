@@ -0,0 +1,141 @@
+package org.example.profiling;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.example.harness.AtlExecutor;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that {@link AtlRule} extracts the module name and the rule headers,
+ * kinds and pattern elements of ATL modules, ignoring comments and braces in
+ * string literals.
+ */
+public class AtlRuleTest {
+
+    private static final String MODULE = String.join("\n",
+            "-- module Commented;",
+            "module Sample;",
+            "create OUT : T from IN : M;",
+            "",
+            "-- rule Hidden { from h : M!H to g : T!G }",
+            "rule Plain {",
+            "\tfrom",
+            "\t\ta : M!A (a.name <> '}')",
+            "\tusing {",
+            "\t\tn : String = a.name;",
+            "\t}",
+            "\tto",
+            "\t\tx : T!X (",
+            "\t\t\tname <- n",
+            "\t\t),",
+            "\t\ty : T!Y",
+            "}",
+            "",
+            "abstract rule Base {",
+            "\tfrom",
+            "\t\tb : M!B",
+            "\tto",
+            "\t\tx : T!X",
+            "}",
+            "",
+            "rule Sub extends Base {",
+            "\tfrom",
+            "\t\tb : M!C",
+            "}",
+            "",
+            "unique lazy rule Cached {",
+            "\tfrom",
+            "\t\ta : M!A,",
+            "\t\tb : M!B",
+            "\tto",
+            "\t\tz : T!Z",
+            "}",
+            "",
+            "rule Called(name : String) {",
+            "\tto",
+            "\t\tx : T!X (",
+            "\t\t\tname <- name",
+            "\t\t)",
+            "\tdo {",
+            "\t\tx;",
+            "\t}",
+            "}");
+
+    @Test
+    public void testModuleName() {
+        assertEquals("Sample", AtlRule.parseModuleName(MODULE));
+        assertNull(AtlRule.parseModuleName("-- module Commented;\nrule R { from a : M!A to b : T!B }"));
+    }
+
+    @Test
+    public void testRuleHeaders() {
+        List<AtlRule> rules = AtlRule.parse(MODULE);
+        assertEquals(List.of("Plain", "Base", "Sub", "Cached", "Called"),
+                rules.stream().map(AtlRule::getName).toList());
+
+        AtlRule plain = rules.get(0);
+        assertEquals(AtlRule.Kind.MATCHED, plain.getKind());
+        assertFalse(plain.isAbstract());
+        assertEquals(List.of("a"), plain.getSourceVariables());
+        assertEquals(List.of("A"), plain.getSourceTypes());
+        assertEquals(List.of("x", "y"), plain.getTargetVariables());
+        assertEquals(List.of("X", "Y"), plain.getTargetTypes());
+
+        AtlRule base = rules.get(1);
+        assertEquals(AtlRule.Kind.MATCHED, base.getKind());
+        assertTrue(base.isAbstract());
+
+        AtlRule sub = rules.get(2);
+        assertEquals("Base", sub.getSuperRule());
+        assertEquals(List.of("C"), sub.getSourceTypes());
+        assertEquals(List.of(), sub.getTargetVariables());
+        assertEquals(List.of("X"), sub.getTargetTypes(), "A sub rule creates the targets of its super rule");
+        assertEquals(-1, sub.getTargetPatternEnd());
+
+        AtlRule cached = rules.get(3);
+        assertEquals(AtlRule.Kind.LAZY, cached.getKind());
+        assertEquals(List.of("a", "b"), cached.getSourceVariables());
+        assertEquals(List.of("A", "B"), cached.getSourceTypes());
+        assertEquals(List.of("Z"), cached.getTargetTypes());
+
+        AtlRule called = rules.get(4);
+        assertEquals(AtlRule.Kind.CALLED, called.getKind());
+        assertEquals(List.of(), called.getSourceTypes());
+        assertEquals(List.of("x"), called.getTargetVariables());
+    }
+
+    @Test
+    public void testTargetPatternEnd() {
+        List<AtlRule> rules = AtlRule.parse(MODULE);
+        assertTrue(MODULE.substring(0, rules.get(0).getTargetPatternEnd()).endsWith("y : T!Y"));
+        assertTrue(MODULE.substring(0, rules.get(3).getTargetPatternEnd()).endsWith("z : T!Z"));
+        // The target pattern of a called rule ends before its do block.
+        assertTrue(MODULE.substring(0, rules.get(4).getTargetPatternEnd()).endsWith("\t\t)"));
+    }
+
+    @Test
+    public void testStripCommentsKeepsOffsets() {
+        String source = "a -- comment\nb '--' c";
+        String stripped = AtlRule.stripComments(source);
+        assertEquals(source.length(), stripped.length());
+        assertEquals("a           \nb '--' c", stripped);
+    }
+
+    @Test
+    public void testReferenceModules() throws Exception {
+        File atlFile = new AtlExecutor().getAtlFile("AmaltheaToAscet_All.atl");
+        String source = Files.readString(atlFile.toPath());
+        assertEquals("AmaltheaToAscet_All", AtlRule.parseModuleName(source));
+        List<AtlRule> rules = AtlRule.parse(source);
+        assertEquals(List.of("ComponentContainer2AscetModule", "TaskRoot2SoftwareTask", "Task2SoftwareTask"),
+                rules.stream().map(AtlRule::getName).toList());
+        assertEquals(List.of(AtlRule.Kind.MATCHED, AtlRule.Kind.MATCHED, AtlRule.Kind.LAZY),
+                rules.stream().map(AtlRule::getKind).toList());
+        assertEquals(List.of("Task"), rules.get(1).getSourceTypes());
+        assertEquals(List.of("SoftwareTask"), rules.get(2).getTargetTypes());
+    }
+}
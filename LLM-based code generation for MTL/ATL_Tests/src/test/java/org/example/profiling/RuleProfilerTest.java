@@ -0,0 +1,162 @@
+package org.example.profiling;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.example.harness.AtlExecutor;
+import org.example.harness.AtlTransformation;
+import org.example.profiling.RuleProfile.RuleStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks how {@link RuleProfiler} attributes matches, created elements and
+ * time to rules, by replaying the calls of the EMF virtual machine on a small
+ * dynamic target metamodel and by profiling a reference module.
+ */
+public class RuleProfilerTest {
+
+    private static final String MODULE = String.join("\n",
+            "module Sample;",
+            "create OUT : T from IN : M;",
+            "rule First { from a : M!A to x : T!X }",
+            "rule Second { from b : M!B to y : T!Y }",
+            "lazy rule Later { from a : M!A to z : T!Z }");
+
+    private EClass sourceA;
+    private EClass sourceB;
+    private EClass targetX;
+    private EClass targetY;
+    private EClass targetZ;
+    private EAttribute name;
+    private EReference ref;
+
+    @BeforeEach
+    // Create the source classes A and B and the target classes X, Y and Z.
+    public void createMetamodel() {
+        EcoreFactory factory = EcoreFactory.eINSTANCE;
+        EPackage pkg = factory.createEPackage();
+        sourceA = eClass(pkg, "A");
+        sourceB = eClass(pkg, "B");
+        targetX = eClass(pkg, "X");
+        targetY = eClass(pkg, "Y");
+        targetZ = eClass(pkg, "Z");
+        name = factory.createEAttribute();
+        name.setName("name");
+        name.setEType(EcorePackage.Literals.ESTRING);
+        targetX.getEStructuralFeatures().add(name);
+        ref = factory.createEReference();
+        ref.setName("ref");
+        ref.setEType(targetY);
+        targetX.getEStructuralFeatures().add(ref);
+    }
+
+    private static EClass eClass(EPackage pkg, String className) {
+        EClass eClass = EcoreFactory.eINSTANCE.createEClass();
+        eClass.setName(className);
+        pkg.getEClassifiers().add(eClass);
+        return eClass;
+    }
+
+    private static Map<String, RuleStats> byName(RuleProfile profile) {
+        return profile.getRules().stream().collect(Collectors.toMap(RuleStats::getName, r -> r));
+    }
+
+    @Test
+    public void testAttribution() throws Exception {
+        RuleProfiler profiler = new RuleProfiler("Sample", AtlRule.parse(MODULE));
+        profiler.start();
+        // Matcher of First: two matches.
+        profiler.onAllInstances(sourceA);
+        EObject x1 = EcoreUtil.create(targetX);
+        profiler.onCreate(x1);
+        profiler.onCreate(EcoreUtil.create(targetX));
+        // Matcher of Second: one match, whose time is measured until the first binding.
+        profiler.onAllInstances(sourceB);
+        EObject y = EcoreUtil.create(targetY);
+        profiler.onCreate(y);
+        Thread.sleep(5);
+        x1.eSet(name, "first");
+        // Binding of First resolving an element of Second.
+        Thread.sleep(5);
+        x1.eSet(ref, y);
+        // Binding of First calling the lazy rule.
+        Thread.sleep(5);
+        profiler.onCreate(EcoreUtil.create(targetZ));
+        RuleProfile profile = profiler.finish();
+
+        Map<String, RuleStats> rules = byName(profile);
+        assertEquals(List.of("First", "Second", "Later"),
+                profile.getRules().stream().map(RuleStats::getName).toList());
+        assertEquals(2, rules.get("First").getMatches());
+        assertEquals(2, rules.get("First").getCreated());
+        assertEquals(1, rules.get("First").getResolutions());
+        assertEquals(1, rules.get("Second").getMatches());
+        assertEquals(0, rules.get("Second").getResolutions());
+        assertEquals(1, rules.get("Later").getMatches());
+
+        assertTrue(rules.get("Second").getMatchNanos() >= 5_000_000);
+        assertTrue(rules.get("First").getApplyNanos() < 5_000_000);
+        assertTrue(rules.get("First").getResolveNanos() >= 10_000_000, "The binding and the lazy call resolve");
+        assertEquals(0, rules.get("Later").getMatchNanos());
+        assertTrue(profile.getTotalNanos() >= 15_000_000);
+        // Elements are no longer observed after the run.
+        assertTrue(x1.eAdapters().isEmpty());
+    }
+
+    @Test
+    public void testUnchangedValuesDoNotEndTheMatchPhase() {
+        RuleProfiler profiler = new RuleProfiler("Sample", AtlRule.parse(MODULE));
+        profiler.start();
+        profiler.onAllInstances(sourceA);
+        EObject x = EcoreUtil.create(targetX);
+        profiler.onCreate(x);
+        x.eSet(ref, null);
+        profiler.onAllInstances(sourceB);
+        profiler.onCreate(EcoreUtil.create(targetY));
+        Map<String, RuleStats> rules = byName(profiler.finish());
+        assertEquals(1, rules.get("First").getCreated());
+        assertEquals(1, rules.get("Second").getCreated());
+    }
+
+    @Test
+    public void testLazyCallEndsTheMatchPhase() {
+        RuleProfiler profiler = new RuleProfiler("Sample", AtlRule.parse(MODULE));
+        profiler.start();
+        profiler.onAllInstances(sourceA);
+        profiler.onCreate(EcoreUtil.create(targetX));
+        // First creates no Z, so the lazy rule was called by a binding.
+        profiler.onCreate(EcoreUtil.create(targetZ));
+        profiler.onAllInstances(sourceB);
+        Map<String, RuleStats> rules = byName(profiler.finish());
+        assertEquals(1, rules.get("First").getCreated());
+        assertEquals(1, rules.get("Later").getMatches());
+        assertEquals(0, rules.get("Later").getMatchNanos());
+        assertEquals(0, rules.get("Second").getMatches(), "Queries after the match phase start no matcher");
+    }
+
+    @Test
+    public void testReferenceModule() throws Exception {
+        AtlExecutor executor = new AtlExecutor();
+        Map<String, RuleStats> rules = byName(RuleProfiler.profile(executor, AtlTransformation.NETWORK_TO_GRAPH,
+                executor.getAtlFile("NetworkToGraph_All.atl"), executor.getModelFile("network_input.xmi")));
+        assertEquals(2, rules.get("Component2Entity").getMatches());
+        assertEquals(1, rules.get("System2Root").getMatches());
+        assertEquals(1, rules.get("Link2Link").getMatches());
+        // Root and link refer to the entities of both components through resolveTemp.
+        assertEquals(0, rules.get("Component2Entity").getResolutions());
+        assertEquals(2, rules.get("System2Root").getResolutions());
+        assertEquals(2, rules.get("Link2Link").getResolutions());
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.example.harness.AtlExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks the responses of {@link AtlService} to valid, broken and failing
+ * modules, the framing of the request protocol and the module cache.
+ */
+public class AtlServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AtlExecutor executor;
+    private AtlService service;
+    private String reference;
+
+    @BeforeEach
+    // Create a service caching at most two modules and read the reference Network→Graph module.
+    public void initService() throws Exception {
+        executor = new AtlExecutor();
+        service = new AtlService(executor, tempDir.resolve("out").toFile(), 2);
+        reference = Files.readString(executor.getAtlFile("NetworkToGraph_All.atl").toPath());
+    }
+
+    /** Writes a module named after the Network→Graph transformation into a folder of its own. */
+    private String module(String folder, String source) throws Exception {
+        Path file = Files.createDirectories(tempDir.resolve(folder)).resolve("NetworkToGraph_All.atl");
+        return Files.writeString(file, source).toString();
+    }
+
+    @Test
+    public void testReferenceModuleMatches() {
+        List<String> response = service.handle(executor.getAtlFile("NetworkToGraph_All.atl").getPath());
+        String[] fields = response.get(0).split(" ");
+        assertEquals("OK", fields[0], response.toString());
+        assertTrue(new File(fields[1]).isFile());
+        assertEquals("MATCH", fields[4]);
+        // One root, two entities and one link.
+        assertEquals("4", fields[5]);
+    }
+
+    @Test
+    public void testChangedOutputMismatches() throws Exception {
+        String changed = module("changed", reference.replace("name <- c.name", "name <- c.name + '!'"));
+        File output = tempDir.resolve("changed.xmi").toFile();
+        List<String> response = service.handle(changed + "\t\t" + output.getPath() + "\tNETWORK_TO_GRAPH");
+        String[] fields = response.get(0).split(" ");
+        assertEquals("OK", fields[0], response.toString());
+        assertEquals(output.getAbsolutePath(), fields[1]);
+        assertEquals("MISMATCH", fields[4]);
+    }
+
+    @Test
+    public void testCompileError() throws Exception {
+        String broken = module("broken", "module NetworkToGraph_All;\ncreate OUT : Graph from IN : Network;\n"
+                + "rule Broken {\n  from c : Network!Component\n  to e : Graph!Entity (name <- )\n}\n");
+        List<String> response = service.handle(broken);
+        assertTrue(response.get(0).startsWith("COMPILE_ERROR "), response.toString());
+        assertEquals(response.size() - 1, Integer.parseInt(response.get(0).substring("COMPILE_ERROR ".length())));
+        assertTrue(response.size() > 1, "Every compiler problem is reported");
+    }
+
+    @Test
+    public void testRuntimeError() throws Exception {
+        String failing = module("failing",
+                reference.replace("name <- c.name", "name <- c.name.noSuchOperation()"));
+        List<String> response = service.handle(failing);
+        assertEquals(1, response.size(), response.toString());
+        assertTrue(response.get(0).startsWith("RUNTIME_ERROR "), response.toString());
+    }
+
+    @Test
+    public void testRequestErrors() throws Exception {
+        List<String> missing = service.handle(tempDir.resolve("missing.atl").toString());
+        assertEquals(1, missing.size());
+        assertTrue(missing.get(0).startsWith("REQUEST_ERROR "), missing.toString());
+
+        String unknown = Files.writeString(tempDir.resolve("Unknown.atl"), "module Unknown;\n").toString();
+        assertTrue(service.handle(unknown).get(0).startsWith("REQUEST_ERROR "));
+        String module = executor.getAtlFile("NetworkToGraph_All.atl").getPath();
+        assertTrue(service.handle(module + "\t\t\tNO_SUCH_TRANSFORMATION").get(0).startsWith("REQUEST_ERROR "));
+    }
+
+    @Test
+    public void testFramingAndQuit() throws Exception {
+        String module = executor.getAtlFile("NetworkToGraph_All.atl").getPath();
+        String missing = tempDir.resolve("missing.atl").toString();
+        StringWriter out = new StringWriter();
+        boolean running = service.serve(new StringReader(missing + "\n\n" + module + "\nQUIT\n" + missing + "\n"),
+                out);
+        assertFalse(running, "QUIT stops the service");
+        List<String> lines = out.toString().lines().toList();
+        // Blank lines are skipped and nothing after QUIT is handled.
+        assertEquals(4, lines.size(), lines.toString());
+        assertTrue(lines.get(0).startsWith("REQUEST_ERROR "));
+        assertEquals("END", lines.get(1));
+        assertTrue(lines.get(2).startsWith("OK "));
+        assertEquals("END", lines.get(3));
+
+        assertTrue(service.serve(new StringReader(module + "\n"), new StringWriter()),
+                "The end of the input only ends the connection");
+    }
+
+    @Test
+    public void testModulesAreCachedByContent() throws Exception {
+        String first = "-- first\n" + reference;
+        String second = "-- second\n" + reference;
+        String[] compiled = service.handle(module("a", first)).get(0).split(" ");
+        assertEquals("OK", compiled[0]);
+        // The same content in another file is not compiled again.
+        String[] cached = service.handle(module("b", first)).get(0).split(" ");
+        assertEquals("OK", cached[0]);
+        assertEquals(compiled[2], cached[2], "The compile time of the cached module is reported");
+        assertTrue(service.isCached(first));
+        assertTrue(service.isCached(reference));
+
+        // A third module evicts the least recently used one, the reference
+        // module, whose output is kept anyway.
+        assertTrue(service.handle(module("c", second)).get(0).startsWith("OK "));
+        assertFalse(service.isCached(reference));
+        assertTrue(service.isCached(first));
+        assertTrue(service.isCached(second));
+
+        // An evicted module is compiled again.
+        String module = executor.getAtlFile("NetworkToGraph_All.atl").getPath();
+        assertTrue(service.handle(module).get(0).endsWith(" MATCH 4"));
+        assertTrue(service.isCached(reference));
+        assertFalse(service.isCached(first));
+    }
+}
@@ -0,0 +1,359 @@
+package tools.vitruv.reactionsparser.chrf;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Computes character n-gram F-scores (ChrF) of generated code against
+ * reference code, identical to the scores of the Code node in the
+ * {@code ChrF_parser} n8n workflow.
+ *
+ * <p>
+ * Both texts are preprocessed exactly like the workflow does (see
+ * {@link #preprocess(String)}), after which the character n-grams of each
+ * order are counted.  Instead of keying maps by n-gram strings, every n-gram
+ * is identified by the pair of the identifier of its (n-1)-gram prefix and
+ * its last character, packed into a {@code long}.  A primitive map assigns
+ * dense identifiers to these keys, so counting needs neither substrings nor
+ * boxed counts, and unlike hashing the n-grams themselves the keys never
+ * collide.  The counting buffers are kept per thread and reused.
+ * </p>
+ *
+ * <p>
+ * Scores are available per pair ({@link #score(String, String)}) and for a
+ * whole corpus, either as the average of the pair scores like the workflow's
+ * Average node or from the summed n-gram statistics of all pairs
+ * ({@link CorpusResult#corpusScore()}).
+ * </p>
+ */
+public final class ChrfScorer {
+
+    /** Highest n-gram order used by the workflow. */
+    public static final int DEFAULT_ORDER = 6;
+
+    /** Recall weight used by the workflow (ChrF-2). */
+    public static final int DEFAULT_BETA = 2;
+
+    // JavaScript's '.' does not match line terminators, and '$' in multiline
+    // mode matches before them, so '.*$' is a run of non-terminators.
+    private static final Pattern LINE_COMMENT = Pattern.compile("//[^\\n\\r\\u2028\\u2029]*");
+    private static final Pattern BLOCK_COMMENT = Pattern.compile("(?s)/\\*.*?\\*/");
+    private static final Pattern HASH_COMMENT = Pattern.compile("#[^\\n\\r\\u2028\\u2029]*");
+    private static final Pattern DASH_COMMENT = Pattern.compile("--[^\\n\\r\\u2028\\u2029]*");
+    // JavaScript's '\s', which covers more characters than Java's.
+    private static final Pattern WHITESPACE = Pattern.compile(
+            "[\\t\\n\\u000B\\f\\r \\u00A0\\u1680\\u2000-\\u200A\\u2028\\u2029\\u202F\\u205F\\u3000\\uFEFF]+");
+
+    private static final int CAPITAL_SIGMA = 0x03A3;
+    private static final char SMALL_SIGMA = '\u03C3';
+    private static final char FINAL_SIGMA = '\u03C2';
+    private static final int CAPITAL_I_WITH_DOT = 0x0130;
+    private static final String CASE_IGNORABLE_PUNCTUATION =
+            "'.:\u00B7\u0387\u055F\u05F4\u2018\u2019\u2024\u2027\uFE13\uFE52\uFE55\uFF07\uFF0E\uFF1A";
+
+    private final int order;
+    private final int beta;
+    private final ThreadLocal<NGramCounter> counters;
+
+    /**
+     * A named pair of reference and response text.
+     */
+    public record Pair(String name, String reference, String response) {
+    }
+
+    /**
+     * The score of one pair as a percentage rounded to two decimals, like the
+     * {@code chrf2} field of the workflow, together with its statistics.
+     */
+    public record Score(String name, double chrf, ChrfStatistics statistics) {
+    }
+
+    /**
+     * The scores of all pairs of a corpus and their summed statistics.
+     */
+    public record CorpusResult(List<Score> scores, ChrfStatistics total, int beta) {
+
+        /**
+         * Returns the sum of the rounded pair scores, added one after another
+         * like the workflow's Average node does.  {@code DoubleStream.sum}
+         * compensates rounding errors and would differ in the last bits.
+         */
+        public double sumScore() {
+            double sum = 0;
+            for (Score score : scores) {
+                sum += score.chrf();
+            }
+            return sum;
+        }
+
+        /**
+         * Returns the average of the rounded pair scores, as computed by the
+         * workflow's Average node.
+         */
+        public double averageScore() {
+            return sumScore() / scores.size();
+        }
+
+        /**
+         * Returns the corpus-level ChrF as a percentage, computed from the
+         * n-gram statistics summed over all pairs, so that long snippets
+         * weigh more than short ones.
+         */
+        public double corpusScore() {
+            return toPercent(total.score(beta));
+        }
+    }
+
+    public ChrfScorer() {
+        this(DEFAULT_ORDER, DEFAULT_BETA);
+    }
+
+    public ChrfScorer(int order, int beta) {
+        if (order < 1) {
+            throw new IllegalArgumentException("The n-gram order must be positive but is " + order);
+        }
+        this.order = order;
+        this.beta = beta;
+        this.counters = ThreadLocal.withInitial(NGramCounter::new);
+    }
+
+    /**
+     * Normalizes a text like the workflow: removes {@code //}, block,
+     * {@code #} and {@code --} comments in this order, collapses whitespace to
+     * single spaces, lowercases and trims the result.
+     */
+    public static String preprocess(String text) {
+        String result = LINE_COMMENT.matcher(text).replaceAll("");
+        result = BLOCK_COMMENT.matcher(result).replaceAll("");
+        result = HASH_COMMENT.matcher(result).replaceAll("");
+        result = DASH_COMMENT.matcher(result).replaceAll("");
+        result = WHITESPACE.matcher(result).replaceAll(" ");
+        result = toLowerCase(result);
+        // All whitespace is a single space now, and String.trim would also
+        // remove control characters that JavaScript keeps.
+        int start = 0;
+        int end = result.length();
+        while (start < end && result.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && result.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return result.substring(start, end);
+    }
+
+    /**
+     * Lowercases like JavaScript's {@code toLowerCase}: the locale independent
+     * full case mapping of Unicode, whose only context dependent rule is the
+     * final form of capital sigma.  {@code String.toLowerCase(Locale.ROOT)}
+     * decides that context differently next to some non-letters, so the
+     * mapping is applied here per code point.
+     */
+    private static String toLowerCase(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            if (codePoint == CAPITAL_SIGMA) {
+                result.append(isFinalSigma(text, i) ? FINAL_SIGMA : SMALL_SIGMA);
+            } else if (codePoint == CAPITAL_I_WITH_DOT) {
+                // The only unconditional mapping to more than one character.
+                result.append("i\u0307");
+            } else {
+                result.appendCodePoint(Character.toLowerCase(codePoint));
+            }
+            i += Character.charCount(codePoint);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Tests the Final_Sigma condition of the Unicode standard: the sigma
+     * follows a cased letter and is not followed by one, ignoring case
+     * ignorable characters in between.
+     */
+    private static boolean isFinalSigma(String text, int index) {
+        int before = index;
+        int codePoint = -1;
+        while (before > 0) {
+            codePoint = text.codePointBefore(before);
+            before -= Character.charCount(codePoint);
+            if (!isCaseIgnorable(codePoint)) {
+                break;
+            }
+            codePoint = -1;
+        }
+        if (codePoint == -1 || !isCased(codePoint)) {
+            return false;
+        }
+        int after = index + 1;
+        while (after < text.length()) {
+            codePoint = text.codePointAt(after);
+            after += Character.charCount(codePoint);
+            if (!isCaseIgnorable(codePoint)) {
+                return !isCased(codePoint);
+            }
+        }
+        return true;
+    }
+
+    private static boolean isCased(int codePoint) {
+        return Character.isLowerCase(codePoint) || Character.isUpperCase(codePoint)
+                || Character.isTitleCase(codePoint);
+    }
+
+    private static boolean isCaseIgnorable(int codePoint) {
+        switch (Character.getType(codePoint)) {
+            case Character.NON_SPACING_MARK:
+            case Character.ENCLOSING_MARK:
+            case Character.FORMAT:
+            case Character.MODIFIER_LETTER:
+            case Character.MODIFIER_SYMBOL:
+                return true;
+            default:
+                // Word_Break=MidLetter, MidNumLet and Single_Quote.
+                return CASE_IGNORABLE_PUNCTUATION.indexOf(codePoint) >= 0;
+        }
+    }
+
+    /**
+     * Returns the ChrF score of the response against the reference as a
+     * percentage rounded to two decimals.
+     */
+    public double score(String reference, String response) {
+        return toPercent(statistics(reference, response).score(beta));
+    }
+
+    /**
+     * Scores one named pair.
+     */
+    public Score score(Pair pair) {
+        ChrfStatistics statistics = statistics(pair.reference(), pair.response());
+        return new Score(pair.name(), toPercent(statistics.score(beta)), statistics);
+    }
+
+    /**
+     * Combines already computed pair scores into a corpus result.
+     */
+    public CorpusResult corpus(List<Score> scores) {
+        ChrfStatistics total = new ChrfStatistics(order);
+        for (Score score : scores) {
+            total = total.add(score.statistics());
+        }
+        return new CorpusResult(List.copyOf(scores), total, beta);
+    }
+
+    /**
+     * Preprocesses both texts and counts their n-gram statistics.
+     */
+    public ChrfStatistics statistics(String reference, String response) {
+        return counters.get().count(preprocess(reference), preprocess(response), order);
+    }
+
+    /**
+     * Scores all pairs in the common fork/join pool.
+     */
+    public CorpusResult scoreAll(List<Pair> pairs) {
+        return scoreAll(pairs, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Scores all pairs using the given number of threads.
+     */
+    public CorpusResult scoreAll(List<Pair> pairs, int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return scoreAll(pairs, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private CorpusResult scoreAll(List<Pair> pairs, ForkJoinPool pool) {
+        Score[] scores = new Score[pairs.size()];
+        try {
+            // A parallel stream runs in the pool that invokes it.
+            pool.submit(() -> IntStream.range(0, pairs.size()).parallel()
+                    .forEach(i -> scores[i] = score(pairs.get(i)))).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scoring", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not score pairs", e.getCause());
+        }
+        return corpus(List.of(scores));
+    }
+
+    /**
+     * Converts a score in {@code [0..1]} to a percentage rounded to two
+     * decimals.  Like JavaScript's {@code toFixed}, ties are rounded up based
+     * on the exact binary value of the double.
+     */
+    static double toPercent(double score) {
+        return new BigDecimal(score * 100).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    /**
+     * Per-thread buffers for counting the n-grams of one pair.
+     */
+    private static final class NGramCounter {
+        private final LongIntHashMap ids = new LongIntHashMap(1024);
+        private int[] referenceIds = new int[0];
+        private int[] responseIds = new int[0];
+        private int[] referenceCounts = new int[0];
+        private int[] responseCounts = new int[0];
+
+        ChrfStatistics count(String reference, String response, int order) {
+            int distinctBound = reference.length() + response.length();
+            if (referenceIds.length < reference.length()) {
+                referenceIds = new int[reference.length()];
+            }
+            if (responseIds.length < response.length()) {
+                responseIds = new int[response.length()];
+            }
+            if (referenceCounts.length < distinctBound) {
+                referenceCounts = new int[distinctBound];
+                responseCounts = new int[distinctBound];
+            }
+
+            ChrfStatistics statistics = new ChrfStatistics(order);
+            for (int n = 1; n <= order; n++) {
+                ids.clear(distinctBound);
+                // Reference and response share the identifiers, so equal
+                // n-grams of both texts count towards the same index.
+                int referenceGrams = nextOrder(reference, referenceIds, referenceCounts, n);
+                int responseGrams = nextOrder(response, responseIds, responseCounts, n);
+                long matches = 0;
+                int distinct = ids.size();
+                for (int id = 0; id < distinct; id++) {
+                    matches += Math.min(referenceCounts[id], responseCounts[id]);
+                    referenceCounts[id] = 0;
+                    responseCounts[id] = 0;
+                }
+                statistics.set(n, matches, referenceGrams, responseGrams);
+            }
+            return statistics;
+        }
+
+        /**
+         * Replaces the identifiers of the (n-1)-grams starting at each
+         * position by those of the n-grams, counts them and returns their
+         * number.
+         */
+        private int nextOrder(String text, int[] gramIds, int[] counts, int n) {
+            int grams = Math.max(0, text.length() - n + 1);
+            for (int i = 0; i < grams; i++) {
+                char last = text.charAt(i + n - 1);
+                long key = n == 1 ? last : ((long) gramIds[i] << 16) | last;
+                int id = ids.getOrAdd(key);
+                gramIds[i] = id;
+                counts[id]++;
+            }
+            return grams;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package tools.vitruv.reactionsparser.chrf;
+
+/**
+ * Character n-gram statistics of one or more reference/response pairs: for
+ * every n-gram order the number of n-grams in the references, in the
+ * responses and the number of matching n-grams.  Statistics of several pairs
+ * are combined with {@link #add(ChrfStatistics)}, which gives corpus-level
+ * ChrF when the combined statistics are scored.
+ *
+ * <p>
+ * Instances are immutable once returned by the {@link ChrfScorer}.
+ * </p>
+ */
+public final class ChrfStatistics {
+    private final long[] matches;
+    private final long[] referenceGrams;
+    private final long[] responseGrams;
+
+    ChrfStatistics(int order) {
+        this.matches = new long[order];
+        this.referenceGrams = new long[order];
+        this.responseGrams = new long[order];
+    }
+
+    /**
+     * Creates statistics from previously computed counts, e.g. stored ones.
+     * The arrays hold the counts of the orders 1 to n and must be of equal
+     * length.
+     */
+    public static ChrfStatistics of(long[] matches, long[] referenceGrams, long[] responseGrams) {
+        if (matches.length != referenceGrams.length || matches.length != responseGrams.length) {
+            throw new IllegalArgumentException("The counts must be given for the same orders");
+        }
+        ChrfStatistics statistics = new ChrfStatistics(matches.length);
+        for (int n = 1; n <= matches.length; n++) {
+            statistics.set(n, matches[n - 1], referenceGrams[n - 1], responseGrams[n - 1]);
+        }
+        return statistics;
+    }
+
+    /**
+     * Records the statistics of the n-grams of length {@code n}.
+     */
+    void set(int n, long matches, long referenceGrams, long responseGrams) {
+        this.matches[n - 1] = matches;
+        this.referenceGrams[n - 1] = referenceGrams;
+        this.responseGrams[n - 1] = responseGrams;
+    }
+
+    /**
+     * Returns the highest n-gram order of these statistics.
+     */
+    public int getOrder() {
+        return matches.length;
+    }
+
+    /**
+     * Returns the number of n-grams of length {@code n} that the reference and
+     * the response have in common.
+     */
+    public long getMatches(int n) {
+        return matches[n - 1];
+    }
+
+    /**
+     * Returns the number of n-grams of length {@code n} in the references.
+     */
+    public long getReferenceGrams(int n) {
+        return referenceGrams[n - 1];
+    }
+
+    /**
+     * Returns the number of n-grams of length {@code n} in the responses.
+     */
+    public long getResponseGrams(int n) {
+        return responseGrams[n - 1];
+    }
+
+    /**
+     * Returns the sum of these statistics and the given ones, which must have
+     * the same order.
+     */
+    public ChrfStatistics add(ChrfStatistics other) {
+        if (other.getOrder() != getOrder()) {
+            throw new IllegalArgumentException("Cannot add statistics of order " + other.getOrder()
+                    + " to statistics of order " + getOrder());
+        }
+        ChrfStatistics sum = new ChrfStatistics(getOrder());
+        for (int i = 0; i < matches.length; i++) {
+            sum.matches[i] = matches[i] + other.matches[i];
+            sum.referenceGrams[i] = referenceGrams[i] + other.referenceGrams[i];
+            sum.responseGrams[i] = responseGrams[i] + other.responseGrams[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Computes the ChrF score in {@code [0..1]}.  As in the ChrF_parser
+     * workflow, the F-score is computed per order and averaged over the
+     * orders that have at least one matching n-gram; orders without a match
+     * are left out instead of counting as zero.
+     *
+     * @param beta weight of recall relative to precision
+     */
+    public double score(int beta) {
+        // Evaluated in the same order as the workflow's JavaScript, so that
+        // scores are identical to the last bit.
+        double sumF = 0;
+        int used = 0;
+        for (int i = 0; i < matches.length; i++) {
+            double prec = responseGrams[i] != 0 ? (double) matches[i] / responseGrams[i] : 0;
+            double rec = referenceGrams[i] != 0 ? (double) matches[i] / referenceGrams[i] : 0;
+            if (prec + rec > 0) {
+                double f = (1 + beta * beta) * prec * rec / (beta * beta * prec + rec);
+                sumF += f;
+                used++;
+            }
+        }
+        return used != 0 ? sumF / used : 0;
+    }
+}
@@ -0,0 +1,118 @@
+package tools.vitruv.reactionsparser.chrf;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from non-negative {@code long} keys to dense
+ * {@code int} identifiers.  Each new key is assigned the next identifier,
+ * starting at zero, so callers can keep per-key data in plain arrays indexed
+ * by identifier instead of boxing counts in a general purpose map.
+ *
+ * <p>
+ * Keys and identifiers are stored in parallel primitive arrays and collisions
+ * are resolved by linear probing.  The map is meant to be cleared and reused,
+ * which keeps its arrays allocated across calls.
+ * </p>
+ */
+final class LongIntHashMap {
+
+    /** Marks an unused slot; valid keys are never negative. */
+    private static final long EMPTY = -1L;
+
+    private long[] keys;
+    private int[] ids;
+    private int mask;
+    private int size;
+
+    LongIntHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Returns the identifier of the given key, assigning the next free
+     * identifier if the key has not been seen since the last {@link #clear()}.
+     *
+     * @param key a non-negative key
+     * @return the dense identifier of the key
+     */
+    int getOrAdd(long key) {
+        int slot = slot(key);
+        while (true) {
+            long current = keys[slot];
+            if (current == key) {
+                return ids[slot];
+            }
+            if (current == EMPTY) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int id = size++;
+        keys[slot] = key;
+        ids[slot] = id;
+        // Keep the load factor at or below one half so probe sequences stay short.
+        if (size * 2 > keys.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * Returns the number of distinct keys, which is also the next identifier
+     * to be assigned.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Removes all keys, keeping the arrays for reuse.  Maps that grew for a
+     * large input are shrunk again so that one large input does not make
+     * every later clear expensive.
+     */
+    void clear(int expectedSize) {
+        int capacity = capacityFor(expectedSize);
+        if (keys.length > capacity * 4) {
+            allocate(capacity);
+        } else {
+            Arrays.fill(keys, EMPTY);
+        }
+        size = 0;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldIds = ids;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                ids[slot] = oldIds[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        ids = new int[capacity];
+        mask = capacity - 1;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private int slot(long key) {
+        // Fibonacci hashing spreads the packed character bits over the table.
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
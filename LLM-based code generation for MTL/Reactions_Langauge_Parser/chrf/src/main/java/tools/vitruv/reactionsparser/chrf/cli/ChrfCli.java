@@ -0,0 +1,86 @@
+package tools.vitruv.reactionsparser.chrf.cli;
+
+import tools.vitruv.reactionsparser.chrf.ChrfScorer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Command line entry point for scoring generated reactions against their
+ * references.  The scorer reads every file of the references directory and
+ * the file of the same name in the responses directory, scores the pairs in
+ * parallel and prints one line per pair followed by the summary computed by
+ * the ChrF_parser workflow.
+ *
+ * <p>
+ * Usage:
+ * <pre>
+ *   java -jar tools.vitruv.reactionsparser.chrf-0.1.0-SNAPSHOT.jar <referencesDir> <responsesDir> [<threads>]
+ * </pre>
+ * The output is tab separated: a {@code file}/{@code chrf2} line per pair,
+ * followed by the {@code sum}, {@code count} and {@code average} of the pair
+ * scores and the corpus-level {@code corpus} score.  References without a
+ * response are reported on stderr and skipped.
+ * </p>
+ */
+public class ChrfCli {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: java -jar <jar> <referencesDir> <responsesDir> [threads]");
+            System.exit(1);
+        }
+        int threads = args.length == 3 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        List<ChrfScorer.Pair> pairs = readPairs(Paths.get(args[0]), Paths.get(args[1]));
+        if (pairs.isEmpty()) {
+            System.err.println("No reference has a response of the same name");
+            System.exit(1);
+        }
+
+        ChrfScorer.CorpusResult result = new ChrfScorer().scoreAll(pairs, threads);
+        System.out.println("file\tchrf2");
+        for (ChrfScorer.Score score : result.scores()) {
+            System.out.println(score.name() + "\t" + format(score.chrf()));
+        }
+        System.out.println();
+        System.out.println("sum\t" + format(result.sumScore()));
+        System.out.println("count\t" + result.scores().size());
+        System.out.println("average\t" + format(result.averageScore()));
+        System.out.println("corpus\t" + format(result.corpusScore()));
+    }
+
+    /**
+     * Pairs every regular file of the references directory with the file of
+     * the same name in the responses directory, in the order of the file
+     * names.  Both files are read as UTF-8 like the workflow's text
+     * extraction does.
+     */
+    private static List<ChrfScorer.Pair> readPairs(Path references, Path responses) throws IOException {
+        List<Path> referenceFiles;
+        try (Stream<Path> files = Files.list(references)) {
+            referenceFiles = files.filter(Files::isRegularFile).sorted().toList();
+        }
+        List<ChrfScorer.Pair> pairs = new ArrayList<>();
+        for (Path reference : referenceFiles) {
+            Path response = responses.resolve(reference.getFileName().toString());
+            if (!Files.isRegularFile(response)) {
+                System.err.println("No response for " + reference.getFileName());
+                continue;
+            }
+            pairs.add(new ChrfScorer.Pair(reference.getFileName().toString(), Files.readString(reference),
+                    Files.readString(response)));
+        }
+        return pairs;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+}
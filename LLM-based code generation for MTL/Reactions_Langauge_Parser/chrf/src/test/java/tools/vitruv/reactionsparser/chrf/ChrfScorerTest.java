@@ -0,0 +1,91 @@
+package tools.vitruv.reactionsparser.chrf;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the scores with those of the {@code ChrF_parser} n8n workflow.
+ * The expected values were computed by running the JavaScript of the
+ * workflow's Code and Average nodes on the same texts in Node.js.  Raw scores
+ * are given as printed by {@code String(score)}, which identifies a double
+ * exactly, so they are compared bit for bit.
+ */
+public class ChrfScorerTest {
+
+    /**
+     * A pair of texts with the raw score and the {@code chrf2} field, rounded
+     * by {@code toFixed(2)}, of the workflow.
+     */
+    private record Fixture(String name, String reference, String response, double score, double chrf2) {
+    }
+
+    private static final List<Fixture> FIXTURES = List.of(
+            new Fixture("comments",
+                    "reaction A { // first\n  call x() /* block\n comment */ # hash\n}\n-- dash\nroutine r() {}",
+                    "reaction A {\n  call x()\n}\nroutine r() {} // trailing", 1, 100),
+            // Line comments are removed before block comments.
+            new Fixture("comment markers inside block", "a /* // b */ c -- d\r\ne # f\u2028g", "a c e g",
+                    0.4776567457221615, 47.77),
+            new Fixture("unicode whitespace", "map\u00A0Families\u2003to\u3000Persons\uFEFF\u2028end\u0085",
+                    "map families to persons end", 0.9682342156972612, 96.82),
+            // Not whitespace in JavaScript, so they are not trimmed.
+            new Fixture("control characters are kept", "\u001Fcreate person\u001C", "create person",
+                    0.8650397792867688, 86.5),
+            new Fixture("sigma", "ΟΔΟΣ ΣΑΣ Σ", "οδος σας σ", 1, 100),
+            new Fixture("sigma next to punctuation", "AΣ. AΣ'B Σ1 (Σ)",
+                    "aς. aσ'b σ1 (σ)", 1, 100),
+            new Fixture("dotted capital i", "İstanbul ß", "i\u0307stanbul ss", 0.8563697973744738, 85.64),
+            // toFixed rounds ties of the exact value up, 15.625 to 15.63.
+            new Fixture("tie", "   a a a a ", " b bb ", 0.15625, 15.63),
+            new Fixture("second tie", " b  a ba b", "a a b  ba ", 0.64375, 64.38),
+            new Fixture("empty response", "reaction A {}", "", 0, 0));
+
+    private final ChrfScorer scorer = new ChrfScorer();
+
+    @Test
+    void scoresEqualTheWorkflow() {
+        for (Fixture fixture : FIXTURES) {
+            ChrfStatistics statistics = scorer.statistics(fixture.reference(), fixture.response());
+            Assertions.assertEquals(fixture.score(), statistics.score(ChrfScorer.DEFAULT_BETA), fixture.name());
+            Assertions.assertEquals(fixture.chrf2(), scorer.score(fixture.reference(), fixture.response()),
+                    fixture.name());
+        }
+    }
+
+    @Test
+    void parallelScoresEqualTheWorkflow() {
+        List<ChrfScorer.Pair> pairs = FIXTURES.stream()
+                .map(fixture -> new ChrfScorer.Pair(fixture.name(), fixture.reference(), fixture.response()))
+                .toList();
+        List<ChrfScorer.Score> scores = scorer.scoreAll(pairs, 4).scores();
+        for (int i = 0; i < FIXTURES.size(); i++) {
+            Assertions.assertEquals(FIXTURES.get(i).name(), scores.get(i).name());
+            Assertions.assertEquals(FIXTURES.get(i).chrf2(), scores.get(i).chrf(), FIXTURES.get(i).name());
+        }
+    }
+
+    @Test
+    void preprocessingEqualsTheWorkflow() {
+        Assertions.assertEquals("a /* e g", ChrfScorer.preprocess("a /* // b */ c -- d\r\ne # f\u2028g"));
+        Assertions.assertEquals("\u001Fcreate person\u001C", ChrfScorer.preprocess("\u001Fcreate person\u001C"));
+        Assertions.assertEquals("aς. aσ'b σ1 (σ)", ChrfScorer.preprocess("AΣ. AΣ'B Σ1 (Σ)"));
+        Assertions.assertEquals("i\u0307stanbul ß", ChrfScorer.preprocess("İstanbul ß"));
+    }
+
+    @Test
+    void averageEqualsTheWorkflow() {
+        // Compensated summation would give 1291.18 here.
+        double[] chrf2 = { 10.05, 40.74, 3.62, 65.89, 71.07, 15.27, 15.96, 55.41, 91.1, 48.71, 91.4, 15.93, 36.9,
+            86.45, 53.93, 58.34, 4.23, 76.17, 62.4, 87.93, 45.02, 0.49, 85.23, 2.34, 70.5, 27.5, 7.54, 61.06 };
+        List<ChrfScorer.Score> scores = new ArrayList<>();
+        for (double score : chrf2) {
+            scores.add(new ChrfScorer.Score("pair" + scores.size(), score, null));
+        }
+        ChrfScorer.CorpusResult result = new ChrfScorer.CorpusResult(scores, null, ChrfScorer.DEFAULT_BETA);
+        Assertions.assertEquals(1291.1799999999998, result.sumScore());
+        Assertions.assertEquals(46.113571428571426, result.averageScore());
+    }
+}
@@ -0,0 +1,125 @@
+package tools.vitruv.reactionsparser.evaluation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client of an {@code AtlService} of the ATL_Tests project, started as a
+ * child process that answers requests on its standard input and output.  The
+ * service keeps the ATL compiler and the metamodels warm, compiles and runs a
+ * module per request and compares the output with that of the reference
+ * module.
+ *
+ * <p>
+ * A client serves one request at a time; the pipeline starts several
+ * services to check modules in parallel.  Services write the outputs of a
+ * module to files named after it, so every service gets its own output
+ * directory.
+ * </p>
+ */
+final class AtlServiceClient implements AutoCloseable {
+
+    private static final List<String> STATUSES = List.of("OK", "COMPILE_ERROR", "RUNTIME_ERROR", "REQUEST_ERROR");
+
+    /** Replaced by the output directory of the service in its command. */
+    static final String OUT_PLACEHOLDER = "{out}";
+
+    private final Process process;
+    private final BufferedReader in;
+    private final PrintWriter out;
+
+    /**
+     * Starts the service and waits until it answers requests.
+     *
+     * @param command         command starting the service, e.g. through Maven
+     * @param directory       working directory of the service, the ATL_Tests project
+     * @param outputDirectory directory of the outputs of this service, relative
+     *                        to the working directory
+     * @throws IOException if the service cannot be started
+     */
+    AtlServiceClient(List<String> command, Path directory, String outputDirectory) throws IOException {
+        this.process = new ProcessBuilder(withOutputDirectory(command, outputDirectory))
+                .directory(directory.toFile())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        this.in = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        this.out = new PrintWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        // The service reads its first request only once it has started, so
+        // the answer to a request for a missing module signals readiness.
+        // Starting the services one after another also keeps several Maven
+        // builds from compiling the project at the same time.
+        request("-");
+    }
+
+    /**
+     * Passes the output directory to the service: replaces
+     * {@value #OUT_PLACEHOLDER} in the command, e.g. in
+     * {@code -Dexec.args=--out={out}} of a Maven command, or appends an
+     * {@code --out} option to a command that starts the service directly.
+     */
+    static List<String> withOutputDirectory(List<String> command, String outputDirectory) {
+        if (command.stream().anyMatch(argument -> argument.contains(OUT_PLACEHOLDER))) {
+            return command.stream().map(argument -> argument.replace(OUT_PLACEHOLDER, outputDirectory)).toList();
+        }
+        List<String> result = new ArrayList<>(command);
+        result.add("--out=" + outputDirectory);
+        return result;
+    }
+
+    /**
+     * Sends one request and returns the response lines up to the terminating
+     * {@code END}, starting with the status line.
+     *
+     * @param request a tab separated request of the service protocol
+     * @throws IOException if the service terminated
+     */
+    List<String> request(String request) throws IOException {
+        out.println(request);
+        out.flush();
+        List<String> response = new ArrayList<>();
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.equals("END")) {
+                return response;
+            }
+            // Ignore output of the build tool that started the service.
+            if (!response.isEmpty() || STATUSES.contains(line.split(" ", 2)[0])) {
+                response.add(line);
+            }
+        }
+        throw new IOException("ATL service terminated with exit code " + waitForExit());
+    }
+
+    /**
+     * Stops the service, killing it if it does not stop in time.
+     */
+    @Override
+    public void close() {
+        out.println("QUIT");
+        out.flush();
+        out.close();
+        waitForExit();
+    }
+
+    private int waitForExit() {
+        try {
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return process.waitFor();
+            }
+            return process.exitValue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package tools.vitruv.reactionsparser.evaluation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * One generated response together with the reference it is evaluated
+ * against.
+ *
+ * @param language  name of the language folder, e.g. {@code reactions_language}
+ * @param model     name of the language model that generated the response
+ * @param strategy  name of the prompting strategy
+ * @param response  the generated file
+ * @param reference the reference file of the same name, or {@code null} if
+ *                  there is none
+ */
+public record EvaluationItem(String language, String model, String strategy, Path response, Path reference) {
+
+    /**
+     * Returns the file name of the response, which identifies the item
+     * within its model and strategy.
+     */
+    public String name() {
+        return response.getFileName().toString();
+    }
+
+    /**
+     * Returns whether the item is an ATL module rather than a reactions file.
+     */
+    public boolean isAtl() {
+        return name().endsWith(".atl");
+    }
+
+    /**
+     * Finds all responses in a snippets tree of the n8n workflows.  Each
+     * language folder contains the generated code in
+     * {@code responses/<model>/<strategy>/} and the references anywhere below
+     * {@code references/}; a response is paired with the reference of the
+     * same file name.
+     *
+     * <pre>
+     *   mtl_snippets/reactions_language/references/FamiliesToPersons_CreatedFather.reactions
+     *   mtl_snippets/reactions_language/responses/gpt-5/few_shot/FamiliesToPersons_CreatedFather.reactions
+     * </pre>
+     *
+     * @param snippets the {@code mtl_snippets} folder
+     * @return the items ordered by language, model, strategy and file name
+     * @throws IOException if the tree cannot be read
+     */
+    public static List<EvaluationItem> discover(Path snippets) throws IOException {
+        List<EvaluationItem> items = new ArrayList<>();
+        for (Path language : subfolders(snippets)) {
+            Map<String, Path> references = references(language.resolve("references"));
+            for (Path model : subfolders(language.resolve("responses"))) {
+                for (Path strategy : subfolders(model)) {
+                    try (Stream<Path> files = Files.list(strategy)) {
+                        for (Path response : files.filter(Files::isRegularFile).sorted().toList()) {
+                            items.add(new EvaluationItem(language.getFileName().toString(),
+                                    model.getFileName().toString(), strategy.getFileName().toString(), response,
+                                    references.get(response.getFileName().toString())));
+                        }
+                    }
+                }
+            }
+        }
+        return items;
+    }
+
+    private static Map<String, Path> references(Path folder) throws IOException {
+        Map<String, Path> references = new TreeMap<>();
+        if (!Files.isDirectory(folder)) {
+            return references;
+        }
+        try (Stream<Path> files = Files.walk(folder)) {
+            // Sorted so that a file directly in references/ wins over one of
+            // the same name in a subfolder.
+            files.filter(Files::isRegularFile)
+                    .sorted((a, b) -> a.getNameCount() != b.getNameCount()
+                            ? Integer.compare(a.getNameCount(), b.getNameCount())
+                            : a.compareTo(b))
+                    .forEach(file -> references.putIfAbsent(file.getFileName().toString(), file));
+        }
+        return references;
+    }
+
+    private static List<Path> subfolders(Path folder) throws IOException {
+        if (!Files.isDirectory(folder)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(folder)) {
+            return files.filter(Files::isDirectory).sorted().toList();
+        }
+    }
+}
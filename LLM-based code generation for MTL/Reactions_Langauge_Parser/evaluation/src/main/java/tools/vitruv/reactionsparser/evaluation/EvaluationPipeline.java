@@ -0,0 +1,258 @@
+package tools.vitruv.reactionsparser.evaluation;
+
+import tools.vitruv.dsls.reactions.ReactionsLanguageStandaloneSetup;
+import tools.vitruv.reactionsparser.chrf.ChrfScorer;
+import tools.vitruv.reactionsparser.parser.GenericXtextParser;
+import tools.vitruv.reactionsparser.utils.EcoreLoader;
+
+import org.eclipse.xtext.validation.Issue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Evaluates generated transformations in three stages that run in parallel:
+ *
+ * <ol>
+ *   <li><b>parse</b> &ndash; reactions are parsed and validated in process
+ *   with the {@link GenericXtextParser}, like the parser CLI does,</li>
+ *   <li><b>score</b> &ndash; the response is scored against its reference
+ *   with the {@link ChrfScorer},</li>
+ *   <li><b>check</b> &ndash; ATL modules are compiled and run by warm
+ *   {@code AtlService} processes, which compare their output with that of
+ *   the reference module.</li>
+ * </ol>
+ *
+ * <p>
+ * Every stage has its own threads and a bounded queue.  A stage whose queue
+ * is full blocks the stage feeding it, so slow checks throttle parsing
+ * instead of piling up parsed items in memory.  Failures are recorded in the
+ * {@link ItemResult} of the item and do not stop the evaluation.
+ * </p>
+ *
+ * <p>
+ * Reactions are not run here: they have to be compiled to Java as part of a
+ * reactions project first.  Their behaviour is checked per model and
+ * strategy by the {@code VariantRunner} of the Reactions_Language_Tests
+ * project, whose report the {@link EvaluationReport} includes.
+ * </p>
+ */
+public final class EvaluationPipeline implements AutoCloseable {
+
+    private final ThreadPoolExecutor parseStage;
+    private final ThreadPoolExecutor scoreStage;
+    private final ThreadPoolExecutor checkStage;
+    private final GenericXtextParser parser = new GenericXtextParser();
+    private final ChrfScorer scorer = new ChrfScorer();
+    private final List<AtlServiceClient> atlServices = new ArrayList<>();
+    private final BlockingQueue<AtlServiceClient> idleAtlServices;
+
+    /**
+     * Configuration of the pipeline.
+     *
+     * @param models        folder with the {@code *.ecore} files the reactions refer to
+     * @param parseThreads  number of threads parsing reactions
+     * @param scoreThreads  number of threads computing ChrF scores
+     * @param atlServices   number of ATL services, or zero to skip the ATL checks
+     * @param atlProject    the ATL_Tests project the services run in
+     * @param atlCommand    command starting one ATL service in the project, in
+     *                      which {@code {out}} stands for the output directory
+     *                      of the service
+     * @param queueCapacity number of items that may wait for each stage
+     */
+    public record Configuration(Path models, int parseThreads, int scoreThreads, int atlServices, Path atlProject,
+            List<String> atlCommand, int queueCapacity) {
+    }
+
+    /**
+     * Sets up the reactions language and starts the ATL services.
+     *
+     * @throws Exception if the metamodels cannot be loaded or a service
+     *                   cannot be started
+     */
+    public EvaluationPipeline(Configuration configuration) throws Exception {
+        // Initialise Xtext for the reactions language and register the
+        // metamodels once; both are global and shared by all parse threads.
+        ReactionsLanguageStandaloneSetup.doSetup();
+        EcoreLoader.loadAll(configuration.models());
+
+        parseStage = stage("parse", configuration.parseThreads(), configuration.queueCapacity());
+        scoreStage = stage("score", configuration.scoreThreads(), configuration.queueCapacity());
+        // Items without ATL checks pass through this stage as well, so it has
+        // a thread even without services.
+        checkStage = stage("check", Math.max(1, configuration.atlServices()), configuration.queueCapacity());
+        idleAtlServices = new ArrayBlockingQueue<>(Math.max(1, configuration.atlServices()));
+        try {
+            for (int i = 0; i < configuration.atlServices(); i++) {
+                // The services share the project folder, but not their outputs.
+                AtlServiceClient service = new AtlServiceClient(configuration.atlCommand(),
+                        configuration.atlProject(), "target/atl-service-" + (i + 1));
+                atlServices.add(service);
+                idleAtlServices.add(service);
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Evaluates the given items and returns their results in the same order.
+     */
+    public List<ItemResult> evaluate(List<EvaluationItem> items) {
+        return evaluate(items, result -> { });
+    }
+
+    /**
+     * Evaluates the given items and returns their results in the same order.
+     * Each result is also passed to the given consumer as soon as it is
+     * complete, from the thread of the last stage.
+     */
+    public List<ItemResult> evaluate(List<EvaluationItem> items, Consumer<ItemResult> onResult) {
+        List<CompletableFuture<ItemResult>> results = new ArrayList<>(items.size());
+        for (EvaluationItem item : items) {
+            // Submitting blocks while the parse queue is full.
+            results.add(CompletableFuture.supplyAsync(() -> parse(new ItemResult(item)), parseStage)
+                    .thenApplyAsync(this::score, scoreStage)
+                    .thenApplyAsync(this::check, checkStage)
+                    .thenApply(result -> {
+                        onResult.accept(result);
+                        return result;
+                    }));
+        }
+        return results.stream().map(CompletableFuture::join).toList();
+    }
+
+    private ItemResult parse(ItemResult result) {
+        EvaluationItem item = result.getItem();
+        if (item.isAtl()) {
+            // ATL modules are compiled by the service in the check stage.
+            return result;
+        }
+        try {
+            List<Issue> issues = parser.parse(item.response().toString()).getIssues();
+            // Like the parser CLI, any issue fails the response.
+            result.setSyntax(issues.isEmpty() ? ItemResult.Syntax.OK : ItemResult.Syntax.ERROR, issues.size());
+            if (!issues.isEmpty()) {
+                result.addMessage(issues.get(0).getMessage() + " (" + issues.get(0).getSeverity() + ")");
+            }
+        } catch (Exception e) {
+            // The parser throws on responses it cannot load at all.
+            result.setSyntax(ItemResult.Syntax.ERROR, 1);
+            result.addMessage(describe(e));
+        }
+        return result;
+    }
+
+    private ItemResult score(ItemResult result) {
+        EvaluationItem item = result.getItem();
+        if (item.reference() == null) {
+            result.addMessage("no reference");
+            return result;
+        }
+        try {
+            ChrfScorer.Pair pair = new ChrfScorer.Pair(item.name(), Files.readString(item.reference()),
+                    Files.readString(item.response()));
+            result.setChrf(scorer.score(pair));
+        } catch (IOException e) {
+            result.addMessage(describe(e));
+        }
+        return result;
+    }
+
+    private ItemResult check(ItemResult result) {
+        if (!result.getItem().isAtl() || atlServices.isEmpty()) {
+            return result;
+        }
+        AtlServiceClient service;
+        try {
+            service = idleAtlServices.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.addMessage("interrupted");
+            return result;
+        }
+        try {
+            List<String> response = service.request(result.getItem().response().toAbsolutePath().toString());
+            String[] status = response.get(0).split(" ");
+            switch (status[0]) {
+                case "OK" -> {
+                    result.setSyntax(ItemResult.Syntax.OK, response.size() - 1);
+                    result.setBehaviour(ItemResult.Behaviour.valueOf(status[status.length - 2]));
+                }
+                case "COMPILE_ERROR" -> {
+                    result.setSyntax(ItemResult.Syntax.ERROR, Integer.parseInt(status[1]));
+                    result.addMessage(response.size() > 1 ? response.get(1) : response.get(0));
+                }
+                case "RUNTIME_ERROR" -> {
+                    result.setSyntax(ItemResult.Syntax.OK, 0);
+                    result.setBehaviour(ItemResult.Behaviour.RUNTIME_ERROR);
+                    result.addMessage(response.get(0).substring(status[0].length()).trim());
+                }
+                default -> result.addMessage(response.get(0));
+            }
+        } catch (IOException | RuntimeException e) {
+            result.addMessage(describe(e));
+        } finally {
+            idleAtlServices.add(service);
+        }
+        return result;
+    }
+
+    /**
+     * Stops the stages and the ATL services.
+     */
+    @Override
+    public void close() {
+        parseStage.shutdownNow();
+        scoreStage.shutdownNow();
+        checkStage.shutdownNow();
+        for (AtlServiceClient service : atlServices) {
+            service.close();
+        }
+        atlServices.clear();
+    }
+
+    /**
+     * Creates a stage with a fixed number of threads and a bounded queue.
+     * Instead of rejecting tasks when the queue is full, the submitting thread
+     * waits for space, which propagates back pressure to the previous stage.
+     */
+    private static ThreadPoolExecutor stage(String name, int threads, int capacity) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity), factory, (task, executor) -> {
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException("Stage " + name + " is shut down");
+                    }
+                    try {
+                        executor.getQueue().put(task);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Interrupted while waiting for stage " + name, e);
+                    }
+                });
+    }
+
+    private static String describe(Throwable t) {
+        String message = t.getMessage() == null ? "" : ": " + t.getMessage();
+        return t.getClass().getSimpleName() + message;
+    }
+}
@@ -0,0 +1,182 @@
+package tools.vitruv.reactionsparser.evaluation;
+
+import tools.vitruv.reactionsparser.chrf.ChrfScorer;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Aggregates item results per language, model and prompting strategy.  For
+ * every group the report contains the number of responses, how many of them
+ * parsed, the ChrF scores and the behavioural checks: matching ATL outputs,
+ * or for reactions the scenarios passed in the {@code VariantRunner} report
+ * of the variant named {@code <model>__<strategy>}, if a report is given.
+ * Reactions whose variant is missing from the report are shown as
+ * {@code missing}.
+ */
+public final class EvaluationReport {
+
+    /** Separates model and strategy in the variant names of the VSUM report. */
+    public static final String VARIANT_SEPARATOR = "__";
+
+    /** Result of the VSUM scenarios of one variant. */
+    public record VariantResult(long scenarios, long passed) {
+    }
+
+    /**
+     * The aggregated results of one model and strategy.
+     *
+     * @param atl       whether the items are ATL modules rather than reactions
+     * @param chrf      the ChrF scores of the items that have a reference
+     * @param checked   number of ATL modules checked by a service, including
+     *                  those that did not compile
+     * @param matching  number of items whose behaviour matched the reference
+     * @param scenarios the VSUM scenario results, or {@code null} if there
+     *                  are none
+     */
+    public record Group(String language, String model, String strategy, boolean atl, int items, int parsed,
+            ChrfScorer.CorpusResult chrf, int checked, int matching, VariantResult scenarios) {
+    }
+
+    private final List<ItemResult> results;
+    private final boolean hasVsumReport;
+    private final List<Group> groups = new ArrayList<>();
+
+    /**
+     * Aggregates the given results.
+     *
+     * @param vsumReport the tab separated report of a {@code VariantRunner}
+     *                   run, or {@code null}
+     * @throws IOException if the VSUM report cannot be read
+     */
+    public EvaluationReport(List<ItemResult> results, ChrfScorer scorer, Path vsumReport) throws IOException {
+        this.results = results;
+        this.hasVsumReport = vsumReport != null;
+        Map<String, VariantResult> variants = vsumReport == null ? Map.of() : readVariants(vsumReport);
+        Map<List<String>, List<ItemResult>> byGroup = new LinkedHashMap<>();
+        for (ItemResult result : results) {
+            EvaluationItem item = result.getItem();
+            byGroup.computeIfAbsent(List.of(item.language(), item.model(), item.strategy()),
+                    key -> new ArrayList<>()).add(result);
+        }
+        byGroup.forEach((key, members) -> {
+            List<ChrfScorer.Score> scores = members.stream()
+                    .map(ItemResult::getChrf).filter(Objects::nonNull).toList();
+            boolean atl = members.get(0).getItem().isAtl();
+            VariantResult scenarios = atl ? null : variants.get(key.get(1) + VARIANT_SEPARATOR + key.get(2));
+            groups.add(new Group(key.get(0), key.get(1), key.get(2), atl, members.size(),
+                    (int) members.stream().filter(it -> it.getSyntax() == ItemResult.Syntax.OK).count(),
+                    scorer.corpus(scores),
+                    (int) members.stream().filter(EvaluationReport::isChecked).count(),
+                    (int) members.stream().filter(it -> it.getBehaviour() == ItemResult.Behaviour.MATCH).count(),
+                    scenarios));
+        });
+    }
+
+    public List<Group> getGroups() {
+        return groups;
+    }
+
+    /**
+     * Prints one line per model and strategy.
+     */
+    public void print(PrintStream out) {
+        String format = "%-30s %-18s %-36s %5s %6s %8s %8s %14s%n";
+        out.printf(format, "language", "model", "strategy", "items", "parsed", "chrf avg", "chrf", "behaviour");
+        for (Group group : groups) {
+            out.printf(format, group.language(), group.model(), group.strategy(), group.items(), group.parsed(),
+                    average(group), corpus(group), behaviour(group));
+        }
+    }
+
+    /**
+     * Writes {@code summary.tsv} with one line per model and strategy and,
+     * for every model and strategy, {@code <language>/<model>/<strategy>.tsv}
+     * with one line per item.
+     */
+    public void write(Path folder) throws IOException {
+        Files.createDirectories(folder);
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(folder.resolve("summary.tsv")))) {
+            writer.println("language\tmodel\tstrategy\titems\tparsed\tchrf_average\tchrf_corpus\tbehaviour");
+            for (Group group : groups) {
+                writer.println(String.join("\t", group.language(), group.model(), group.strategy(),
+                        String.valueOf(group.items()), String.valueOf(group.parsed()), average(group),
+                        corpus(group), behaviour(group)));
+            }
+        }
+        Map<List<String>, PrintWriter> writers = new HashMap<>();
+        try {
+            for (ItemResult result : results) {
+                EvaluationItem item = result.getItem();
+                PrintWriter writer = writers.get(List.of(item.language(), item.model(), item.strategy()));
+                if (writer == null) {
+                    Path file = folder.resolve(item.language()).resolve(item.model())
+                            .resolve(item.strategy() + ".tsv");
+                    Files.createDirectories(file.getParent());
+                    writer = new PrintWriter(Files.newBufferedWriter(file));
+                    writer.println("file\tsyntax\tissues\tchrf2\tbehaviour\tmessage");
+                    writers.put(List.of(item.language(), item.model(), item.strategy()), writer);
+                }
+                writer.println(String.join("\t", item.name(), result.getSyntax().name(),
+                        String.valueOf(result.getIssues()),
+                        result.getChrf() == null ? "" : format(result.getChrf().chrf()),
+                        result.getBehaviour().name(), result.getMessage()));
+            }
+        } finally {
+            writers.values().forEach(PrintWriter::close);
+        }
+    }
+
+    private static boolean isChecked(ItemResult result) {
+        return result.getItem().isAtl() && result.getSyntax() != ItemResult.Syntax.NOT_CHECKED;
+    }
+
+    private static String average(Group group) {
+        return group.chrf().scores().isEmpty() ? "-" : format(group.chrf().averageScore());
+    }
+
+    private static String corpus(Group group) {
+        return group.chrf().scores().isEmpty() ? "-" : format(group.chrf().corpusScore());
+    }
+
+    private String behaviour(Group group) {
+        if (group.scenarios() != null) {
+            return group.scenarios().passed() + "/" + group.scenarios().scenarios() + " scenarios";
+        }
+        if (hasVsumReport && !group.atl()) {
+            return "missing";
+        }
+        return group.checked() == 0 ? "-" : group.matching() + "/" + group.checked() + " match";
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    /**
+     * Reads the variant names and scenario counts of a {@code VariantRunner}
+     * report ({@code variant, tests, passed, failed, failures}), whose tests
+     * are the scenarios run against the variant.
+     */
+    private static Map<String, VariantResult> readVariants(Path report) throws IOException {
+        Map<String, VariantResult> variants = new HashMap<>();
+        List<String> lines = Files.readAllLines(report);
+        for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
+            String[] fields = line.split("\t");
+            if (fields.length >= 3) {
+                variants.put(fields[0], new VariantResult(Long.parseLong(fields[1]), Long.parseLong(fields[2])));
+            }
+        }
+        return variants;
+    }
+}
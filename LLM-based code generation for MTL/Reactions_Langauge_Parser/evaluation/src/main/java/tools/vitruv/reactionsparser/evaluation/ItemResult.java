@@ -0,0 +1,97 @@
+package tools.vitruv.reactionsparser.evaluation;
+
+import tools.vitruv.reactionsparser.chrf.ChrfScorer;
+
+/**
+ * The outcome of evaluating one {@link EvaluationItem}.  The stages of the
+ * {@link EvaluationPipeline} fill in their part one after another; every
+ * check that was not performed keeps its {@code NOT_CHECKED} state.
+ */
+public final class ItemResult {
+
+    /** Outcome of parsing or compiling the response. */
+    public enum Syntax {
+        /** The response was parsed without issues. */
+        OK,
+        /** The parser or compiler reported issues. */
+        ERROR,
+        /** The response was not parsed. */
+        NOT_CHECKED
+    }
+
+    /** Outcome of running the response. */
+    public enum Behaviour {
+        /** The output of the response equals the output of the reference. */
+        MATCH,
+        /** The response ran, but its output differs from that of the reference. */
+        MISMATCH,
+        /** The response failed while running. */
+        RUNTIME_ERROR,
+        /** The response was not run. */
+        NOT_CHECKED
+    }
+
+    private final EvaluationItem item;
+    private Syntax syntax = Syntax.NOT_CHECKED;
+    private int issues;
+    private ChrfScorer.Score chrf;
+    private Behaviour behaviour = Behaviour.NOT_CHECKED;
+    private String message = "";
+
+    ItemResult(EvaluationItem item) {
+        this.item = item;
+    }
+
+    public EvaluationItem getItem() {
+        return item;
+    }
+
+    public Syntax getSyntax() {
+        return syntax;
+    }
+
+    /**
+     * Returns the number of issues reported by the parser or compiler.
+     */
+    public int getIssues() {
+        return issues;
+    }
+
+    /**
+     * Returns the ChrF score against the reference, or {@code null} if the
+     * item has no reference.
+     */
+    public ChrfScorer.Score getChrf() {
+        return chrf;
+    }
+
+    public Behaviour getBehaviour() {
+        return behaviour;
+    }
+
+    /**
+     * Returns a description of the first problem found, or an empty string.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    void setSyntax(Syntax syntax, int issues) {
+        this.syntax = syntax;
+        this.issues = issues;
+    }
+
+    void setChrf(ChrfScorer.Score chrf) {
+        this.chrf = chrf;
+    }
+
+    void setBehaviour(Behaviour behaviour) {
+        this.behaviour = behaviour;
+    }
+
+    void addMessage(String message) {
+        if (this.message.isEmpty() && message != null) {
+            this.message = message.replaceAll("\\s+", " ").trim();
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package tools.vitruv.reactionsparser.evaluation;
+
+import tools.vitruv.reactionsparser.chrf.ChrfScorer;
+import tools.vitruv.reactionsparser.chrf.ChrfStatistics;
+import tools.vitruv.reactionsparser.parser.GenericXtextParser;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Persistent store of item results, so that an evaluation only evaluates
+ * responses that are new or have changed since an earlier run.
+ *
+ * <p>
+ * Results are stored under a key that hashes everything the result depends
+ * on: the file name and content of the response and of its reference, an
+ * environment hash per language (the metamodels of the reactions, or the
+ * ATL_Tests sources the ATL checks run against) and the version of the
+ * evaluation, a hash of the compiled parser, ChrF scorer and evaluation.  Any
+ * change to one of them yields a new key, so stale results
+ * are never used and nothing needs to be invalidated.
+ * </p>
+ *
+ * <p>
+ * The store is a tab separated file that is only ever appended to; each
+ * result is appended as soon as it is available, so an interrupted run keeps
+ * its progress, and a row it cut short is skipped.  If a key occurs more than
+ * once, the last row wins.  The
+ * stored rows hold the ChrF n-gram statistics, so corpus-level scores are
+ * rebuilt from them without reading any response again.
+ * </p>
+ */
+public final class ResultStore implements AutoCloseable {
+
+    /** Classes whose code sources make up the version of the evaluation. */
+    private static final List<Class<?>> TOOLS = List.of(GenericXtextParser.class, ChrfScorer.class,
+            ResultStore.class);
+
+    /** Hashes the code sources once, on the first key. */
+    private static final class ToolVersion {
+        static final String VALUE = toolVersion(TOOLS);
+    }
+
+    private static final String HEADER = "key\tlanguage\tmodel\tstrategy\tfile\tsyntax\tissues\tbehaviour\tchrf2"
+            + "\tchrf_statistics\tmessage";
+    private static final int COLUMNS = 11;
+
+    /** A stored result, without the item it was computed for. */
+    record Row(ItemResult.Syntax syntax, int issues, ItemResult.Behaviour behaviour, double chrf,
+            ChrfStatistics statistics, String message) {
+    }
+
+    private final Map<String, Row> rows = new HashMap<>();
+    private final BufferedWriter writer;
+
+    /**
+     * Loads the store from the given file, creating it if it does not exist.
+     *
+     * @throws IOException if the file cannot be read or opened for appending
+     */
+    public ResultStore(Path file) throws IOException {
+        boolean exists = Files.exists(file);
+        boolean truncated = false;
+        if (exists) {
+            try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+                lines.skip(1).forEach(this::load);
+            }
+            truncated = !endsWithLineBreak(file);
+        } else if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        if (!exists) {
+            writer.write(HEADER);
+            writer.newLine();
+            writer.flush();
+        } else if (truncated) {
+            // Ends the row cut short, so that it is not continued by the next one.
+            writer.newLine();
+            writer.flush();
+        }
+    }
+
+    /**
+     * Returns the number of distinct stored results.
+     */
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * Returns whether a result is stored for the given key.
+     */
+    public boolean contains(String key) {
+        return rows.containsKey(key);
+    }
+
+    /**
+     * Returns the stored result of the given key for the given item, or
+     * {@code null} if there is none.
+     */
+    public ItemResult get(String key, EvaluationItem item) {
+        Row row = rows.get(key);
+        if (row == null) {
+            return null;
+        }
+        ItemResult result = new ItemResult(item);
+        result.setSyntax(row.syntax(), row.issues());
+        result.setBehaviour(row.behaviour());
+        if (row.statistics() != null) {
+            result.setChrf(new ChrfScorer.Score(item.name(), row.chrf(), row.statistics()));
+        }
+        result.addMessage(row.message());
+        return result;
+    }
+
+    /**
+     * Appends the given result under the given key.  May be called from
+     * several threads.
+     */
+    public synchronized void put(String key, ItemResult result) {
+        EvaluationItem item = result.getItem();
+        ChrfScorer.Score chrf = result.getChrf();
+        String line = String.join("\t", key, item.language(), item.model(), item.strategy(), item.name(),
+                result.getSyntax().name(), String.valueOf(result.getIssues()), result.getBehaviour().name(),
+                chrf == null ? "" : String.valueOf(chrf.chrf()),
+                chrf == null ? "" : format(chrf.statistics()),
+                result.getMessage());
+        try {
+            writer.write(line);
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store the result of " + item.response(), e);
+        }
+        load(line);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    private void load(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != COLUMNS) {
+            // A row cut short by an interrupted run.
+            return;
+        }
+        ChrfStatistics statistics = fields[9].isEmpty() ? null : parse(fields[9]);
+        rows.put(fields[0], new Row(ItemResult.Syntax.valueOf(fields[5]), Integer.parseInt(fields[6]),
+                ItemResult.Behaviour.valueOf(fields[7]), fields[8].isEmpty() ? 0 : Double.parseDouble(fields[8]),
+                statistics, fields[10]));
+    }
+
+    /** Returns whether the file is empty or ends with a line break. */
+    private static boolean endsWithLineBreak(Path file) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(file)) {
+            if (channel.size() == 0) {
+                return true;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.position(channel.size() - 1).read(last);
+            return last.get(0) == '\n' || last.get(0) == '\r';
+        }
+    }
+
+    /** Formats statistics as {@code matches/reference/response} per order, separated by commas. */
+    private static String format(ChrfStatistics statistics) {
+        StringJoiner joiner = new StringJoiner(",");
+        for (int n = 1; n <= statistics.getOrder(); n++) {
+            joiner.add(statistics.getMatches(n) + "/" + statistics.getReferenceGrams(n) + "/"
+                    + statistics.getResponseGrams(n));
+        }
+        return joiner.toString();
+    }
+
+    private static ChrfStatistics parse(String text) {
+        String[] orders = text.split(",");
+        long[] matches = new long[orders.length];
+        long[] referenceGrams = new long[orders.length];
+        long[] responseGrams = new long[orders.length];
+        for (int i = 0; i < orders.length; i++) {
+            String[] counts = orders[i].split("/");
+            matches[i] = Long.parseLong(counts[0]);
+            referenceGrams[i] = Long.parseLong(counts[1]);
+            responseGrams[i] = Long.parseLong(counts[2]);
+        }
+        return ChrfStatistics.of(matches, referenceGrams, responseGrams);
+    }
+
+    /**
+     * Computes the key of an item.
+     *
+     * @param environment the environment hash of the item's language, see
+     *                    {@link #hashFolders(List)}
+     * @throws IOException if the response or reference cannot be read
+     */
+    public static String key(EvaluationItem item, String environment) throws IOException {
+        return key(item, environment, toolVersion());
+    }
+
+    /**
+     * Computes the key of an item for the given version of the evaluation.
+     */
+    static String key(EvaluationItem item, String environment, String version) throws IOException {
+        MessageDigest digest = sha256();
+        update(digest, version);
+        update(digest, environment);
+        update(digest, item.name());
+        update(digest, Files.readAllBytes(item.response()));
+        // Distinguishes a missing reference from an empty one.
+        update(digest, item.reference() == null ? new byte[0] : Files.readAllBytes(item.reference()));
+        update(digest, item.reference() == null ? "none" : "reference");
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Hashes the relative paths and contents of all files in the given
+     * folders, e.g. the metamodels the evaluation of a language depends on.
+     * Missing folders are hashed as empty.
+     *
+     * @throws IOException if a file cannot be read
+     */
+    public static String hashFolders(List<Path> folders) throws IOException {
+        MessageDigest digest = sha256();
+        for (Path folder : folders) {
+            update(digest, folder.getFileName() == null ? "" : folder.getFileName().toString());
+            if (!Files.isDirectory(folder)) {
+                continue;
+            }
+            List<Path> files;
+            try (Stream<Path> walk = Files.walk(folder)) {
+                files = walk.filter(Files::isRegularFile).sorted().toList();
+            }
+            for (Path file : files) {
+                update(digest, folder.relativize(file).toString().replace('\\', '/'));
+                update(digest, Files.readAllBytes(file));
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Returns the version of the evaluation: a hash of the code sources of
+     * the parser, the ChrF scorer and the evaluation, so that any change to
+     * their classes evaluates all responses again.
+     */
+    static String toolVersion() {
+        return ToolVersion.VALUE;
+    }
+
+    /**
+     * Hashes the distinct code sources of the given classes, see
+     * {@link #hashCodeSources(Collection)}.
+     */
+    static String toolVersion(List<Class<?>> classes) {
+        Set<Path> locations = new LinkedHashSet<>();
+        for (Class<?> type : classes) {
+            CodeSource source = type.getProtectionDomain().getCodeSource();
+            if (source == null || source.getLocation() == null) {
+                throw new IllegalStateException("No code source for " + type.getName());
+            }
+            try {
+                locations.add(Path.of(source.getLocation().toURI()));
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                throw new IllegalStateException("Code source of " + type.getName() + " is not a file", e);
+            }
+        }
+        try {
+            return hashCodeSources(locations);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not hash the code sources " + locations, e);
+        }
+    }
+
+    /**
+     * Hashes the names and contents of the entries of the given class folders
+     * and jars.  Entries below {@code META-INF/} are skipped, as are the
+     * timestamps of jar entries, so that rebuilding unchanged sources keeps
+     * the hash.
+     *
+     * @throws IOException if a folder or jar cannot be read
+     */
+    static String hashCodeSources(Collection<Path> locations) throws IOException {
+        MessageDigest digest = sha256();
+        for (Path location : locations) {
+            if (Files.isDirectory(location)) {
+                List<Path> files;
+                try (Stream<Path> walk = Files.walk(location)) {
+                    files = walk.filter(Files::isRegularFile).sorted().toList();
+                }
+                for (Path file : files) {
+                    String name = location.relativize(file).toString().replace('\\', '/');
+                    if (!name.startsWith("META-INF/")) {
+                        update(digest, name);
+                        update(digest, Files.readAllBytes(file));
+                    }
+                }
+                continue;
+            }
+            try (JarFile jar = new JarFile(location.toFile())) {
+                List<JarEntry> entries = jar.stream()
+                        .filter(entry -> !entry.isDirectory() && !entry.getName().startsWith("META-INF/"))
+                        .sorted((a, b) -> a.getName().compareTo(b.getName())).toList();
+                for (JarEntry entry : entries) {
+                    update(digest, entry.getName());
+                    try (InputStream in = jar.getInputStream(entry)) {
+                        update(digest, in.readAllBytes());
+                    }
+                }
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        update(digest, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Hashes the length before the bytes, so that adjacent values cannot run into each other. */
+    private static void update(MessageDigest digest, byte[] bytes) {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            digest.update((byte) (bytes.length >>> shift));
+        }
+        digest.update(bytes);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package tools.vitruv.reactionsparser.evaluation.cli;
+
+import tools.vitruv.reactionsparser.chrf.ChrfScorer;
+import tools.vitruv.reactionsparser.evaluation.EvaluationItem;
+import tools.vitruv.reactionsparser.evaluation.EvaluationPipeline;
+import tools.vitruv.reactionsparser.evaluation.EvaluationReport;
+import tools.vitruv.reactionsparser.evaluation.ItemResult;
+import tools.vitruv.reactionsparser.evaluation.ResultStore;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line entry point for evaluating all generated transformations of
+ * the n8n workflows in one run.  The evaluation walks
+ * {@code mtl_snippets/<language>/responses/<model>/<strategy>/}, pairs every
+ * response with its reference, parses, scores and checks the responses in a
+ * parallel {@link EvaluationPipeline} and prints one line per model and
+ * strategy.  Results are kept in a {@link ResultStore}, so a run only
+ * evaluates responses that are new or changed, e.g. those of a new model,
+ * and builds the report from the stored results of all others.
+ *
+ * <p>
+ * Usage, from the {@code Reactions_Langauge_Parser} folder:
+ * <pre>
+ *   java -jar evaluation/target/tools.vitruv.reactionsparser.evaluation-0.1.0-SNAPSHOT-all.jar [--option=value ...]
+ * </pre>
+ * Options and their defaults:
+ * <ul>
+ *   <li>{@code --snippets=../Workflows/n8n-docker/mtl_snippets} &ndash; the response tree</li>
+ *   <li>{@code --models=../Workflows/n8n-docker/models} &ndash; metamodels of the reactions</li>
+ *   <li>{@code --out=target/evaluation} &ndash; folder of the written reports</li>
+ *   <li>{@code --parse-threads=<processors>}, {@code --score-threads=<processors>}</li>
+ *   <li>{@code --atl-services=2} &ndash; number of ATL services, {@code 0} skips the ATL checks</li>
+ *   <li>{@code --atl-project=../ATL_Tests}</li>
+ *   <li>{@code --atl-command=mvn -q compile exec:java -Dexec.mainClass=org.example.service.AtlService -Dexec.args=--out={out}}
+ *   &ndash; {@code {out}} is replaced by the output directory of each service</li>
+ *   <li>{@code --vsum-report=<file>} &ndash; report of a {@code VariantRunner} run</li>
+ *   <li>{@code --queue=64} &ndash; number of items that may wait for each stage</li>
+ *   <li>{@code --store=evaluation-results.tsv} &ndash; the result store, deleting it evaluates everything again</li>
+ * </ul>
+ * </p>
+ */
+public class EvaluationCli {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                System.err.println("Usage: java -jar <jar> [--option=value ...]");
+                System.exit(1);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        String processors = String.valueOf(Runtime.getRuntime().availableProcessors());
+
+        List<EvaluationItem> items = EvaluationItem.discover(
+                Paths.get(options.getOrDefault("snippets", "../Workflows/n8n-docker/mtl_snippets")));
+        if (items.isEmpty()) {
+            System.err.println("No responses found");
+            System.exit(1);
+        }
+
+        Path models = Paths.get(options.getOrDefault("models", "../Workflows/n8n-docker/models"));
+        Path atlProject = Paths.get(options.getOrDefault("atl-project", "../ATL_Tests"));
+        int atlServices = Integer.parseInt(options.getOrDefault("atl-services", "2"));
+
+        // The environment a result depends on besides the files of the item:
+        // the metamodels of the reactions, and the reference modules, sample
+        // inputs and service of the ATL checks.  ATL results computed without
+        // checks are only reused by runs without checks.
+        String reactionsEnvironment = ResultStore.hashFolders(List.of(models));
+        String atlEnvironment = atlServices > 0
+                ? ResultStore.hashFolders(List.of(atlProject.resolve("src/main")))
+                : "unchecked";
+        List<String> keys = new ArrayList<>();
+        for (EvaluationItem item : items) {
+            keys.add(ResultStore.key(item, item.isAtl() ? atlEnvironment : reactionsEnvironment));
+        }
+
+        long start = System.nanoTime();
+        List<ItemResult> results = new ArrayList<>();
+        Map<EvaluationItem, ItemResult> evaluated = new HashMap<>();
+        Path storeFile = Paths.get(options.getOrDefault("store", "evaluation-results.tsv"));
+        try (ResultStore store = new ResultStore(storeFile)) {
+            Map<EvaluationItem, String> pending = new LinkedHashMap<>();
+            for (int i = 0; i < items.size(); i++) {
+                if (!store.contains(keys.get(i))) {
+                    pending.putIfAbsent(items.get(i), keys.get(i));
+                }
+            }
+            System.err.printf("%d of %d responses are new or changed%n", pending.size(), items.size());
+
+            if (!pending.isEmpty()) {
+                EvaluationPipeline.Configuration configuration = new EvaluationPipeline.Configuration(
+                        models,
+                        Integer.parseInt(options.getOrDefault("parse-threads", processors)),
+                        Integer.parseInt(options.getOrDefault("score-threads", processors)),
+                        pending.keySet().stream().anyMatch(EvaluationItem::isAtl) ? atlServices : 0,
+                        atlProject,
+                        List.of(options.getOrDefault("atl-command",
+                                "mvn -q compile exec:java -Dexec.mainClass=org.example.service.AtlService"
+                                        + " -Dexec.args=--out={out}")
+                                .split("\\s+")),
+                        Integer.parseInt(options.getOrDefault("queue", "64")));
+                try (EvaluationPipeline pipeline = new EvaluationPipeline(configuration)) {
+                    pipeline.evaluate(new ArrayList<>(pending.keySet()), result -> {
+                        // Results of failed infrastructure, such as a crashed
+                        // service, are not stored so that the next run retries.
+                        if (isComplete(result, atlServices > 0)) {
+                            store.put(pending.get(result.getItem()), result);
+                        }
+                    }).forEach(result -> evaluated.put(result.getItem(), result));
+                }
+            }
+
+            // The report is built from the stored results, and from the
+            // results of this run that could not be stored.
+            for (int i = 0; i < items.size(); i++) {
+                ItemResult result = store.get(keys.get(i), items.get(i));
+                results.add(result != null ? result : evaluated.get(items.get(i)));
+            }
+        }
+        System.err.printf("Evaluated %d responses in %d ms%n", evaluated.size(),
+                (System.nanoTime() - start) / 1_000_000);
+
+        Path vsumReport = options.containsKey("vsum-report") ? Paths.get(options.get("vsum-report")) : null;
+        EvaluationReport report = new EvaluationReport(results, new ChrfScorer(), vsumReport);
+        report.print(System.out);
+        Path out = Paths.get(options.getOrDefault("out", "target/evaluation"));
+        report.write(out);
+        System.out.println("Reports written to " + out.toAbsolutePath());
+    }
+
+    private static boolean isComplete(ItemResult result, boolean atlChecks) {
+        EvaluationItem item = result.getItem();
+        if (item.reference() != null && result.getChrf() == null) {
+            return false;
+        }
+        return !item.isAtl() || !atlChecks || result.getSyntax() != ItemResult.Syntax.NOT_CHECKED;
+    }
+}
@@ -0,0 +1,28 @@
+package tools.vitruv.reactionsparser.evaluation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/**
+ * Tests how the output directory is passed to an ATL service.
+ */
+public class AtlServiceClientTest {
+
+    @Test
+    void placeholderIsReplacedByTheOutputDirectory() {
+        List<String> command = List.of("mvn", "-q", "compile", "exec:java",
+                "-Dexec.mainClass=org.example.service.AtlService", "-Dexec.args=--out={out}");
+        Assertions.assertEquals(List.of("mvn", "-q", "compile", "exec:java",
+                "-Dexec.mainClass=org.example.service.AtlService", "-Dexec.args=--out=target/atl-service-2"),
+                AtlServiceClient.withOutputDirectory(command, "target/atl-service-2"));
+    }
+
+    @Test
+    void outputDirectoryIsAppendedWithoutPlaceholder() {
+        List<String> command = List.of("java", "-cp", "target/classes", "org.example.service.AtlService");
+        Assertions.assertEquals(List.of("java", "-cp", "target/classes", "org.example.service.AtlService",
+                "--out=target/atl-service-1"), AtlServiceClient.withOutputDirectory(command, "target/atl-service-1"));
+    }
+}
@@ -0,0 +1,201 @@
+package tools.vitruv.reactionsparser.evaluation;
+
+import tools.vitruv.reactionsparser.chrf.ChrfScorer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Tests storing, reloading and keying the results of the
+ * {@link ResultStore}.
+ */
+public class ResultStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private EvaluationItem item(String name, String response, String reference) throws IOException {
+        Path responses = Files.createDirectories(tempDir.resolve("responses"));
+        Path references = Files.createDirectories(tempDir.resolve("references"));
+        Path referenceFile = null;
+        if (reference != null) {
+            referenceFile = Files.writeString(references.resolve(name), reference);
+        }
+        return new EvaluationItem("reactions_language", "model", "few_shot",
+                Files.writeString(responses.resolve(name), response), referenceFile);
+    }
+
+    private static ItemResult result(EvaluationItem item, ItemResult.Syntax syntax, int issues, String message)
+            throws IOException {
+        ItemResult result = new ItemResult(item);
+        result.setSyntax(syntax, issues);
+        if (item.reference() != null) {
+            result.setChrf(new ChrfScorer().score(new ChrfScorer.Pair(item.name(),
+                    Files.readString(item.reference()), Files.readString(item.response()))));
+        }
+        result.addMessage(message);
+        return result;
+    }
+
+    @Test
+    void storedResultsAreReloaded() throws IOException {
+        EvaluationItem scored = item("A.reactions", "reaction A { call x() }", "reaction A { call y() }");
+        EvaluationItem unscored = item("B.atl", "module B;", null);
+        ItemResult scoredResult = result(scored, ItemResult.Syntax.OK, 0, "");
+        ItemResult unscoredResult = result(unscored, ItemResult.Syntax.ERROR, 3, "no reference");
+        unscoredResult.setBehaviour(ItemResult.Behaviour.RUNTIME_ERROR);
+        Path file = tempDir.resolve("store/results.tsv");
+        try (ResultStore store = new ResultStore(file)) {
+            store.put("a", scoredResult);
+            store.put("b", unscoredResult);
+            Assertions.assertTrue(store.contains("a"));
+        }
+
+        try (ResultStore store = new ResultStore(file)) {
+            Assertions.assertEquals(2, store.size());
+            ItemResult reloaded = store.get("a", scored);
+            Assertions.assertEquals(ItemResult.Syntax.OK, reloaded.getSyntax());
+            Assertions.assertEquals(ItemResult.Behaviour.NOT_CHECKED, reloaded.getBehaviour());
+            Assertions.assertEquals(scoredResult.getChrf().chrf(), reloaded.getChrf().chrf());
+            ChrfScorer scorer = new ChrfScorer();
+            Assertions.assertEquals(
+                    scorer.corpus(List.of(scoredResult.getChrf())).corpusScore(),
+                    scorer.corpus(List.of(reloaded.getChrf())).corpusScore());
+            for (int n = 1; n <= ChrfScorer.DEFAULT_ORDER; n++) {
+                Assertions.assertEquals(scoredResult.getChrf().statistics().getMatches(n),
+                        reloaded.getChrf().statistics().getMatches(n));
+                Assertions.assertEquals(scoredResult.getChrf().statistics().getReferenceGrams(n),
+                        reloaded.getChrf().statistics().getReferenceGrams(n));
+                Assertions.assertEquals(scoredResult.getChrf().statistics().getResponseGrams(n),
+                        reloaded.getChrf().statistics().getResponseGrams(n));
+            }
+
+            reloaded = store.get("b", unscored);
+            Assertions.assertEquals(ItemResult.Syntax.ERROR, reloaded.getSyntax());
+            Assertions.assertEquals(3, reloaded.getIssues());
+            Assertions.assertEquals(ItemResult.Behaviour.RUNTIME_ERROR, reloaded.getBehaviour());
+            Assertions.assertNull(reloaded.getChrf());
+            Assertions.assertEquals("no reference", reloaded.getMessage());
+            Assertions.assertNull(store.get("c", unscored));
+        }
+    }
+
+    @Test
+    void lastRowOfAKeyWins() throws IOException {
+        EvaluationItem item = item("A.reactions", "reaction A {}", null);
+        Path file = tempDir.resolve("results.tsv");
+        try (ResultStore store = new ResultStore(file)) {
+            store.put("a", result(item, ItemResult.Syntax.ERROR, 1, "first"));
+            store.put("a", result(item, ItemResult.Syntax.OK, 0, "second"));
+            Assertions.assertEquals("second", store.get("a", item).getMessage());
+        }
+        try (ResultStore store = new ResultStore(file)) {
+            Assertions.assertEquals(1, store.size());
+            Assertions.assertEquals(ItemResult.Syntax.OK, store.get("a", item).getSyntax());
+            Assertions.assertEquals("second", store.get("a", item).getMessage());
+        }
+    }
+
+    @Test
+    void truncatedRowIsSkipped() throws IOException {
+        EvaluationItem item = item("A.reactions", "reaction A {}", null);
+        Path file = tempDir.resolve("results.tsv");
+        try (ResultStore store = new ResultStore(file)) {
+            store.put("a", result(item, ItemResult.Syntax.OK, 0, ""));
+        }
+        // An interrupted run leaves a row without its last columns and line break.
+        Files.writeString(file, "b\treactions_language\tmodel\tfew_shot\tA.reactions\tOK", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        try (ResultStore store = new ResultStore(file)) {
+            Assertions.assertEquals(1, store.size());
+            Assertions.assertFalse(store.contains("b"));
+            store.put("c", result(item, ItemResult.Syntax.ERROR, 2, ""));
+        }
+        // The row after the truncated one starts on a line of its own.
+        try (ResultStore store = new ResultStore(file)) {
+            Assertions.assertEquals(2, store.size());
+            Assertions.assertEquals(2, store.get("c", item).getIssues());
+        }
+    }
+
+    @Test
+    void keyDependsOnEnvironmentAndVersion() throws IOException {
+        EvaluationItem item = item("A.reactions", "reaction A {}", "reaction A { call x() }");
+        String key = ResultStore.key(item, "metamodels");
+
+        Assertions.assertEquals(key, ResultStore.key(item, "metamodels"));
+        Assertions.assertEquals(key, ResultStore.key(item, "metamodels", ResultStore.toolVersion()));
+        Assertions.assertNotEquals(key, ResultStore.key(item, "changed metamodels"));
+        Assertions.assertNotEquals(key, ResultStore.key(item, "metamodels", ResultStore.toolVersion() + "-changed"));
+
+        Files.writeString(item.response(), "reaction A { }");
+        Assertions.assertNotEquals(key, ResultStore.key(item, "metamodels"));
+    }
+
+    @Test
+    void toolVersionHashesTheClassesOfJarsAndFolders() throws IOException {
+        Path classes = Files.createDirectories(tempDir.resolve("classes/tools"));
+        Files.writeString(classes.resolve("Parser.class"), "parser");
+        Path jar = tempDir.resolve("chrf.jar");
+        writeJar(jar, "scorer", 1_000_000_000L);
+        List<Path> locations = List.of(tempDir.resolve("classes"), jar);
+        String version = ResultStore.hashCodeSources(locations);
+
+        // Rebuilding the jar from the same classes keeps the version.
+        writeJar(jar, "scorer", 2_000_000_000L);
+        Assertions.assertEquals(version, ResultStore.hashCodeSources(locations));
+
+        writeJar(jar, "changed scorer", 2_000_000_000L);
+        String changedJar = ResultStore.hashCodeSources(locations);
+        Assertions.assertNotEquals(version, changedJar);
+        Files.writeString(classes.resolve("Parser.class"), "changed parser");
+        Assertions.assertNotEquals(changedJar, ResultStore.hashCodeSources(locations));
+    }
+
+    /** Writes a jar with one class and a manifest, whose entries have the given time. */
+    private static void writeJar(Path jar, String content, long time) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            JarEntry manifest = new JarEntry("META-INF/MANIFEST.MF");
+            manifest.setTime(time);
+            out.putNextEntry(manifest);
+            out.write(("Build-Time: " + time + "\n").getBytes(StandardCharsets.UTF_8));
+            JarEntry entry = new JarEntry("tools/Scorer.class");
+            entry.setTime(time);
+            out.putNextEntry(entry);
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void missingReferenceIsKeyedDifferentlyFromAnEmptyOne() throws IOException {
+        EvaluationItem withoutReference = item("A.reactions", "reaction A {}", null);
+        EvaluationItem emptyReference = item("A.reactions", "reaction A {}", "");
+        Assertions.assertNotEquals(ResultStore.key(withoutReference, "metamodels"),
+                ResultStore.key(emptyReference, "metamodels"));
+    }
+
+    @Test
+    void folderHashDependsOnPathsAndContents() throws IOException {
+        Path models = Files.createDirectories(tempDir.resolve("models"));
+        Files.writeString(models.resolve("families.ecore"), "families");
+        String hash = ResultStore.hashFolders(List.of(models));
+
+        Files.writeString(models.resolve("families.ecore"), "families changed");
+        String changed = ResultStore.hashFolders(List.of(models));
+        Assertions.assertNotEquals(hash, changed);
+
+        Files.move(models.resolve("families.ecore"), models.resolve("persons.ecore"));
+        Assertions.assertNotEquals(changed, ResultStore.hashFolders(List.of(models)));
+    }
+}
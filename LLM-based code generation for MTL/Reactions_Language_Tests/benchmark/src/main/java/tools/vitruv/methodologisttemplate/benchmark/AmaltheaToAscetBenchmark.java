@@ -0,0 +1,96 @@
+package tools.vitruv.methodologisttemplate.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import mir.reactions.amaltheaToAscet.AmaltheaToAscetChangePropagationSpecification;
+import org.eclipse.emf.common.util.URI;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.vitruv.change.testutils.TestUserInteraction;
+import tools.vitruv.framework.views.CommittableView;
+import tools.vitruv.framework.vsum.internal.InternalVirtualModel;
+import tools.vitruv.methodologisttemplate.model.amalthea.AmaltheaFactory;
+import tools.vitruv.methodologisttemplate.model.amalthea.ComponentContainer;
+import tools.vitruv.methodologisttemplate.model.amalthea.Task;
+import tools.vitruv.methodologisttemplate.vsum.InMemoryStorage;
+import tools.vitruv.methodologisttemplate.vsum.ModificationBatch;
+
+/**
+ * Measures the propagation of the scenarios of {@code AmaltheaAscetTest} in
+ * a component container of {@code size} tasks.  The task type asked for by
+ * reaction TaskCreated is answered with periodic task.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.SampleTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AmaltheaToAscetBenchmark {
+
+  private static final int PERIODIC_TASK = 1;
+
+  @Param({"10", "100", "1000", "10000", "100000"})
+  public int size;
+
+  private InMemoryStorage storage;
+  private TestUserInteraction userInteraction;
+  private InternalVirtualModel vsum;
+  private CommittableView view;
+  private ComponentContainer container;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    storage = VsumFixture.createStorage();
+    userInteraction = new TestUserInteraction();
+    vsum = VsumFixture.createVirtualModel(storage, new AmaltheaToAscetChangePropagationSpecification(),
+        userInteraction);
+    CommittableView containerView = VsumFixture.getView(vsum, ComponentContainer.class).withChangeRecordingTrait();
+    containerView.registerRoot(AmaltheaFactory.eINSTANCE.createComponentContainer(),
+        URI.createFileURI(storage.getFolder().resolve("amalthea.amalthea").toString()));
+    containerView.commitChanges();
+
+    new ModificationBatch().add((CommittableView v) -> {
+      ComponentContainer newContainer = v.getRootObjects(ComponentContainer.class).iterator().next();
+      for (int i = 0; i < size; i++) {
+        Task task = AmaltheaFactory.eINSTANCE.createTask();
+        task.setName("Task" + i);
+        newContainer.getTasks().add(task);
+        userInteraction.addNextSingleSelection(PERIODIC_TASK);
+      }
+    }).commit(VsumFixture.getView(vsum, ComponentContainer.class));
+
+    // A single view is kept for all operations so that only commit and propagation are measured.
+    view = VsumFixture.getView(vsum, ComponentContainer.class).withChangeRecordingTrait();
+    container = view.getRootObjects(ComponentContainer.class).iterator().next();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    VsumFixture.dispose(vsum, storage);
+  }
+
+  /** Reactions TaskCreated and TaskDeleted. */
+  @Benchmark
+  @OperationsPerInvocation(2)
+  public void insertAndDeleteTask() {
+    Task task = AmaltheaFactory.eINSTANCE.createTask();
+    task.setName("BenchmarkTask");
+    container.getTasks().add(task);
+    userInteraction.addNextSingleSelection(PERIODIC_TASK);
+    view.commitChanges();
+    container.getTasks().remove(task);
+    view.commitChanges();
+  }
+}
@@ -0,0 +1,139 @@
+package tools.vitruv.methodologisttemplate.benchmark;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import mir.reactions.familiesToPersons.FamiliesToPersonsChangePropagationSpecification;
+import mir.reactions.networkToGraph.NetworkToGraphChangePropagationSpecification;
+import org.eclipse.emf.common.util.URI;
+import tools.vitruv.change.propagation.ChangePropagationSpecification;
+import tools.vitruv.change.testutils.TestUserInteraction;
+import tools.vitruv.framework.views.impl.ModifiableView;
+import tools.vitruv.framework.vsum.internal.InternalVirtualModel;
+import tools.vitruv.methodologisttemplate.viewtype.ChangeLogReader;
+import tools.vitruv.methodologisttemplate.viewtype.ChangeTransformingViewType;
+import tools.vitruv.methodologisttemplate.vsum.InMemoryStorage;
+
+/**
+ * Replays a change log written by a {@code ChangeLogWriter} into a fresh
+ * V-SUM as fast as possible and reports throughput and commit latency
+ * percentiles:
+ *
+ * <pre>
+ *   java -cp benchmark/target/benchmarks.jar tools.vitruv.methodologisttemplate.benchmark.ChangeLogReplay \
+ *       session.vclog families --source=/tmp/recorded-vsum --amplify=10
+ * </pre>
+ *
+ * <p>
+ * The log must have been recorded on a V-SUM with the given consistency
+ * specification ({@code families} or {@code network}; the Amalthea
+ * specification asks the user and cannot be replayed unattended).  Recorded
+ * models are stored below the folder given by {@code --source}, which is
+ * relocated into the storage folder of the replay, so that the recorded
+ * models are left untouched.  The replayed models are kept in memory; only
+ * the log is read from disk.  {@code --amplify=n} replays the log {@code n}
+ * times into separate folders of the same V-SUM.
+ * </p>
+ *
+ * <p>
+ * All entries are committed through one view created on the empty V-SUM.
+ * This is sufficient since a commit resolves its changes against the models
+ * of the V-SUM as they are when it is committed, including the roots created
+ * by earlier entries.
+ * </p>
+ */
+public final class ChangeLogReplay {
+  private static final Map<String, Supplier<ChangePropagationSpecification>> SPECIFICATIONS = Map.of(
+      "families", FamiliesToPersonsChangePropagationSpecification::new,
+      "network", NetworkToGraphChangePropagationSpecification::new);
+
+  private ChangeLogReplay() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 2 || !SPECIFICATIONS.containsKey(args[1])) {
+      System.err.println("Usage: ChangeLogReplay <log> <" + String.join("|", SPECIFICATIONS.keySet())
+          + "> --source=<recorded storage folder> [--amplify=<copies>]");
+      System.exit(2);
+    }
+    Path log = Path.of(args[0]);
+    Map<String, String> options = new HashMap<>();
+    for (String arg : Arrays.copyOfRange(args, 2, args.length)) {
+      if (!arg.startsWith("--") || !arg.contains("=")) {
+        throw new IllegalArgumentException("Expected --option=value but got " + arg);
+      }
+      options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+    }
+    // Without relocation, the replay would write into the recorded models.
+    if (!options.containsKey("source")) {
+      throw new IllegalArgumentException("--source is required");
+    }
+    int copies = Integer.parseInt(options.getOrDefault("amplify", "1"));
+    String source = folderUri(Path.of(options.get("source")));
+
+    InMemoryStorage storage = VsumFixture.createStorage();
+    InternalVirtualModel vsum = VsumFixture.createVirtualModel(storage, SPECIFICATIONS.get(args[1]).get(),
+        new TestUserInteraction());
+    try {
+      List<ChangeLogReader.Entry> entries = new ArrayList<>();
+      for (int copy = 0; copy < copies; copy++) {
+        String target = folderUri(copies > 1 ? storage.getFolder().resolve("copy" + copy) : storage.getFolder());
+        UnaryOperator<String> relocation = value -> value.replace(source, target);
+        entries.addAll(ChangeLogReader.readAll(log, relocation));
+      }
+      report(replay(vsum, entries), entries);
+    } finally {
+      VsumFixture.dispose(vsum, storage);
+    }
+  }
+
+  /**
+   * Commits all entries one after another and returns the latency of every
+   * commit in nanoseconds.
+   */
+  private static long[] replay(InternalVirtualModel vsum, List<ChangeLogReader.Entry> entries) {
+    ChangeTransformingViewType viewType = ChangeTransformingViewType.create("replay");
+    ModifiableView view = (ModifiableView) vsum.createSelector(viewType).createView();
+    long[] latencies = new long[entries.size()];
+    for (int i = 0; i < entries.size(); i++) {
+      long start = System.nanoTime();
+      viewType.commitViewChanges(view, entries.get(i).change());
+      latencies[i] = System.nanoTime() - start;
+    }
+    return latencies;
+  }
+
+  private static void report(long[] latencies, List<ChangeLogReader.Entry> entries) {
+    long total = Arrays.stream(latencies).sum();
+    long eChanges = entries.stream().mapToLong(entry -> entry.change().getEChanges().size()).sum();
+    long[] sorted = latencies.clone();
+    Arrays.sort(sorted);
+    double seconds = total / 1e9;
+    System.out.printf(Locale.ROOT, "commits      %d (%d atomic changes) in %.3f s%n", latencies.length, eChanges,
+        seconds);
+    System.out.printf(Locale.ROOT, "throughput   %.1f commits/s, %.1f atomic changes/s%n",
+        latencies.length / seconds, eChanges / seconds);
+    System.out.printf(Locale.ROOT, "latency ms   p50 %.3f  p90 %.3f  p99 %.3f  max %.3f%n",
+        percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+        sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+  }
+
+  /** Returns the given percentile of sorted nanosecond values in milliseconds (nearest rank). */
+  private static double percentile(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int rank = (int) Math.ceil(percentile * sorted.length);
+    return sorted[Math.max(0, rank - 1)] / 1e6;
+  }
+
+  private static String folderUri(Path folder) {
+    return URI.createFileURI(folder.toAbsolutePath().normalize().toString()).toString() + "/";
+  }
+}
@@ -0,0 +1,149 @@
+package tools.vitruv.methodologisttemplate.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import mir.reactions.familiesToPersons.FamiliesToPersonsChangePropagationSpecification;
+import org.eclipse.emf.common.util.URI;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.vitruv.change.atomic.EChange;
+import tools.vitruv.change.atomic.hid.HierarchicalId;
+import tools.vitruv.change.testutils.TestUserInteraction;
+import tools.vitruv.framework.views.CommittableView;
+import tools.vitruv.framework.vsum.internal.InternalVirtualModel;
+import tools.vitruv.methodologisttemplate.model.families.FamiliesFactory;
+import tools.vitruv.methodologisttemplate.model.families.Family;
+import tools.vitruv.methodologisttemplate.model.families.FamilyRegister;
+import tools.vitruv.methodologisttemplate.model.families.Member;
+import tools.vitruv.methodologisttemplate.viewtype.ChangeTransformingViewType;
+import tools.vitruv.methodologisttemplate.vsum.InMemoryStorage;
+import tools.vitruv.methodologisttemplate.vsum.ModificationBatch;
+
+/**
+ * Measures the commit throughput of views of one
+ * {@link ChangeTransformingViewType} committing from several threads.  Every
+ * thread owns a view and a family, inserts a daughter into it and deletes her
+ * again, so the commits are independent of each other.  The view type has a
+ * per-change filter and mapper registered, which all threads apply
+ * concurrently.  Throughput grows with the number of threads while commits
+ * are dominated by change recording and filtering, and levels off once the
+ * change propagation, which the view type serializes per V-SUM, dominates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentCommitBenchmark {
+  private static final int MAX_THREADS = 8;
+
+  private InMemoryStorage storage;
+  private InternalVirtualModel vsum;
+  private ChangeTransformingViewType viewType;
+  private final AtomicInteger nextFamily = new AtomicInteger();
+
+  /** The view and family of one benchmark thread. */
+  @State(Scope.Thread)
+  public static class ThreadState {
+    CommittableView view;
+    Family family;
+
+    @Setup(Level.Trial)
+    public void setUp(ConcurrentCommitBenchmark benchmark) {
+      var selector = benchmark.vsum.createSelector(benchmark.viewType);
+      selector.getSelectableElements().stream()
+          .filter(FamilyRegister.class::isInstance)
+          .forEach(it -> selector.setSelected(it, true));
+      view = selector.createView().withChangeRecordingTrait();
+      FamilyRegister register = view.getRootObjects(FamilyRegister.class).iterator().next();
+      family = register.getFamilies().get(benchmark.nextFamily.getAndIncrement() % MAX_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+      view.close();
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    storage = VsumFixture.createStorage();
+    vsum = VsumFixture.createVirtualModel(storage, new FamiliesToPersonsChangePropagationSpecification(),
+        new TestUserInteraction());
+    CommittableView registerView = VsumFixture.getView(vsum, FamilyRegister.class).withChangeRecordingTrait();
+    registerView.registerRoot(FamiliesFactory.eINSTANCE.createFamilyRegister(),
+        URI.createFileURI(storage.getFolder().resolve("families.families").toString()));
+    registerView.commitChanges();
+    new ModificationBatch().add((CommittableView v) -> {
+      FamilyRegister register = v.getRootObjects(FamilyRegister.class).iterator().next();
+      for (int i = 0; i < MAX_THREADS; i++) {
+        Family family = FamiliesFactory.eINSTANCE.createFamily();
+        family.setLastName("Family" + i);
+        register.getFamilies().add(family);
+      }
+    }).commit(VsumFixture.getView(vsum, FamilyRegister.class));
+
+    viewType = ChangeTransformingViewType.create("concurrent");
+    viewType.registerChangeFilter(change -> change != null);
+    viewType.registerChangeMapper(ConcurrentCommitBenchmark::identity);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    VsumFixture.dispose(vsum, storage);
+  }
+
+  private static EChange<HierarchicalId> identity(EChange<HierarchicalId> change) {
+    return change;
+  }
+
+  private static void insertAndDeleteDaughter(ThreadState state) {
+    Member daughter = FamiliesFactory.eINSTANCE.createMember();
+    daughter.setFirstName("Jane");
+    state.family.getDaughters().add(daughter);
+    state.view.commitChanges();
+    state.family.getDaughters().remove(daughter);
+    state.view.commitChanges();
+  }
+
+  @Benchmark
+  @Threads(1)
+  @OperationsPerInvocation(2)
+  public void commits1Thread(ThreadState state) {
+    insertAndDeleteDaughter(state);
+  }
+
+  @Benchmark
+  @Threads(2)
+  @OperationsPerInvocation(2)
+  public void commits2Threads(ThreadState state) {
+    insertAndDeleteDaughter(state);
+  }
+
+  @Benchmark
+  @Threads(4)
+  @OperationsPerInvocation(2)
+  public void commits4Threads(ThreadState state) {
+    insertAndDeleteDaughter(state);
+  }
+
+  @Benchmark
+  @Threads(MAX_THREADS)
+  @OperationsPerInvocation(2)
+  public void commits8Threads(ThreadState state) {
+    insertAndDeleteDaughter(state);
+  }
+}
@@ -0,0 +1,109 @@
+package tools.vitruv.methodologisttemplate.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import mir.reactions.familiesToPersons.FamiliesToPersonsChangePropagationSpecification;
+import org.eclipse.emf.common.util.URI;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.vitruv.change.testutils.TestUserInteraction;
+import tools.vitruv.framework.views.CommittableView;
+import tools.vitruv.framework.vsum.internal.InternalVirtualModel;
+import tools.vitruv.methodologisttemplate.model.families.FamiliesFactory;
+import tools.vitruv.methodologisttemplate.model.families.Family;
+import tools.vitruv.methodologisttemplate.model.families.FamilyRegister;
+import tools.vitruv.methodologisttemplate.model.families.Member;
+import tools.vitruv.methodologisttemplate.vsum.InMemoryStorage;
+import tools.vitruv.methodologisttemplate.vsum.ModificationBatch;
+
+/**
+ * Measures the propagation of the scenarios of {@code FamiliesPersonsTest}
+ * in a family register of {@code size} elements: families with a father and
+ * two daughters each.  Every operation commits one modification and returns
+ * once all reactions have been executed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.SampleTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FamiliesToPersonsBenchmark {
+
+  @Param({"10", "100", "1000", "10000", "100000"})
+  public int size;
+
+  private InMemoryStorage storage;
+  private InternalVirtualModel vsum;
+  private CommittableView view;
+  private Family family;
+  private int fathers;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    storage = VsumFixture.createStorage();
+    vsum = VsumFixture.createVirtualModel(storage, new FamiliesToPersonsChangePropagationSpecification(),
+        new TestUserInteraction());
+    CommittableView registerView = VsumFixture.getView(vsum, FamilyRegister.class).withChangeRecordingTrait();
+    registerView.registerRoot(FamiliesFactory.eINSTANCE.createFamilyRegister(),
+        URI.createFileURI(storage.getFolder().resolve("families.families").toString()));
+    registerView.commitChanges();
+
+    new ModificationBatch().add((CommittableView v) -> {
+      FamilyRegister register = v.getRootObjects(FamilyRegister.class).iterator().next();
+      for (int i = 0; i < Math.max(1, size / 4); i++) {
+        Family newFamily = FamiliesFactory.eINSTANCE.createFamily();
+        newFamily.setLastName("Family" + i);
+        register.getFamilies().add(newFamily);
+        newFamily.setFather(member("Father" + i));
+        newFamily.getDaughters().add(member("Daughter" + i));
+        newFamily.getDaughters().add(member("Sister" + i));
+      }
+    }).commit(VsumFixture.getView(vsum, FamilyRegister.class));
+
+    // A single view is kept for all operations so that only commit and propagation are measured.
+    view = VsumFixture.getView(vsum, FamilyRegister.class).withChangeRecordingTrait();
+    FamilyRegister register = view.getRootObjects(FamilyRegister.class).iterator().next();
+    family = register.getFamilies().get(register.getFamilies().size() / 2);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    VsumFixture.dispose(vsum, storage);
+  }
+
+  private static Member member(String firstName) {
+    Member member = FamiliesFactory.eINSTANCE.createMember();
+    member.setFirstName(firstName);
+    return member;
+  }
+
+  /** Reactions InsertedDaughter and DeletedMember. */
+  @Benchmark
+  @OperationsPerInvocation(2)
+  public void insertAndDeleteDaughter() {
+    Member daughter = member("Jane");
+    family.getDaughters().add(daughter);
+    view.commitChanges();
+    family.getDaughters().remove(daughter);
+    view.commitChanges();
+  }
+
+  /** Reaction CreatedFather, deleting the person of the replaced father. */
+  @Benchmark
+  public void replaceFather() {
+    family.setFather(member("Father" + fathers++));
+    view.commitChanges();
+  }
+}
@@ -0,0 +1,135 @@
+package tools.vitruv.methodologisttemplate.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import mir.reactions.familiesToPersons.FamiliesToPersonsChangePropagationSpecification;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.vitruv.change.testutils.TestUserInteraction;
+import tools.vitruv.framework.views.CommittableView;
+import tools.vitruv.framework.vsum.internal.InternalVirtualModel;
+import tools.vitruv.methodologisttemplate.model.families.FamiliesFactory;
+import tools.vitruv.methodologisttemplate.model.families.Family;
+import tools.vitruv.methodologisttemplate.model.families.FamilyRegister;
+import tools.vitruv.methodologisttemplate.model.families.Member;
+import tools.vitruv.methodologisttemplate.vsum.InMemoryStorage;
+import tools.vitruv.methodologisttemplate.vsum.ModelImport;
+
+/**
+ * Measures bringing an existing family register of {@code size} elements
+ * into an empty V-SUM: families with a father and two daughters each, read
+ * from an XMI file.  {@code importRegister} uses a {@link ModelImport};
+ * {@code commitPerFamily} commits the register and then every family on its
+ * own, as a series of single-modification commits would.  Every operation
+ * imports into a new V-SUM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ModelImportBenchmark {
+
+  @Param({"100", "1000", "10000"})
+  public int size;
+
+  private Path sourceFolder;
+  private URI source;
+  private InMemoryStorage storage;
+  private InternalVirtualModel vsum;
+
+  @Setup(Level.Trial)
+  public void writeSource() throws IOException {
+    VsumFixture.registerResourceFactory();
+    FamilyRegister register = FamiliesFactory.eINSTANCE.createFamilyRegister();
+    for (int i = 0; i < Math.max(1, size / 4); i++) {
+      Family family = FamiliesFactory.eINSTANCE.createFamily();
+      family.setLastName("Family" + i);
+      family.setFather(member("Father" + i));
+      family.getDaughters().add(member("Daughter" + i));
+      family.getDaughters().add(member("Sister" + i));
+      register.getFamilies().add(family);
+    }
+    sourceFolder = Files.createTempDirectory("import-benchmark");
+    Resource resource = new ResourceSetImpl()
+        .createResource(URI.createFileURI(sourceFolder.resolve("source.families").toString()));
+    resource.getContents().add(register);
+    resource.save(null);
+    source = resource.getURI();
+  }
+
+  @Setup(Level.Invocation)
+  public void setUp() {
+    storage = VsumFixture.createStorage();
+    vsum = VsumFixture.createVirtualModel(storage, new FamiliesToPersonsChangePropagationSpecification(),
+        new TestUserInteraction());
+  }
+
+  @TearDown(Level.Invocation)
+  public void tearDown() {
+    VsumFixture.dispose(vsum, storage);
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteSource() {
+    try (Stream<Path> files = Files.walk(sourceFolder)) {
+      files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static Member member(String firstName) {
+    Member member = FamiliesFactory.eINSTANCE.createMember();
+    member.setFirstName(firstName);
+    return member;
+  }
+
+  private URI target() {
+    return URI.createFileURI(storage.getFolder().resolve("families.families").toString());
+  }
+
+  /** Two commits: the register, then all families. */
+  @Benchmark
+  public int importRegister() {
+    return new ModelImport(vsum).importResource(source, target());
+  }
+
+  /** One commit for the register and one per family. */
+  @Benchmark
+  public void commitPerFamily() throws Exception {
+    FamilyRegister register = (FamilyRegister) new ResourceSetImpl().getResource(source, true).getContents().get(0);
+    List<Family> families = new ArrayList<>(register.getFamilies());
+    register.getFamilies().clear();
+    try (CommittableView view = VsumFixture.getView(vsum, FamilyRegister.class).withChangeRecordingTrait()) {
+      view.registerRoot(register, target());
+      view.commitChanges();
+      for (Family family : families) {
+        register.getFamilies().add(family);
+        view.commitChanges();
+      }
+    }
+  }
+}
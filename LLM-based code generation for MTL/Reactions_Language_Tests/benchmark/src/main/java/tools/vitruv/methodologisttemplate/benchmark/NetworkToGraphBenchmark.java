@@ -0,0 +1,99 @@
+package tools.vitruv.methodologisttemplate.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import mir.reactions.networkToGraph.NetworkToGraphChangePropagationSpecification;
+import org.eclipse.emf.common.util.URI;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.vitruv.change.testutils.TestUserInteraction;
+import tools.vitruv.framework.views.CommittableView;
+import tools.vitruv.framework.vsum.internal.InternalVirtualModel;
+import tools.vitruv.methodologisttemplate.model.network.Component;
+import tools.vitruv.methodologisttemplate.model.network.NetworkFactory;
+import tools.vitruv.methodologisttemplate.model.network.System;
+import tools.vitruv.methodologisttemplate.vsum.InMemoryStorage;
+import tools.vitruv.methodologisttemplate.vsum.ModificationBatch;
+
+/**
+ * Measures the propagation of the scenarios of {@code NetworkGraphTest} in
+ * a system of {@code size} components.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.SampleTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NetworkToGraphBenchmark {
+
+  @Param({"10", "100", "1000", "10000", "100000"})
+  public int size;
+
+  private InMemoryStorage storage;
+  private InternalVirtualModel vsum;
+  private CommittableView view;
+  private System system;
+  private Component component;
+  private int renames;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    storage = VsumFixture.createStorage();
+    vsum = VsumFixture.createVirtualModel(storage, new NetworkToGraphChangePropagationSpecification(),
+        new TestUserInteraction());
+    CommittableView systemView = VsumFixture.getView(vsum, System.class).withChangeRecordingTrait();
+    systemView.registerRoot(NetworkFactory.eINSTANCE.createSystem(),
+        URI.createFileURI(storage.getFolder().resolve("network.network").toString()));
+    systemView.commitChanges();
+
+    new ModificationBatch().add((CommittableView v) -> {
+      System newSystem = v.getRootObjects(System.class).iterator().next();
+      for (int i = 0; i < size; i++) {
+        Component newComponent = NetworkFactory.eINSTANCE.createComponent();
+        newComponent.setName("Component" + i);
+        newSystem.getComponents().add(newComponent);
+      }
+    }).commit(VsumFixture.getView(vsum, System.class));
+
+    // A single view is kept for all operations so that only commit and propagation are measured.
+    view = VsumFixture.getView(vsum, System.class).withChangeRecordingTrait();
+    system = view.getRootObjects(System.class).iterator().next();
+    component = system.getComponents().get(size / 2);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    VsumFixture.dispose(vsum, storage);
+  }
+
+  /** Reactions ComponentInsertedIntoSystem and ComponentDeleted. */
+  @Benchmark
+  @OperationsPerInvocation(2)
+  public void insertAndDeleteComponent() {
+    Component newComponent = NetworkFactory.eINSTANCE.createComponent();
+    newComponent.setName("specialname");
+    system.getComponents().add(newComponent);
+    view.commitChanges();
+    system.getComponents().remove(newComponent);
+    view.commitChanges();
+  }
+
+  /** Reaction ComponentRenamed. */
+  @Benchmark
+  public void renameComponent() {
+    component.setName("Renamed" + renames++);
+    view.commitChanges();
+  }
+}
@@ -0,0 +1,79 @@
+package tools.vitruv.methodologisttemplate.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+import tools.vitruv.change.propagation.ChangePropagationMode;
+import tools.vitruv.change.propagation.ChangePropagationSpecification;
+import tools.vitruv.change.testutils.TestUserInteraction;
+import tools.vitruv.framework.views.View;
+import tools.vitruv.framework.views.ViewTypeFactory;
+import tools.vitruv.framework.vsum.VirtualModel;
+import tools.vitruv.framework.vsum.VirtualModelBuilder;
+import tools.vitruv.framework.vsum.internal.InternalVirtualModel;
+import tools.vitruv.methodologisttemplate.vsum.InMemoryStorage;
+
+/**
+ * Creates and disposes the V-SUMs of the benchmarks the same way the tests
+ * of the vsum module do.
+ */
+final class VsumFixture {
+
+  private VsumFixture() {
+  }
+
+  /**
+   * Returns an in-memory storage for a new folder, so that the benchmarks do
+   * not measure disk I/O.  Vitruvius still creates its folder layout and model
+   * list on disk.
+   */
+  static InMemoryStorage createStorage() {
+    registerResourceFactory();
+    return InMemoryStorage.create();
+  }
+
+  /** Makes EMF read and write all model files as XMI. */
+  static void registerResourceFactory() {
+    Resource.Factory.Registry.INSTANCE.getExtensionToFactoryMap().put("*", new XMIResourceFactoryImpl());
+  }
+
+  static InternalVirtualModel createVirtualModel(InMemoryStorage storage,
+      ChangePropagationSpecification specification, TestUserInteraction userInteraction) {
+    InternalVirtualModel model = new VirtualModelBuilder()
+        .withStorageFolder(storage.getFolder())
+        .withUserInteractorForResultProvider(new TestUserInteraction.ResultProvider(userInteraction))
+        .withChangePropagationSpecifications(specification)
+        .buildAndInitialize();
+    model.setChangePropagationMode(ChangePropagationMode.TRANSITIVE_CYCLIC);
+    return model;
+  }
+
+  /**
+   * Returns a view on the root objects of the given type.
+   */
+  static View getView(VirtualModel vsum, Class<?> rootType) {
+    var selector = vsum.createSelector(ViewTypeFactory.createIdentityMappingViewType("default"));
+    selector.getSelectableElements().stream()
+        .filter(rootType::isInstance)
+        .forEach(it -> selector.setSelected(it, true));
+    return selector.createView();
+  }
+
+  static void dispose(InternalVirtualModel vsum, InMemoryStorage storage) {
+    vsum.dispose();
+    storage.close();
+    if (!Files.exists(storage.getFolder())) {
+      return;
+    }
+    try (Stream<Path> files = Files.walk(storage.getFolder())) {
+      files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
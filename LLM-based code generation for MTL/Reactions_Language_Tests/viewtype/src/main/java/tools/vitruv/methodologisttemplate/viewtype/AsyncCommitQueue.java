@@ -0,0 +1,174 @@
+package tools.vitruv.methodologisttemplate.viewtype;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import tools.vitruv.change.atomic.hid.HierarchicalId;
+import tools.vitruv.change.composite.description.VitruviusChange;
+import tools.vitruv.framework.views.CommittableView;
+
+/**
+ * Queue propagating the commits of the views of a
+ * {@link ChangeTransformingViewType} asynchronously.  Commits are propagated
+ * one after another in the order they were made, on a dedicated worker
+ * thread, while the committing threads continue editing their views:
+ *
+ * <pre>
+ *   AsyncCommitQueue queue = viewType.enableAsyncCommits(16);
+ *   CompletableFuture&lt;VitruviusChange&lt;HierarchicalId&gt;&gt; committed = queue.commit(view);
+ * </pre>
+ *
+ * <p>
+ * At most {@code capacity} commits are pending at a time; further commits
+ * block the committing thread until a pending commit has been propagated.
+ * Waiting uses a {@link Semaphore}, so the committing threads may be virtual
+ * threads, and the worker thread can be created by any {@link ThreadFactory}.
+ * </p>
+ *
+ * <p>
+ * A commit is made against the models as they are when it is propagated.
+ * Views are not updated by earlier commits still pending, so commits of
+ * different views should not depend on each other's changes.
+ * </p>
+ *
+ * <p>
+ * A commit that fails to propagate completes its future exceptionally.
+ * Since commits made by {@code view.commitChanges()} do not return their
+ * future, the first failure since the last flush is also reported by the
+ * next {@link #flush()} or by {@link #close()}.
+ * </p>
+ */
+public class AsyncCommitQueue implements AutoCloseable {
+  private final ExecutorService worker;
+  private final int maxPending;
+  private final Semaphore capacity;
+  /** Held while submitting, and by {@link #commit} to find the future of its submission. */
+  private final ReentrantLock submitting = new ReentrantLock();
+  private CompletableFuture<VitruviusChange<HierarchicalId>> lastSubmitted;
+  private final AtomicReference<Throwable> unreportedFailure = new AtomicReference<>();
+
+  /**
+   * @param capacity the maximum number of pending commits
+   */
+  public AsyncCommitQueue(int capacity) {
+    this(capacity, runnable -> {
+      Thread thread = new Thread(runnable, "vitruv-async-commits");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * @param capacity      the maximum number of pending commits
+   * @param threadFactory the factory creating the worker thread
+   */
+  public AsyncCommitQueue(int capacity, ThreadFactory threadFactory) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive but was " + capacity);
+    }
+    this.worker = Executors.newSingleThreadExecutor(threadFactory);
+    this.maxPending = capacity;
+    this.capacity = new Semaphore(capacity, true);
+  }
+
+  /**
+   * Commits the changes of the given view, which must belong to a view type
+   * using this queue, and returns a future completed with the committed
+   * change once it has been propagated.  Blocks while the queue is full.
+   */
+  public CompletableFuture<VitruviusChange<HierarchicalId>> commit(CommittableView view) {
+    submitting.lock();
+    try {
+      lastSubmitted = null;
+      view.commitChanges();
+      return lastSubmitted != null ? lastSubmitted : CompletableFuture.completedFuture(null);
+    } finally {
+      lastSubmitted = null;
+      submitting.unlock();
+    }
+  }
+
+  /**
+   * Enqueues the given propagation, blocking while the queue is full.  Called
+   * by the view type for every commit of one of its views.
+   *
+   * @param propagation propagates a commit and returns the committed change
+   * @return a future completed once the propagation has finished
+   */
+  public CompletableFuture<VitruviusChange<HierarchicalId>> submit(
+      Supplier<VitruviusChange<HierarchicalId>> propagation) {
+    submitting.lock();
+    try {
+      try {
+        capacity.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for a pending commit", e);
+      }
+      CompletableFuture<VitruviusChange<HierarchicalId>> future;
+      try {
+        future = CompletableFuture.supplyAsync(() -> {
+          try {
+            return propagation.get();
+          } catch (RuntimeException | Error e) {
+            unreportedFailure.compareAndSet(null, e);
+            throw e;
+          } finally {
+            capacity.release();
+          }
+        }, worker);
+      } catch (RuntimeException e) {
+        capacity.release();
+        throw e;
+      }
+      lastSubmitted = future;
+      return future;
+    } finally {
+      submitting.unlock();
+    }
+  }
+
+  /**
+   * Returns a future completed once all commits submitted so far have been
+   * propagated.  The future completes exceptionally with the first failed
+   * propagation not reported by an earlier flush.
+   */
+  public CompletableFuture<Void> flush() {
+    return CompletableFuture.runAsync(() -> {
+      Throwable failure = unreportedFailure.getAndSet(null);
+      if (failure != null) {
+        throw new IllegalStateException("A commit failed to propagate", failure);
+      }
+    }, worker);
+  }
+
+  /**
+   * Returns the number of commits not propagated yet.
+   */
+  public int getPending() {
+    return maxPending - capacity.availablePermits();
+  }
+
+  /**
+   * Propagates the pending commits and stops the worker thread.
+   *
+   * @throws IllegalStateException if a propagation failed that was not
+   *                               reported by a flush
+   */
+  @Override
+  public void close() throws InterruptedException {
+    worker.shutdown();
+    worker.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    Throwable failure = unreportedFailure.getAndSet(null);
+    if (failure != null) {
+      throw new IllegalStateException("A commit failed to propagate", failure);
+    }
+  }
+}
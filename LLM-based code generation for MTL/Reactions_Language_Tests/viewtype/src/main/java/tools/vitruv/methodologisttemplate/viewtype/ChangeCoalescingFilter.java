@@ -0,0 +1,243 @@
+package tools.vitruv.methodologisttemplate.viewtype;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+import tools.vitruv.change.atomic.AdditiveEChange;
+import tools.vitruv.change.atomic.EChange;
+import tools.vitruv.change.atomic.SubtractiveEChange;
+import tools.vitruv.change.atomic.eobject.CreateEObject;
+import tools.vitruv.change.atomic.eobject.DeleteEObject;
+import tools.vitruv.change.atomic.feature.FeatureEChange;
+import tools.vitruv.change.atomic.feature.attribute.ReplaceSingleValuedEAttribute;
+import tools.vitruv.change.atomic.feature.list.InsertInListEChange;
+import tools.vitruv.change.atomic.feature.list.RemoveFromListEChange;
+import tools.vitruv.change.atomic.feature.list.UpdateSingleListEntryEChange;
+import tools.vitruv.change.atomic.feature.reference.ReplaceSingleValuedEReference;
+import tools.vitruv.change.atomic.feature.single.ReplaceSingleValuedFeatureEChange;
+import tools.vitruv.change.atomic.hid.HierarchicalId;
+import tools.vitruv.change.atomic.root.RootEChange;
+
+/**
+ * Filter for a {@link ChangeTransformingViewType} that removes redundant
+ * changes, so that propagation handles the net effect of a commit instead of
+ * every intermediate edit:
+ *
+ * <pre>
+ *   viewType.registerFilter(new ChangeCoalescingFilter());
+ * </pre>
+ *
+ * <ul>
+ * <li>Repeated replaces of a single-valued attribute or non-containment
+ * reference of the same element are merged into one replace from the first
+ * old to the last new value, which is dropped if both are equal.</li>
+ * <li>A value inserted into a non-containment list that is removed again at
+ * the same index before the list is changed otherwise is dropped together
+ * with its removal.</li>
+ * <li>An element inserted into a containment list, removed again at the same
+ * index and then deleted is dropped from the list together with its changes
+ * in between.  An element that is removed and inserted elsewhere is moved,
+ * so its insertion, removal and changes are kept.</li>
+ * <li>An element that is created and deleted again is dropped together with
+ * the changes of the element in between, unless another remaining change
+ * refers to it.</li>
+ * </ul>
+ *
+ * <p>
+ * Changes identify elements by {@link HierarchicalId}s, which are derived
+ * from the position of an element in its resource.  Since containment
+ * changes can move other elements to positions used before, all pending
+ * candidates, including created elements, are forgotten at every containment
+ * or root change that does not refer to the candidate itself.  The filter
+ * modifies the old value of merged replaces, which is safe since list filters
+ * are applied to a copy of the committed changes.
+ * </p>
+ */
+public class ChangeCoalescingFilter
+    implements Function<List<EChange<HierarchicalId>>, List<EChange<HierarchicalId>>> {
+
+  private record FeatureKey(String element, EStructuralFeature feature) {
+  }
+
+  /** An element inserted into a containment list and removed again at the same index. */
+  private record Removal(int insert, int remove) {
+  }
+
+  @Override
+  public List<EChange<HierarchicalId>> apply(List<EChange<HierarchicalId>> changes) {
+    // Dropped changes are set to null and removed at the end.
+    List<EChange<HierarchicalId>> result = new ArrayList<>(changes);
+    Map<FeatureKey, Integer> lastReplaces = new HashMap<>();
+    Map<FeatureKey, Integer> lastInserts = new HashMap<>();
+    Map<String, Integer> creations = new HashMap<>();
+    Map<String, Removal> removals = new HashMap<>();
+    boolean modified = false;
+
+    for (int i = 0; i < result.size(); i++) {
+      EChange<HierarchicalId> change = result.get(i);
+      if (!(change instanceof DeleteEObject<?>) && !removals.isEmpty()) {
+        // A removed element that is still changed is not deleted right away.
+        removals.keySet().removeIf(element -> refersTo(change, element));
+      }
+      if (change instanceof CreateEObject<?> create) {
+        creations.put(idOf(create.getAffectedElement()), i);
+      } else if (change instanceof DeleteEObject<?> delete) {
+        String element = idOf(delete.getAffectedElement());
+        Removal removal = removals.remove(element);
+        if (removal != null) {
+          dropInsertion(result, removal.insert(), removal.remove(), element);
+          modified = true;
+        }
+        Integer created = creations.remove(element);
+        modified |= created != null && dropLifecycle(result, created, i, element);
+      } else if (change instanceof ReplaceSingleValuedFeatureEChange<?, ?, ?> replace && !isContainment(replace)) {
+        FeatureKey key = new FeatureKey(idOf(replace.getAffectedElement()), replace.getAffectedFeature());
+        Integer previous = lastReplaces.put(key, i);
+        if (previous != null && result.get(previous) != null) {
+          if (mergeReplaces(result, previous, i)) {
+            lastReplaces.remove(key);
+          }
+          modified = true;
+        }
+      } else if (change instanceof UpdateSingleListEntryEChange<?, ?> listChange) {
+        FeatureKey key = new FeatureKey(idOf(listChange.getAffectedElement()), listChange.getAffectedFeature());
+        Integer insert = lastInserts.remove(key);
+        boolean containment = isContainment(listChange);
+        if (containment) {
+          forgetCandidates(change, lastReplaces, lastInserts, creations, removals);
+        }
+        if (change instanceof InsertInListEChange) {
+          lastInserts.put(key, i);
+        } else if (change instanceof RemoveFromListEChange && insert != null && result.get(insert) != null
+            && ((UpdateSingleListEntryEChange<?, ?>) result.get(insert)).getIndex() == listChange.getIndex()) {
+          if (containment) {
+            // The element may still be inserted elsewhere, which is a move.
+            removals.put(idOf(((SubtractiveEChange<?, ?>) change).getOldValue()), new Removal(insert, i));
+          } else {
+            dropInsertion(result, insert, i, null);
+            modified = true;
+          }
+        }
+      } else if (change instanceof RootEChange<?> || isContainment(change)) {
+        forgetCandidates(change, lastReplaces, lastInserts, creations, removals);
+      }
+    }
+    if (!modified) {
+      return changes;
+    }
+    result.removeIf(Objects::isNull);
+    return result;
+  }
+
+  /**
+   * Forgets all pending candidates at a containment or root change, except
+   * the creations of elements the change refers to.
+   */
+  private static void forgetCandidates(EChange<HierarchicalId> change, Map<FeatureKey, Integer> lastReplaces,
+      Map<FeatureKey, Integer> lastInserts, Map<String, Integer> creations, Map<String, Removal> removals) {
+    lastReplaces.clear();
+    lastInserts.clear();
+    removals.clear();
+    creations.keySet().removeIf(element -> !refersTo(change, element));
+  }
+
+  /**
+   * Merges the replace at {@code previous} into the one at {@code current} and
+   * drops the merged replace if it does not change the value.
+   *
+   * @return whether the merged replace was dropped
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private static boolean mergeReplaces(List<EChange<HierarchicalId>> changes, int previous, int current) {
+    ReplaceSingleValuedFeatureEChange first = (ReplaceSingleValuedFeatureEChange) changes.get(previous);
+    ReplaceSingleValuedFeatureEChange last = (ReplaceSingleValuedFeatureEChange) changes.get(current);
+    if (last instanceof ReplaceSingleValuedEAttribute attributeChange) {
+      attributeChange.setOldValue(first.getOldValue());
+    } else {
+      ((ReplaceSingleValuedEReference) last).setOldValue(first.getOldValue());
+    }
+    changes.set(previous, null);
+    if (Objects.equals(valueOf(last.getOldValue()), valueOf(last.getNewValue()))) {
+      changes.set(current, null);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Drops an insertion and its removal.  If the inserted element was
+   * contained in the list and is deleted afterwards, its identifier did not
+   * change in between, and the changes of the element and its children are
+   * dropped as well.
+   */
+  private static void dropInsertion(List<EChange<HierarchicalId>> changes, int insert, int remove,
+      String containedElement) {
+    changes.set(insert, null);
+    changes.set(remove, null);
+    if (containedElement == null) {
+      return;
+    }
+    for (int i = insert + 1; i < remove; i++) {
+      if (changes.get(i) instanceof FeatureEChange<?, ?> featureChange) {
+        String element = idOf(featureChange.getAffectedElement());
+        if (element.equals(containedElement) || element.startsWith(containedElement + "/")) {
+          changes.set(i, null);
+        }
+      }
+    }
+  }
+
+  /**
+   * Drops the creation and deletion of an element and its changes in between,
+   * if no other remaining change refers to it.
+   */
+  private static boolean dropLifecycle(List<EChange<HierarchicalId>> changes, int create, int delete,
+      String element) {
+    List<Integer> dropped = new ArrayList<>();
+    for (int i = create + 1; i < delete; i++) {
+      EChange<HierarchicalId> change = changes.get(i);
+      if (change == null) {
+        continue;
+      }
+      if (change instanceof FeatureEChange<?, ?> featureChange && !isContainment(change)
+          && element.equals(idOf(featureChange.getAffectedElement()))) {
+        dropped.add(i);
+      } else if (refersTo(change, element)) {
+        return false;
+      }
+    }
+    changes.set(create, null);
+    changes.set(delete, null);
+    dropped.forEach(i -> changes.set(i, null));
+    return true;
+  }
+
+  private static boolean refersTo(EChange<HierarchicalId> change, String element) {
+    if (change instanceof FeatureEChange<?, ?> featureChange && element.equals(idOf(featureChange.getAffectedElement()))) {
+      return true;
+    }
+    return change instanceof AdditiveEChange<?, ?> additive && element.equals(valueOf(additive.getNewValue()))
+        || change instanceof SubtractiveEChange<?, ?> subtractive && element.equals(valueOf(subtractive.getOldValue()));
+  }
+
+  private static boolean isContainment(EChange<?> change) {
+    return change instanceof FeatureEChange<?, ?> featureChange
+        && featureChange.getAffectedFeature() instanceof EReference reference && reference.isContainment();
+  }
+
+  private static String idOf(Object element) {
+    return element instanceof HierarchicalId id ? id.getId() : String.valueOf(element);
+  }
+
+  /** Returns the identifier of referenced elements and attribute values as they are. */
+  private static Object valueOf(Object value) {
+    return value instanceof HierarchicalId id ? id.getId() : value;
+  }
+}
@@ -0,0 +1,212 @@
+package tools.vitruv.methodologisttemplate.viewtype;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EDataType;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import tools.vitruv.change.atomic.EChange;
+import tools.vitruv.change.atomic.hid.HierarchicalId;
+import tools.vitruv.change.composite.description.VitruviusChange;
+import tools.vitruv.change.composite.description.VitruviusChangeFactory;
+
+/**
+ * Reads the changes written by a {@link ChangeLogWriter}.  Metamodel elements
+ * are resolved through the global package registry, so the metamodels of the
+ * recorded changes must be registered.
+ *
+ * <p>
+ * A relocation function can be given to map identifiers and resource URIs of
+ * the recorded models, for example to replay a log into another storage
+ * folder or to replay it several times into separate models.
+ * </p>
+ */
+public class ChangeLogReader implements AutoCloseable {
+  private static final String URI_FEATURE = "uri";
+
+  /**
+   * A recorded change and the time it was committed, relative to the start
+   * of the log.
+   */
+  public record Entry(long offsetNanos, VitruviusChange<HierarchicalId> change) {
+  }
+
+  private final DataInputStream in;
+  private final UnaryOperator<String> relocation;
+  private final List<String> strings = new ArrayList<>();
+  private final Map<String, EObject> metamodelElements = new HashMap<>();
+  private final ResourceSet resourceSet = new ResourceSetImpl();
+
+  public ChangeLogReader(Path file) throws IOException {
+    this(file, UnaryOperator.identity());
+  }
+
+  /**
+   * @param relocation maps the recorded identifiers and resource URIs
+   */
+  public ChangeLogReader(Path file, UnaryOperator<String> relocation) throws IOException {
+    this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+    this.relocation = relocation;
+    if (in.readInt() != ChangeLogWriter.MAGIC) {
+      throw new IOException(file + " is not a change log");
+    }
+    int version = in.readInt();
+    if (version != ChangeLogWriter.VERSION) {
+      throw new IOException("Unsupported change log version " + version);
+    }
+  }
+
+  /**
+   * Reads all entries of the given log.
+   */
+  public static List<Entry> readAll(Path file, UnaryOperator<String> relocation) throws IOException {
+    List<Entry> entries = new ArrayList<>();
+    try (ChangeLogReader reader = new ChangeLogReader(file, relocation)) {
+      Entry entry;
+      while ((entry = reader.next()) != null) {
+        entries.add(entry);
+      }
+    }
+    return entries;
+  }
+
+  /**
+   * Returns the next entry, or {@code null} at the end of the log.
+   */
+  public Entry next() throws IOException {
+    long offset;
+    try {
+      offset = readVarLong();
+    } catch (EOFException e) {
+      return null;
+    }
+    int size = (int) readVarLong();
+    List<EChange<HierarchicalId>> eChanges = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      eChanges.add(readEChange());
+    }
+    return new Entry(offset, VitruviusChangeFactory.getInstance().createTransactionalChange(eChanges));
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  @SuppressWarnings("unchecked")
+  private EChange<HierarchicalId> readEChange() throws IOException {
+    EClass eClass = (EClass) metamodelElement(readString());
+    EChange<HierarchicalId> eChange = (EChange<HierarchicalId>) EcoreUtil.create(eClass);
+    int features = (int) readVarLong();
+    for (int i = 0; i < features; i++) {
+      String name = readString();
+      EStructuralFeature feature = eClass.getEStructuralFeature(name);
+      if (feature == null) {
+        throw new IOException("Unknown feature " + name + " of " + eClass.getName());
+      }
+      Object value = readValue();
+      if (URI_FEATURE.equals(name) && value instanceof String uri) {
+        value = relocation.apply(uri);
+      }
+      if (feature.isMany()) {
+        ((List<Object>) eChange.eGet(feature)).addAll((List<?>) value);
+      } else {
+        eChange.eSet(feature, value);
+      }
+    }
+    return eChange;
+  }
+
+  private Object readValue() throws IOException {
+    int tag = in.readUnsignedByte();
+    switch (tag) {
+      case ChangeLogWriter.NULL:
+        return null;
+      case ChangeLogWriter.ID:
+        return new HierarchicalId(relocation.apply(readString()));
+      case ChangeLogWriter.EOBJECT:
+        return metamodelElement(readString());
+      case ChangeLogWriter.STRING:
+        return readString();
+      case ChangeLogWriter.INT:
+        return (int) unZigZag(readVarLong());
+      case ChangeLogWriter.LONG:
+        return unZigZag(readVarLong());
+      case ChangeLogWriter.TRUE:
+        return true;
+      case ChangeLogWriter.FALSE:
+        return false;
+      case ChangeLogWriter.DOUBLE:
+        return in.readDouble();
+      case ChangeLogWriter.DATA:
+        EDataType dataType = (EDataType) metamodelElement(readString());
+        return EcoreUtil.createFromString(dataType, readString());
+      case ChangeLogWriter.LIST:
+        int size = (int) readVarLong();
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          list.add(readValue());
+        }
+        return list;
+      default:
+        throw new IOException("Unknown value tag " + tag);
+    }
+  }
+
+  private EObject metamodelElement(String uri) throws IOException {
+    EObject element = metamodelElements.get(uri);
+    if (element == null) {
+      element = resourceSet.getEObject(URI.createURI(uri), true);
+      if (element == null) {
+        throw new IOException("Unknown metamodel element " + uri);
+      }
+      metamodelElements.put(uri, element);
+    }
+    return element;
+  }
+
+  private String readString() throws IOException {
+    int index = (int) readVarLong();
+    if (index > 0) {
+      return strings.get(index - 1);
+    }
+    byte[] bytes = new byte[(int) readVarLong()];
+    in.readFully(bytes);
+    String string = new String(bytes, StandardCharsets.UTF_8);
+    strings.add(string);
+    return string;
+  }
+
+  private long readVarLong() throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed variable-length number");
+  }
+
+  private static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+}
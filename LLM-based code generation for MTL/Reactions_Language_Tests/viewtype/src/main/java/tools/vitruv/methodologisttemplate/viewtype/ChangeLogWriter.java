@@ -0,0 +1,185 @@
+package tools.vitruv.methodologisttemplate.viewtype;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EDataType;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import tools.vitruv.change.atomic.EChange;
+import tools.vitruv.change.atomic.hid.HierarchicalId;
+import tools.vitruv.change.composite.description.VitruviusChange;
+
+/**
+ * Writes committed changes to a compact binary log, which a
+ * {@link ChangeLogReader} reads back, e.g. to replay a recorded session as a
+ * workload:
+ *
+ * <pre>
+ *   try (ChangeLogWriter log = new ChangeLogWriter(Path.of("session.vclog"))) {
+ *     viewType.setChangeLog(log);
+ *     ...
+ *   }
+ * </pre>
+ *
+ * <p>
+ * Each entry holds the time since the log was opened and the atomic changes
+ * of one commit.  Changes are written reflectively as their class and set
+ * features; elements are written as their hierarchical identifiers, metamodel
+ * elements as their URIs and attribute values in the literal form of their
+ * data type.  Every string is written once and referred to by its index
+ * afterwards, and numbers, including the length of a string in UTF-8, are
+ * written as variable-length integers.
+ * </p>
+ */
+public class ChangeLogWriter implements AutoCloseable {
+  static final int MAGIC = 0x56434C47;
+  static final int VERSION = 2;
+
+  static final int NULL = 0;
+  static final int ID = 1;
+  static final int EOBJECT = 2;
+  static final int STRING = 3;
+  static final int INT = 4;
+  static final int LONG = 5;
+  static final int TRUE = 6;
+  static final int FALSE = 7;
+  static final int DOUBLE = 8;
+  static final int DATA = 9;
+  static final int LIST = 10;
+
+  private final DataOutputStream out;
+  private final Map<String, Integer> strings = new HashMap<>();
+  private final long start = System.nanoTime();
+  private int entries;
+
+  public ChangeLogWriter(Path file) throws IOException {
+    this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+  }
+
+  /**
+   * Appends the given change to the log.
+   */
+  public synchronized void write(VitruviusChange<HierarchicalId> change) {
+    try {
+      writeVarLong(System.nanoTime() - start);
+      List<EChange<HierarchicalId>> eChanges = change.getEChanges();
+      writeVarLong(eChanges.size());
+      for (EChange<HierarchicalId> eChange : eChanges) {
+        writeEChange(eChange);
+      }
+      entries++;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write change to log", e);
+    }
+  }
+
+  /** Returns the number of changes written so far. */
+  public synchronized int getEntries() {
+    return entries;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    out.close();
+  }
+
+  private void writeEChange(EChange<HierarchicalId> eChange) throws IOException {
+    writeString(EcoreUtil.getURI(eChange.eClass()).toString());
+    List<EStructuralFeature> features = eChange.eClass().getEAllStructuralFeatures().stream()
+        .filter(feature -> !feature.isDerived() && !feature.isTransient() && feature.isChangeable())
+        .filter(eChange::eIsSet)
+        .toList();
+    writeVarLong(features.size());
+    for (EStructuralFeature feature : features) {
+      writeString(feature.getName());
+      writeValue(eChange, eChange.eGet(feature));
+    }
+  }
+
+  private void writeValue(EChange<HierarchicalId> eChange, Object value) throws IOException {
+    if (value == null) {
+      out.writeByte(NULL);
+    } else if (value instanceof HierarchicalId id) {
+      out.writeByte(ID);
+      writeString(id.getId());
+    } else if (value instanceof EObject eObject) {
+      out.writeByte(EOBJECT);
+      writeString(EcoreUtil.getURI(eObject).toString());
+    } else if (value instanceof List<?> list) {
+      out.writeByte(LIST);
+      writeVarLong(list.size());
+      for (Object element : list) {
+        writeValue(eChange, element);
+      }
+    } else if (value instanceof String string) {
+      out.writeByte(STRING);
+      writeString(string);
+    } else if (value instanceof Integer number) {
+      out.writeByte(INT);
+      writeVarLong(zigZag(number));
+    } else if (value instanceof Long number) {
+      out.writeByte(LONG);
+      writeVarLong(zigZag(number));
+    } else if (value instanceof Boolean bool) {
+      out.writeByte(bool ? TRUE : FALSE);
+    } else if (value instanceof Double number) {
+      out.writeByte(DOUBLE);
+      out.writeDouble(number);
+    } else {
+      EDataType dataType = dataTypeOf(eChange, value);
+      out.writeByte(DATA);
+      writeString(EcoreUtil.getURI(dataType).toString());
+      writeString(EcoreUtil.convertToString(dataType, value));
+    }
+  }
+
+  /** Returns the data type of an attribute value, which is the type of the changed attribute. */
+  private static EDataType dataTypeOf(EChange<HierarchicalId> eChange, Object value) {
+    EStructuralFeature affectedFeature = eChange.eClass().getEStructuralFeature("affectedFeature");
+    if (affectedFeature != null && eChange.eGet(affectedFeature) instanceof EAttribute attribute) {
+      return attribute.getEAttributeType();
+    }
+    throw new IllegalArgumentException("Cannot write value " + value + " of " + eChange.eClass().getName());
+  }
+
+  private void writeString(String string) throws IOException {
+    Integer index = strings.get(string);
+    if (index != null) {
+      writeVarLong(index + 1L);
+      return;
+    }
+    // Strings are written as UTF-8 with their length, since writeUTF is
+    // limited to 64 KB, which long attribute values exceed.
+    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+    writeVarLong(0);
+    writeVarLong(bytes.length);
+    out.write(bytes);
+    strings.put(string, strings.size());
+  }
+
+  private void writeVarLong(long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  private static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+}
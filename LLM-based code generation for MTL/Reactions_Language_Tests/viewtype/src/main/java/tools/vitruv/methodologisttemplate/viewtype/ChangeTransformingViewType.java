@@ -5,6 +5,10 @@ import tools.vitruv.methodologisttemplate.viewtype.impl.ChangeTransformingViewTy
 
 import java.util.List;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import org.eclipse.emf.ecore.EClass;
 
 import tools.vitruv.change.atomic.EChange;
 import tools.vitruv.change.atomic.hid.HierarchicalId;
@@ -15,6 +19,24 @@ import tools.vitruv.framework.views.impl.IdentityMappingViewType;
  * additionally providing the functionality to add filters which filter lists of
  * {@link EChange} that are used to commit changes to a view. The filters may,
  * e.g., chose to omit certain kinds of changes.
+ *
+ * <p>
+ * Besides filters on whole lists of changes, per-change filters and mappers
+ * can be registered.  Consecutive per-change stages are applied together in a
+ * single pass over the changes without intermediate lists, so they should be
+ * preferred for large commits.  All stages are applied in the order they were
+ * registered.  Per-change stages can be restricted to a kind of change and
+ * an affected {@link EClass}; the view type indexes them, so each change only
+ * visits the stages relevant for it.
+ * </p>
+ *
+ * <p>
+ * Views of the same view type may commit from different threads.  Each commit
+ * applies the stages registered when it started; registering or unregistering
+ * stages concurrently does not affect commits in progress.  The stages of
+ * concurrent commits run in parallel, while their propagation into the same
+ * view source, e.g. a virtual model, is serialized.
+ * </p>
  */
 public abstract class ChangeTransformingViewType extends IdentityMappingViewType {
 
@@ -44,6 +66,114 @@ public abstract class ChangeTransformingViewType extends IdentityMappingViewType
    */
   public abstract boolean unregisterFilter(Function<List<EChange<HierarchicalId>>, List<EChange<HierarchicalId>>> filter);
 
+  /**
+   * Registers the given per-change filter.  Changes for which the filter
+   * returns {@code false} are omitted from the commit.
+   * 
+   * @param filter the per-change filter to register
+   * @return whether the register operation was successful.
+   */
+  public boolean registerChangeFilter(Predicate<? super EChange<HierarchicalId>> filter) {
+    return registerChangeFilter(EChange.class, null, filter);
+  }
+
+  /**
+   * Registers the given per-change filter for changes of the given kind
+   * affecting instances of the given class.  Other changes are not passed to
+   * the filter and kept.
+   * 
+   * @param changeType    the type of changes to filter, e.g.
+   *                      {@code ReplaceSingleValuedEAttribute.class}
+   * @param affectedClass the class of the affected elements, or {@code null}
+   *                      for all elements.  A feature change matches if the
+   *                      class has the changed feature, a creation or
+   *                      deletion if the element is an instance of it.  Root
+   *                      changes refer to their element by id only, without
+   *                      its class, and only match {@code null}.
+   * @param filter        the per-change filter to register
+   * @return whether the register operation was successful.
+   */
+  public abstract boolean registerChangeFilter(Class<?> changeType, EClass affectedClass,
+      Predicate<? super EChange<HierarchicalId>> filter);
+
+  /**
+   * Unregisters the given per-change filter, regardless of the kind of change
+   * and class it was registered for.
+   * 
+   * @param filter the per-change filter to unregister
+   * @return whether the unregister operation was successful.
+   */
+  public abstract boolean unregisterChangeFilter(Predicate<? super EChange<HierarchicalId>> filter);
+
+  /**
+   * Registers the given per-change mapper, which replaces each change by the
+   * change it returns, or omits it if it returns {@code null}.  A mapper may
+   * modify and return the given change, since mappers are applied to a copy
+   * of the committed changes.
+   * 
+   * @param mapper the per-change mapper to register
+   * @return whether the register operation was successful.
+   */
+  public boolean registerChangeMapper(UnaryOperator<EChange<HierarchicalId>> mapper) {
+    return registerChangeMapper(EChange.class, null, mapper);
+  }
+
+  /**
+   * Registers the given per-change mapper for changes of the given kind
+   * affecting instances of the given class.  Other changes are not passed to
+   * the mapper.
+   * 
+   * @param changeType    the type of changes to map
+   * @param affectedClass the class of the affected elements, or {@code null}
+   *                      for all elements, matched as for
+   *                      {@link #registerChangeFilter(Class, EClass, Predicate)}
+   * @param mapper        the per-change mapper to register
+   * @return whether the register operation was successful.
+   */
+  public abstract boolean registerChangeMapper(Class<?> changeType, EClass affectedClass,
+      UnaryOperator<EChange<HierarchicalId>> mapper);
+
+  /**
+   * Unregisters the given per-change mapper, regardless of the kind of change
+   * and class it was registered for.
+   * 
+   * @param mapper the per-change mapper to unregister
+   * @return whether the unregister operation was successful.
+   */
+  public abstract boolean unregisterChangeMapper(UnaryOperator<EChange<HierarchicalId>> mapper);
+
+  /**
+   * Sets the queue through which the commits of views of this view type are
+   * propagated.  With a queue, {@code commitChanges()} returns once the
+   * changes are queued; without one, it returns once they are propagated.
+   * 
+   * @param queue the queue to use, or {@code null} to propagate commits
+   *              synchronously
+   */
+  public abstract void setCommitQueue(AsyncCommitQueue queue);
+
+  /**
+   * Sets the log to which every change committed through views of this view
+   * type is written, after the registered stages have been applied and the
+   * change has been propagated.
+   * 
+   * @param changeLog the log to write to, or {@code null} to stop logging
+   */
+  public abstract void setChangeLog(ChangeLogWriter changeLog);
+
+  /**
+   * Propagates the commits of views of this view type asynchronously through
+   * a new {@link AsyncCommitQueue} with the given capacity.
+   * 
+   * @param capacity the maximum number of pending commits
+   * @return the new queue, which must be closed when no longer needed
+   */
+  public AsyncCommitQueue enableAsyncCommits(int capacity) {
+    AsyncCommitQueue queue = new AsyncCommitQueue(capacity);
+    setCommitQueue(queue);
+    return queue;
+  }
+
   /**
    * Builds and returns a new {@link ChangeTransformingView} without any filters
    * added. The created View is a {@link ChangeDerivingView}.
@@ -1,41 +1,340 @@
 package tools.vitruv.methodologisttemplate.viewtype.impl;
 
+import tools.vitruv.methodologisttemplate.viewtype.AsyncCommitQueue;
+import tools.vitruv.methodologisttemplate.viewtype.ChangeLogWriter;
 import tools.vitruv.methodologisttemplate.viewtype.ChangeTransformingViewType;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EStructuralFeature;
 
 import tools.vitruv.change.atomic.EChange;
+import tools.vitruv.change.atomic.eobject.EObjectExistenceEChange;
+import tools.vitruv.change.atomic.feature.FeatureEChange;
 import tools.vitruv.change.atomic.hid.HierarchicalId;
 import tools.vitruv.change.composite.description.VitruviusChange;
 import tools.vitruv.change.composite.description.VitruviusChangeFactory;
 import tools.vitruv.framework.views.impl.ModifiableView;
 
 public class ChangeTransformingViewTypeImpl extends ChangeTransformingViewType {
-  private List<Function<List<EChange<HierarchicalId>>, List<EChange<HierarchicalId>>>> filters;
+  private interface Stage {
+  }
+
+  private record ListStage(Function<List<EChange<HierarchicalId>>, List<EChange<HierarchicalId>>> filter)
+      implements Stage {
+  }
+
+  /** A per-change filter or mapper with the kind of changes it applies to. */
+  private abstract static class ChangeStage implements Stage {
+    final Class<?> changeType;
+    final EClass affectedClass;
+
+    ChangeStage(Class<?> changeType, EClass affectedClass) {
+      this.changeType = changeType;
+      this.affectedClass = affectedClass;
+    }
+
+    abstract Object function();
+
+    boolean appliesTo(DispatchKey key) {
+      if (!changeType.isAssignableFrom(key.changeClass())) {
+        return false;
+      }
+      if (affectedClass == null) {
+        return true;
+      }
+      if (key.target() instanceof EStructuralFeature feature) {
+        return affectedClass.getEAllStructuralFeatures().contains(feature);
+      }
+      return key.target() instanceof EClass type && affectedClass.isSuperTypeOf(type);
+    }
+  }
+
+  private static final class FilterStage extends ChangeStage {
+    final Predicate<? super EChange<HierarchicalId>> filter;
+
+    FilterStage(Class<?> changeType, EClass affectedClass, Predicate<? super EChange<HierarchicalId>> filter) {
+      super(changeType, affectedClass);
+      this.filter = filter;
+    }
+
+    @Override
+    Object function() {
+      return filter;
+    }
+  }
+
+  private static final class MapperStage extends ChangeStage {
+    final UnaryOperator<EChange<HierarchicalId>> mapper;
+
+    MapperStage(Class<?> changeType, EClass affectedClass, UnaryOperator<EChange<HierarchicalId>> mapper) {
+      super(changeType, affectedClass);
+      this.mapper = mapper;
+    }
+
+    @Override
+    Object function() {
+      return mapper;
+    }
+  }
+
+  /**
+   * The change implementation class and the changed feature or, for changes
+   * without a feature, the class of the affected element.
+   */
+  private record DispatchKey(Class<?> changeClass, Object target) {
+    static DispatchKey of(EChange<?> change) {
+      if (change instanceof FeatureEChange<?, ?> featureChange) {
+        return new DispatchKey(change.getClass(), featureChange.getAffectedFeature());
+      }
+      if (change instanceof EObjectExistenceEChange<?> existenceChange) {
+        return new DispatchKey(change.getClass(), existenceChange.getAffectedEObjectType());
+      }
+      return new DispatchKey(change.getClass(), null);
+    }
+  }
+
+  /**
+   * Consecutive per-change stages, indexed by the kinds of changes they apply
+   * to.  The index is filled on first use of a kind of change.
+   */
+  private static final class ChangeSegment {
+    private static final int[] NONE = new int[0];
+
+    final List<ChangeStage> stages;
+    final Map<DispatchKey, int[]> index = new ConcurrentHashMap<>();
+
+    ChangeSegment(List<ChangeStage> stages) {
+      this.stages = stages;
+    }
+
+    /** Returns the positions of the stages applying to the given change. */
+    int[] applicable(EChange<?> change) {
+      return index.computeIfAbsent(DispatchKey.of(change), key -> {
+        int[] positions = new int[stages.size()];
+        int count = 0;
+        for (int i = 0; i < stages.size(); i++) {
+          if (stages.get(i).appliesTo(key)) {
+            positions[count++] = i;
+          }
+        }
+        return count == 0 ? NONE : Arrays.copyOf(positions, count);
+      });
+    }
+  }
+
+  /** The registered stages in registration order, guarded by {@code this}. */
+  private List<Stage> stages;
+  /**
+   * Immutable snapshot of the registered stages with consecutive per-change
+   * stages grouped into segments.  Registering replaces the snapshot, so
+   * commits from several threads read it without locking and each commit
+   * applies the stages registered when it started.
+   */
+  private volatile List<Object> pipeline;
+  private volatile AsyncCommitQueue commitQueue;
+  private volatile ChangeLogWriter changeLog;
 
   public ChangeTransformingViewTypeImpl(String name) {
     super(name);
-    this.filters = new ArrayList<>();
+    this.stages = List.of();
+    this.pipeline = List.of();
   }
 
   @Override
   public void commitViewChanges(ModifiableView view, VitruviusChange<HierarchicalId> viewChange) {
-    var modifiedChange = viewChange.copy().getEChanges();
-    for (Function<List<EChange<HierarchicalId>>, List<EChange<HierarchicalId>>> filter : filters) {
-      modifiedChange = filter.apply(modifiedChange);
+    AsyncCommitQueue queue = this.commitQueue;
+    if (queue == null) {
+      propagate(view, viewChange);
+      return;
+    }
+    // The view reuses its recorded change after the commit, so the queued propagation works on a copy.
+    VitruviusChange<HierarchicalId> queuedChange = viewChange.copy();
+    // A failed propagation is reported by the next flush or close of the queue.
+    queue.submit(() -> propagate(view, queuedChange));
+  }
+
+  @Override
+  public void setCommitQueue(AsyncCommitQueue queue) {
+    this.commitQueue = queue;
+  }
+
+  @Override
+  public void setChangeLog(ChangeLogWriter changeLog) {
+    this.changeLog = changeLog;
+  }
+
+  /**
+   * Applies the registered stages to the given change, propagates it and
+   * writes it to the change log.
+   * 
+   * @return the propagated change
+   */
+  private VitruviusChange<HierarchicalId> propagate(ModifiableView view, VitruviusChange<HierarchicalId> viewChange) {
+    VitruviusChange<HierarchicalId> change = transform(viewChange);
+    // The identity mapping view type copies the models of the view source
+    // before propagating the change into them, which must not overlap with
+    // the propagation of another commit, so only the stages run concurrently.
+    synchronized (view.getViewSource()) {
+      super.commitViewChanges(view, change);
+      // Only propagated changes are logged, in the order of their propagation.
+      ChangeLogWriter log = this.changeLog;
+      if (log != null) {
+        log.write(change);
+      }
+    }
+    return change;
+  }
+
+  /**
+   * Applies the registered stages to the given change.  Returns the given
+   * change itself if no stage changed it.
+   */
+  VitruviusChange<HierarchicalId> transform(VitruviusChange<HierarchicalId> viewChange) {
+    List<Object> pipeline = this.pipeline;
+    if (pipeline.isEmpty()) {
+      return viewChange;
+    }
+    // List filters and mappers may modify the changes, so they work on a copy; filters only select.
+    boolean copy = pipeline.stream().anyMatch(step -> step instanceof ListStage
+        || ((ChangeSegment) step).stages.stream().anyMatch(MapperStage.class::isInstance));
+    List<EChange<HierarchicalId>> modifiedChange = copy ? viewChange.copy().getEChanges() : viewChange.getEChanges();
+    boolean modified = copy;
+    for (Object step : pipeline) {
+      if (step instanceof ListStage listStage) {
+        modifiedChange = listStage.filter().apply(modifiedChange);
+      } else {
+        List<EChange<HierarchicalId>> result = applyChangeStages(modifiedChange, (ChangeSegment) step);
+        modified |= result != modifiedChange;
+        modifiedChange = result;
+      }
+    }
+    if (!modified) {
+      return viewChange;
     }
-    super.commitViewChanges(view, VitruviusChangeFactory.getInstance().createTransactionalChange(modifiedChange));
+    return VitruviusChangeFactory.getInstance().createTransactionalChange(modifiedChange);
+  }
+
+  /**
+   * Applies the stages of a segment in one pass, passing each change only to
+   * the stages applying to it.  Returns the given list itself if all changes
+   * are kept unchanged.
+   */
+  private static List<EChange<HierarchicalId>> applyChangeStages(List<EChange<HierarchicalId>> changes,
+      ChangeSegment segment) {
+    List<EChange<HierarchicalId>> result = null;
+    for (int i = 0; i < changes.size(); i++) {
+      EChange<HierarchicalId> original = changes.get(i);
+      EChange<HierarchicalId> change = original;
+      int[] applicable = segment.applicable(change);
+      for (int k = 0; k < applicable.length && change != null; k++) {
+        ChangeStage stage = segment.stages.get(applicable[k]);
+        if (stage instanceof FilterStage filterStage) {
+          if (!filterStage.filter.test(change)) {
+            change = null;
+          }
+        } else {
+          EChange<HierarchicalId> mapped = ((MapperStage) stage).mapper.apply(change);
+          if (mapped != null && mapped != change && !DispatchKey.of(mapped).equals(DispatchKey.of(change))) {
+            // The mapped change continues with the remaining stages applying to its kind.
+            int position = applicable[k];
+            applicable = Arrays.stream(segment.applicable(mapped)).filter(it -> it > position).toArray();
+            k = -1;
+          }
+          change = mapped;
+        }
+      }
+      if (result == null && change != original) {
+        result = new ArrayList<>(changes.size());
+        result.addAll(changes.subList(0, i));
+      }
+      if (result != null && change != null) {
+        result.add(change);
+      }
+    }
+    return result == null ? changes : result;
   }
 
   public boolean registerFilter(Function<List<EChange<HierarchicalId>>, List<EChange<HierarchicalId>>> filter) {
-    return this.filters.add(filter);
+    return addStage(new ListStage(filter));
   }
 
   @Override
   public boolean unregisterFilter(Function<List<EChange<HierarchicalId>>, List<EChange<HierarchicalId>>> filter) {
-    return this.filters.remove(filter);
+    return removeStage(filter);
+  }
+
+  @Override
+  public boolean registerChangeFilter(Class<?> changeType, EClass affectedClass,
+      Predicate<? super EChange<HierarchicalId>> filter) {
+    return addStage(new FilterStage(changeType, affectedClass, filter));
+  }
+
+  @Override
+  public boolean unregisterChangeFilter(Predicate<? super EChange<HierarchicalId>> filter) {
+    return removeStage(filter);
+  }
+
+  @Override
+  public boolean registerChangeMapper(Class<?> changeType, EClass affectedClass,
+      UnaryOperator<EChange<HierarchicalId>> mapper) {
+    return addStage(new MapperStage(changeType, affectedClass, mapper));
+  }
+
+  @Override
+  public boolean unregisterChangeMapper(UnaryOperator<EChange<HierarchicalId>> mapper) {
+    return removeStage(mapper);
+  }
+
+  private synchronized boolean addStage(Stage stage) {
+    List<Stage> newStages = new ArrayList<>(this.stages);
+    newStages.add(stage);
+    setStages(newStages);
+    return true;
+  }
+
+  /** Removes the first stage with the given filter or mapper. */
+  private synchronized boolean removeStage(Object function) {
+    List<Stage> newStages = new ArrayList<>(this.stages);
+    for (int i = 0; i < newStages.size(); i++) {
+      Stage stage = newStages.get(i);
+      Object stageFunction = stage instanceof ListStage listStage ? listStage.filter() : ((ChangeStage) stage).function();
+      if (stageFunction.equals(function)) {
+        newStages.remove(i);
+        setStages(newStages);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void setStages(List<Stage> newStages) {
+    List<Object> newPipeline = new ArrayList<>();
+    List<ChangeStage> segment = new ArrayList<>();
+    for (Stage stage : newStages) {
+      if (stage instanceof ChangeStage changeStage) {
+        segment.add(changeStage);
+        continue;
+      }
+      if (!segment.isEmpty()) {
+        newPipeline.add(new ChangeSegment(List.copyOf(segment)));
+        segment.clear();
+      }
+      newPipeline.add(stage);
+    }
+    if (!segment.isEmpty()) {
+      newPipeline.add(new ChangeSegment(List.copyOf(segment)));
+    }
+    this.stages = List.copyOf(newStages);
+    this.pipeline = List.copyOf(newPipeline);
   }
 
 }
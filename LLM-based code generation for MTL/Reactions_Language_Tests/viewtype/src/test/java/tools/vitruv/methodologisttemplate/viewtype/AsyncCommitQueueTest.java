@@ -0,0 +1,139 @@
+package tools.vitruv.methodologisttemplate.viewtype;
+
+import static tools.vitruv.methodologisttemplate.viewtype.TestChanges.rename;
+import static tools.vitruv.methodologisttemplate.viewtype.TestChanges.transaction;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import tools.vitruv.change.atomic.hid.HierarchicalId;
+import tools.vitruv.change.composite.description.VitruviusChange;
+import tools.vitruv.framework.views.CommittableView;
+
+/**
+ * Tests the order, back pressure and failure handling of the
+ * {@link AsyncCommitQueue}.
+ */
+public class AsyncCommitQueueTest {
+
+  private final AsyncCommitQueue queue = new AsyncCommitQueue(2);
+
+  @AfterEach
+  void closeQueue() throws InterruptedException {
+    queue.close();
+  }
+
+  /** Returns a view whose commit submits the given propagation to the queue. */
+  private CommittableView view(VitruviusChange<HierarchicalId> committed) {
+    return (CommittableView) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] { CommittableView.class }, (proxy, method, args) -> {
+          if (method.getName().equals("commitChanges") && committed != null) {
+            queue.submit(() -> committed);
+          }
+          return null;
+        });
+  }
+
+  @Test
+  void commitsArePropagatedInSubmissionOrder() {
+    List<Integer> propagated = Collections.synchronizedList(new ArrayList<>());
+    List<Integer> expected = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      int commit = i;
+      queue.submit(() -> {
+        propagated.add(commit);
+        return null;
+      });
+      expected.add(i);
+    }
+    queue.flush().join();
+    Assertions.assertEquals(expected, propagated);
+    Assertions.assertEquals(0, queue.getPending());
+  }
+
+  @Test
+  void commitReturnsTheFutureOfItsPropagation() {
+    VitruviusChange<HierarchicalId> change = transaction(rename("a", "A", "B"));
+    Assertions.assertSame(change, queue.commit(view(change)).join());
+    // A view without changes submits nothing.
+    Assertions.assertNull(queue.commit(view(null)).join());
+  }
+
+  @Test
+  void submittingBlocksAtCapacity() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    for (int i = 0; i < 2; i++) {
+      queue.submit(() -> {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return null;
+      });
+    }
+    Assertions.assertEquals(2, queue.getPending());
+
+    CountDownLatch submitted = new CountDownLatch(1);
+    Thread committer = new Thread(() -> {
+      queue.submit(() -> null);
+      submitted.countDown();
+    });
+    committer.start();
+    Assertions.assertFalse(submitted.await(200, TimeUnit.MILLISECONDS));
+
+    release.countDown();
+    Assertions.assertTrue(submitted.await(10, TimeUnit.SECONDS));
+    committer.join();
+    queue.flush().join();
+    Assertions.assertEquals(0, queue.getPending());
+  }
+
+  @Test
+  void failedPropagationCompletesExceptionally() {
+    IllegalArgumentException failure = new IllegalArgumentException("propagation failed");
+    CompletableFuture<VitruviusChange<HierarchicalId>> failed = queue.submit(() -> {
+      throw failure;
+    });
+    CompletableFuture<VitruviusChange<HierarchicalId>> next = queue.submit(() -> null);
+
+    CompletionException thrown = Assertions.assertThrows(CompletionException.class, failed::join);
+    Assertions.assertSame(failure, thrown.getCause());
+    // The failure frees its place in the queue and later commits are still propagated.
+    Assertions.assertNull(next.join());
+    Assertions.assertEquals(0, queue.getPending());
+  }
+
+  @Test
+  void failureIsReportedByTheNextFlush() {
+    IllegalArgumentException failure = new IllegalArgumentException("propagation failed");
+    queue.submit(() -> {
+      throw failure;
+    });
+    CompletionException thrown = Assertions.assertThrows(CompletionException.class, queue.flush()::join);
+    Assertions.assertSame(failure, thrown.getCause().getCause());
+    // Each failure is reported once.
+    queue.flush().join();
+  }
+
+  @Test
+  void failureIsReportedOnClose() throws InterruptedException {
+    AsyncCommitQueue closed = new AsyncCommitQueue(1);
+    IllegalArgumentException failure = new IllegalArgumentException("propagation failed");
+    closed.submit(() -> {
+      throw failure;
+    });
+    IllegalStateException thrown = Assertions.assertThrows(IllegalStateException.class, closed::close);
+    Assertions.assertSame(failure, thrown.getCause());
+  }
+}
@@ -0,0 +1,111 @@
+package tools.vitruv.methodologisttemplate.viewtype;
+
+import static tools.vitruv.methodologisttemplate.viewtype.TestChanges.CHILDREN;
+import static tools.vitruv.methodologisttemplate.viewtype.TestChanges.LINKS;
+import static tools.vitruv.methodologisttemplate.viewtype.TestChanges.create;
+import static tools.vitruv.methodologisttemplate.viewtype.TestChanges.delete;
+import static tools.vitruv.methodologisttemplate.viewtype.TestChanges.describe;
+import static tools.vitruv.methodologisttemplate.viewtype.TestChanges.insert;
+import static tools.vitruv.methodologisttemplate.viewtype.TestChanges.remove;
+import static tools.vitruv.methodologisttemplate.viewtype.TestChanges.rename;
+import static tools.vitruv.methodologisttemplate.viewtype.TestChanges.retarget;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import tools.vitruv.change.atomic.EChange;
+import tools.vitruv.change.atomic.hid.HierarchicalId;
+
+/**
+ * Tests the rules of the {@link ChangeCoalescingFilter}.
+ */
+public class ChangeCoalescingFilterTest {
+
+  private final ChangeCoalescingFilter filter = new ChangeCoalescingFilter();
+
+  @SafeVarargs
+  private List<String> coalesce(EChange<HierarchicalId>... changes) {
+    return describe(filter.apply(List.of(changes)));
+  }
+
+  @Test
+  void changesWithoutRedundancyAreKept() {
+    List<EChange<HierarchicalId>> changes = List.of(rename("a", "A", "B"), rename("b", "A", "B"),
+        retarget("a", null, "b"));
+    Assertions.assertSame(changes, filter.apply(changes));
+  }
+
+  @Test
+  void replacesOfTheSameFeatureAreMerged() {
+    Assertions.assertEquals(List.of("replace b.name X->Y", "replace a.name A->C"),
+        coalesce(rename("a", "A", "B"), rename("b", "X", "Y"), rename("a", "B", "C")));
+  }
+
+  @Test
+  void replaceBackToTheOriginalValueIsDropped() {
+    Assertions.assertEquals(List.of(), coalesce(rename("a", "A", "B"), rename("a", "B", "A")));
+    Assertions.assertEquals(List.of(), coalesce(retarget("a", "b", "c"), retarget("a", "c", "b")));
+  }
+
+  @Test
+  void replacesAreNotMergedAcrossContainmentChanges() {
+    // The insertion may give another element the identifier "a".
+    Assertions.assertEquals(List.of("replace a.name A->B", "insert p.children+c@0", "replace a.name B->C"),
+        coalesce(rename("a", "A", "B"), insert("p", CHILDREN, "c", 0), rename("a", "B", "C")));
+  }
+
+  @Test
+  void insertionRemovedAtTheSameIndexIsDropped() {
+    Assertions.assertEquals(List.of("replace a.name A->B"),
+        coalesce(insert("a", LINKS, "b", 0), rename("a", "A", "B"), remove("a", LINKS, "b", 0)));
+    // A removal at another index removes another value.
+    Assertions.assertEquals(List.of("insert a.links+b@0", "remove a.links-c@1"),
+        coalesce(insert("a", LINKS, "b", 0), remove("a", LINKS, "c", 1)));
+  }
+
+  @Test
+  void containedElementThatIsDeletedIsDroppedWithItsChanges() {
+    Assertions.assertEquals(List.of("delete p/0"), coalesce(insert("p", CHILDREN, "p/0", 0),
+        rename("p/0", "A", "B"), retarget("p/0/1", null, "q"), remove("p", CHILDREN, "p/0", 0), delete("p/0")));
+    Assertions.assertEquals(List.of(), coalesce(create("p/0"), insert("p", CHILDREN, "p/0", 0),
+        rename("p/0", "A", "B"), remove("p", CHILDREN, "p/0", 0), delete("p/0")));
+  }
+
+  @Test
+  void movedElementKeepsItsChanges() {
+    // The element is inserted into a and moved on to b, so its rename must
+    // be propagated.
+    List<String> changes = List.of("remove c.children-x@0", "insert a.children+x@0", "replace x.name A->B",
+        "remove a.children-x@0", "insert b.children+x@0");
+    Assertions.assertEquals(changes, coalesce(remove("c", CHILDREN, "x", 0), insert("a", CHILDREN, "x", 0),
+        rename("x", "A", "B"), remove("a", CHILDREN, "x", 0), insert("b", CHILDREN, "x", 0)));
+  }
+
+  @Test
+  void removedElementThatIsChangedBeforeItsDeletionIsKept() {
+    Assertions.assertEquals(List.of("insert p.children+x@0", "remove p.children-x@0", "replace x.name A->B",
+        "delete x"), coalesce(insert("p", CHILDREN, "x", 0), remove("p", CHILDREN, "x", 0),
+            rename("x", "A", "B"), delete("x")));
+  }
+
+  @Test
+  void createdAndDeletedElementIsDroppedWithItsChanges() {
+    Assertions.assertEquals(List.of("replace a.name A->B"),
+        coalesce(create("x"), rename("x", "X", "Y"), rename("a", "A", "B"), delete("x")));
+  }
+
+  @Test
+  void createdAndDeletedElementIsKeptWhileReferenced() {
+    Assertions.assertEquals(List.of("create x", "replace a.target null->x", "delete x"),
+        coalesce(create("x"), retarget("a", null, "x"), delete("x")));
+  }
+
+  @Test
+  void creationIsForgottenAtOtherContainmentChanges() {
+    // After the insertion, "x" may identify another element.
+    Assertions.assertEquals(List.of("create x", "insert p.children+y@0", "delete x"),
+        coalesce(create("x"), insert("p", CHILDREN, "y", 0), delete("x")));
+  }
+}
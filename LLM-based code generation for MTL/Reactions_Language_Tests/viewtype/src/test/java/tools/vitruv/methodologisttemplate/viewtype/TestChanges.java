@@ -0,0 +1,186 @@
+package tools.vitruv.methodologisttemplate.viewtype;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.EcorePackage;
+
+import tools.vitruv.change.atomic.EChange;
+import tools.vitruv.change.atomic.eobject.CreateEObject;
+import tools.vitruv.change.atomic.eobject.DeleteEObject;
+import tools.vitruv.change.atomic.eobject.EobjectFactory;
+import tools.vitruv.change.atomic.feature.FeatureEChange;
+import tools.vitruv.change.atomic.feature.attribute.AttributeFactory;
+import tools.vitruv.change.atomic.feature.attribute.ReplaceSingleValuedEAttribute;
+import tools.vitruv.change.atomic.feature.list.UpdateSingleListEntryEChange;
+import tools.vitruv.change.atomic.feature.reference.InsertEReference;
+import tools.vitruv.change.atomic.feature.reference.ReferenceFactory;
+import tools.vitruv.change.atomic.feature.reference.RemoveEReference;
+import tools.vitruv.change.atomic.feature.reference.ReplaceSingleValuedEReference;
+import tools.vitruv.change.atomic.feature.single.ReplaceSingleValuedFeatureEChange;
+import tools.vitruv.change.atomic.hid.HierarchicalId;
+import tools.vitruv.change.atomic.root.InsertRootEObject;
+import tools.vitruv.change.atomic.root.RootFactory;
+import tools.vitruv.change.composite.description.VitruviusChange;
+import tools.vitruv.change.composite.description.VitruviusChangeFactory;
+
+/**
+ * Builds atomic changes of a small metamodel for the view type tests.  An
+ * {@code Element} has a {@code name}, contained {@code children}, a single
+ * {@code target} and a list of {@code links}; a {@code Tag} only has a
+ * {@code label}.
+ */
+public final class TestChanges {
+  public static final EPackage PACKAGE = EcoreFactory.eINSTANCE.createEPackage();
+  public static final EClass ELEMENT = EcoreFactory.eINSTANCE.createEClass();
+  public static final EClass TAG = EcoreFactory.eINSTANCE.createEClass();
+  public static final EAttribute NAME = EcoreFactory.eINSTANCE.createEAttribute();
+  public static final EAttribute LABEL = EcoreFactory.eINSTANCE.createEAttribute();
+  public static final EReference CHILDREN = EcoreFactory.eINSTANCE.createEReference();
+  public static final EReference TARGET = EcoreFactory.eINSTANCE.createEReference();
+  public static final EReference LINKS = EcoreFactory.eINSTANCE.createEReference();
+
+  static {
+    PACKAGE.setName("test");
+    PACKAGE.setNsPrefix("test");
+    PACKAGE.setNsURI("http://vitruv.tools/methodologisttemplate/viewtype/test");
+    ELEMENT.setName("Element");
+    TAG.setName("Tag");
+    NAME.setName("name");
+    NAME.setEType(EcorePackage.Literals.ESTRING);
+    LABEL.setName("label");
+    LABEL.setEType(EcorePackage.Literals.ESTRING);
+    CHILDREN.setName("children");
+    CHILDREN.setEType(ELEMENT);
+    CHILDREN.setContainment(true);
+    CHILDREN.setUpperBound(-1);
+    TARGET.setName("target");
+    TARGET.setEType(ELEMENT);
+    LINKS.setName("links");
+    LINKS.setEType(ELEMENT);
+    LINKS.setUpperBound(-1);
+    ELEMENT.getEStructuralFeatures().addAll(List.of(NAME, CHILDREN, TARGET, LINKS));
+    TAG.getEStructuralFeatures().add(LABEL);
+    PACKAGE.getEClassifiers().addAll(List.of(ELEMENT, TAG));
+  }
+
+  private TestChanges() {
+  }
+
+  public static HierarchicalId id(String id) {
+    return new HierarchicalId(id);
+  }
+
+  public static ReplaceSingleValuedEAttribute<HierarchicalId, Object> rename(String element, String oldName,
+      String newName) {
+    return replaceAttribute(element, NAME, oldName, newName);
+  }
+
+  public static ReplaceSingleValuedEAttribute<HierarchicalId, Object> replaceAttribute(String element,
+      EAttribute attribute, Object oldValue, Object newValue) {
+    ReplaceSingleValuedEAttribute<HierarchicalId, Object> change =
+        AttributeFactory.eINSTANCE.createReplaceSingleValuedEAttribute();
+    change.setAffectedElement(id(element));
+    change.setAffectedFeature(attribute);
+    change.setOldValue(oldValue);
+    change.setNewValue(newValue);
+    return change;
+  }
+
+  public static ReplaceSingleValuedEReference<HierarchicalId> retarget(String element, String oldTarget,
+      String newTarget) {
+    ReplaceSingleValuedEReference<HierarchicalId> change =
+        ReferenceFactory.eINSTANCE.createReplaceSingleValuedEReference();
+    change.setAffectedElement(id(element));
+    change.setAffectedFeature(TARGET);
+    change.setOldValue(oldTarget == null ? null : id(oldTarget));
+    change.setNewValue(newTarget == null ? null : id(newTarget));
+    return change;
+  }
+
+  public static InsertEReference<HierarchicalId> insert(String element, EReference reference, String value,
+      int index) {
+    InsertEReference<HierarchicalId> change = ReferenceFactory.eINSTANCE.createInsertEReference();
+    change.setAffectedElement(id(element));
+    change.setAffectedFeature(reference);
+    change.setNewValue(id(value));
+    change.setIndex(index);
+    return change;
+  }
+
+  public static RemoveEReference<HierarchicalId> remove(String element, EReference reference, String value,
+      int index) {
+    RemoveEReference<HierarchicalId> change = ReferenceFactory.eINSTANCE.createRemoveEReference();
+    change.setAffectedElement(id(element));
+    change.setAffectedFeature(reference);
+    change.setOldValue(id(value));
+    change.setIndex(index);
+    return change;
+  }
+
+  public static CreateEObject<HierarchicalId> create(String element) {
+    CreateEObject<HierarchicalId> change = EobjectFactory.eINSTANCE.createCreateEObject();
+    change.setAffectedElement(id(element));
+    change.setAffectedEObjectType(ELEMENT);
+    return change;
+  }
+
+  public static DeleteEObject<HierarchicalId> delete(String element) {
+    DeleteEObject<HierarchicalId> change = EobjectFactory.eINSTANCE.createDeleteEObject();
+    change.setAffectedElement(id(element));
+    change.setAffectedEObjectType(ELEMENT);
+    return change;
+  }
+
+  public static InsertRootEObject<HierarchicalId> insertRoot(String element, String uri) {
+    InsertRootEObject<HierarchicalId> change = RootFactory.eINSTANCE.createInsertRootEObject();
+    change.setNewValue(id(element));
+    change.setUri(uri);
+    return change;
+  }
+
+  @SafeVarargs
+  public static VitruviusChange<HierarchicalId> transaction(EChange<HierarchicalId>... changes) {
+    return VitruviusChangeFactory.getInstance().createTransactionalChange(List.of(changes));
+  }
+
+  /**
+   * Describes the given changes in a compact form for assertions, e.g.
+   * {@code "replace a.name A->B"} or {@code "insert p.children+c@0"}.
+   */
+  public static List<String> describe(List<? extends EChange<HierarchicalId>> changes) {
+    return changes.stream().map(TestChanges::describe).collect(Collectors.toList());
+  }
+
+  public static String describe(EChange<HierarchicalId> change) {
+    if (change instanceof CreateEObject<HierarchicalId> create) {
+      return "create " + create.getAffectedElement().getId();
+    }
+    if (change instanceof DeleteEObject<HierarchicalId> delete) {
+      return "delete " + delete.getAffectedElement().getId();
+    }
+    FeatureEChange<?, ?> featureChange = (FeatureEChange<?, ?>) change;
+    String feature = ((HierarchicalId) featureChange.getAffectedElement()).getId() + "."
+        + featureChange.getAffectedFeature().getName();
+    if (change instanceof ReplaceSingleValuedFeatureEChange<?, ?, ?> replace) {
+      return "replace " + feature + " " + value(replace.getOldValue()) + "->" + value(replace.getNewValue());
+    }
+    UpdateSingleListEntryEChange<?, ?> listChange = (UpdateSingleListEntryEChange<?, ?>) change;
+    if (change instanceof InsertEReference<HierarchicalId> insert) {
+      return "insert " + feature + "+" + value(insert.getNewValue()) + "@" + listChange.getIndex();
+    }
+    if (change instanceof RemoveEReference<HierarchicalId> remove) {
+      return "remove " + feature + "-" + value(remove.getOldValue()) + "@" + listChange.getIndex();
+    }
+    return change.toString();
+  }
+
+  private static String value(Object value) {
+    return value instanceof HierarchicalId id ? id.getId() : String.valueOf(value);
+  }
+}
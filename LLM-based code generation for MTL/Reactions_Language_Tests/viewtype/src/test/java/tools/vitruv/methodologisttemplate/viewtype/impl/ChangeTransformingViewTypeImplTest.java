@@ -0,0 +1,217 @@
+package tools.vitruv.methodologisttemplate.viewtype.impl;
+
+import static tools.vitruv.methodologisttemplate.viewtype.TestChanges.CHILDREN;
+import static tools.vitruv.methodologisttemplate.viewtype.TestChanges.ELEMENT;
+import static tools.vitruv.methodologisttemplate.viewtype.TestChanges.LABEL;
+import static tools.vitruv.methodologisttemplate.viewtype.TestChanges.TAG;
+import static tools.vitruv.methodologisttemplate.viewtype.TestChanges.create;
+import static tools.vitruv.methodologisttemplate.viewtype.TestChanges.describe;
+import static tools.vitruv.methodologisttemplate.viewtype.TestChanges.insert;
+import static tools.vitruv.methodologisttemplate.viewtype.TestChanges.insertRoot;
+import static tools.vitruv.methodologisttemplate.viewtype.TestChanges.rename;
+import static tools.vitruv.methodologisttemplate.viewtype.TestChanges.replaceAttribute;
+import static tools.vitruv.methodologisttemplate.viewtype.TestChanges.retarget;
+import static tools.vitruv.methodologisttemplate.viewtype.TestChanges.transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import tools.vitruv.change.atomic.EChange;
+import tools.vitruv.change.atomic.eobject.CreateEObject;
+import tools.vitruv.change.atomic.feature.attribute.ReplaceSingleValuedEAttribute;
+import tools.vitruv.change.atomic.feature.reference.ReplaceSingleValuedEReference;
+import tools.vitruv.change.atomic.hid.HierarchicalId;
+import tools.vitruv.change.atomic.root.InsertRootEObject;
+import tools.vitruv.change.composite.description.VitruviusChange;
+
+/**
+ * Tests the application of the registered stages to committed changes.
+ */
+public class ChangeTransformingViewTypeImplTest {
+
+  private static final List<String> COMMITTED = List.of("replace a.name A->B", "insert a.children+a/0@0",
+      "replace a.target null->b", "replace b.name X->Y");
+
+  private final ChangeTransformingViewTypeImpl viewType = new ChangeTransformingViewTypeImpl("test");
+
+  private static VitruviusChange<HierarchicalId> commit() {
+    return transaction(rename("a", "A", "B"), insert("a", CHILDREN, "a/0", 0), retarget("a", null, "b"),
+        rename("b", "X", "Y"));
+  }
+
+  @Test
+  void commitWithoutStagesIsPassedOn() {
+    VitruviusChange<HierarchicalId> change = commit();
+    Assertions.assertSame(change, viewType.transform(change));
+  }
+
+  @Test
+  void filterKeepingAllChangesDoesNotCopy() {
+    viewType.registerChangeFilter(change -> true);
+    VitruviusChange<HierarchicalId> change = commit();
+    Assertions.assertSame(change, viewType.transform(change));
+  }
+
+  @Test
+  void filtersOnlySelectChanges() {
+    viewType.registerChangeFilter(change -> !(change instanceof ReplaceSingleValuedEAttribute));
+    viewType.registerChangeFilter(change -> !describe(change).startsWith("insert"));
+    VitruviusChange<HierarchicalId> change = commit();
+    VitruviusChange<HierarchicalId> transformed = viewType.transform(change);
+
+    Assertions.assertEquals(List.of("replace a.target null->b"), describe(transformed.getEChanges()));
+    // Only filters are registered, so the kept change is passed on as it is.
+    Assertions.assertSame(change.getEChanges().get(2), transformed.getEChanges().get(0));
+    Assertions.assertEquals(COMMITTED, describe(change.getEChanges()));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void mappersWorkOnACopy() {
+    viewType.registerChangeMapper(ReplaceSingleValuedEAttribute.class, null, change -> {
+      ((ReplaceSingleValuedEAttribute<HierarchicalId, Object>) change).setNewValue("Z");
+      return change;
+    });
+    VitruviusChange<HierarchicalId> change = commit();
+    VitruviusChange<HierarchicalId> transformed = viewType.transform(change);
+
+    Assertions.assertEquals(List.of("replace a.name A->Z", "insert a.children+a/0@0", "replace a.target null->b",
+        "replace b.name X->Z"), describe(transformed.getEChanges()));
+    Assertions.assertEquals(COMMITTED, describe(change.getEChanges()));
+  }
+
+  @Test
+  void mapperReturningNullDropsTheChange() {
+    viewType.registerChangeMapper(change -> describe(change).startsWith("replace b") ? null : change);
+    Assertions.assertEquals(COMMITTED.subList(0, 3), describe(viewType.transform(commit()).getEChanges()));
+  }
+
+  @Test
+  void stagesApplyInRegistrationOrder() {
+    List<String> calls = new ArrayList<>();
+    viewType.registerChangeFilter(change -> calls.add("filter " + describe(change)));
+    viewType.registerFilter(changes -> {
+      calls.add("list " + changes.size());
+      return changes.subList(0, 2);
+    });
+    viewType.registerChangeMapper(change -> {
+      calls.add("mapper " + describe(change));
+      return change;
+    });
+    viewType.transform(commit());
+
+    List<String> expected = new ArrayList<>();
+    COMMITTED.forEach(change -> expected.add("filter " + change));
+    expected.add("list 4");
+    COMMITTED.subList(0, 2).forEach(change -> expected.add("mapper " + change));
+    Assertions.assertEquals(expected, calls);
+  }
+
+  @Test
+  void consecutiveChangeStagesRunInOnePass() {
+    List<String> calls = new ArrayList<>();
+    viewType.registerChangeFilter(change -> calls.add("first"));
+    viewType.registerChangeMapper(change -> {
+      calls.add("second");
+      return change;
+    });
+    viewType.transform(transaction(rename("a", "A", "B"), rename("b", "X", "Y")));
+    Assertions.assertEquals(List.of("first", "second", "first", "second"), calls);
+  }
+
+  @Test
+  void unregisteredStagesAreNoLongerApplied() {
+    Predicate<EChange<HierarchicalId>> filter = change -> false;
+    UnaryOperator<EChange<HierarchicalId>> mapper = change -> null;
+    Function<List<EChange<HierarchicalId>>, List<EChange<HierarchicalId>>> listFilter = changes -> List.of();
+    viewType.registerChangeFilter(filter);
+    viewType.registerChangeMapper(mapper);
+    viewType.registerFilter(listFilter);
+    Assertions.assertTrue(viewType.transform(commit()).getEChanges().isEmpty());
+
+    Assertions.assertTrue(viewType.unregisterChangeFilter(filter));
+    Assertions.assertTrue(viewType.unregisterChangeMapper(mapper));
+    Assertions.assertTrue(viewType.unregisterFilter(listFilter));
+    Assertions.assertFalse(viewType.unregisterChangeFilter(filter));
+    VitruviusChange<HierarchicalId> change = commit();
+    Assertions.assertSame(change, viewType.transform(change));
+  }
+
+  @Test
+  void unregisteringRemovesOnlyTheFirstRegistration() {
+    Predicate<EChange<HierarchicalId>> dropRenames = change -> !(change instanceof ReplaceSingleValuedEAttribute);
+    viewType.registerChangeFilter(dropRenames);
+    viewType.registerChangeFilter(dropRenames);
+    viewType.unregisterChangeFilter(dropRenames);
+    Assertions.assertEquals(List.of("insert a.children+a/0@0", "replace a.target null->b"),
+        describe(viewType.transform(commit()).getEChanges()));
+  }
+
+  @Test
+  void stagesOnlySeeChangesOfTheirKindAndClass() {
+    List<String> seen = new ArrayList<>();
+    viewType.registerChangeFilter(ReplaceSingleValuedEAttribute.class, TAG, change -> seen.add("tag attribute"));
+    viewType.registerChangeFilter(ReplaceSingleValuedEAttribute.class, ELEMENT,
+        change -> seen.add("element attribute"));
+    viewType.registerChangeFilter(ReplaceSingleValuedEReference.class, null, change -> seen.add("reference"));
+    viewType.registerChangeFilter(CreateEObject.class, ELEMENT, change -> seen.add("element creation"));
+    viewType.registerChangeFilter(CreateEObject.class, TAG, change -> seen.add("tag creation"));
+
+    viewType.transform(transaction(rename("a", "A", "B"), replaceAttribute("t", LABEL, "x", "y"),
+        retarget("a", null, "b"), create("c"), insert("a", CHILDREN, "a/0", 0)));
+    Assertions.assertEquals(List.of("element attribute", "tag attribute", "reference", "element creation"), seen);
+  }
+
+  @Test
+  void rootChangesOnlySeeStagesWithoutAClass() {
+    List<String> seen = new ArrayList<>();
+    viewType.registerChangeFilter(InsertRootEObject.class, ELEMENT, change -> seen.add("element root"));
+    viewType.registerChangeFilter(InsertRootEObject.class, null, change -> seen.add("root"));
+    viewType.registerChangeFilter(change -> seen.add("any"));
+
+    viewType.transform(transaction(create("r"), insertRoot("r", "test.model")));
+    Assertions.assertEquals(List.of("any", "root", "any"), seen);
+  }
+
+  @Test
+  void mappedChangeOfAnotherKindContinuesWithTheStagesOfItsKind() {
+    List<String> seen = new ArrayList<>();
+    viewType.registerChangeFilter(ReplaceSingleValuedEReference.class, null, change -> seen.add("before"));
+    // Turns renames into changes of the target, which are not renames any more.
+    viewType.registerChangeMapper(ReplaceSingleValuedEAttribute.class, null, change -> retarget("a", null, "r"));
+    viewType.registerChangeFilter(ReplaceSingleValuedEAttribute.class, null, change -> seen.add("attribute"));
+    viewType.registerChangeFilter(ReplaceSingleValuedEReference.class, null, change -> {
+      seen.add("reference " + describe(change));
+      return true;
+    });
+
+    VitruviusChange<HierarchicalId> transformed = viewType.transform(transaction(rename("a", "A", "B")));
+    Assertions.assertEquals(List.of("reference replace a.target null->r"), seen);
+    Assertions.assertEquals(List.of("replace a.target null->r"), describe(transformed.getEChanges()));
+  }
+
+  @Test
+  void mappedChangeOfTheSameKindContinuesWithTheRemainingStages() {
+    List<String> seen = new ArrayList<>();
+    viewType.registerChangeMapper(ReplaceSingleValuedEAttribute.class, null, change -> rename("z", "A", "B"));
+    viewType.registerChangeFilter(ReplaceSingleValuedEAttribute.class, null, change -> seen.add(describe(change)));
+    viewType.transform(transaction(rename("a", "A", "B")));
+    Assertions.assertEquals(List.of("replace z.name A->B"), seen);
+  }
+
+  @Test
+  void registeringAfterTheFirstCommitRebuildsTheIndex() {
+    List<String> seen = new ArrayList<>();
+    viewType.registerChangeFilter(ReplaceSingleValuedEReference.class, null, change -> seen.add("reference"));
+    viewType.transform(transaction(rename("a", "A", "B")));
+    viewType.registerChangeFilter(ReplaceSingleValuedEAttribute.class, null, change -> seen.add("attribute"));
+    viewType.transform(transaction(rename("a", "A", "B")));
+    Assertions.assertEquals(List.of("attribute"), seen);
+  }
+}
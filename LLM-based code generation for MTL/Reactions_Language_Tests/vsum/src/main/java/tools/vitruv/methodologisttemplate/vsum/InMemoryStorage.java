@@ -0,0 +1,131 @@
+package tools.vitruv.methodologisttemplate.vsum;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.URIConverter;
+
+/**
+ * Keeps the resources of a virtual model in memory instead of its storage
+ * folder.  The storage folder is mapped to a {@code memory:} URI in the
+ * global EMF URI map, so that every resource below it (models,
+ * correspondences and the other EMF based metadata) is read from and
+ * written to memory by {@link MemoryUrlStreamHandlerProvider}.  The folder
+ * is still passed to {@code VirtualModelBuilder.withStorageFolder(...)};
+ * Vitruvius only creates its directory layout and a small list of model
+ * names there.
+ *
+ * <pre>
+ *   try (InMemoryStorage storage = InMemoryStorage.create()) {
+ *     VirtualModel vsum = new VirtualModelBuilder().withStorageFolder(storage.getFolder())...;
+ *     ...
+ *     storage.flush(Path.of("vsumexample"));
+ *   }
+ * </pre>
+ *
+ * <p>
+ * Roots have to be registered with file URIs below the storage folder to be
+ * kept in memory.
+ * </p>
+ */
+public final class InMemoryStorage implements AutoCloseable {
+  private final Path folder;
+  private final URI folderUri;
+  private final URI memoryUri;
+
+  private InMemoryStorage(Path folder) {
+    this.folder = folder.toAbsolutePath().normalize();
+    this.folderUri = URI.createFileURI(this.folder.toString()).appendSegment("");
+    this.memoryUri = URI.createURI(MemoryUrlStreamHandlerProvider.SCHEME + "://" + UUID.randomUUID() + "/");
+    URIConverter.URI_MAP.put(folderUri, memoryUri);
+  }
+
+  /**
+   * Creates an in-memory storage for a new folder in the temporary directory.
+   */
+  public static InMemoryStorage create() {
+    return create(Path.of(System.getProperty("java.io.tmpdir"), "vsum-" + UUID.randomUUID()));
+  }
+
+  /**
+   * Creates an in-memory storage for the given storage folder.
+   */
+  public static InMemoryStorage create(Path storageFolder) {
+    return new InMemoryStorage(storageFolder);
+  }
+
+  /**
+   * Returns the folder to pass to {@code VirtualModelBuilder.withStorageFolder(...)}.
+   */
+  public Path getFolder() {
+    return folder;
+  }
+
+  /**
+   * Writes all resources kept in memory to the given folder, keeping their
+   * paths relative to the storage folder.  References between the resources
+   * still use the URIs below the storage folder.
+   */
+  public void flush(Path target) {
+    try {
+      for (Map.Entry<String, byte[]> entry : resources().entrySet()) {
+        Path path = target.resolve(entry.getKey());
+        Files.createDirectories(path.getParent());
+        Files.write(path, entry.getValue());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not flush in-memory storage to " + target, e);
+    }
+  }
+
+  /**
+   * Returns the number of resources kept in memory.
+   */
+  public int size() {
+    String prefix = key();
+    return (int) MemoryUrlStreamHandlerProvider.contents().keySet().stream().filter(it -> it.startsWith(prefix))
+        .count();
+  }
+
+  /**
+   * Returns the resources kept in memory by their paths relative to the
+   * storage folder.
+   */
+  Map<String, byte[]> resources() {
+    String prefix = key();
+    Map<String, byte[]> resources = new TreeMap<>();
+    MemoryUrlStreamHandlerProvider.contents().forEach((key, content) -> {
+      if (key.startsWith(prefix)) {
+        resources.put(key.substring(prefix.length()), content);
+      }
+    });
+    return resources;
+  }
+
+  /**
+   * Keeps the given content in memory as the resource at the given path
+   * relative to the storage folder.
+   */
+  void put(String path, byte[] content) {
+    MemoryUrlStreamHandlerProvider.contents().put(key() + path, content);
+  }
+
+  /**
+   * Discards all resources and removes the URI mapping.
+   */
+  @Override
+  public void close() {
+    URIConverter.URI_MAP.remove(folderUri);
+    String prefix = key();
+    MemoryUrlStreamHandlerProvider.contents().keySet().removeIf(it -> it.startsWith(prefix));
+  }
+
+  private String key() {
+    return memoryUri.authority() + memoryUri.path();
+  }
+}
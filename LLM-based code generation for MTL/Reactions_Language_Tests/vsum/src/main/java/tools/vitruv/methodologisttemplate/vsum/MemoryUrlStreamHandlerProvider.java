@@ -0,0 +1,127 @@
+package tools.vitruv.methodologisttemplate.vsum;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.net.spi.URLStreamHandlerProvider;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provides the {@code memory:} URL scheme backing {@link InMemoryStorage}.
+ * EMF reads, writes, deletes and checks the existence of resources with
+ * unknown schemes through {@link URL} connections; for HTTP connections it
+ * issues {@code GET}, {@code PUT}, {@code DELETE} and {@code HEAD} requests.
+ * The connections of this scheme therefore extend {@link HttpURLConnection}
+ * and serve these requests from a map of byte arrays.
+ *
+ * <p>
+ * Registered as service in {@code META-INF/services}, so it is found by
+ * {@link URL} as long as this module is on the class path of the system
+ * class loader.
+ * </p>
+ */
+public class MemoryUrlStreamHandlerProvider extends URLStreamHandlerProvider {
+  static final String SCHEME = "memory";
+
+  private static final Map<String, byte[]> CONTENTS = new ConcurrentHashMap<>();
+
+  @Override
+  public URLStreamHandler createURLStreamHandler(String protocol) {
+    if (!SCHEME.equals(protocol)) {
+      return null;
+    }
+    return new URLStreamHandler() {
+      @Override
+      protected URLConnection openConnection(URL url) {
+        return new MemoryConnection(url);
+      }
+    };
+  }
+
+  /**
+   * Returns the contents stored for the given key
+   * ({@code <authority><path>} of the URL).
+   */
+  static Map<String, byte[]> contents() {
+    return CONTENTS;
+  }
+
+  static String key(URL url) {
+    return url.getAuthority() + url.getPath();
+  }
+
+  private static final class MemoryConnection extends HttpURLConnection {
+    private final String key;
+    private int responseCode = -1;
+
+    MemoryConnection(URL url) {
+      super(url);
+      this.key = key(url);
+    }
+
+    @Override
+    public void connect() {
+      connected = true;
+    }
+
+    @Override
+    public int getResponseCode() {
+      if (responseCode < 0) {
+        switch (method) {
+          case "DELETE":
+            responseCode = CONTENTS.remove(key) != null ? HTTP_OK : HTTP_NOT_FOUND;
+            break;
+          case "PUT":
+            responseCode = HTTP_OK;
+            break;
+          default:
+            responseCode = CONTENTS.containsKey(key) ? HTTP_OK : HTTP_NOT_FOUND;
+            break;
+        }
+      }
+      return responseCode;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+      byte[] content = CONTENTS.get(key);
+      if (content == null) {
+        throw new FileNotFoundException(url.toString());
+      }
+      return new ByteArrayInputStream(content);
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+      return new ByteArrayOutputStream() {
+        @Override
+        public void close() {
+          CONTENTS.put(key, toByteArray());
+        }
+      };
+    }
+
+    @Override
+    public long getLastModified() {
+      return 0;
+    }
+
+    @Override
+    public void disconnect() {
+      connected = false;
+    }
+
+    @Override
+    public boolean usingProxy() {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package tools.vitruv.methodologisttemplate.vsum;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import tools.vitruv.framework.views.CommittableView;
+import tools.vitruv.framework.views.View;
+import tools.vitruv.framework.views.ViewTypeFactory;
+import tools.vitruv.framework.vsum.VirtualModel;
+
+/**
+ * Imports existing models into a virtual model, so that the consistency
+ * reactions create the corresponding models.  Inserting the elements of a
+ * large model through a view one by one records, propagates and persists
+ * every insertion separately.  An import instead takes two commits on one
+ * change-recording view: the first registers the root objects without their
+ * contents, so the reactions for new roots run first, the second adds all
+ * contents at once.  Change recording, propagation setup and persistence thus
+ * happen twice per import instead of once per element, while the reactions
+ * still run for every element.
+ *
+ * <pre>
+ *   new ModelImport(vsum).importResource(URI.createFileURI("families.families"),
+ *       URI.createFileURI(storage.resolve("families.families").toString()));
+ * </pre>
+ */
+public class ModelImport {
+  private static final String DEFAULT_VIEW_TYPE = "default";
+
+  private final VirtualModel vsum;
+
+  public ModelImport(VirtualModel vsum) {
+    this.vsum = vsum;
+  }
+
+  /**
+   * Loads the resource at the given URI and imports its root objects into a
+   * new model at the target URI.  The loaded resources are unloaded
+   * afterwards, since only copies of their contents are imported.
+   *
+   * @return the number of imported elements
+   */
+  public int importResource(URI source, URI target) {
+    ResourceSet resourceSet = new ResourceSetImpl();
+    try {
+      Resource resource = resourceSet.getResource(source, true);
+      return importRoots(resource.getContents(), target);
+    } finally {
+      resourceSet.getResources().forEach(Resource::unload);
+      resourceSet.getResources().clear();
+    }
+  }
+
+  /**
+   * Imports copies of the given root objects into a new model at the target
+   * URI.  References between the given objects are preserved, references to
+   * other objects are copied as they are.
+   *
+   * @return the number of imported elements
+   */
+  public int importRoots(Collection<? extends EObject> roots, URI target) {
+    Collection<EObject> copies = EcoreUtil.copyAll(roots);
+    int elements = 0;
+    for (TreeIterator<Object> it = EcoreUtil.getAllContents(copies, true); it.hasNext(); it.next()) {
+      elements++;
+    }
+
+    // Detach the contents and the references of the roots, so that the roots can be committed first.
+    Map<EObject, Map<EReference, Object>> detached = new LinkedHashMap<>();
+    for (EObject root : copies) {
+      Map<EReference, Object> references = new LinkedHashMap<>();
+      for (EReference reference : root.eClass().getEAllReferences()) {
+        if (!reference.isChangeable() || reference.isDerived() || reference.isContainer() || !root.eIsSet(reference)) {
+          continue;
+        }
+        Object value = root.eGet(reference);
+        references.put(reference, reference.isMany() ? new ArrayList<>((List<?>) value) : value);
+        root.eUnset(reference);
+      }
+      detached.put(root, references);
+    }
+
+    try (View selectedView = createView(); CommittableView view = selectedView.withChangeRecordingTrait()) {
+      copies.forEach(root -> view.registerRoot(root, target));
+      view.commitChanges();
+
+      // Contents first, so that restored references point to contained elements.
+      detached.forEach((root, references) -> references.forEach((reference, value) -> {
+        if (reference.isContainment()) {
+          root.eSet(reference, value);
+        }
+      }));
+      detached.forEach((root, references) -> references.forEach((reference, value) -> {
+        if (!reference.isContainment()) {
+          root.eSet(reference, value);
+        }
+      }));
+      view.commitChanges();
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IllegalStateException("Could not close import view", e);
+    }
+    return elements;
+  }
+
+  private View createView() {
+    // No root object needs to be selected, the imported roots are registered in the view.
+    return vsum.createSelector(ViewTypeFactory.createIdentityMappingViewType(DEFAULT_VIEW_TYPE)).createView();
+  }
+}
@@ -0,0 +1,52 @@
+package tools.vitruv.methodologisttemplate.vsum;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import tools.vitruv.framework.views.CommittableView;
+import tools.vitruv.framework.views.View;
+
+/**
+ * Collects view modifications and commits them together.  Instead of one
+ * change-deriving view and one {@code commitChanges()} per modification, all
+ * modifications are applied to a single change-recording view and committed
+ * once, so change recording and change propagation run once for the whole
+ * batch.  Modifications are applied in the order they were added and
+ * therefore lead to the same models as committing them one by one, as long
+ * as a modification does not depend on elements created by the propagation
+ * of an earlier one.
+ */
+public class ModificationBatch {
+  private final List<Consumer<? super CommittableView>> modifications = new ArrayList<>();
+
+  /**
+   * Adds a modification to the batch.
+   */
+  public ModificationBatch add(Consumer<? super CommittableView> modification) {
+    modifications.add(modification);
+    return this;
+  }
+
+  public int size() {
+    return modifications.size();
+  }
+
+  /**
+   * Applies all modifications to a change-recording copy of the given view
+   * and commits them as one change.  The batch is empty afterwards.  If a
+   * modification or the propagation throws, the batch keeps its
+   * modifications, so that they can be inspected or committed again on a
+   * fresh view.
+   */
+  public void commit(View view) {
+    if (modifications.isEmpty()) {
+      return;
+    }
+    CommittableView committableView = view.withChangeRecordingTrait();
+    for (Consumer<? super CommittableView> modification : modifications) {
+      modification.accept(committableView);
+    }
+    committableView.commitChanges();
+    modifications.clear();
+  }
+}
@@ -0,0 +1,104 @@
+package tools.vitruv.methodologisttemplate.vsum;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.eclipse.emf.ecore.EObject;
+import tools.vitruv.framework.views.View;
+import tools.vitruv.framework.views.ViewSelector;
+import tools.vitruv.framework.views.ViewType;
+import tools.vitruv.framework.views.ViewTypeFactory;
+import tools.vitruv.framework.vsum.VirtualModel;
+
+/**
+ * Caches views on a virtual model by view type and selected root types.
+ * Creating a view copies all selected root objects, so repeated reads
+ * through a new view per query copy the models again and again.  A cached
+ * view is returned as long as no change has been propagated since it was
+ * created; an outdated view is refreshed by {@link View#update()} if the
+ * selectable root objects are still the same, and recreated otherwise (for
+ * example after a new root object of a selected type was registered).
+ *
+ * <p>
+ * Cached views are meant for reading.  Modifications should still be made
+ * through {@code getView(...).withChangeDerivingTrait()}, which creates a
+ * separate committable view.
+ * </p>
+ */
+public class ViewCache {
+  private static final String DEFAULT_VIEW_TYPE = "default";
+
+  private record Key(String viewType, Set<Class<?>> rootTypes) {
+  }
+
+  private static final class Entry {
+    final View view;
+    final Set<EObject> selection;
+
+    Entry(View view, Set<EObject> selection) {
+      this.view = view;
+      this.selection = selection;
+    }
+  }
+
+  private final VirtualModel vsum;
+  private final Map<Key, Entry> views = new HashMap<>();
+
+  public ViewCache(VirtualModel vsum) {
+    this.vsum = vsum;
+  }
+
+  /**
+   * Returns a view of the identity mapping view type on the root objects of
+   * the given types.
+   */
+  public View getView(Collection<Class<?>> rootTypes) {
+    return getView(ViewTypeFactory.createIdentityMappingViewType(DEFAULT_VIEW_TYPE), rootTypes);
+  }
+
+  /**
+   * Returns a view of the given view type on the root objects of the given
+   * types.  View types are identified by their name.
+   */
+  public View getView(ViewType<? extends ViewSelector> viewType, Collection<Class<?>> rootTypes) {
+    Key key = new Key(viewType.getName(), Set.copyOf(rootTypes));
+    Entry entry = views.get(key);
+    if (entry != null && !entry.view.isClosed() && !entry.view.isOutdated()) {
+      return entry.view;
+    }
+    ViewSelector selector = vsum.createSelector(viewType);
+    List<EObject> selection = selector.getSelectableElements().stream()
+        .filter(element -> rootTypes.stream().anyMatch(it -> it.isInstance(element)))
+        .collect(Collectors.toList());
+    if (entry != null && !entry.view.isClosed() && entry.selection.equals(Set.copyOf(selection))) {
+      entry.view.update();
+      return entry.view;
+    }
+    if (entry != null) {
+      close(entry.view);
+    }
+    selection.forEach(it -> selector.setSelected(it, true));
+    View view = selector.createView();
+    views.put(key, new Entry(view, Set.copyOf(selection)));
+    return view;
+  }
+
+  /**
+   * Closes and removes all cached views.
+   */
+  public void clear() {
+    views.values().forEach(entry -> close(entry.view));
+    views.clear();
+  }
+
+  private static void close(View view) {
+    try {
+      view.close();
+    } catch (Exception e) {
+      throw new IllegalStateException("Could not close cached view", e);
+    }
+  }
+}
@@ -0,0 +1,166 @@
+package tools.vitruv.methodologisttemplate.vsum;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.eclipse.emf.common.util.URI;
+
+/**
+ * In-memory snapshot of the storage folder of an initialized virtual model:
+ * the models, the correspondence model and the other metadata Vitruvius
+ * persists there.  Tests that share the same preconditions build them once,
+ * take a snapshot and start every test from a clone instead of replaying the
+ * setup commits through change propagation.
+ *
+ * <p>
+ * The persisted files refer to each other by absolute file URIs, so cloning
+ * relocates all occurrences of the original folder, as a whole path, to the
+ * clone folder.  A snapshot therefore only covers models stored inside the
+ * storage folder.
+ * The virtual model is not needed to take the snapshot and can be disposed
+ * afterwards; a clone is opened by building a new virtual model on the clone
+ * folder with the same change propagation specifications.
+ * </p>
+ *
+ * <p>
+ * A snapshot of an {@link InMemoryStorage} also covers the resources it keeps
+ * in memory, and can be cloned into another in-memory storage.
+ * </p>
+ *
+ * <pre>
+ *   VsumSnapshot snapshot = VsumSnapshot.capture(templateFolder);
+ *   InternalVirtualModel vsum = createDefaultVirtualModel(snapshot.cloneTo(tempDir));
+ * </pre>
+ */
+public final class VsumSnapshot {
+  /** Matches the end of a path: a separator, a quote, a fragment, a tag, white space or the end. */
+  private static final String PATH_BOUNDARY = "(?=[/\\\\\"'#<\\s]|$)";
+
+  private final Path source;
+  private final Map<Path, byte[]> files;
+  private final Map<String, byte[]> resources;
+
+  private VsumSnapshot(Path source, Map<Path, byte[]> files, Map<String, byte[]> resources) {
+    this.source = source;
+    this.files = files;
+    this.resources = resources;
+  }
+
+  /**
+   * Reads all files of the given storage folder.  All changes must have been
+   * propagated, since Vitruvius persists the models after each propagation.
+   */
+  public static VsumSnapshot capture(Path storageFolder) {
+    Path source = storageFolder.toAbsolutePath().normalize();
+    return new VsumSnapshot(source, readFiles(source), Map.of());
+  }
+
+  /**
+   * Reads all files of the folder of the given storage and all resources it
+   * keeps in memory.
+   */
+  public static VsumSnapshot capture(InMemoryStorage storage) {
+    Map<Path, byte[]> files = Files.isDirectory(storage.getFolder()) ? readFiles(storage.getFolder()) : Map.of();
+    return new VsumSnapshot(storage.getFolder(), files, storage.resources());
+  }
+
+  private static Map<Path, byte[]> readFiles(Path source) {
+    Map<Path, byte[]> files = new LinkedHashMap<>();
+    try (Stream<Path> paths = Files.walk(source)) {
+      for (Path path : paths.filter(Files::isRegularFile).toList()) {
+        files.put(source.relativize(path), Files.readAllBytes(path));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not capture " + source, e);
+    }
+    return files;
+  }
+
+  /**
+   * Writes the snapshot to the given folder, replacing all references to the
+   * original storage folder, and returns the folder.  Resources captured in
+   * memory are written to the folder as well.
+   */
+  public Path cloneTo(Path storageFolder) {
+    Path target = storageFolder.toAbsolutePath().normalize();
+    UnaryOperator<byte[]> relocation = relocation(target);
+    try {
+      writeFiles(target, relocation);
+      for (Map.Entry<String, byte[]> resource : resources.entrySet()) {
+        Path path = target.resolve(resource.getKey());
+        Files.createDirectories(path.getParent());
+        Files.write(path, relocation.apply(resource.getValue()));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not clone snapshot to " + storageFolder, e);
+    }
+    return target;
+  }
+
+  /**
+   * Writes the files of the snapshot to the folder of the given storage and
+   * keeps its resources in the memory of the storage, replacing all
+   * references to the original storage folder, and returns the storage.
+   */
+  public InMemoryStorage cloneTo(InMemoryStorage storage) {
+    UnaryOperator<byte[]> relocation = relocation(storage.getFolder());
+    try {
+      writeFiles(storage.getFolder(), relocation);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not clone snapshot to " + storage.getFolder(), e);
+    }
+    resources.forEach((path, content) -> storage.put(path, relocation.apply(content)));
+    return storage;
+  }
+
+  private void writeFiles(Path target, UnaryOperator<byte[]> relocation) throws IOException {
+    for (Map.Entry<Path, byte[]> file : files.entrySet()) {
+      Path path = target.resolve(file.getKey());
+      Files.createDirectories(path.getParent());
+      Files.write(path, relocation.apply(file.getValue()));
+    }
+  }
+
+  /**
+   * Returns a function replacing all references to the original storage
+   * folder by references to the given folder.
+   */
+  private UnaryOperator<byte[]> relocation(Path target) {
+    // Replacing in an ISO-8859-1 view of the bytes leaves all other bytes untouched.  Both forms are
+    // replaced in a single pass, since the target may contain the source path.  A match has to end at
+    // a path boundary, so that /tmp/vsum1 does not rewrite /tmp/vsum12.
+    Map<String, String> replacements = Map.of(
+        latin1(fileUri(source)), latin1(fileUri(target)),
+        latin1(source.toString()), latin1(target.toString()));
+    Pattern pattern = Pattern.compile("(?:" + Pattern.quote(latin1(fileUri(source))) + "|"
+        + Pattern.quote(latin1(source.toString())) + ")" + PATH_BOUNDARY);
+    return content -> pattern.matcher(new String(content, StandardCharsets.ISO_8859_1))
+        .replaceAll(match -> Matcher.quoteReplacement(replacements.get(match.group())))
+        .getBytes(StandardCharsets.ISO_8859_1);
+  }
+
+  public Path getSource() {
+    return source;
+  }
+
+  /** Returns the number of captured files and resources. */
+  public int size() {
+    return files.size() + resources.size();
+  }
+
+  private static String fileUri(Path path) {
+    return URI.createFileURI(path.toString()).toString();
+  }
+
+  private static String latin1(String value) {
+    return new String(value.getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1);
+  }
+}
@@ -0,0 +1,357 @@
+package tools.vitruv.methodologisttemplate.vsum.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.emf.ecore.EObject;
+import tools.vitruv.change.atomic.EChange;
+import tools.vitruv.change.composite.MetamodelDescriptor;
+import tools.vitruv.change.correspondence.Correspondence;
+import tools.vitruv.change.correspondence.view.EditableCorrespondenceModelView;
+import tools.vitruv.change.interaction.UserInteractor;
+import tools.vitruv.change.propagation.ChangePropagationObserver;
+import tools.vitruv.change.propagation.ChangePropagationSpecification;
+import tools.vitruv.change.propagation.ResourceAccess;
+
+/**
+ * Decorates a change propagation specification generated from a reactions
+ * file and records metrics per reaction and routine in a
+ * {@link PropagationMetrics}:
+ *
+ * <pre>
+ *   new VirtualModelBuilder().withChangePropagationSpecifications(
+ *       new InstrumentedChangePropagationSpecification(new FamiliesToPersonsChangePropagationSpecification(), metrics))
+ * </pre>
+ *
+ * <p>
+ * The reactions runtime offers no callbacks around reactions and routines,
+ * so the decorator observes their interactions with the outside: the
+ * correspondence model, which it replaces by a proxy, and the creation of
+ * elements, reported to the specification's observers.  At each such event
+ * the stack is inspected for the classes generated for reactions
+ * ({@code mir.reactions.<reactions>.<Name>Reaction}) and routines
+ * ({@code mir.routines.<reactions>.<Name>Routine}):
+ * </p>
+ * <ul>
+ * <li>the time spent in a correspondence lookup is retrieve time of the
+ * innermost reaction or routine on the stack,</li>
+ * <li>the time between two events is execute time of the innermost reaction
+ * or routine at the later event, covering element creation and updates,</li>
+ * <li>a reaction or routine that is on the stack at an event but was not at
+ * the previous one counts as one invocation.</li>
+ * </ul>
+ *
+ * <p>
+ * The metrics are therefore approximate: a reaction that neither looks up
+ * correspondences nor creates elements is not seen, and consecutive
+ * invocations of the same routine without an event in between are counted
+ * once.  A {@link ReactionEvent} is emitted per reaction or routine and
+ * propagated change.
+ * </p>
+ *
+ * <p>
+ * The stack is only walked down to the propagation of the current change,
+ * and the time spent walking it is not charged to any reaction or routine.
+ * For long propagations with many events, a sampling interval limits the
+ * walks further: the stack is then inspected at most once per interval,
+ * and the events in between are attributed to the reactions and routines
+ * found at the last inspection.
+ * </p>
+ */
+public class InstrumentedChangePropagationSpecification implements ChangePropagationSpecification {
+  private static final String REACTIONS_PACKAGE = "mir.reactions.";
+  private static final String ROUTINES_PACKAGE = "mir.routines.";
+  private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+  /** The reaction or routine of each class on a walked stack, parsed once per class. */
+  private static final ClassValue<Frame> FRAMES = new ClassValue<>() {
+    @Override
+    protected Frame computeValue(Class<?> type) {
+      return Frame.of(type.getName());
+    }
+  };
+
+  private final ChangePropagationSpecification delegate;
+  private final PropagationMetrics metrics;
+  private final String name;
+  private final long samplingNanos;
+  private final ThreadLocal<Attribution> attribution = new ThreadLocal<>();
+  private final ChangePropagationObserver creationObserver = createdObject -> {
+    Attribution current = attribution.get();
+    if (current != null) {
+      current.created();
+    }
+  };
+
+  public InstrumentedChangePropagationSpecification(ChangePropagationSpecification delegate,
+      PropagationMetrics metrics) {
+    this(delegate, metrics, Duration.ZERO);
+  }
+
+  /**
+   * Creates a decorator that inspects the stack at most once per sampling
+   * interval and propagated change.
+   */
+  public InstrumentedChangePropagationSpecification(ChangePropagationSpecification delegate,
+      PropagationMetrics metrics, Duration samplingInterval) {
+    this.delegate = delegate;
+    this.metrics = metrics;
+    this.name = delegate.getClass().getSimpleName();
+    this.samplingNanos = samplingInterval.toNanos();
+    delegate.registerObserver(creationObserver);
+  }
+
+  @Override
+  public MetamodelDescriptor getSourceMetamodelDescriptor() {
+    return delegate.getSourceMetamodelDescriptor();
+  }
+
+  @Override
+  public MetamodelDescriptor getTargetMetamodelDescriptor() {
+    return delegate.getTargetMetamodelDescriptor();
+  }
+
+  @Override
+  public void setUserInteractor(UserInteractor userInteractor) {
+    delegate.setUserInteractor(userInteractor);
+  }
+
+  @Override
+  public void registerObserver(ChangePropagationObserver observer) {
+    delegate.registerObserver(observer);
+  }
+
+  @Override
+  public void deregisterObserver(ChangePropagationObserver observer) {
+    delegate.deregisterObserver(observer);
+  }
+
+  @Override
+  public boolean doesHandleChange(EChange<EObject> change,
+      EditableCorrespondenceModelView<Correspondence> correspondenceModel) {
+    return delegate.doesHandleChange(change, correspondenceModel);
+  }
+
+  @Override
+  public void propagateChange(EChange<EObject> change,
+      EditableCorrespondenceModelView<Correspondence> correspondenceModel, ResourceAccess resourceAccess) {
+    Attribution current = new Attribution(samplingNanos);
+    Attribution outer = attribution.get();
+    attribution.set(current);
+    try {
+      delegate.propagateChange(change, current.wrap(correspondenceModel), resourceAccess);
+    } finally {
+      current.finish();
+      attribution.set(outer);
+      metrics.add(current.stats);
+      emitEvents(change, current.stats);
+    }
+  }
+
+  private void emitEvents(EChange<EObject> change, Map<String, ReactionStats> changeStats) {
+    for (ReactionStats stats : changeStats.values()) {
+      ReactionEvent event = new ReactionEvent();
+      if (!event.shouldCommit()) {
+        return;
+      }
+      event.specification = name;
+      event.name = stats.getName();
+      event.kind = stats.getKind().name();
+      event.change = change.getClass().getSimpleName();
+      event.invocations = stats.invocations;
+      event.retrieveTime = stats.retrieveNanos;
+      event.executeTime = stats.executeNanos;
+      event.lookups = stats.lookups;
+      event.correspondenceChanges = stats.correspondenceChanges;
+      event.created = stats.created;
+      event.commit();
+    }
+  }
+
+  /** Attributes the events of one propagated change to reactions and routines. */
+  private static final class Attribution {
+    final Map<String, ReactionStats> stats = new HashMap<>();
+    final long samplingNanos;
+    List<ReactionStats> stack = List.of();
+    long lastEvent = System.nanoTime();
+    boolean walked;
+    long lastWalk;
+
+    Attribution(long samplingNanos) {
+      this.samplingNanos = samplingNanos;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T wrap(T view) {
+      Set<Class<?>> interfaces = new LinkedHashSet<>();
+      for (Class<?> type = view.getClass(); type != null; type = type.getSuperclass()) {
+        collectInterfaces(type, interfaces);
+      }
+      return (T) Proxy.newProxyInstance(view.getClass().getClassLoader(), interfaces.toArray(new Class<?>[0]),
+          new CorrespondenceHandler(this, view));
+    }
+
+    void created() {
+      ReactionStats innermost = probe();
+      if (innermost != null) {
+        innermost.created++;
+      }
+    }
+
+    /**
+     * Charges the time since the previous event to the innermost reaction or
+     * routine on the current stack and returns it.
+     */
+    ReactionStats probe() {
+      long now = System.nanoTime();
+      if (!walked || now - lastWalk >= samplingNanos) {
+        update(currentStack());
+        walked = true;
+        lastWalk = now;
+      }
+      ReactionStats innermost = innermost();
+      if (innermost != null) {
+        innermost.executeNanos += now - lastEvent;
+      }
+      // The walk itself is not charged to the next event.
+      lastEvent = System.nanoTime();
+      return innermost;
+    }
+
+    /** Counts the reactions and routines that were not on the previous stack as invoked. */
+    private void update(List<ReactionStats> current) {
+      int common = 0;
+      while (common < current.size() && common < stack.size() && current.get(common) == stack.get(common)) {
+        common++;
+      }
+      for (int i = common; i < current.size(); i++) {
+        current.get(i).invocations++;
+      }
+      stack = current;
+    }
+
+    void finish() {
+      ReactionStats innermost = innermost();
+      if (innermost != null) {
+        innermost.executeNanos += System.nanoTime() - lastEvent;
+      }
+    }
+
+    ReactionStats innermost() {
+      return stack.isEmpty() ? null : stack.get(stack.size() - 1);
+    }
+
+    /**
+     * Returns the reactions and routines on the stack, outermost first.  The
+     * frames below the propagation of the current change are not walked.
+     */
+    private List<ReactionStats> currentStack() {
+      List<Frame> frames = STACK_WALKER.walk(stream -> stream
+          .takeWhile(frame -> frame.getDeclaringClass() != InstrumentedChangePropagationSpecification.class
+              || !frame.getMethodName().equals("propagateChange"))
+          .map(frame -> FRAMES.get(frame.getDeclaringClass()))
+          .filter(frame -> frame != Frame.NONE)
+          .toList());
+      List<ReactionStats> result = new ArrayList<>();
+      for (int i = frames.size() - 1; i >= 0; i--) {
+        Frame frame = frames.get(i);
+        ReactionStats frameStats = stats.computeIfAbsent(frame.name(), it -> new ReactionStats(it, frame.kind()));
+        if (result.isEmpty() || result.get(result.size() - 1) != frameStats) {
+          result.add(frameStats);
+        }
+      }
+      return result;
+    }
+  }
+
+  /** The reaction or routine a class generated from a reactions file belongs to. */
+  private record Frame(String name, ReactionStats.Kind kind) {
+    static final Frame NONE = new Frame(null, null);
+
+    static Frame of(String className) {
+      if (!className.startsWith(REACTIONS_PACKAGE) && !className.startsWith(ROUTINES_PACKAGE)) {
+        return NONE;
+      }
+      String simpleName = className.substring(className.lastIndexOf('.') + 1);
+      int nested = simpleName.indexOf('$');
+      if (nested >= 0) {
+        simpleName = simpleName.substring(0, nested);
+      }
+      if (simpleName.endsWith("Reaction") && simpleName.length() > "Reaction".length()) {
+        return new Frame(simpleName.substring(0, simpleName.length() - "Reaction".length()),
+            ReactionStats.Kind.REACTION);
+      }
+      if (simpleName.endsWith("Routine") && simpleName.length() > "Routine".length()) {
+        return new Frame(Character.toLowerCase(simpleName.charAt(0))
+            + simpleName.substring(1, simpleName.length() - "Routine".length()), ReactionStats.Kind.ROUTINE);
+      }
+      return NONE;
+    }
+  }
+
+  /**
+   * Counts and times the calls to a correspondence model view.  Views derived
+   * from it are wrapped as well, since the reactions runtime accesses the
+   * correspondences through such a view.
+   */
+  private static final class CorrespondenceHandler implements InvocationHandler {
+    private final Attribution attribution;
+    private final Object target;
+
+    CorrespondenceHandler(Attribution attribution, Object target) {
+      this.attribution = attribution;
+      this.target = target;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      if (method.getDeclaringClass() == Object.class) {
+        return invokeTarget(method, args);
+      }
+      ReactionStats caller = attribution.probe();
+      long start = System.nanoTime();
+      Object result;
+      try {
+        result = invokeTarget(method, args);
+      } finally {
+        long end = System.nanoTime();
+        if (caller != null) {
+          caller.retrieveNanos += end - start;
+          if (method.getName().startsWith("add") || method.getName().startsWith("remove")) {
+            caller.correspondenceChanges++;
+          } else {
+            caller.lookups++;
+          }
+        }
+        attribution.lastEvent = end;
+      }
+      if (result instanceof EditableCorrespondenceModelView<?> && !Proxy.isProxyClass(result.getClass())) {
+        return attribution.wrap(result);
+      }
+      return result;
+    }
+
+    private Object invokeTarget(Method method, Object[] args) throws Throwable {
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+
+  private static void collectInterfaces(Class<?> type, Set<Class<?>> interfaces) {
+    for (Class<?> implemented : type.getInterfaces()) {
+      if (interfaces.add(implemented)) {
+        collectInterfaces(implemented, interfaces);
+      }
+    }
+  }
+}
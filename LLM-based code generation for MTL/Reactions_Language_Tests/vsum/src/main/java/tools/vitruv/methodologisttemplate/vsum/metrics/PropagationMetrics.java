@@ -0,0 +1,64 @@
+package tools.vitruv.methodologisttemplate.vsum.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per reaction and per routine metrics collected by
+ * {@link InstrumentedChangePropagationSpecification}s.  One instance can be
+ * shared by several specifications; it is thread-safe.
+ */
+public class PropagationMetrics {
+  private final Map<String, ReactionStats> stats = new LinkedHashMap<>();
+  private long changes;
+
+  synchronized void add(Map<String, ReactionStats> changeStats) {
+    changes++;
+    changeStats.forEach((name, delta) -> stats.computeIfAbsent(name, k -> new ReactionStats(delta.getName(),
+        delta.getKind())).add(delta));
+  }
+
+  /**
+   * Returns a copy of the current metrics, sorted by total time descending.
+   */
+  public synchronized List<ReactionStats> snapshot() {
+    List<ReactionStats> snapshot = new ArrayList<>();
+    stats.values().forEach(it -> snapshot.add(it.copy()));
+    snapshot.sort(Comparator.comparingLong(ReactionStats::getTotalNanos).reversed());
+    return snapshot;
+  }
+
+  /**
+   * Returns the metrics of the reaction or routine with the given name, or
+   * {@code null} if it has not been executed.  Routines are named as in the
+   * reactions file, e.g. {@code createFemale}.
+   */
+  public synchronized ReactionStats get(String name) {
+    ReactionStats result = stats.get(name);
+    return result == null ? null : result.copy();
+  }
+
+  /** Returns the number of propagated changes. */
+  public synchronized long getChanges() {
+    return changes;
+  }
+
+  public synchronized void reset() {
+    stats.clear();
+    changes = 0;
+  }
+
+  /**
+   * Formats the snapshot as a table.
+   */
+  public String format() {
+    StringBuilder result = new StringBuilder();
+    result.append(String.format("%-8s %-40s %8s %10s %10s %8s %8s %8s%n", "kind", "name", "calls", "retrieve",
+        "execute", "lookups", "corr+/-", "created"));
+    snapshot().forEach(it -> result.append(it).append(System.lineSeparator()));
+    return result.toString();
+  }
+}
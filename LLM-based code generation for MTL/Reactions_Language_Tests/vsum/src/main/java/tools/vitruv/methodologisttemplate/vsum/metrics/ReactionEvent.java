@@ -0,0 +1,50 @@
+package tools.vitruv.methodologisttemplate.vsum.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event with the metrics of one reaction or routine during the
+ * propagation of a single change.
+ */
+@Name("tools.vitruv.Reaction")
+@Label("Reaction")
+@Category({"Vitruvius", "Change Propagation"})
+@Description("Time and correspondence lookups of a reaction or routine while propagating one change")
+class ReactionEvent extends Event {
+  @Label("Specification")
+  String specification;
+
+  @Label("Name")
+  String name;
+
+  @Label("Kind")
+  String kind;
+
+  @Label("Change")
+  String change;
+
+  @Label("Invocations")
+  long invocations;
+
+  @Label("Retrieve Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long retrieveTime;
+
+  @Label("Execute Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long executeTime;
+
+  @Label("Correspondence Lookups")
+  long lookups;
+
+  @Label("Correspondence Changes")
+  long correspondenceChanges;
+
+  @Label("Created Elements")
+  long created;
+}
@@ -0,0 +1,86 @@
+package tools.vitruv.methodologisttemplate.vsum.metrics;
+
+/**
+ * Accumulated propagation metrics of one reaction or routine.
+ */
+public class ReactionStats {
+  /** Whether the statistics belong to a reaction or a routine. */
+  public enum Kind { REACTION, ROUTINE }
+
+  private final String name;
+  private final Kind kind;
+  long invocations;
+  long retrieveNanos;
+  long executeNanos;
+  long lookups;
+  long correspondenceChanges;
+  long created;
+
+  ReactionStats(String name, Kind kind) {
+    this.name = name;
+    this.kind = kind;
+  }
+
+  ReactionStats copy() {
+    ReactionStats copy = new ReactionStats(name, kind);
+    copy.add(this);
+    return copy;
+  }
+
+  void add(ReactionStats other) {
+    invocations += other.invocations;
+    retrieveNanos += other.retrieveNanos;
+    executeNanos += other.executeNanos;
+    lookups += other.lookups;
+    correspondenceChanges += other.correspondenceChanges;
+    created += other.created;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  /** Returns how often the reaction or routine was entered. */
+  public long getInvocations() {
+    return invocations;
+  }
+
+  /** Returns the time spent in correspondence lookups, i.e. matching and retrieving elements. */
+  public long getRetrieveNanos() {
+    return retrieveNanos;
+  }
+
+  /** Returns the time spent in the reaction or routine itself, i.e. creating and updating elements. */
+  public long getExecuteNanos() {
+    return executeNanos;
+  }
+
+  public long getTotalNanos() {
+    return retrieveNanos + executeNanos;
+  }
+
+  /** Returns the number of correspondence lookups. */
+  public long getLookups() {
+    return lookups;
+  }
+
+  /** Returns the number of added or removed correspondences. */
+  public long getCorrespondenceChanges() {
+    return correspondenceChanges;
+  }
+
+  /** Returns the number of elements created. */
+  public long getCreated() {
+    return created;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%-8s %-40s %8d %10.3f %10.3f %8d %8d %8d", kind, name, invocations, retrieveNanos / 1e6,
+        executeNanos / 1e6, lookups, correspondenceChanges, created);
+  }
+}
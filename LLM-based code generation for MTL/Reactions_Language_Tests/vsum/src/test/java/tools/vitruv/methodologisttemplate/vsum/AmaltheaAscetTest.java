@@ -9,6 +9,7 @@ import tools.vitruv.framework.vsum.VirtualModelBuilder;
 import tools.vitruv.framework.vsum.internal.InternalVirtualModel;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.function.Consumer;
@@ -16,6 +17,7 @@ import java.util.function.Function;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -41,6 +43,14 @@ public class AmaltheaAscetTest {
     Resource.Factory.Registry.INSTANCE.getExtensionToFactoryMap().put("*", new XMIResourceFactoryImpl());
   }
 
+  // The storages of the virtual models of a test, which keep their models in memory.
+  private final List<InMemoryStorage> storages = new ArrayList<>();
+
+  @AfterEach
+  void closeStorages() {
+    storages.forEach(InMemoryStorage::close);
+  }
+
   @Test
   // reaction ComponentContainerInsertedAsRoot
   void ComponentContainerInsertedAsRootCreatesRootcomponentcontainer(@TempDir Path tempDir) {
@@ -56,14 +66,7 @@ public class AmaltheaAscetTest {
     TestUserInteraction testUserInteraction = new TestUserInteraction();
     // Choose task 0 (InterruptTask)
     testUserInteraction.addNextSingleSelection(0);
-    InternalVirtualModel vsum = new VirtualModelBuilder()
-        .withStorageFolder(tempDir)
-        .withUserInteractorForResultProvider(new TestUserInteraction.ResultProvider(testUserInteraction))
-        .withChangePropagationSpecifications(new AmaltheaToAscetChangePropagationSpecification())
-        .buildAndInitialize();
-    vsum.setChangePropagationMode(ChangePropagationMode.TRANSITIVE_CYCLIC);
-    
-    addComponentContainer(vsum, tempDir);
+    InternalVirtualModel vsum = createVirtualModelWithContainer(tempDir, testUserInteraction);
     modifyView(getDefaultView(vsum, List.of(ComponentContainer.class)).withChangeDerivingTrait(), (CommittableView v) -> {
       var task = AmaltheaFactory.eINSTANCE.createTask();
       var componentContainer = v.getRootObjects(ComponentContainer.class).iterator().next();
@@ -85,14 +88,7 @@ public class AmaltheaAscetTest {
     TestUserInteraction testUserInteraction = new TestUserInteraction();
     // Choose task 1 (PeriodicTask)
     testUserInteraction.addNextSingleSelection(1);
-    InternalVirtualModel vsum = new VirtualModelBuilder()
-        .withStorageFolder(tempDir)
-        .withUserInteractorForResultProvider(new TestUserInteraction.ResultProvider(testUserInteraction))
-        .withChangePropagationSpecifications(new AmaltheaToAscetChangePropagationSpecification())
-        .buildAndInitialize();
-    vsum.setChangePropagationMode(ChangePropagationMode.TRANSITIVE_CYCLIC);
-    
-    addComponentContainer(vsum, tempDir);
+    InternalVirtualModel vsum = createVirtualModelWithContainer(tempDir, testUserInteraction);
     modifyView(getDefaultView(vsum, List.of(ComponentContainer.class)).withChangeDerivingTrait(), (CommittableView v) -> {
       var task = AmaltheaFactory.eINSTANCE.createTask();
       var componentContainer = v.getRootObjects(ComponentContainer.class).iterator().next();
@@ -113,14 +109,7 @@ public class AmaltheaAscetTest {
     TestUserInteraction testUserInteraction = new TestUserInteraction();
     // Choose task 5 (Unavailable)
     testUserInteraction.addNextSingleSelection(5);
-    InternalVirtualModel vsum = new VirtualModelBuilder()
-        .withStorageFolder(tempDir)
-        .withUserInteractorForResultProvider(new TestUserInteraction.ResultProvider(testUserInteraction))
-        .withChangePropagationSpecifications(new AmaltheaToAscetChangePropagationSpecification())
-        .buildAndInitialize();
-    vsum.setChangePropagationMode(ChangePropagationMode.TRANSITIVE_CYCLIC);
-
-    addComponentContainer(vsum, tempDir);
+    InternalVirtualModel vsum = createVirtualModelWithContainer(tempDir, testUserInteraction);
     modifyView(getDefaultView(vsum, List.of(ComponentContainer.class)).withChangeDerivingTrait(), (CommittableView v) -> {
       var task = AmaltheaFactory.eINSTANCE.createTask();
       var componentContainer = v.getRootObjects(ComponentContainer.class).iterator().next();
@@ -133,18 +122,79 @@ public class AmaltheaAscetTest {
     }));
   }
 
+  @Test
+  // batched commit of several modifications
+  void batchedCommitMatchesSequentialCommits(@TempDir Path tempDir) {
+    // Every created task asks for the kind of ASCET task, alternating
+    // between InterruptTask (0) and PeriodicTask (1).
+    TestUserInteraction sequentialInteraction = new TestUserInteraction();
+    TestUserInteraction batchedInteraction = new TestUserInteraction();
+    for (int i = 0; i < 10; i++) {
+      sequentialInteraction.addNextSingleSelection(i % 2);
+      batchedInteraction.addNextSingleSelection(i % 2);
+    }
+    InternalVirtualModel sequential = createVirtualModelWithContainer(tempDir.resolve("sequential"), sequentialInteraction);
+    InternalVirtualModel batched = createVirtualModelWithContainer(tempDir.resolve("batched"), batchedInteraction);
+
+    ModificationBatch batch = new ModificationBatch();
+    for (int i = 0; i < 10; i++) {
+      String name = "task" + i;
+      Consumer<CommittableView> addTask = (CommittableView v) -> {
+        var task = AmaltheaFactory.eINSTANCE.createTask();
+        task.setName(name);
+        v.getRootObjects(ComponentContainer.class).iterator().next().getTasks().add(task);
+      };
+      modifyView(getDefaultView(sequential, List.of(ComponentContainer.class)).withChangeDerivingTrait(), addTask);
+      batch.add(addTask);
+    }
+    batch.commit(getDefaultView(batched, List.of(ComponentContainer.class)));
+
+    Assertions.assertEquals(0, batch.size());
+    Assertions.assertEquals(ascetTaskTypes(sequential), ascetTaskTypes(batched));
+    Assertions.assertEquals(10, ascetTaskTypes(batched).size());
+  }
+
   // ==== helper methods ====
 
   private InternalVirtualModel createDefaultVirtualModel(Path projectPath) {
+    return createVirtualModel(createStorage(projectPath), new TestUserInteraction());
+  }
+
+  /** Keeps the models of a virtual model in the given folder in memory until the test ends. */
+  private InMemoryStorage createStorage(Path projectPath) {
+    InMemoryStorage storage = InMemoryStorage.create(projectPath);
+    storages.add(storage);
+    return storage;
+  }
+
+  private InternalVirtualModel createVirtualModel(InMemoryStorage storage, TestUserInteraction userInteraction) {
     InternalVirtualModel model = new VirtualModelBuilder()
-        .withStorageFolder(projectPath)
-        .withUserInteractorForResultProvider(new TestUserInteraction.ResultProvider(new TestUserInteraction()))
+        .withStorageFolder(storage.getFolder())
+        .withUserInteractorForResultProvider(new TestUserInteraction.ResultProvider(userInteraction))
         .withChangePropagationSpecifications(new AmaltheaToAscetChangePropagationSpecification())
         .buildAndInitialize();
     model.setChangePropagationMode(ChangePropagationMode.TRANSITIVE_CYCLIC);
     return model;
   }
 
+  /**
+   * Returns a virtual model with a component container, cloned from a
+   * snapshot instead of propagating its creation again.
+   */
+  private InternalVirtualModel createVirtualModelWithContainer(Path projectPath, TestUserInteraction userInteraction) {
+    VsumSnapshot snapshot = SnapshotCache.get(AmaltheaAscetTest.class, "container", storage -> {
+      InternalVirtualModel vsum = createVirtualModel(storage, new TestUserInteraction());
+      addComponentContainer(vsum, storage.getFolder());
+      return vsum;
+    });
+    return createVirtualModel(snapshot.cloneTo(createStorage(projectPath)), userInteraction);
+  }
+
+  private List<String> ascetTaskTypes(VirtualModel vsum) {
+    return getDefaultView(vsum, List.of(AscetModule.class)).getRootObjects(AscetModule.class).iterator().next()
+        .getTasks().stream().map(it -> it.eClass().getName()).toList();
+  }
+
 
   private View getDefaultView(VirtualModel vsum, Collection<Class<?>> rootTypes) {
     var selector = vsum.createSelector(ViewTypeFactory.createIdentityMappingViewType("default"));
@@ -6,28 +6,46 @@ import tools.vitruv.methodologisttemplate.model.persons.PersonRegister;
 import mir.reactions.familiesToPersons.FamiliesToPersonsChangePropagationSpecification;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import tools.vitruv.change.propagation.ChangePropagationMode;
+import tools.vitruv.change.propagation.ChangePropagationSpecification;
 import tools.vitruv.change.testutils.TestUserInteraction;
 import tools.vitruv.framework.views.CommittableView;
 import tools.vitruv.framework.views.View;
 import tools.vitruv.framework.views.ViewTypeFactory;
+import tools.vitruv.framework.views.impl.ModifiableView;
 import tools.vitruv.framework.vsum.VirtualModel;
 import tools.vitruv.framework.vsum.VirtualModelBuilder;
 import tools.vitruv.framework.vsum.internal.InternalVirtualModel;
+import tools.vitruv.methodologisttemplate.viewtype.ChangeLogReader;
+import tools.vitruv.methodologisttemplate.viewtype.ChangeLogWriter;
+import tools.vitruv.methodologisttemplate.viewtype.ChangeTransformingViewType;
+import tools.vitruv.methodologisttemplate.vsum.metrics.InstrumentedChangePropagationSpecification;
+import tools.vitruv.methodologisttemplate.vsum.metrics.PropagationMetrics;
+import tools.vitruv.methodologisttemplate.vsum.metrics.ReactionStats;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
- * VSUM Tests for Families to Persons Transformation
+ * VSUM Tests for Families to Persons Transformation.  The tests of the
+ * reactions are tagged as scenarios, which {@link VariantRunner} runs against
+ * generated variants; the other tests check the infrastructure around them.
  */
 public class FamiliesPersonsTest {
 
@@ -36,7 +54,16 @@ public class FamiliesPersonsTest {
     Resource.Factory.Registry.INSTANCE.getExtensionToFactoryMap().put("*", new XMIResourceFactoryImpl());
   }
 
+  // The storages of the virtual models of a test, which keep their models in memory.
+  private final List<InMemoryStorage> storages = new ArrayList<>();
+
+  @AfterEach
+  void closeStorages() {
+    storages.forEach(InMemoryStorage::close);
+  }
+
   @Test
+  @Tag(VariantRunner.SCENARIO)
   // reaction InsertedFamilyRegister
   void insertFamilyRegisterCreatesPersonRegister(@TempDir Path tempDir) {
     VirtualModel vsum = createDefaultVirtualModel(tempDir);
@@ -46,11 +73,10 @@ public class FamiliesPersonsTest {
   }
 
   @Test
+  @Tag(VariantRunner.SCENARIO)
   // reaction CreatedFather
   void createdFatherCreatesPersonAndNamesAreCorrect(@TempDir Path tempDir) {
-    InternalVirtualModel vsum = createDefaultVirtualModel(tempDir);
-    addFamilyRegister(vsum, tempDir);
-    addFamily(vsum);
+    InternalVirtualModel vsum = createVirtualModelWithFamily(tempDir);
     modifyView(getDefaultView(vsum, List.of(FamilyRegister.class)).withChangeDerivingTrait(), (CommittableView v) -> {
       var father = FamiliesFactory.eINSTANCE.createMember();
       father.setFirstName("John");
@@ -81,11 +107,10 @@ public class FamiliesPersonsTest {
   }
 
   @Test
+  @Tag(VariantRunner.SCENARIO)
   // reaction CreatedFather
   void createdNewFatherRemovesOldFather(@TempDir Path tempDir) {
-    InternalVirtualModel vsum = createDefaultVirtualModel(tempDir);
-    addFamilyRegister(vsum, tempDir);
-    addFamily(vsum);
+    InternalVirtualModel vsum = createVirtualModelWithFamily(tempDir);
     modifyView(getDefaultView(vsum, List.of(FamilyRegister.class)).withChangeDerivingTrait(), (CommittableView v) -> {
       var firstFather = FamiliesFactory.eINSTANCE.createMember();
       firstFather.setFirstName("John");
@@ -107,11 +132,10 @@ public class FamiliesPersonsTest {
   }
 
   @Test
+  @Tag(VariantRunner.SCENARIO)
   // reaction InsertedDaughter
   void insertedDaughterCreatesPersonAndNamesAreCorrect(@TempDir Path tempDir) {
-    InternalVirtualModel vsum = createDefaultVirtualModel(tempDir);
-    addFamilyRegister(vsum, tempDir);
-    addFamily(vsum);
+    InternalVirtualModel vsum = createVirtualModelWithFamily(tempDir);
     modifyView(getDefaultView(vsum, List.of(FamilyRegister.class)).withChangeDerivingTrait(), (CommittableView v) -> {
       var daughter = FamiliesFactory.eINSTANCE.createMember();
       daughter.setFirstName("Jane");
@@ -142,11 +166,10 @@ public class FamiliesPersonsTest {
   }
 
   @Test
+  @Tag(VariantRunner.SCENARIO)
   // reaction DeletedFather
   void deleteFatherDeletesCorrespondingPerson(@TempDir Path tempDir) {
-    InternalVirtualModel vsum = createDefaultVirtualModel(tempDir);
-    addFamilyRegister(vsum, tempDir);
-    addFamily(vsum);
+    InternalVirtualModel vsum = createVirtualModelWithFamily(tempDir);
     modifyView(getDefaultView(vsum, List.of(FamilyRegister.class)).withChangeDerivingTrait(), (CommittableView v) -> {
       var father = FamiliesFactory.eINSTANCE.createMember();
       father.setFirstName("John");
@@ -163,11 +186,10 @@ public class FamiliesPersonsTest {
   }
 
   @Test
+  @Tag(VariantRunner.SCENARIO)
   // reaction DeletedFamily
   void deleteFamilyDeletesCorrespondingPersons(@TempDir Path tempDir) {
-    InternalVirtualModel vsum = createDefaultVirtualModel(tempDir);
-    addFamilyRegister(vsum, tempDir);
-    addFamily(vsum);
+    InternalVirtualModel vsum = createVirtualModelWithFamily(tempDir);
     modifyView(getDefaultView(vsum, List.of(FamilyRegister.class)).withChangeDerivingTrait(), (CommittableView v) -> {
       var family = v.getRootObjects(FamilyRegister.class).iterator().next().getFamilies().iterator().next();
       var father = FamiliesFactory.eINSTANCE.createMember();
@@ -187,12 +209,256 @@ public class FamiliesPersonsTest {
   }
 
 
+  @Test
+  // batched commit of several modifications
+  void batchedCommitMatchesSequentialCommits(@TempDir Path tempDir) {
+    InternalVirtualModel sequential = createVirtualModelWithFamily(tempDir.resolve("sequential"));
+    InternalVirtualModel batched = createVirtualModelWithFamily(tempDir.resolve("batched"));
+
+    ModificationBatch batch = new ModificationBatch();
+    for (int i = 0; i < 20; i++) {
+      String firstName = "Child" + i;
+      Consumer<CommittableView> addDaughter = (CommittableView v) -> {
+        var daughter = FamiliesFactory.eINSTANCE.createMember();
+        daughter.setFirstName(firstName);
+        v.getRootObjects(FamilyRegister.class).iterator().next().getFamilies().get(0).getDaughters().add(daughter);
+      };
+      modifyView(getDefaultView(sequential, List.of(FamilyRegister.class)).withChangeDerivingTrait(), addDaughter);
+      batch.add(addDaughter);
+    }
+    batch.commit(getDefaultView(batched, List.of(FamilyRegister.class)));
+
+    Assertions.assertEquals(0, batch.size());
+    Assertions.assertEquals(fullNames(sequential), fullNames(batched));
+    Assertions.assertEquals(20, fullNames(batched).size());
+  }
+
+  @Test
+  // commits of change transforming views from several threads
+  void concurrentCommitsAreAllPropagated(@TempDir Path tempDir) throws Exception {
+    final int threads = 8;
+    final int daughters = 10;
+    InternalVirtualModel vsum = createVirtualModelWithRegister(tempDir);
+    new ModificationBatch().add((CommittableView v) -> {
+      for (int t = 0; t < threads; t++) {
+        var family = FamiliesFactory.eINSTANCE.createFamily();
+        family.setLastName("Family" + t);
+        v.getRootObjects(FamilyRegister.class).iterator().next().getFamilies().add(family);
+      }
+    }).commit(getDefaultView(vsum, List.of(FamilyRegister.class)));
+
+    ChangeTransformingViewType viewType = ChangeTransformingViewType.create("concurrent");
+    viewType.registerChangeFilter(change -> true);
+    // The views are created up front, each thread edits its own family.
+    List<CommittableView> views = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      var selector = vsum.createSelector(viewType);
+      selector.getSelectableElements().stream()
+          .filter(FamilyRegister.class::isInstance)
+          .forEach(it -> selector.setSelected(it, true));
+      views.add(selector.createView().withChangeRecordingTrait());
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> commits = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        CommittableView view = views.get(t);
+        int family = t;
+        commits.add(executor.submit(() -> {
+          for (int d = 0; d < daughters; d++) {
+            var daughter = FamiliesFactory.eINSTANCE.createMember();
+            daughter.setFirstName("Daughter" + d);
+            view.getRootObjects(FamilyRegister.class).iterator().next().getFamilies().get(family)
+                .getDaughters().add(daughter);
+            view.commitChanges();
+          }
+        }));
+      }
+      for (Future<?> commit : commits) {
+        commit.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    for (CommittableView view : views) {
+      view.close();
+    }
+
+    List<String> expected = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      for (int d = 0; d < daughters; d++) {
+        expected.add("Daughter" + d + " Family" + t);
+      }
+    }
+    Assertions.assertEquals(expected.stream().sorted().toList(), fullNames(vsum));
+  }
+
+  @Test
+  // a recorded change log is replayed into a new VSUM like ChangeLogReplay does
+  void recordedChangesReplayIntoNewVirtualModel(@TempDir Path tempDir) throws Exception {
+    Path recorded = tempDir.resolve("recorded");
+    Path log = tempDir.resolve("session.vclog");
+    InternalVirtualModel vsum = createDefaultVirtualModel(recorded);
+    ChangeTransformingViewType viewType = ChangeTransformingViewType.create("recording");
+    try (ChangeLogWriter writer = new ChangeLogWriter(log)) {
+      viewType.setChangeLog(writer);
+      modifyView(getView(vsum, viewType), (CommittableView v) -> v.registerRoot(
+          FamiliesFactory.eINSTANCE.createFamilyRegister(), URI.createFileURI(recorded + "/families.families")));
+      modifyView(getView(vsum, viewType), (CommittableView v) -> {
+        var family = FamiliesFactory.eINSTANCE.createFamily();
+        family.setLastName("Smith");
+        v.getRootObjects(FamilyRegister.class).iterator().next().getFamilies().add(family);
+      });
+      modifyView(getView(vsum, viewType), (CommittableView v) -> {
+        var family = v.getRootObjects(FamilyRegister.class).iterator().next().getFamilies().get(0);
+        var daughter = FamiliesFactory.eINSTANCE.createMember();
+        daughter.setFirstName("Jane");
+        family.getDaughters().add(daughter);
+        // longer than the 64 KB a string written by writeUTF may have
+        var father = FamiliesFactory.eINSTANCE.createMember();
+        father.setFirstName("John".repeat(20_000));
+        family.setFather(father);
+      });
+      Assertions.assertEquals(3, writer.getEntries());
+    }
+    List<String> recordedNames = fullNames(vsum);
+    vsum.dispose();
+
+    Path replayed = tempDir.resolve("replayed");
+    String source = URI.createFileURI(recorded.toAbsolutePath().normalize().toString()) + "/";
+    String target = URI.createFileURI(replayed.toAbsolutePath().normalize().toString()) + "/";
+    List<ChangeLogReader.Entry> entries = ChangeLogReader.readAll(log, value -> value.replace(source, target));
+    InternalVirtualModel replay = createDefaultVirtualModel(replayed);
+    ChangeTransformingViewType replayType = ChangeTransformingViewType.create("replay");
+    // One view created on the empty VSUM: each entry is resolved against the
+    // models as they are when it is committed, including the roots created
+    // by the entries before.
+    ModifiableView view = (ModifiableView) replay.createSelector(replayType).createView();
+    for (ChangeLogReader.Entry entry : entries) {
+      replayType.commitViewChanges(view, entry.change());
+    }
+
+    Assertions.assertEquals(recordedNames, fullNames(replay));
+    Assertions.assertEquals(List.of("Jane Smith", "John".repeat(20_000) + " Smith"), fullNames(replay));
+    Assertions.assertFalse(Files.exists(replayed.resolve("families.families")), "The models are kept in memory");
+  }
+
+  @Test
+  // clones of an initialized VSUM are independent of each other
+  void clonesOfSnapshotAreIndependent(@TempDir Path tempDir) {
+    InternalVirtualModel first = createVirtualModelWithFamily(tempDir.resolve("first"));
+    InternalVirtualModel second = createVirtualModelWithFamily(tempDir.resolve("second"));
+    modifyView(getDefaultView(first, List.of(FamilyRegister.class)).withChangeDerivingTrait(), (CommittableView v) -> {
+      var daughter = FamiliesFactory.eINSTANCE.createMember();
+      daughter.setFirstName("Jane");
+      v.getRootObjects(FamilyRegister.class).iterator().next().getFamilies().get(0).getDaughters().add(daughter);
+    });
+
+    Assertions.assertEquals(List.of("Jane Smith"), fullNames(first));
+    Assertions.assertEquals(List.of(), fullNames(second));
+    Assertions.assertEquals("Smith", getDefaultView(second, List.of(FamilyRegister.class))
+        .getRootObjects(FamilyRegister.class).iterator().next().getFamilies().get(0).getLastName());
+  }
+
+  @Test
+  // metrics are recorded per reaction and routine
+  void instrumentedSpecificationRecordsRoutineMetrics(@TempDir Path tempDir) {
+    PropagationMetrics metrics = new PropagationMetrics();
+    InternalVirtualModel vsum = createVirtualModel(familySnapshot().cloneTo(createStorage(tempDir)),
+        new InstrumentedChangePropagationSpecification(createSpecification(), metrics));
+    modifyView(getDefaultView(vsum, List.of(FamilyRegister.class)).withChangeDerivingTrait(), (CommittableView v) -> {
+      var daughter = FamiliesFactory.eINSTANCE.createMember();
+      daughter.setFirstName("Jane");
+      v.getRootObjects(FamilyRegister.class).iterator().next().getFamilies().get(0).getDaughters().add(daughter);
+    });
+
+    Assertions.assertEquals(List.of("Jane Smith"), fullNames(vsum));
+    ReactionStats createFemale = metrics.get("createFemale");
+    Assertions.assertNotNull(createFemale, metrics.format());
+    Assertions.assertEquals(ReactionStats.Kind.ROUTINE, createFemale.getKind());
+    Assertions.assertTrue(createFemale.getInvocations() > 0);
+    Assertions.assertTrue(createFemale.getCorrespondenceChanges() > 0);
+    Assertions.assertTrue(metrics.getChanges() > 0);
+  }
+
+  @Test
+  // an existing family register is imported in bulk
+  void importedFamilyRegisterCreatesPersons(@TempDir Path tempDir) throws Exception {
+    FamilyRegister register = FamiliesFactory.eINSTANCE.createFamilyRegister();
+    for (int i = 0; i < 50; i++) {
+      var family = FamiliesFactory.eINSTANCE.createFamily();
+      family.setLastName("Family" + i);
+      var father = FamiliesFactory.eINSTANCE.createMember();
+      father.setFirstName("Father");
+      family.setFather(father);
+      var daughter = FamiliesFactory.eINSTANCE.createMember();
+      daughter.setFirstName("Daughter");
+      family.getDaughters().add(daughter);
+      register.getFamilies().add(family);
+    }
+    Resource source = new ResourceSetImpl().createResource(URI.createFileURI(tempDir.resolve("source.families").toString()));
+    source.getContents().add(register);
+    source.save(null);
+
+    InternalVirtualModel vsum = createDefaultVirtualModel(tempDir.resolve("vsum"));
+    int imported = new ModelImport(vsum).importResource(source.getURI(),
+        URI.createFileURI(tempDir.resolve("vsum").resolve("families.families").toString()));
+
+    Assertions.assertEquals(151, imported);
+    Assertions.assertEquals(100, fullNames(vsum).size());
+    Assertions.assertTrue(fullNames(vsum).contains("Daughter Family49"));
+  }
+
   // ==== helper methods ====
   private InternalVirtualModel createDefaultVirtualModel(Path projectPath) {
+    return createVirtualModel(createStorage(projectPath), createSpecification());
+  }
+
+  /**
+   * Returns a virtual model with an empty family register, cloned from a
+   * snapshot instead of propagating its creation again.
+   */
+  private InternalVirtualModel createVirtualModelWithRegister(Path projectPath) {
+    VsumSnapshot snapshot = SnapshotCache.get(FamiliesPersonsTest.class, "register", storage -> {
+      InternalVirtualModel vsum = createVirtualModel(storage, createSpecification());
+      addFamilyRegister(vsum, storage.getFolder());
+      return vsum;
+    });
+    return createVirtualModel(snapshot.cloneTo(createStorage(projectPath)), createSpecification());
+  }
+
+  /** Returns a virtual model with a family register holding the family Smith. */
+  private InternalVirtualModel createVirtualModelWithFamily(Path projectPath) {
+    return createVirtualModel(familySnapshot().cloneTo(createStorage(projectPath)), createSpecification());
+  }
+
+  private VsumSnapshot familySnapshot() {
+    return SnapshotCache.get(FamiliesPersonsTest.class, "family", storage -> {
+      InternalVirtualModel vsum = createVirtualModel(storage, createSpecification());
+      addFamilyRegister(vsum, storage.getFolder());
+      addFamily(vsum);
+      return vsum;
+    });
+  }
+
+  /** Keeps the models of a virtual model in the given folder in memory until the test ends. */
+  private InMemoryStorage createStorage(Path projectPath) {
+    InMemoryStorage storage = InMemoryStorage.create(projectPath);
+    storages.add(storage);
+    return storage;
+  }
+
+  private ChangePropagationSpecification createSpecification() {
+    // VariantRunner runs these scenarios against other variants of the specification.
+    return VariantContext.createSpecification(FamiliesToPersonsChangePropagationSpecification::new);
+  }
+
+  private InternalVirtualModel createVirtualModel(InMemoryStorage storage,
+      ChangePropagationSpecification specification) {
     InternalVirtualModel model = new VirtualModelBuilder()
-        .withStorageFolder(projectPath)
+        .withStorageFolder(storage.getFolder())
         .withUserInteractorForResultProvider(new TestUserInteraction.ResultProvider(new TestUserInteraction()))
-        .withChangePropagationSpecifications(new FamiliesToPersonsChangePropagationSpecification())
+        .withChangePropagationSpecifications(specification)
         .buildAndInitialize();
     model.setChangePropagationMode(ChangePropagationMode.TRANSITIVE_CYCLIC);
     return model;
@@ -206,6 +472,14 @@ public class FamiliesPersonsTest {
     return selector.createView();
   }
 
+  private CommittableView getView(VirtualModel vsum, ChangeTransformingViewType viewType) {
+    var selector = vsum.createSelector(viewType);
+    selector.getSelectableElements().stream()
+        .filter(FamilyRegister.class::isInstance)
+        .forEach(it -> selector.setSelected(it, true));
+    return selector.createView().withChangeRecordingTrait();
+  }
+
   private void modifyView(CommittableView view, Consumer<CommittableView> modificationFunction) {
     modificationFunction.accept(view);
     view.commitChanges();
@@ -232,4 +506,9 @@ public class FamiliesPersonsTest {
     });
   }
 
-}
\ No newline at end of file
+  private List<String> fullNames(VirtualModel vsum) {
+    return getDefaultView(vsum, List.of(PersonRegister.class)).getRootObjects(PersonRegister.class).iterator().next()
+        .getPersons().stream().map(it -> it.getFullName()).sorted().toList();
+  }
+
+}
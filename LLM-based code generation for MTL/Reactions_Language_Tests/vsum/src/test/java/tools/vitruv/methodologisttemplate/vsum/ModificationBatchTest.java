@@ -0,0 +1,76 @@
+package tools.vitruv.methodologisttemplate.vsum;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import tools.vitruv.framework.views.CommittableView;
+import tools.vitruv.framework.views.View;
+
+/**
+ * Tests that a {@link ModificationBatch} is only emptied by a successful
+ * commit.
+ */
+public class ModificationBatchTest {
+
+  /**
+   * Returns a view whose change-recording copy logs the commits and fails
+   * them with the given exception, if any.
+   */
+  private static View view(List<String> log, RuntimeException failure) {
+    CommittableView committableView = (CommittableView) Proxy.newProxyInstance(
+        ModificationBatchTest.class.getClassLoader(), new Class<?>[] { CommittableView.class },
+        (proxy, method, args) -> {
+          if (method.getName().equals("commitChanges")) {
+            log.add("commit");
+            if (failure != null) {
+              throw failure;
+            }
+          }
+          return null;
+        });
+    return (View) Proxy.newProxyInstance(ModificationBatchTest.class.getClassLoader(),
+        new Class<?>[] { View.class },
+        (proxy, method, args) -> method.getName().equals("withChangeRecordingTrait") ? committableView : null);
+  }
+
+  @Test
+  void commitAppliesAllModificationsInOneCommit() {
+    List<String> log = new ArrayList<>();
+    ModificationBatch batch = new ModificationBatch().add(v -> log.add("first")).add(v -> log.add("second"));
+    batch.commit(view(log, null));
+    Assertions.assertEquals(List.of("first", "second", "commit"), log);
+    Assertions.assertEquals(0, batch.size());
+    batch.commit(view(log, null));
+    Assertions.assertEquals(3, log.size(), "An empty batch commits nothing");
+  }
+
+  @Test
+  void failedCommitKeepsTheModifications() {
+    List<String> log = new ArrayList<>();
+    ModificationBatch batch = new ModificationBatch().add(v -> log.add("first")).add(v -> log.add("second"));
+    IllegalStateException failure = new IllegalStateException("propagation failed");
+    Assertions.assertSame(failure,
+        Assertions.assertThrows(IllegalStateException.class, () -> batch.commit(view(log, failure))));
+    Assertions.assertEquals(2, batch.size());
+
+    log.clear();
+    batch.commit(view(log, null));
+    Assertions.assertEquals(List.of("first", "second", "commit"), log);
+    Assertions.assertEquals(0, batch.size());
+  }
+
+  @Test
+  void failedModificationKeepsTheModifications() {
+    List<String> log = new ArrayList<>();
+    ModificationBatch batch = new ModificationBatch().add(v -> {
+      throw new IllegalArgumentException("modification failed");
+    });
+    Assertions.assertThrows(IllegalArgumentException.class, () -> batch.commit(view(log, null)));
+    Assertions.assertEquals(List.of(), log);
+    Assertions.assertEquals(1, batch.size());
+  }
+}
@@ -5,7 +5,9 @@ import tools.vitruv.framework.vsum.internal.InternalVirtualModel;
 import tools.vitruv.methodologisttemplate.model.network.NetworkFactory;
 import tools.vitruv.methodologisttemplate.model.graph.Root;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.function.Consumer;
@@ -13,6 +15,7 @@ import java.util.function.Function;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -37,6 +40,14 @@ public class NetworkGraphTest {
     Resource.Factory.Registry.INSTANCE.getExtensionToFactoryMap().put("*", new XMIResourceFactoryImpl());
   }
 
+  // The storages of the virtual models of a test, which keep their models in memory.
+  private final List<InMemoryStorage> storages = new ArrayList<>();
+
+  @AfterEach
+  void closeStorages() {
+    storages.forEach(InMemoryStorage::close);
+  }
+
   @Test
   void systemInsertionAndPropagationTest(@TempDir Path tempDir) {
     VirtualModel vsum = createDefaultVirtualModel(tempDir);
@@ -47,8 +58,7 @@ public class NetworkGraphTest {
 
   @Test
   void insertComponent(@TempDir Path tempDir) {
-    InternalVirtualModel vsum = createDefaultVirtualModel(tempDir);
-    addSystem(vsum, tempDir);
+    InternalVirtualModel vsum = createVirtualModelWithSystem(tempDir);
     addComponent(vsum);
     Assertions.assertTrue(assertView(getDefaultView(vsum, List.of(System.class, Root.class)), (View v) -> {
       // assert that a component has been inserted, a entity has been created and that both have the same name
@@ -62,8 +72,7 @@ public class NetworkGraphTest {
   @Test
   void renameComponent(@TempDir Path tempDir) {
     final String newName = "newName";
-    VirtualModel vsum = createDefaultVirtualModel(tempDir);
-    addSystem(vsum, tempDir);
+    VirtualModel vsum = createVirtualModelWithSystem(tempDir);
     addComponent(vsum);
     modifyView(getDefaultView(vsum, List.of(System.class)).withChangeDerivingTrait(), (CommittableView v) -> {
       // change the name of the component
@@ -80,8 +89,7 @@ public class NetworkGraphTest {
 
   @Test
   void deleteComponent(@TempDir Path tempDir) {
-    VirtualModel vsum = createDefaultVirtualModel(tempDir);
-    addSystem(vsum, tempDir);
+    VirtualModel vsum = createVirtualModelWithSystem(tempDir);
     addComponent(vsum);
     modifyView(getDefaultView(vsum, List.of(System.class)).withChangeDerivingTrait(), (CommittableView v) -> {
       v.getRootObjects(System.class).iterator().next().getComponents().remove(0);
@@ -93,6 +101,57 @@ public class NetworkGraphTest {
     }));
   }
 
+  @Test
+  void cachedViewIsReusedAndRefreshed(@TempDir Path tempDir) {
+    VirtualModel vsum = createVirtualModelWithSystem(tempDir);
+    ViewCache viewCache = new ViewCache(vsum);
+    View view = viewCache.getView(List.of(Root.class));
+    Assertions.assertSame(view, viewCache.getView(List.of(Root.class)));
+    addComponent(vsum);
+    // the cached view is refreshed rather than recreated after the propagation
+    Assertions.assertSame(view, viewCache.getView(List.of(Root.class)));
+    Assertions.assertEquals("specialname",
+        view.getRootObjects(Root.class).iterator().next().getEntities().get(0).getName());
+  }
+
+  @Test
+  void inMemoryStorageKeepsModelsOffDisk(@TempDir Path tempDir) {
+    InMemoryStorage storage = createStorage(tempDir.resolve("vsum"));
+    VirtualModel vsum = createVirtualModel(storage);
+    addSystem(vsum, storage.getFolder());
+    addComponent(vsum);
+    Assertions.assertEquals("specialname", getDefaultView(vsum, List.of(Root.class))
+        .getRootObjects(Root.class).iterator().next().getEntities().get(0).getName());
+    Assertions.assertFalse(Files.exists(storage.getFolder().resolve("network.network")));
+
+    storage.flush(tempDir.resolve("flushed"));
+    Assertions.assertTrue(Files.exists(tempDir.resolve("flushed").resolve("network.network")));
+  }
+
+  @Test
+  // batched commit of several modifications
+  void batchedCommitMatchesSequentialCommits(@TempDir Path tempDir) {
+    VirtualModel sequential = createVirtualModelWithSystem(tempDir.resolve("sequential"));
+    VirtualModel batched = createVirtualModelWithSystem(tempDir.resolve("batched"));
+
+    ModificationBatch batch = new ModificationBatch();
+    for (int i = 0; i < 20; i++) {
+      String name = "component" + i;
+      Consumer<CommittableView> addComponent = (CommittableView v) -> {
+        var component = NetworkFactory.eINSTANCE.createComponent();
+        component.setName(name);
+        v.getRootObjects(System.class).iterator().next().getComponents().add(component);
+      };
+      modifyView(getDefaultView(sequential, List.of(System.class)).withChangeDerivingTrait(), addComponent);
+      batch.add(addComponent);
+    }
+    batch.commit(getDefaultView(batched, List.of(System.class)));
+
+    Assertions.assertEquals(0, batch.size());
+    Assertions.assertEquals(entityNames(sequential), entityNames(batched));
+    Assertions.assertEquals(20, entityNames(batched).size());
+  }
+
   private void addSystem(VirtualModel vsum, Path projectPath) {
     CommittableView view = getDefaultView(vsum, List.of(System.class)).withChangeDerivingTrait();
     modifyView(view, (CommittableView v) -> {
@@ -114,9 +173,33 @@ public class NetworkGraphTest {
     });
   }
 
+  /**
+   * Returns a virtual model with a system, cloned from a snapshot instead of
+   * propagating its creation again.
+   */
+  private InternalVirtualModel createVirtualModelWithSystem(Path projectPath) {
+    VsumSnapshot snapshot = SnapshotCache.get(NetworkGraphTest.class, "system", storage -> {
+      InternalVirtualModel vsum = createVirtualModel(storage);
+      addSystem(vsum, storage.getFolder());
+      return vsum;
+    });
+    return createVirtualModel(snapshot.cloneTo(createStorage(projectPath)));
+  }
+
   private InternalVirtualModel createDefaultVirtualModel(Path projectPath) {
+    return createVirtualModel(createStorage(projectPath));
+  }
+
+  /** Keeps the models of a virtual model in the given folder in memory until the test ends. */
+  private InMemoryStorage createStorage(Path projectPath) {
+    InMemoryStorage storage = InMemoryStorage.create(projectPath);
+    storages.add(storage);
+    return storage;
+  }
+
+  private InternalVirtualModel createVirtualModel(InMemoryStorage storage) {
     InternalVirtualModel model = new VirtualModelBuilder()
-        .withStorageFolder(projectPath)
+        .withStorageFolder(storage.getFolder())
         .withUserInteractorForResultProvider(new TestUserInteraction.ResultProvider(new TestUserInteraction()))
         .withChangePropagationSpecifications(new NetworkToGraphChangePropagationSpecification())
         .buildAndInitialize();
@@ -142,4 +225,9 @@ public class NetworkGraphTest {
     return viewAssertionFunction.apply(view);
   }
 
+  private List<String> entityNames(VirtualModel vsum) {
+    return getDefaultView(vsum, List.of(Root.class)).getRootObjects(Root.class).iterator().next()
+        .getEntities().stream().map(it -> it.getName()).toList();
+  }
+
 }
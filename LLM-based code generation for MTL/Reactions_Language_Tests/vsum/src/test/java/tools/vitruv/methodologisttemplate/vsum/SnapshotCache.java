@@ -0,0 +1,56 @@
+package tools.vitruv.methodologisttemplate.vsum;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import tools.vitruv.framework.vsum.internal.InternalVirtualModel;
+
+/**
+ * Keeps the {@link VsumSnapshot}s the tests start from.  Each state is set up
+ * through change propagation once per test class and variant (see
+ * {@link VariantContext}), and every test then builds its virtual model on a
+ * clone instead of replaying the setup commits.
+ */
+final class SnapshotCache {
+  private static final Map<List<Object>, VsumSnapshot> SNAPSHOTS = new ConcurrentHashMap<>();
+
+  private SnapshotCache() {
+  }
+
+  /**
+   * Returns the snapshot of the given state, setting it up in a temporary
+   * in-memory storage on first use.
+   *
+   * @param setup creates a virtual model on the given storage and brings it into the state
+   */
+  static VsumSnapshot get(Class<?> testClass, String state, Function<InMemoryStorage, InternalVirtualModel> setup) {
+    return SNAPSHOTS.computeIfAbsent(List.of(testClass, state, VariantContext.key()), key -> capture(setup));
+  }
+
+  private static VsumSnapshot capture(Function<InMemoryStorage, InternalVirtualModel> setup) {
+    Path folder;
+    try {
+      folder = Files.createTempDirectory("vsum-snapshot");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    // Vitruvius keeps its folder layout and model list on disk even with an in-memory storage.
+    try (InMemoryStorage storage = InMemoryStorage.create(folder)) {
+      setup.apply(storage).dispose();
+      return VsumSnapshot.capture(storage);
+    } finally {
+      try (Stream<Path> files = Files.walk(folder)) {
+        files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package tools.vitruv.methodologisttemplate.vsum;
+
+import java.util.function.Supplier;
+import tools.vitruv.change.propagation.ChangePropagationSpecification;
+
+/**
+ * Holds the specification variant the scenario tests of the current thread
+ * are run against by {@link VariantRunner}.
+ */
+final class VariantContext {
+  private static final InheritableThreadLocal<Supplier<? extends ChangePropagationSpecification>> VARIANT =
+      new InheritableThreadLocal<>();
+
+  private VariantContext() {
+  }
+
+  /**
+   * Creates the specification of the current variant, or the given default
+   * specification if the tests do not run for a variant.
+   */
+  static ChangePropagationSpecification createSpecification(
+      Supplier<? extends ChangePropagationSpecification> defaultSpecification) {
+    Supplier<? extends ChangePropagationSpecification> variant = VARIANT.get();
+    return (variant != null ? variant : defaultSpecification).get();
+  }
+
+  /**
+   * Returns a key identifying the variant of the current thread, or the
+   * default specification.
+   */
+  static Object key() {
+    Supplier<? extends ChangePropagationSpecification> variant = VARIANT.get();
+    return variant != null ? variant : VariantContext.class;
+  }
+
+  static void set(Supplier<? extends ChangePropagationSpecification> variant) {
+    VARIANT.set(variant);
+  }
+
+  static void clear() {
+    VARIANT.remove();
+  }
+}
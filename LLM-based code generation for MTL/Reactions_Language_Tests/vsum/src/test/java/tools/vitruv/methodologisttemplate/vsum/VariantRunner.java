@@ -0,0 +1,241 @@
+package tools.vitruv.methodologisttemplate.vsum;
+
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.TagFilter;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+import tools.vitruv.change.propagation.ChangePropagationSpecification;
+
+/**
+ * Runs the scenarios of {@link FamiliesPersonsTest}, the tests tagged
+ * {@value #SCENARIO}, against many compiled variants of the families to
+ * persons reactions in one JVM, for example one per model and prompting
+ * strategy.  Each variant is a folder of compiled classes or a jar, or a
+ * folder containing jars, in the given variants folder:
+ *
+ * <pre>
+ *   variants/gpt-4o__few-shot/mir/reactions/familiesToPersons/...
+ *   variants/llama3__zero-shot.jar
+ * </pre>
+ *
+ * <p>
+ * The generated classes of each variant (package {@code mir}) are loaded by
+ * a class loader of their own, which loads them from the variant before
+ * looking at the class path, while Vitruvius, EMF and the metamodels are
+ * shared.  The variants run in parallel, each scenario with its own virtual
+ * model, and the results are printed as a table and optionally written as
+ * tab separated values:
+ * </p>
+ *
+ * <pre>
+ *   mvn test-compile exec:java -pl vsum -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=tools.vitruv.methodologisttemplate.vsum.VariantRunner \
+ *       -Dexec.args="variants --threads=8 --report=target/variants.tsv"
+ * </pre>
+ */
+public final class VariantRunner {
+  /** The tag of the tests that are run against every variant. */
+  static final String SCENARIO = "scenario";
+  private static final String DEFAULT_SPECIFICATION =
+      "mir.reactions.familiesToPersons.FamiliesToPersonsChangePropagationSpecification";
+  private static final String GENERATED_PACKAGE = "mir.";
+
+  /**
+   * The outcome of running the scenarios against one variant.  A variant
+   * whose specification cannot be loaded passes none of the scenarios.
+   */
+  record Result(String variant, long tests, long passed, List<String> failures) {
+  }
+
+  /**
+   * Loads the generated classes from the variant before delegating to the
+   * parent, so that the variant's classes replace those on the class path.
+   */
+  static final class VariantClassLoader extends URLClassLoader {
+    static {
+      registerAsParallelCapable();
+    }
+
+    VariantClassLoader(String variant, URL[] urls, ClassLoader parent) {
+      super(variant, urls, parent);
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      if (!name.startsWith(GENERATED_PACKAGE)) {
+        return super.loadClass(name, resolve);
+      }
+      synchronized (getClassLoadingLock(name)) {
+        Class<?> loaded = findLoadedClass(name);
+        if (loaded == null) {
+          // Generated classes missing in the variant are not taken from the class path.
+          loaded = findClass(name);
+        }
+        if (resolve) {
+          resolveClass(loaded);
+        }
+        return loaded;
+      }
+    }
+  }
+
+  private VariantRunner() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 1) {
+      System.err.println("Usage: VariantRunner <variants folder> [--spec=<class>] [--threads=<n>] [--report=<file>]");
+      System.exit(2);
+    }
+    Map<String, String> options = new HashMap<>();
+    for (int i = 1; i < args.length; i++) {
+      if (!args[i].startsWith("--") || !args[i].contains("=")) {
+        throw new IllegalArgumentException("Expected --option=value but got " + args[i]);
+      }
+      options.put(args[i].substring(2, args[i].indexOf('=')), args[i].substring(args[i].indexOf('=') + 1));
+    }
+    List<Result> results = run(Path.of(args[0]), options.getOrDefault("spec", DEFAULT_SPECIFICATION),
+        Integer.parseInt(options.getOrDefault("threads",
+            String.valueOf(Runtime.getRuntime().availableProcessors()))));
+    print(results);
+    if (options.containsKey("report")) {
+      writeReport(results, Path.of(options.get("report")));
+    }
+  }
+
+  /**
+   * Runs the scenarios against all variants in the given folder, using the
+   * given number of threads, and returns the results in the order of the
+   * variant names.
+   */
+  static List<Result> run(Path variantsFolder, String specificationClass, int threads) throws Exception {
+    List<Path> variants;
+    try (Stream<Path> files = Files.list(variantsFolder)) {
+      variants = files.filter(it -> Files.isDirectory(it) || it.toString().endsWith(".jar")).sorted().toList();
+    }
+    // Registered once up front, since the tests register it from several threads otherwise.
+    Resource.Factory.Registry.INSTANCE.getExtensionToFactoryMap().put("*", new XMIResourceFactoryImpl());
+    long scenarios = LauncherFactory.create().discover(scenarioRequest()).countTestIdentifiers(TestIdentifier::isTest);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Result>> futures = new ArrayList<>();
+      for (Path variant : variants) {
+        futures.add(executor.submit(() -> runVariant(variant, specificationClass, scenarios)));
+      }
+      List<Result> results = new ArrayList<>();
+      for (Future<Result> future : futures) {
+        results.add(future.get());
+      }
+      return results;
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static LauncherDiscoveryRequest scenarioRequest() {
+    return LauncherDiscoveryRequestBuilder.request()
+        .selectors(selectClass(FamiliesPersonsTest.class))
+        .filters(TagFilter.includeTags(SCENARIO))
+        .build();
+  }
+
+  private static Result runVariant(Path variant, String specificationClass, long scenarios) throws IOException {
+    String name = variant.getFileName().toString().replaceFirst("\\.jar$", "");
+    try (VariantClassLoader loader = new VariantClassLoader(name, classPathOf(variant),
+        VariantRunner.class.getClassLoader())) {
+      Class<?> specification;
+      try {
+        specification = loader.loadClass(specificationClass);
+      } catch (ClassNotFoundException | LinkageError e) {
+        return new Result(name, scenarios, 0, List.of("loading " + specificationClass + ": " + e));
+      }
+      Supplier<ChangePropagationSpecification> variantSpecification = () -> {
+        try {
+          return (ChangePropagationSpecification) specification.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+          throw new IllegalStateException("Could not create " + specificationClass + " of " + name, e);
+        }
+      };
+
+      VariantContext.set(variantSpecification);
+      try {
+        Launcher launcher = LauncherFactory.create();
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        launcher.execute(scenarioRequest(), listener);
+        TestExecutionSummary summary = listener.getSummary();
+        List<String> failures = summary.getFailures().stream()
+            .map(failure -> failure.getTestIdentifier().getDisplayName() + ": " + failure.getException())
+            .toList();
+        return new Result(name, summary.getTestsFoundCount(), summary.getTestsSucceededCount(), failures);
+      } finally {
+        VariantContext.clear();
+      }
+    }
+  }
+
+  private static URL[] classPathOf(Path variant) throws IOException {
+    List<Path> entries = new ArrayList<>();
+    entries.add(variant);
+    if (Files.isDirectory(variant)) {
+      try (Stream<Path> files = Files.list(variant)) {
+        files.filter(it -> it.toString().endsWith(".jar")).sorted().forEach(entries::add);
+      }
+    }
+    return entries.stream().map(it -> {
+      try {
+        return it.toUri().toURL();
+      } catch (MalformedURLException e) {
+        throw new UncheckedIOException(e);
+      }
+    }).toArray(URL[]::new);
+  }
+
+  private static void print(List<Result> results) {
+    int width = Math.max(7, results.stream().mapToInt(it -> it.variant().length()).max().orElse(0));
+    System.out.printf("%-" + width + "s  %5s  %6s  %6s%n", "variant", "tests", "passed", "failed");
+    for (Result result : results) {
+      System.out.printf("%-" + width + "s  %5d  %6d  %6d%n", result.variant(), result.tests(), result.passed(),
+          result.failures().size());
+      result.failures().forEach(failure -> System.out.println("    " + failure.replaceAll("\\s+", " ")));
+    }
+  }
+
+  private static void writeReport(List<Result> results, Path report) throws IOException {
+    if (report.toAbsolutePath().getParent() != null) {
+      Files.createDirectories(report.toAbsolutePath().getParent());
+    }
+    try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(report))) {
+      writer.println("variant\ttests\tpassed\tfailed\tfailures");
+      for (Result result : results) {
+        writer.println(result.variant() + "\t" + result.tests() + "\t" + result.passed() + "\t"
+            + result.failures().size() + "\t"
+            + String.join(" | ", result.failures()).replaceAll("\\s+", " "));
+      }
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package tools.vitruv.methodologisttemplate.vsum;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.eclipse.emf.common.util.URI;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that cloning a {@link VsumSnapshot} relocates whole paths of the
+ * original storage folder only.
+ */
+public class VsumSnapshotTest {
+
+  @Test
+  void cloneRelocatesOnlyWholePaths(@TempDir Path tempDir) throws IOException {
+    Path source = Files.createDirectories(tempDir.resolve("vsum1"));
+    String sourceUri = URI.createFileURI(source.toString()).toString();
+    String sibling = URI.createFileURI(tempDir.resolve("vsum12").toString()).toString();
+    Files.writeString(source.resolve("models.txt"), String.join("\n",
+        sourceUri + "/families.families",
+        sibling + "/families.families",
+        "<model href=\"" + sourceUri + "#//@families.0\"/>",
+        source.toString()));
+    VsumSnapshot snapshot = VsumSnapshot.capture(source);
+
+    Path target = snapshot.cloneTo(tempDir.resolve("clone"));
+    String targetUri = URI.createFileURI(target.toString()).toString();
+    Assertions.assertEquals(String.join("\n",
+        targetUri + "/families.families",
+        sibling + "/families.families",
+        "<model href=\"" + targetUri + "#//@families.0\"/>",
+        target.toString()), Files.readString(target.resolve("models.txt")));
+  }
+
+  @Test
+  void cloneIntoTheSourceFolderKeepsTheContents(@TempDir Path tempDir) throws IOException {
+    Path source = Files.createDirectories(tempDir.resolve("vsum"));
+    Files.writeString(source.resolve("models.txt"), source.toString());
+    VsumSnapshot snapshot = VsumSnapshot.capture(source);
+
+    // The target contains the source path, which must not be replaced twice.
+    Path target = snapshot.cloneTo(source.resolve("nested"));
+    Assertions.assertEquals(target.toString(), Files.readString(target.resolve("models.txt")));
+    Assertions.assertEquals(1, snapshot.size());
+  }
+
+  @Test
+  void cloneIntoAnInMemoryStorageKeepsTheResourcesInMemory(@TempDir Path tempDir) throws IOException {
+    try (InMemoryStorage source = InMemoryStorage.create(tempDir.resolve("source"));
+        InMemoryStorage target = InMemoryStorage.create(tempDir.resolve("target"))) {
+      Files.createDirectories(source.getFolder());
+      Files.writeString(source.getFolder().resolve("models.txt"), "families.families");
+      String sourceUri = URI.createFileURI(source.getFolder().toString()).toString();
+      source.put("families.families", ("<persons href=\"" + sourceUri + "/persons.persons#/\"/>").getBytes());
+      VsumSnapshot snapshot = VsumSnapshot.capture(source);
+      Assertions.assertEquals(2, snapshot.size());
+
+      snapshot.cloneTo(target);
+      String targetUri = URI.createFileURI(target.getFolder().toString()).toString();
+      Assertions.assertEquals("families.families", Files.readString(target.getFolder().resolve("models.txt")));
+      Assertions.assertFalse(Files.exists(target.getFolder().resolve("families.families")));
+      Assertions.assertEquals("<persons href=\"" + targetUri + "/persons.persons#/\"/>",
+          new String(target.resources().get("families.families")));
+    }
+  }
+}